@@ -41,7 +41,7 @@ export interface MvpTask {
   id: number;
   sourceEmail: string;
   targetEmail: string;
-  status: 'DRAFT' | 'RUNNING' | 'PAUSED' | 'COMPLETED' | 'COMPLETED_WITH_ERRORS' | 'FAILED' | 'CANCELLED';
+  status: 'DRAFT' | 'QUEUED' | 'RUNNING' | 'PAUSED' | 'COMPLETED' | 'COMPLETED_WITH_ERRORS' | 'FAILED' | 'CANCELLED';
   progressPercent: number;
   totalFolders: number;
   migratedFolders: number;
@@ -61,6 +61,8 @@ export interface MvpTask {
   migrateCalendar: boolean;
   migrateContacts: boolean;
   currentFolder: string | null;
+  // 排队位置 (仅 QUEUED 状态)
+  queuePosition?: number | null;
   errorMessage: string | null;
   failedEndpoint: string | null;
   failedRequest: string | null;
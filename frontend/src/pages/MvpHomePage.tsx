@@ -40,6 +40,7 @@ const MvpHomePage: React.FC = () => {
   const getStatusBadge = (status: string) => {
     const styles: Record<string, string> = {
       DRAFT: 'bg-gray-100 text-gray-700',
+      QUEUED: 'bg-indigo-100 text-indigo-700',
       RUNNING: 'bg-blue-100 text-blue-700 animate-pulse',
       PAUSED: 'bg-yellow-100 text-yellow-700',
       COMPLETED: 'bg-green-100 text-green-700',
@@ -49,6 +50,7 @@ const MvpHomePage: React.FC = () => {
     };
     const labels: Record<string, string> = {
       DRAFT: '待开始',
+      QUEUED: '排队中',
       RUNNING: '迁移中',
       PAUSED: '已暂停',
       COMPLETED: '已完成',
@@ -48,7 +48,7 @@ const MvpTaskDetailPage: React.FC = () => {
   useEffect(() => {
     fetchTask();
     const interval = setInterval(() => {
-      if (task?.status === 'RUNNING') {
+      if (task?.status === 'RUNNING' || task?.status === 'QUEUED') {
         fetchTask();
       }
     }, 2000);
@@ -64,6 +64,7 @@ const MvpTaskDetailPage: React.FC = () => {
   const getStatusBadge = (status: string) => {
     const styles: Record<string, string> = {
       DRAFT: 'bg-gray-100 text-gray-700',
+      QUEUED: 'bg-indigo-100 text-indigo-700',
       RUNNING: 'bg-blue-100 text-blue-700',
       COMPLETED: 'bg-green-100 text-green-700',
       COMPLETED_WITH_ERRORS: 'bg-orange-100 text-orange-700',
@@ -139,6 +140,7 @@ const MvpTaskDetailPage: React.FC = () => {
               </div>
             </div>
             <span className={`px-3 py-1 rounded-full text-sm font-medium ${getStatusBadge(task.status)}`}>
+              {task.status === 'QUEUED' && `排队中${task.queuePosition ? ` (第 ${task.queuePosition} 位)` : ''}`}
               {task.status === 'RUNNING' && '迁移中'}
               {task.status === 'COMPLETED' && '已完成'}
               {task.status === 'COMPLETED_WITH_ERRORS' && '部分失败'}
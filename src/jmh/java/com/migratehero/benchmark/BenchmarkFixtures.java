@@ -0,0 +1,207 @@
+package com.migratehero.benchmark;
+
+import com.migratehero.model.dto.CalendarEvent;
+import com.migratehero.model.dto.EmailMessage;
+import com.migratehero.service.connector.ews.MvpEwsConnector.CalendarEventDetail;
+import com.migratehero.service.connector.ews.MvpEwsConnector.ContactDetail;
+import jakarta.activation.DataHandler;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import jakarta.mail.util.ByteArrayDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * 基准测试数据 - 按真实邮箱的典型大小构造，固定随机种子保证每次运行数据一致
+ *
+ * 邮件: 正文约 75 KB 的 HTML (含对应纯文本)、8 个收件人、一组常见邮件头；
+ * 日历: 10 个参会人、每周重复、约 2 KB 描述；联系人: 字段齐全，3 个邮箱、4 个电话。
+ */
+final class BenchmarkFixtures {
+
+    private static final Instant BASE_TIME = Instant.parse("2024-03-11T09:00:00Z");
+
+    private BenchmarkFixtures() {
+    }
+
+    static EmailMessage email() {
+        Random random = new Random(42);
+        String html = html(random, 75 * 1024);
+        List<String> labels = List.of("INBOX", "IMPORTANT", "CATEGORY_UPDATES", "Label_Projects");
+        return EmailMessage.builder()
+                .id("18e2f4a1c0b3d5e7")
+                .threadId("18e2f4a1c0b3d5e0")
+                .subject("Re: Q2 migration plan - cutover schedule and open items")
+                .from("alice.wong@example.com")
+                .to(addresses("team", 8))
+                .cc(addresses("cc", 3))
+                .bodyHtml(html)
+                .bodyText(html.replaceAll("<[^>]+>", ""))
+                .sentAt(BASE_TIME)
+                .receivedAt(BASE_TIME.plusSeconds(4))
+                .isRead(true)
+                .labels(labels)
+                .headers(Map.of(
+                        "Message-ID", "<CAF3x9q2=mZ@mail.example.com>",
+                        "In-Reply-To", "<CAF3x9q1=kY@mail.example.com>",
+                        "X-Mailer", "Microsoft Outlook 16.0",
+                        "Content-Language", "en-US"))
+                .build();
+    }
+
+    static CalendarEvent calendarEvent() {
+        Random random = new Random(7);
+        List<CalendarEvent.Attendee> attendees = new ArrayList<>();
+        String[] statuses = {"accepted", "declined", "tentative", "needsAction"};
+        for (int i = 0; i < 10; i++) {
+            attendees.add(CalendarEvent.Attendee.builder()
+                    .email("attendee" + i + "@example.com")
+                    .displayName("Attendee " + i)
+                    .responseStatus(statuses[i % statuses.length])
+                    .isOrganizer(i == 0)
+                    .isOptional(i >= 8)
+                    .build());
+        }
+        return CalendarEvent.builder()
+                .id("AAMkAGI2TG93AAA=")
+                .calendarId("primary")
+                .subject("Weekly migration stand-up")
+                .description(text(random, 2 * 1024))
+                .location("Building 2, Room 301 / Teams")
+                .startTime(BASE_TIME)
+                .endTime(BASE_TIME.plusSeconds(1800))
+                .timeZone(ZoneId.of("Asia/Shanghai"))
+                .organizer("attendee0@example.com")
+                .attendees(attendees)
+                .recurrence(CalendarEvent.Recurrence.builder()
+                        .pattern("weekly")
+                        .interval(1)
+                        .daysOfWeek(List.of("MONDAY", "WEDNESDAY"))
+                        .occurrences(52)
+                        .build())
+                .reminder(CalendarEvent.Reminder.builder().minutesBefore(15).method("popup").build())
+                .status("confirmed")
+                .visibility("default")
+                .onlineMeetingUrl("https://teams.example.com/l/meetup-join/19%3ameeting")
+                .build();
+    }
+
+    static CalendarEventDetail calendarEventDetail() {
+        CalendarEvent source = calendarEvent();
+        CalendarEventDetail event = new CalendarEventDetail();
+        event.setId(source.getId());
+        event.setSubject(source.getSubject());
+        event.setLocation(source.getLocation());
+        event.setStartTime(source.getStartTime());
+        event.setEndTime(source.getEndTime());
+        event.setOrganizer(source.getOrganizer());
+        event.setDescription(source.getDescription());
+        event.setRecurring(true);
+        event.setAttendees(source.getAttendees().stream().map(CalendarEvent.Attendee::getEmail).toList());
+        event.setReminderMinutes(15);
+        return event;
+    }
+
+    static ContactDetail contactDetail() {
+        ContactDetail contact = new ContactDetail();
+        contact.setId("AAMkADc3MWUyMGQ5LTQ3NzctNGM3YS04ZTJkAAA=");
+        contact.setDisplayName("Zhang, Wei (Finance)");
+        contact.setFirstName("Wei");
+        contact.setLastName("Zhang");
+        contact.setMiddleName("J.");
+        contact.setCompany("Example Holdings Ltd.");
+        contact.setJobTitle("Senior Financial Analyst");
+        contact.setDepartment("Finance; Group Reporting");
+        contact.setNotes(text(new Random(3), 512));
+        contact.setEmailAddresses(List.of("wei.zhang@example.com", "wzhang@example.cn", "wei@personal.example"));
+        contact.setPhoneNumbers(List.of("+86 21 5555 0101", "+86 138 0000 0000", "+1 415 555 0199", "+86 21 5555 0102"));
+        contact.setBusinessAddress("88 Century Avenue, Pudong, Shanghai, 200120, China");
+        contact.setHomeAddress("12 Wulumuqi Road, Xuhui, Shanghai, 200031, China");
+        return contact;
+    }
+
+    /**
+     * 原始 MIME 邮件 (multipart/alternative 正文，可带一个二进制附件)
+     *
+     * @param bodyKb       HTML 正文大小
+     * @param attachmentKb 附件大小，0 表示无附件
+     */
+    static byte[] mime(int bodyKb, int attachmentKb) throws Exception {
+        Random random = new Random(bodyKb * 31L + attachmentKb);
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setFrom(new InternetAddress("alice.wong@example.com", "Alice Wong"));
+        for (String to : addresses("team", 8)) {
+            message.addRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+        }
+        message.setSubject("Re: Q2 migration plan - cutover schedule and open items", "UTF-8");
+        message.setSentDate(java.util.Date.from(BASE_TIME));
+        message.setHeader("X-Mailer", "Microsoft Outlook 16.0");
+
+        String html = html(random, bodyKb * 1024);
+        MimeMultipart alternative = new MimeMultipart("alternative");
+        MimeBodyPart text = new MimeBodyPart();
+        text.setText(html.replaceAll("<[^>]+>", ""), "UTF-8");
+        alternative.addBodyPart(text);
+        MimeBodyPart htmlPart = new MimeBodyPart();
+        htmlPart.setContent(html, "text/html; charset=UTF-8");
+        alternative.addBodyPart(htmlPart);
+
+        if (attachmentKb > 0) {
+            MimeMultipart mixed = new MimeMultipart("mixed");
+            MimeBodyPart body = new MimeBodyPart();
+            body.setContent(alternative);
+            mixed.addBodyPart(body);
+            byte[] data = new byte[attachmentKb * 1024];
+            random.nextBytes(data);
+            MimeBodyPart attachment = new MimeBodyPart();
+            attachment.setDataHandler(new DataHandler(new ByteArrayDataSource(data, "application/pdf")));
+            attachment.setFileName("cutover-plan.pdf");
+            mixed.addBodyPart(attachment);
+            message.setContent(mixed);
+        } else {
+            message.setContent(alternative);
+        }
+        message.saveChanges();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        message.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static List<String> addresses(String prefix, int count) {
+        List<String> addresses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            addresses.add(prefix + i + "@example.com");
+        }
+        return addresses;
+    }
+
+    private static String html(Random random, int size) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        sb.append("<html><head><meta charset=\"utf-8\"></head><body>");
+        while (sb.length() < size) {
+            sb.append("<p style=\"margin:0 0 8px 0;font-family:Calibri\">").append(text(random, 400)).append("</p>\r\n");
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    private static String text(Random random, int size) {
+        String[] words = {"migration", "mailbox", "cutover", "schedule", "迁移", "邮箱", "the", "and", "for",
+                "calendar", "contacts", "folder", "batch", "review", "please", "confirm", "目标", "时间"};
+        StringBuilder sb = new StringBuilder(size + 16);
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.migratehero.benchmark;
+
+import com.migratehero.service.connector.imap.ImapConnector;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IMAP 写入前的 MIME 处理基准: 解析原始邮件，以及 APPEND 时把邮件序列化为字面量 (JavaMail 先写一遍计算长度)
+ *
+ * 邮件规格: small 为 8 KB 纯正文，typical 为 75 KB HTML 正文，attachment 为 75 KB 正文加 2 MB 附件。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MimeBenchmark {
+
+    @Param({"small", "typical", "attachment"})
+    private String size;
+
+    private byte[] raw;
+
+    @Setup
+    public void setUp() throws Exception {
+        raw = switch (size) {
+            case "small" -> BenchmarkFixtures.mime(8, 0);
+            case "typical" -> BenchmarkFixtures.mime(75, 0);
+            case "attachment" -> BenchmarkFixtures.mime(75, 2048);
+            default -> throw new IllegalArgumentException("Unknown size: " + size);
+        };
+    }
+
+    @Benchmark
+    public MimeMessage parse() throws Exception {
+        return ImapConnector.parseMessage(raw);
+    }
+
+    @Benchmark
+    public void parseAndWriteLiteral(Blackhole blackhole) throws Exception {
+        MimeMessage message = ImapConnector.parseMessage(raw);
+        message.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.migratehero.benchmark;
+
+import com.migratehero.model.dto.CalendarEvent;
+import com.migratehero.model.dto.EmailMessage;
+import com.migratehero.model.enums.ProviderType;
+import com.migratehero.service.connector.ews.MvpEwsConnector.CalendarEventDetail;
+import com.migratehero.service.connector.ews.MvpEwsConnector.ContactDetail;
+import com.migratehero.service.transform.CalendarTransformer;
+import com.migratehero.service.transform.EmailTransformer;
+import com.migratehero.service.transform.MvpCalendarTransformer;
+import com.migratehero.service.transform.MvpContactTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐条目转换路径的吞吐量基准 (条目/秒)，配合 -prof gc 查看每条目分配字节数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransformerBenchmark {
+
+    private EmailTransformer emailTransformer;
+    private CalendarTransformer calendarTransformer;
+    private MvpCalendarTransformer mvpCalendarTransformer;
+    private MvpContactTransformer mvpContactTransformer;
+
+    private EmailMessage email;
+    private CalendarEvent calendarEvent;
+    private CalendarEventDetail calendarEventDetail;
+    private ContactDetail contactDetail;
+
+    @Setup
+    public void setUp() {
+        emailTransformer = new EmailTransformer();
+        calendarTransformer = new CalendarTransformer();
+        mvpCalendarTransformer = new MvpCalendarTransformer();
+        mvpContactTransformer = new MvpContactTransformer();
+
+        email = BenchmarkFixtures.email();
+        calendarEvent = BenchmarkFixtures.calendarEvent();
+        calendarEventDetail = BenchmarkFixtures.calendarEventDetail();
+        contactDetail = BenchmarkFixtures.contactDetail();
+    }
+
+    @Benchmark
+    public EmailMessage emailTransform() {
+        return emailTransformer.transform(email, ProviderType.MICROSOFT);
+    }
+
+    @Benchmark
+    public CalendarEvent calendarTransform() {
+        return calendarTransformer.transform(calendarEvent, ProviderType.GOOGLE);
+    }
+
+    @Benchmark
+    public String toICalendar() {
+        return mvpCalendarTransformer.toICalendar(calendarEventDetail);
+    }
+
+    @Benchmark
+    public String toVCard() {
+        return mvpContactTransformer.toVCard(contactDetail);
+    }
+}
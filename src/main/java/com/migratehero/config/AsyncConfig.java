@@ -1,7 +1,9 @@
 package com.migratehero.config;
 
+import com.migratehero.service.execution.MigrationExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -14,15 +16,12 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "migrationExecutor")
-    public Executor migrationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("Migration-");
-        executor.initialize();
-        return executor;
+    /**
+     * 迁移任务执行器 - 委托给 MigrationExecutor (虚拟线程优先)
+     */
+    @Bean(name = "migrationTaskExecutor")
+    public Executor migrationTaskExecutor(MigrationExecutor migrationExecutor) {
+        return new TaskExecutorAdapter(migrationExecutor.getExecutorService());
     }
 
     @Bean(name = "validationExecutor")
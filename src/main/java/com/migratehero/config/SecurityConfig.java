@@ -44,6 +44,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/auth/login").permitAll()
                 .requestMatchers("/api/v1/auth/refresh").permitAll()
                 .requestMatchers("/api/v1/oauth/*/callback").permitAll()
+                // 变更通知回调 (Graph Webhook，通过 clientState 校验)
+                .requestMatchers("/api/v1/notifications/**").permitAll()
                 // 开发工具
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/swagger-ui/**").permitAll()
@@ -53,6 +55,8 @@ public class SecurityConfig {
                 .requestMatchers("/ws/**").permitAll()
                 // 健康检查
                 .requestMatchers("/actuator/health").permitAll()
+                // Prometheus 指标抓取
+                .requestMatchers("/actuator/prometheus").permitAll()
                 // MVP API (演示阶段开放访问)
                 .requestMatchers("/api/v1/mvp/**").permitAll()
                 // 静态资源
@@ -0,0 +1,31 @@
+package com.migratehero.config;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * 链路追踪配置
+ *
+ * 采样比例: management.tracing.sampling.probability
+ * OTLP 导出: 设置 management.otlp.tracing.endpoint 后由 Spring Boot 自动配置
+ * 文件导出: 设置 migratehero.tracing.file 后额外写入本地 JSON Lines 文件
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnExpression("!'${migratehero.tracing.file:}'.isEmpty()")
+    public SpanExporter jsonFileSpanExporter(@Value("${migratehero.tracing.file}") String file,
+                                             @Value("${migratehero.tracing.file-max-mb:100}") long maxMb) {
+        Path path = Path.of(file).toAbsolutePath();
+        log.info("Exporting trace spans to {} (rotate at {} MB)", path, maxMb);
+        return new JsonFileSpanExporter(path, maxMb * 1024 * 1024);
+    }
+}
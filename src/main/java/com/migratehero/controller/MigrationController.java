@@ -1,6 +1,7 @@
 package com.migratehero.controller;
 
 import com.migratehero.dto.request.CreateMigrationRequest;
+import com.migratehero.dto.request.TuningRequest;
 import com.migratehero.dto.response.ApiResponse;
 import com.migratehero.dto.response.MigrationJobResponse;
 import com.migratehero.dto.response.MigrationProgressResponse;
@@ -17,6 +18,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * 迁移任务控制器 - 邮件迁移任务管理
  */
@@ -102,6 +105,34 @@ public class MigrationController {
         return ResponseEntity.ok(ApiResponse.success(progress));
     }
 
+    @Operation(summary = "获取运行时性能参数")
+    @GetMapping("/{id}/tuning")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getTuning(
+            @CurrentUser UserPrincipal currentUser,
+            @PathVariable Long id) {
+        Map<String, Object> tuning = migrationJobService.getTuning(currentUser.getId(), id);
+        return ResponseEntity.ok(ApiResponse.success(tuning));
+    }
+
+    @Operation(summary = "调整运行时性能参数")
+    @PutMapping("/{id}/tuning")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> updateTuning(
+            @CurrentUser UserPrincipal currentUser,
+            @PathVariable Long id,
+            @Valid @RequestBody TuningRequest request) {
+        Map<String, Object> tuning = migrationJobService.updateTuning(currentUser.getId(), id, request);
+        return ResponseEntity.ok(ApiResponse.success("Tuning updated", tuning));
+    }
+
+    @Operation(summary = "获取远程调用统计")
+    @GetMapping("/{id}/remote-calls")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRemoteCalls(
+            @CurrentUser UserPrincipal currentUser,
+            @PathVariable Long id) {
+        Map<String, Object> calls = migrationJobService.getRemoteCalls(currentUser.getId(), id);
+        return ResponseEntity.ok(ApiResponse.success(calls));
+    }
+
     @Operation(summary = "删除迁移任务")
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteJob(
@@ -2,20 +2,25 @@ package com.migratehero.controller;
 
 import com.migratehero.dto.request.MvpMigrationRequest;
 import com.migratehero.dto.request.TestConnectionRequest;
+import com.migratehero.dto.request.TuningRequest;
 import com.migratehero.dto.response.FolderProgressResponse;
 import com.migratehero.dto.response.MigratedEmailResponse;
 import com.migratehero.dto.response.MvpTaskResponse;
 import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.MvpTaskAuditLog;
 import com.migratehero.model.enums.MigrationStatus;
 import com.migratehero.service.MvpMigrationService;
 import com.migratehero.service.connector.ews.MvpEwsConnector;
 import com.migratehero.service.connector.imap.ImapConnector;
+import com.migratehero.service.execution.BandwidthShaper;
+import com.migratehero.service.execution.FairTaskScheduler;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +38,7 @@ public class MvpMigrationController {
     private final MvpMigrationService migrationService;
     private final MvpEwsConnector ewsConnector;
     private final ImapConnector imapConnector;
+    private final FairTaskScheduler taskScheduler;
 
     /**
      * 测试连接
@@ -100,6 +106,16 @@ public class MvpMigrationController {
             return ResponseEntity.badRequest().body(error);
         }
 
+        // 校验带宽窗口计划
+        try {
+            BandwidthShaper.validate(request.getWindowSchedule(), request.getWindowTimeZone());
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "窗口计划无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
         MvpMigrationTask task = MvpMigrationTask.builder()
                 .sourceEwsUrl(request.getSourceEwsUrl())
                 .sourceEmail(request.getSourceEmail())
@@ -113,6 +129,11 @@ public class MvpMigrationController {
                 .migrateEmails(request.getMigrateEmails() != null ? request.getMigrateEmails() : true)
                 .migrateCalendar(request.getMigrateCalendar() != null ? request.getMigrateCalendar() : false)
                 .migrateContacts(request.getMigrateContacts() != null ? request.getMigrateContacts() : false)
+                .recentFirst(Boolean.TRUE.equals(request.getRecentFirst()))
+                // 带宽控制
+                .maxBytesPerSecond(request.getMaxBytesPerSecond())
+                .windowSchedule(request.getWindowSchedule())
+                .windowTimeZone(request.getWindowTimeZone())
                 // CalDAV/CardDAV 配置
                 .targetCalDavUrl(request.getTargetCalDavUrl())
                 .targetCardDavUrl(request.getTargetCardDavUrl())
@@ -141,6 +162,10 @@ public class MvpMigrationController {
                     .migrateEmails(request.getMigrateEmails() != null ? request.getMigrateEmails() : true)
                     .migrateCalendar(request.getMigrateCalendar() != null ? request.getMigrateCalendar() : false)
                     .migrateContacts(request.getMigrateContacts() != null ? request.getMigrateContacts() : false)
+                    // 带宽控制
+                    .maxBytesPerSecond(request.getMaxBytesPerSecond())
+                    .windowSchedule(request.getWindowSchedule())
+                    .windowTimeZone(request.getWindowTimeZone())
                     // CalDAV/CardDAV 配置
                     .targetCalDavUrl(request.getTargetCalDavUrl())
                     .targetCardDavUrl(request.getTargetCardDavUrl())
@@ -163,7 +188,7 @@ public class MvpMigrationController {
     @GetMapping("/tasks")
     public ResponseEntity<List<MvpTaskResponse>> getAllTasks() {
         List<MvpTaskResponse> tasks = migrationService.getAllTasks().stream()
-                .map(MvpTaskResponse::from)
+                .map(task -> MvpTaskResponse.from(task, taskScheduler.getQueuePosition(task.getId())))
                 .toList();
         return ResponseEntity.ok(tasks);
     }
@@ -174,7 +199,7 @@ public class MvpMigrationController {
     @GetMapping("/tasks/{taskId}")
     public ResponseEntity<MvpTaskResponse> getTask(@PathVariable Long taskId) {
         return migrationService.getTask(taskId)
-                .map(task -> ResponseEntity.ok(MvpTaskResponse.from(task)))
+                .map(task -> ResponseEntity.ok(MvpTaskResponse.from(task, taskScheduler.getQueuePosition(task.getId()))))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -193,12 +218,13 @@ public class MvpMigrationController {
                         return ResponseEntity.badRequest().body(result);
                     }
 
-                    // 异步启动迁移
-                    migrationService.startMigration(taskId);
+                    // 进入公平调度队列，由调度器在并发上限内启动
+                    int queuePosition = taskScheduler.enqueue(taskId);
 
                     result.put("success", true);
-                    result.put("message", "Migration started");
+                    result.put("message", queuePosition > 0 ? "Migration queued" : "Migration started");
                     result.put("taskId", taskId);
+                    result.put("queuePosition", queuePosition);
                     return ResponseEntity.ok(result);
                 })
                 .orElseGet(() -> {
@@ -208,6 +234,74 @@ public class MvpMigrationController {
                 });
     }
 
+    /**
+     * 获取任务的运行时性能参数
+     */
+    @GetMapping("/tasks/{taskId}/tuning")
+    public ResponseEntity<Map<String, Object>> getTuning(@PathVariable Long taskId) {
+        try {
+            return ResponseEntity.ok(migrationService.getTuning(taskId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 调整运行中任务的性能参数 (文件夹并发、读取批大小、上传并发、速率上限)，数秒内生效并写入审计日志
+     */
+    @PutMapping("/tasks/{taskId}/tuning")
+    public ResponseEntity<Map<String, Object>> updateTuning(@PathVariable Long taskId,
+                                                            @Valid @RequestBody TuningRequest request,
+                                                            Principal principal) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            String actor = principal != null ? principal.getName() : "anonymous";
+            result.put("success", true);
+            result.put("tuning", migrationService.updateTuning(taskId, request, actor));
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Failed to update tuning of task {}: {}", taskId, e.getMessage());
+            result.put("success", false);
+            result.put("message", "调整失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+
+    /**
+     * 获取任务吞吐量序列 (条目/秒、字节/秒) 和预计完成时间
+     *
+     * resolution=fine 返回最近 1 小时 (10 秒粒度)，coarse 返回最近 24 小时 (5 分钟粒度)
+     */
+    @GetMapping("/tasks/{taskId}/throughput")
+    public ResponseEntity<Map<String, Object>> getThroughput(@PathVariable Long taskId,
+                                                             @RequestParam(defaultValue = "fine") String resolution) {
+        try {
+            return ResponseEntity.ok(migrationService.getThroughput(taskId, "coarse".equalsIgnoreCase(resolution)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 获取任务远程调用统计 - 各连接器操作的调用次数、实际发出的请求分类和每迁移条目调用次数
+     */
+    @GetMapping("/tasks/{taskId}/remote-calls")
+    public ResponseEntity<Map<String, Object>> getRemoteCalls(@PathVariable Long taskId) {
+        try {
+            return ResponseEntity.ok(migrationService.getRemoteCalls(taskId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 获取任务审计日志
+     */
+    @GetMapping("/tasks/{taskId}/audit")
+    public ResponseEntity<List<MvpTaskAuditLog>> getAuditLog(@PathVariable Long taskId) {
+        return ResponseEntity.ok(migrationService.getAuditLog(taskId));
+    }
+
     /**
      * 获取文件夹进度列表
      */
@@ -284,12 +378,13 @@ public class MvpMigrationController {
 
         return migrationService.getTask(taskId)
                 .map(task -> {
-                    if (task.getStatus() != MigrationStatus.RUNNING) {
+                    if (task.getStatus() != MigrationStatus.RUNNING && task.getStatus() != MigrationStatus.QUEUED) {
                         result.put("success", false);
-                        result.put("message", "只能暂停运行中的任务");
+                        result.put("message", "只能暂停运行中或排队中的任务");
                         return ResponseEntity.badRequest().body(result);
                     }
 
+                    taskScheduler.dequeue(taskId);
                     migrationService.pauseTask(taskId);
 
                     result.put("success", true);
@@ -323,11 +418,12 @@ public class MvpMigrationController {
             }
 
             // 直接重启任务，而不是创建新任务
-            migrationService.startMigration(task.getId());
+            int queuePosition = taskScheduler.enqueue(task.getId());
 
             result.put("success", true);
             result.put("message", "任务已重试");
             result.put("taskId", task.getId());
+            result.put("queuePosition", queuePosition);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Failed to retry task: {}", e.getMessage());
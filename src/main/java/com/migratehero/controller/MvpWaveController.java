@@ -0,0 +1,171 @@
+package com.migratehero.controller;
+
+import com.migratehero.dto.request.MvpWaveImportRequest;
+import com.migratehero.dto.response.MvpTaskResponse;
+import com.migratehero.dto.response.MvpWaveResponse;
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.MvpMigrationWave;
+import com.migratehero.service.MvpWaveService;
+import com.migratehero.service.execution.FairTaskScheduler;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * MVP 批量迁移 API 控制器 - 按批次 (Wave) 导入、预检和调度大量邮箱
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/mvp/waves")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MvpWaveController {
+
+    private final MvpWaveService waveService;
+    private final FairTaskScheduler taskScheduler;
+
+    /**
+     * 导入 JSON 清单
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> importManifest(@Valid @RequestBody MvpWaveImportRequest request) {
+        return importResult(waveService.importManifest(request));
+    }
+
+    /**
+     * 导入 CSV 清单 (请求体为 CSV 文本)
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<Map<String, Object>> importCsv(@RequestBody String csv) {
+        try {
+            return importResult(waveService.importCsv(csv));
+        } catch (Exception e) {
+            return error("导入失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 导入 CSV 清单 (文件上传)
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> importCsvFile(@RequestParam("file") MultipartFile file) {
+        try {
+            return importResult(waveService.importCsv(new String(file.getBytes(), StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            return error("导入失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取所有批次
+     */
+    @GetMapping
+    public ResponseEntity<List<MvpWaveResponse>> getAllWaves() {
+        return ResponseEntity.ok(toResponses(waveService.getAllWaves()));
+    }
+
+    /**
+     * 获取批次详情
+     */
+    @GetMapping("/{waveId}")
+    public ResponseEntity<MvpWaveResponse> getWave(@PathVariable Long waveId) {
+        return waveService.getWave(waveId)
+                .map(wave -> ResponseEntity.ok(toResponse(wave)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 获取批次内的任务
+     */
+    @GetMapping("/{waveId}/tasks")
+    public ResponseEntity<List<MvpTaskResponse>> getWaveTasks(@PathVariable Long waveId) {
+        List<MvpTaskResponse> tasks = waveService.getWaveTasks(waveId).stream()
+                .map(task -> MvpTaskResponse.from(task, taskScheduler.getQueuePosition(task.getId())))
+                .toList();
+        return ResponseEntity.ok(tasks);
+    }
+
+    /**
+     * 并发预检批次内所有凭据 (异步，结果通过批次详情查看)
+     */
+    @PostMapping("/{waveId}/preflight")
+    public ResponseEntity<Map<String, Object>> preflightWave(@PathVariable Long waveId) {
+        return waveAction(waveId, "预检已开始", () -> waveService.preflightWave(waveId));
+    }
+
+    /**
+     * 启动批次
+     */
+    @PostMapping("/{waveId}/start")
+    public ResponseEntity<Map<String, Object>> startWave(@PathVariable Long waveId) {
+        return waveAction(waveId, "批次已启动", () -> waveService.startWave(waveId));
+    }
+
+    /**
+     * 暂停批次
+     */
+    @PostMapping("/{waveId}/pause")
+    public ResponseEntity<Map<String, Object>> pauseWave(@PathVariable Long waveId) {
+        return waveAction(waveId, "批次已暂停", () -> waveService.pauseWave(waveId));
+    }
+
+    /**
+     * 重试批次内失败的任务
+     */
+    @PostMapping("/{waveId}/retry")
+    public ResponseEntity<Map<String, Object>> retryWave(@PathVariable Long waveId) {
+        return waveAction(waveId, "批次已重试", () -> waveService.retryWave(waveId));
+    }
+
+    private ResponseEntity<Map<String, Object>> waveAction(Long waveId, String message, IntSupplier action) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            int affected = action.getAsInt();
+            result.put("success", true);
+            result.put("message", message);
+            result.put("waveId", waveId);
+            result.put("affectedTasks", affected);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Wave action failed for wave {}: {}", waveId, e.getMessage());
+            return error(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> importResult(MvpWaveService.ImportResult importResult) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("created", importResult.created());
+        result.put("skipped", importResult.skipped());
+        result.put("waves", toResponses(importResult.waves()));
+        return ResponseEntity.ok(result);
+    }
+
+    private ResponseEntity<Map<String, Object>> error(String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", message);
+        return ResponseEntity.badRequest().body(result);
+    }
+
+    private MvpWaveResponse toResponse(MvpMigrationWave wave) {
+        return MvpWaveResponse.from(wave, waveService.getWaveTasks(wave.getId()));
+    }
+
+    private List<MvpWaveResponse> toResponses(List<MvpMigrationWave> waves) {
+        Map<Long, List<MvpMigrationTask>> tasks = waveService.getWaveTasks(waves);
+        return waves.stream()
+                .map(wave -> MvpWaveResponse.from(wave, tasks.getOrDefault(wave.getId(), List.of())))
+                .toList();
+    }
+}
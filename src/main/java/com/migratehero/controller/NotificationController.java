@@ -0,0 +1,50 @@
+package com.migratehero.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.migratehero.service.migration.ChangeNotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 变更通知控制器 - 接收 Microsoft Graph 的变更推送
+ */
+@RestController
+@RequestMapping("/api/v1/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notification API", description = "变更通知回调接口")
+public class NotificationController {
+
+    private final ChangeNotificationService changeNotificationService;
+
+    @Operation(summary = "Graph 变更通知回调")
+    @PostMapping("/graph")
+    public ResponseEntity<String> graphNotification(
+            @RequestParam(required = false) String validationToken,
+            @RequestBody(required = false) JsonNode body) {
+
+        // 创建订阅时 Graph 会先发送验证请求，需原样返回 token
+        if (validationToken != null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(validationToken);
+        }
+
+        if (body != null && body.has("value")) {
+            for (JsonNode notification : body.get("value")) {
+                changeNotificationService.onGraphNotification(
+                        notification.path("subscriptionId").asText(),
+                        notification.path("clientState").asText(),
+                        notification.path("resourceData").path("id").asText(null),
+                        notification.path("changeType").asText()
+                );
+            }
+        }
+
+        // Graph 要求 3 秒内响应，变更只入队不在此处同步
+        return ResponseEntity.accepted().build();
+    }
+}
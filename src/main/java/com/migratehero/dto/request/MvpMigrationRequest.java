@@ -48,6 +48,19 @@ public class MvpMigrationRequest {
 
     private Boolean migrateContacts = false;
 
+    // 近期优先：先迁移近期邮件，再回填历史邮件
+    private Boolean recentFirst = false;
+
+    // === 带宽控制（可选） ===
+    // 任务字节速率上限 (字节/秒)
+    private Long maxBytesPerSecond;
+
+    // 时间窗口计划，如 "Mon-Fri 08:00-18:00=2MB; Sat,Sun 00:00-24:00=unlimited"
+    private String windowSchedule;
+
+    // 窗口计划时区，如 "Asia/Shanghai"
+    private String windowTimeZone;
+
     // === 目标端 CalDAV/CardDAV 配置（可选，默认从 IMAP 主机推断） ===
     private String targetCalDavUrl;
 
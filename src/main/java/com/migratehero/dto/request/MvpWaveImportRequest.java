@@ -0,0 +1,36 @@
+package com.migratehero.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 批量迁移清单导入请求 (JSON 格式)
+ */
+@Data
+public class MvpWaveImportRequest {
+
+    @NotEmpty(message = "At least one wave is required")
+    @Valid
+    private List<WaveManifest> waves;
+
+    @Data
+    public static class WaveManifest {
+
+        @NotBlank(message = "Wave name is required")
+        private String name;
+
+        // 启动窗口（可选）
+        private Instant windowStart;
+
+        private Instant windowEnd;
+
+        @NotEmpty(message = "Wave must contain at least one mailbox")
+        @Valid
+        private List<MvpMigrationRequest> mailboxes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.migratehero.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * 运行中任务的性能参数调整请求
+ *
+ * 字段为空表示不修改；为 0 表示恢复默认 (并发恢复配置值，批大小恢复自适应，速率恢复任务设置)
+ */
+@Data
+public class TuningRequest {
+
+    // 文件夹内并发迁移的分片数
+    @Min(value = 0, message = "folderParallelism must not be negative")
+    @Max(value = 64, message = "folderParallelism must not exceed 64")
+    private Integer folderParallelism;
+
+    // 每次从源端读取的条目数
+    @Min(value = 0, message = "fetchBatchSize must not be negative")
+    @Max(value = 1000, message = "fetchBatchSize must not exceed 1000")
+    private Integer fetchBatchSize;
+
+    // 同时上传到目标的条目数
+    @Min(value = 0, message = "uploadConcurrency must not be negative")
+    @Max(value = 200, message = "uploadConcurrency must not exceed 200")
+    private Integer uploadConcurrency;
+
+    // 字节速率上限 (字节/秒)
+    @Min(value = 0, message = "maxBytesPerSecond must not be negative")
+    private Long maxBytesPerSecond;
+}
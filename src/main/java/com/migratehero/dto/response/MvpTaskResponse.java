@@ -24,6 +24,8 @@ public class MvpTaskResponse {
     private Long totalEmails;
     private Long migratedEmails;
     private Long failedEmails;
+    private Long totalBytes;
+    private Long migratedBytes;
 
     // === 日历统计 ===
     private Long totalCalendarEvents;
@@ -39,8 +41,30 @@ public class MvpTaskResponse {
     private Boolean migrateEmails;
     private Boolean migrateCalendar;
     private Boolean migrateContacts;
+    private Boolean recentFirst;
+
+    // === 带宽控制 ===
+    private Long maxBytesPerSecond;
+    private String windowSchedule;
+    private String windowTimeZone;
+
+    // === 分层进度 (近期优先模式) ===
+    private String migrationTier;
+    private Instant recentCutoff;
+    private Long recentTotalEmails;
+    private Long recentMigratedEmails;
+    private Long recentFailedEmails;
+    private Instant recentCompletedAt;
+    private Long backfillTotalEmails;
+    private Long backfillMigratedEmails;
+    private Long backfillFailedEmails;
 
     private String currentFolder;
+    // 排队位置，从 1 开始，仅 QUEUED 状态有值
+    private Integer queuePosition;
+    private Long waveId;
+    private String preflightStatus;
+    private String preflightMessage;
     private String errorMessage;
     private String failedEndpoint;
     private String failedRequest;
@@ -54,6 +78,10 @@ public class MvpTaskResponse {
     private Instant completedAt;
 
     public static MvpTaskResponse from(MvpMigrationTask task) {
+        return from(task, null);
+    }
+
+    public static MvpTaskResponse from(MvpMigrationTask task, Integer queuePosition) {
         return MvpTaskResponse.builder()
                 .id(task.getId())
                 .sourceEmail(task.getSourceEmail())
@@ -65,6 +93,8 @@ public class MvpTaskResponse {
                 .totalEmails(task.getTotalEmails())
                 .migratedEmails(task.getMigratedEmails())
                 .failedEmails(task.getFailedEmails())
+                .totalBytes(task.getTotalBytes())
+                .migratedBytes(task.getMigratedBytes())
                 // 日历统计
                 .totalCalendarEvents(task.getTotalCalendarEvents())
                 .migratedCalendarEvents(task.getMigratedCalendarEvents())
@@ -77,7 +107,29 @@ public class MvpTaskResponse {
                 .migrateEmails(task.getMigrateEmails())
                 .migrateCalendar(task.getMigrateCalendar())
                 .migrateContacts(task.getMigrateContacts())
+                .recentFirst(task.getRecentFirst())
+                // 带宽控制
+                .maxBytesPerSecond(task.getMaxBytesPerSecond())
+                .windowSchedule(task.getWindowSchedule())
+                .windowTimeZone(task.getWindowTimeZone())
+                // 分层进度：历史层 = 全部 - 近期层
+                .migrationTier(task.getMigrationTier())
+                .recentCutoff(task.getRecentCutoff())
+                .recentTotalEmails(task.getRecentTotalEmails())
+                .recentMigratedEmails(task.getRecentMigratedEmails())
+                .recentFailedEmails(task.getRecentFailedEmails())
+                .recentCompletedAt(task.getRecentCompletedAt())
+                .backfillTotalEmails(Boolean.TRUE.equals(task.getRecentFirst())
+                        ? remainder(task.getTotalEmails(), task.getRecentTotalEmails()) : null)
+                .backfillMigratedEmails(Boolean.TRUE.equals(task.getRecentFirst())
+                        ? remainder(task.getMigratedEmails(), task.getRecentMigratedEmails()) : null)
+                .backfillFailedEmails(Boolean.TRUE.equals(task.getRecentFirst())
+                        ? remainder(task.getFailedEmails(), task.getRecentFailedEmails()) : null)
                 .currentFolder(task.getCurrentFolder())
+                .queuePosition(queuePosition)
+                .waveId(task.getWaveId())
+                .preflightStatus(task.getPreflightStatus())
+                .preflightMessage(task.getPreflightMessage())
                 .errorMessage(task.getErrorMessage())
                 .failedEndpoint(task.getFailedEndpoint())
                 .failedRequest(task.getFailedRequest())
@@ -91,4 +143,9 @@ public class MvpTaskResponse {
                 .completedAt(task.getCompletedAt())
                 .build();
     }
+
+    private static Long remainder(Long total, Long part) {
+        long value = (total != null ? total : 0L) - (part != null ? part : 0L);
+        return Math.max(value, 0L);
+    }
 }
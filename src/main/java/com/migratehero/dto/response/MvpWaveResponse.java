@@ -0,0 +1,78 @@
+package com.migratehero.dto.response;
+
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.MvpMigrationWave;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * MVP 迁移批次响应
+ */
+@Data
+@Builder
+public class MvpWaveResponse {
+
+    private Long id;
+    private String name;
+    private String status;
+    private Instant windowStart;
+    private Instant windowEnd;
+
+    // === 任务统计 ===
+    private Integer totalTasks;
+    private Map<String, Long> tasksByStatus;
+
+    // === 预检统计 ===
+    private Long preflightPassed;
+    private Long preflightFailed;
+    private Long preflightPending;
+
+    // === 邮件汇总 ===
+    private Long totalEmails;
+    private Long migratedEmails;
+    private Long failedEmails;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+
+    public static MvpWaveResponse from(MvpMigrationWave wave, List<MvpMigrationTask> tasks) {
+        Map<String, Long> byStatus = tasks.stream()
+                .collect(Collectors.groupingBy(t -> t.getStatus().name(), TreeMap::new, Collectors.counting()));
+
+        return MvpWaveResponse.builder()
+                .id(wave.getId())
+                .name(wave.getName())
+                .status(wave.getStatus().name())
+                .windowStart(wave.getWindowStart())
+                .windowEnd(wave.getWindowEnd())
+                .totalTasks(tasks.size())
+                .tasksByStatus(byStatus)
+                .preflightPassed(countPreflight(tasks, "passed"))
+                .preflightFailed(countPreflight(tasks, "failed"))
+                .preflightPending(countPreflight(tasks, "pending"))
+                .totalEmails(sum(tasks, MvpMigrationTask::getTotalEmails))
+                .migratedEmails(sum(tasks, MvpMigrationTask::getMigratedEmails))
+                .failedEmails(sum(tasks, MvpMigrationTask::getFailedEmails))
+                .createdAt(wave.getCreatedAt())
+                .startedAt(wave.getStartedAt())
+                .completedAt(wave.getCompletedAt())
+                .build();
+    }
+
+    private static long countPreflight(List<MvpMigrationTask> tasks, String status) {
+        return tasks.stream().filter(t -> status.equals(t.getPreflightStatus())).count();
+    }
+
+    private static long sum(List<MvpMigrationTask> tasks, Function<MvpMigrationTask, Long> getter) {
+        return tasks.stream().map(getter).filter(Objects::nonNull).mapToLong(Long::longValue).sum();
+    }
+}
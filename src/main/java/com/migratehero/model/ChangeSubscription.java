@@ -0,0 +1,62 @@
+package com.migratehero.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 变更通知订阅 - 记录作业在源端建立的订阅，供集群中任意节点路由 Graph Webhook 推送
+ *
+ * 订阅由持有该作业通知租约的节点建立和维护；租约转移后新持有者沿用已有的 Graph/EWS 拉取订阅。
+ * 未持有租约的节点收到推送时只标记 notifiedAt，由持有者触发同步。
+ */
+@Entity
+@Table(name = "change_subscription", indexes = {
+        @Index(name = "idx_change_subscription_sub", columnList = "subscriptionId")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_change_subscription_job", columnNames = {"jobId"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long jobId;
+
+    // 订阅方式: EWS_PULL / EWS_STREAMING / GRAPH
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    // 源端订阅 ID (流式订阅为空)
+    @Column(length = 500)
+    private String subscriptionId;
+
+    // Graph 推送校验值
+    @Column(length = 64)
+    private String clientState;
+
+    private Instant expiresAt;
+
+    // 其他节点收到推送的时间，持有者同步前清除
+    private Instant notifiedAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
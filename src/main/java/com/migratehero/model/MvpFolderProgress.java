@@ -55,6 +55,10 @@ public class MvpFolderProgress {
 
     private Instant completedAt;
 
+    // 分片检查点 (JSON)：大文件夹按接收时间分片迁移时各分片的范围和状态
+    @Column(columnDefinition = "TEXT")
+    private String shardState;
+
     @Column(nullable = false)
     private Instant createdAt;
 
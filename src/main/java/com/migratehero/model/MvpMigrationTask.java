@@ -2,10 +2,12 @@ package com.migratehero.model;
 
 import com.migratehero.model.enums.MigrationStatus;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.Instant;
 
@@ -13,7 +15,9 @@ import java.time.Instant;
  * MVP 迁移任务 - 简化版本，用于演示 EWS -> IMAP 邮箱迁移
  */
 @Entity
-@Table(name = "mvp_migration_task")
+@Table(name = "mvp_migration_task", indexes = {
+        @Index(name = "idx_mvp_task_wave_id", columnList = "waveId")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -65,12 +69,69 @@ public class MvpMigrationTask {
     @Builder.Default
     private Boolean migrateContacts = false;
 
+    // 近期优先：先迁移所有文件夹的近期邮件，再以较低优先级回填历史邮件
+    @Builder.Default
+    private Boolean recentFirst = false;
+
+    // === 带宽控制 ===
+    // 任务字节速率上限 (字节/秒)，为空表示不限
+    private Long maxBytesPerSecond;
+
+    // 时间窗口计划，如 "Mon-Fri 08:00-18:00=2MB; Sat,Sun 00:00-24:00=unlimited"
+    @Column(length = 1000)
+    private String windowSchedule;
+
+    // 窗口计划的时区 (IANA 名称)，为空使用服务器时区
+    private String windowTimeZone;
+
+    // === 运行时性能参数 (在线调整的覆盖值，为空使用默认值；运行任务的节点定期读取) ===
+    // 只通过 MvpMigrationTaskRepository.updateTuning 写入 (无 setter、实体保存时不更新)，运行中的任务保存旧实体时不会覆盖
+    // 文件夹内并发迁移的分片数
+    @Column(updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Integer tuningFolderParallelism;
+
+    // 每次从源端读取的条目数，为空使用自适应值
+    @Column(updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Integer tuningFetchBatchSize;
+
+    // 同时上传到目标的条目数，为空不限
+    @Column(updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Integer tuningUploadConcurrency;
+
+    // 字节速率上限 (字节/秒)，为空沿用 maxBytesPerSecond
+    @Column(updatable = false)
+    @Setter(AccessLevel.NONE)
+    private Long tuningMaxBytesPerSecond;
+
     // === 迁移状态 ===
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
     private MigrationStatus status = MigrationStatus.DRAFT;
 
+    // === 批量迁移 ===
+    // 所属批次 (Wave)，单独创建的任务为空
+    private Long waveId;
+
+    // 预检状态: pending / passed / failed
+    private String preflightStatus;
+
+    @Column(length = 1000)
+    private String preflightMessage;
+
+    // === 调度排队 ===
+    // 租户标识（源邮箱域名），用于公平调度
+    private String tenantId;
+
+    // 进入队列时间
+    private Instant queuedAt;
+
+    // 加权公平队列的虚拟完成时间，越小越先执行
+    private Double virtualFinishTime;
+
     // === 进度统计 ===
     @Builder.Default
     private Long totalFolders = 0L;
@@ -87,6 +148,14 @@ public class MvpMigrationTask {
     @Builder.Default
     private Long failedEmails = 0L;
 
+    // 源端邮件总字节数 (文件夹大小预扫描)，源端不提供文件夹大小时为 0
+    @Builder.Default
+    private Long totalBytes = 0L;
+
+    // 已迁移邮件字节数 (按源端邮件大小计)
+    @Builder.Default
+    private Long migratedBytes = 0L;
+
     // === 日历统计 ===
     @Builder.Default
     private Long totalCalendarEvents = 0L;
@@ -110,6 +179,25 @@ public class MvpMigrationTask {
     @Builder.Default
     private Integer progressPercent = 0;
 
+    // === 分层进度 (近期优先模式) ===
+    // 当前层级: recent / backfill
+    private String migrationTier;
+
+    // 近期窗口起点，首次进入近期层时确定，恢复时沿用
+    private Instant recentCutoff;
+
+    @Builder.Default
+    private Long recentTotalEmails = 0L;
+
+    @Builder.Default
+    private Long recentMigratedEmails = 0L;
+
+    @Builder.Default
+    private Long recentFailedEmails = 0L;
+
+    // 近期层完成时间，为空表示近期层尚未完成
+    private Instant recentCompletedAt;
+
     // 当前正在迁移的文件夹
     private String currentFolder;
 
@@ -0,0 +1,51 @@
+package com.migratehero.model;
+
+import com.migratehero.model.enums.MigrationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MVP 迁移批次 (Wave) - 批量迁移时将一组邮箱按启动窗口统一调度
+ */
+@Entity
+@Table(name = "mvp_migration_wave")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MvpMigrationWave {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private MigrationStatus status = MigrationStatus.DRAFT;
+
+    // 启动窗口：窗口开启后任务才会入队，窗口关闭时仍在排队的任务被暂停
+    private Instant windowStart;
+
+    private Instant windowEnd;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,51 @@
+package com.migratehero.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MVP 任务审计日志 - 记录运维人员对任务的操作 (如运行时参数调整)
+ */
+@Entity
+@Table(name = "mvp_task_audit_log", indexes = {
+        @Index(name = "idx_audit_task", columnList = "taskId")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MvpTaskAuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long taskId;
+
+    // 操作类型，如 tuning
+    @Column(nullable = false, length = 64)
+    private String action;
+
+    // 操作详情，如 "fetchBatchSize: adaptive -> 20"
+    @Column(length = 2000)
+    private String detail;
+
+    // 操作人
+    private String actor;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.migratehero.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 工作租约 - 多节点部署时以 (任务, 文件夹) 为粒度分配工作
+ *
+ * 同一工作单元同一时刻只有一个节点持有租约；持有者定期心跳续约，
+ * 节点宕机后租约过期，其他节点可以接管。
+ */
+@Entity
+@Table(name = "work_lease", indexes = {
+    @Index(name = "idx_work_lease_owner", columnList = "owner_id"),
+    @Index(name = "idx_work_lease_expires", columnList = "lease_expires_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_work_lease_unit", columnNames = {"work_type", "ref_id", "unit_key"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkLease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 工作类型: MVP_TASK / MVP_FOLDER / MIGRATION_JOB
+     */
+    @Column(name = "work_type", nullable = false, length = 32)
+    private String workType;
+
+    /**
+     * 关联的任务或作业 ID
+     */
+    @Column(name = "ref_id", nullable = false)
+    private Long refId;
+
+    /**
+     * 单元键：文件夹名称，整个任务时为 "*"，作业通知订阅为 "notifications"
+     */
+    @Column(name = "unit_key", nullable = false, length = 500)
+    private String unitKey;
+
+    /**
+     * 持有租约的节点 ID，释放后为空
+     */
+    @Column(name = "owner_id", length = 128)
+    private String ownerId;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "acquired_at")
+    private Instant acquiredAt;
+}
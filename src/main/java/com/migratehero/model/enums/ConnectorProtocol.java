@@ -0,0 +1,25 @@
+package com.migratehero.model.enums;
+
+/**
+ * 连接器协议 - 用于按协议划分并发隔离舱
+ */
+public enum ConnectorProtocol {
+    EWS("outlook.office365.com"),     // Exchange Web Services
+    GRAPH("graph.microsoft.com"),     // Microsoft Graph API
+    GMAIL("gmail.googleapis.com"),    // Google Gmail/People/Calendar API
+    IMAP(null),                       // IMAP 目标服务器
+    DAV(null);                        // CalDAV/CardDAV 目标服务器
+
+    private final String defaultHost;
+
+    ConnectorProtocol(String defaultHost) {
+        this.defaultHost = defaultHost;
+    }
+
+    /**
+     * 云服务的固定主机名，自建服务器返回 null
+     */
+    public String getDefaultHost() {
+        return defaultHost;
+    }
+}
@@ -6,6 +6,7 @@ package com.migratehero.model.enums;
 public enum MigrationStatus {
     DRAFT,                  // 草稿
     SCHEDULED,              // 已计划
+    QUEUED,                 // 排队等待执行
     RUNNING,                // 运行中
     PAUSED,                 // 已暂停
     COMPLETED,              // 已完成
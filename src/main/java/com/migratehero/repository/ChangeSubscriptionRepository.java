@@ -0,0 +1,48 @@
+package com.migratehero.repository;
+
+import com.migratehero.model.ChangeSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeSubscriptionRepository extends JpaRepository<ChangeSubscription, Long> {
+
+    Optional<ChangeSubscription> findByJobId(Long jobId);
+
+    Optional<ChangeSubscription> findBySubscriptionId(String subscriptionId);
+
+    boolean existsByJobId(Long jobId);
+
+    @Query("SELECT s.jobId FROM ChangeSubscription s WHERE s.notifiedAt IS NOT NULL")
+    List<Long> findNotifiedJobIds();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeSubscription s SET s.notifiedAt = :now WHERE s.jobId = :jobId")
+    int markNotified(@Param("jobId") Long jobId, @Param("now") Instant now);
+
+    /**
+     * 清除推送标记，返回是否有待同步的推送
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeSubscription s SET s.notifiedAt = NULL WHERE s.jobId = :jobId AND s.notifiedAt IS NOT NULL")
+    int clearNotified(@Param("jobId") Long jobId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChangeSubscription s SET s.expiresAt = :expiresAt WHERE s.jobId = :jobId")
+    int updateExpiresAt(@Param("jobId") Long jobId, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    void deleteByJobId(@Param("jobId") Long jobId);
+}
@@ -50,9 +50,17 @@ public interface MigrationJobRepository extends JpaRepository<MigrationJob, Long
     @Query("SELECT COUNT(j) FROM MigrationJob j WHERE j.user = :user AND j.status = 'COMPLETED'")
     long countCompletedJobsByUser(@Param("user") User user);
 
-    @Query("SELECT j FROM MigrationJob j WHERE j.status = 'RUNNING' AND j.phase = 'INCREMENTAL_SYNC'")
+    @Query("SELECT j FROM MigrationJob j JOIN FETCH j.sourceAccount JOIN FETCH j.targetAccount " +
+           "WHERE j.status = 'RUNNING' AND j.phase = 'INCREMENTAL_SYNC'")
     List<MigrationJob> findJobsInIncrementalSync();
 
+    @Query("SELECT j FROM MigrationJob j JOIN FETCH j.sourceAccount JOIN FETCH j.targetAccount " +
+           "WHERE j.status = 'RUNNING' AND j.phase <> 'INCREMENTAL_SYNC'")
+    List<MigrationJob> findRunningJobsOutsideIncrementalSync();
+
+    @Query("SELECT j FROM MigrationJob j JOIN FETCH j.sourceAccount JOIN FETCH j.targetAccount WHERE j.id = :id")
+    Optional<MigrationJob> findByIdWithAccounts(@Param("id") Long id);
+
     @Query("SELECT SUM(j.migratedEmails) FROM MigrationJob j WHERE j.user = :user AND j.status = 'COMPLETED'")
     Long sumMigratedEmailsByUser(@Param("user") User user);
 }
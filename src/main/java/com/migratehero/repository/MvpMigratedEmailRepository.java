@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -23,6 +24,12 @@ public interface MvpMigratedEmailRepository extends JpaRepository<MvpMigratedEma
 
     long countByTaskIdAndFolderNameAndSuccess(Long taskId, String folderName, Boolean success);
 
+    // 统计近期窗口内的迁移记录 (sentDate 保存的是源端接收时间)
+    long countByTaskIdAndSuccessAndSentDateGreaterThanEqual(Long taskId, Boolean success, Instant sentDate);
+
+    @Query("SELECT COALESCE(SUM(e.sizeBytes), 0) FROM MvpMigratedEmail e WHERE e.taskId = :taskId AND e.success = true")
+    long sumMigratedBytesByTaskId(@Param("taskId") Long taskId);
+
     boolean existsByTaskIdAndSourceEmailId(Long taskId, String sourceEmailId);
 
     boolean existsByTaskIdAndSourceEmailIdAndSuccess(Long taskId, String sourceEmailId, Boolean success);
@@ -3,8 +3,14 @@ package com.migratehero.repository;
 import com.migratehero.model.MvpMigrationTask;
 import com.migratehero.model.enums.MigrationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +20,48 @@ public interface MvpMigrationTaskRepository extends JpaRepository<MvpMigrationTa
 
     List<MvpMigrationTask> findAllByOrderByCreatedAtDesc();
 
+    // 按虚拟完成时间取出排队中的任务（用于重启后恢复调度队列）
+    List<MvpMigrationTask> findByStatusOrderByVirtualFinishTimeAsc(MigrationStatus status);
+
+    List<MvpMigrationTask> findByWaveId(Long waveId);
+
+    // 批量加载多个批次的任务（批次列表避免逐个查询）
+    List<MvpMigrationTask> findByWaveIdIn(Collection<Long> waveIds);
+
+    List<MvpMigrationTask> findByWaveIdAndStatusIn(Long waveId, List<MigrationStatus> statuses);
+
+    // 预检结果单独更新，避免覆盖并发修改的任务状态
+    @Modifying
+    @Transactional
+    @Query("UPDATE MvpMigrationTask t SET t.preflightStatus = :status, t.preflightMessage = :message WHERE t.id = :id")
+    int updatePreflight(@Param("id") Long id, @Param("status") String status, @Param("message") String message);
+
+    // 运行时性能参数单独更新（实体上这些列不可更新，避免运行中的任务保存旧实体时覆盖）
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE mvp_migration_task SET tuning_folder_parallelism = :folderParallelism, "
+            + "tuning_fetch_batch_size = :fetchBatchSize, tuning_upload_concurrency = :uploadConcurrency, "
+            + "tuning_max_bytes_per_second = :maxBytesPerSecond WHERE id = :id", nativeQuery = true)
+    int updateTuning(@Param("id") Long id, @Param("folderParallelism") Integer folderParallelism,
+                     @Param("fetchBatchSize") Integer fetchBatchSize,
+                     @Param("uploadConcurrency") Integer uploadConcurrency,
+                     @Param("maxBytesPerSecond") Long maxBytesPerSecond);
+
+    // 预检得到的邮箱大小，只在总数未知时写入（供调度器估算排队成本）
+    @Modifying
+    @Transactional
+    @Query("UPDATE MvpMigrationTask t SET t.totalEmails = :total WHERE t.id = :id AND (t.totalEmails IS NULL OR t.totalEmails = 0)")
+    int updateEstimatedSize(@Param("id") Long id, @Param("total") Long total);
+
+    // 持有有效任务租约的运行中任务（集群内实际占用并发名额的任务，供调度器统计全局和单租户并发）
+    @Query("SELECT t FROM MvpMigrationTask t WHERE t.status = :status AND EXISTS (SELECT l.id FROM WorkLease l "
+            + "WHERE l.workType = :workType AND l.refId = t.id AND l.unitKey = :unitKey "
+            + "AND l.ownerId IS NOT NULL AND l.leaseExpiresAt > :now)")
+    List<MvpMigrationTask> findByStatusWithLiveLease(@Param("status") MigrationStatus status,
+                                                     @Param("workType") String workType,
+                                                     @Param("unitKey") String unitKey,
+                                                     @Param("now") Instant now);
+
     // 检查是否存在活跃的任务（非完成/失败/取消状态）
     boolean existsBySourceEmailAndStatusNotIn(String sourceEmail, List<MigrationStatus> excludeStatuses);
 }
@@ -0,0 +1,19 @@
+package com.migratehero.repository;
+
+import com.migratehero.model.MvpMigrationWave;
+import com.migratehero.model.enums.MigrationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MvpMigrationWaveRepository extends JpaRepository<MvpMigrationWave, Long> {
+
+    List<MvpMigrationWave> findAllByOrderByCreatedAtDesc();
+
+    List<MvpMigrationWave> findByStatusIn(List<MigrationStatus> statuses);
+
+    Optional<MvpMigrationWave> findByName(String name);
+}
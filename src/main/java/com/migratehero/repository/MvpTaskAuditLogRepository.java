@@ -0,0 +1,20 @@
+package com.migratehero.repository;
+
+import com.migratehero.model.MvpTaskAuditLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface MvpTaskAuditLogRepository extends JpaRepository<MvpTaskAuditLog, Long> {
+
+    List<MvpTaskAuditLog> findByTaskIdOrderByCreatedAtDesc(Long taskId);
+
+    @Modifying
+    @Transactional
+    void deleteByTaskId(@Param("taskId") Long taskId);
+}
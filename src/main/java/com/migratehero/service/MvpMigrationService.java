@@ -1,34 +1,78 @@
 package com.migratehero.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migratehero.dto.request.TuningRequest;
 import com.migratehero.model.MvpFolderProgress;
 import com.migratehero.model.MvpMigratedCalendarEvent;
 import com.migratehero.model.MvpMigratedContact;
 import com.migratehero.model.MvpMigratedEmail;
 import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.MvpTaskAuditLog;
+import com.migratehero.model.enums.ConnectorProtocol;
 import com.migratehero.model.enums.MigrationStatus;
 import com.migratehero.repository.MvpFolderProgressRepository;
 import com.migratehero.repository.MvpMigratedCalendarEventRepository;
 import com.migratehero.repository.MvpMigratedContactRepository;
 import com.migratehero.repository.MvpMigratedEmailRepository;
 import com.migratehero.repository.MvpMigrationTaskRepository;
+import com.migratehero.repository.MvpTaskAuditLogRepository;
 import com.migratehero.service.connector.caldav.CalDavConnector;
 import com.migratehero.service.connector.carddav.CardDavConnector;
 import com.migratehero.service.connector.ews.MvpEwsConnector;
 import com.migratehero.service.connector.imap.ImapConnector;
+import com.migratehero.service.execution.AdaptiveBatchSizer;
+import com.migratehero.service.execution.AdaptiveBatchSizing;
+import com.migratehero.service.execution.AdjustableLimit;
+import com.migratehero.service.execution.BandwidthShaper;
+import com.migratehero.service.execution.CancellationRegistry;
+import com.migratehero.service.execution.CancellationToken;
+import com.migratehero.service.execution.CircuitOpenException;
+import com.migratehero.service.execution.ImapConcurrencyLimiter;
+import com.migratehero.service.execution.DateRangeShardPlanner;
+import com.migratehero.service.execution.MigrationEvents;
+import com.migratehero.service.execution.MigrationExecutor;
+import com.migratehero.service.execution.MigrationMetrics;
+import com.migratehero.service.execution.MigrationStoppedException;
+import com.migratehero.service.execution.MigrationTracing;
+import com.migratehero.service.execution.RemoteCallAccounting;
+import com.migratehero.service.execution.SizeLanes;
+import com.migratehero.service.execution.TaskTuning;
+import com.migratehero.service.execution.ThroughputTracker;
+import com.migratehero.service.execution.TuningRegistry;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
 import com.migratehero.service.transform.MvpCalendarTransformer;
 import com.migratehero.service.transform.MvpContactTransformer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * MVP 迁移服务 - 处理 EWS -> IMAP 邮箱迁移
@@ -50,9 +94,82 @@ public class MvpMigrationService {
     private final MvpCalendarTransformer calendarTransformer;
     private final MvpContactTransformer contactTransformer;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MigrationExecutor migrationExecutor;
+    private final WorkLeaseService leaseService;
+    private final CancellationRegistry cancellations;
+    private final ObjectMapper objectMapper;
+    private final SizeLanes sizeLanes;
+    private final AdaptiveBatchSizing batchSizing;
+    private final ImapConcurrencyLimiter imapLimiter;
+    private final BandwidthShaper bandwidthShaper;
+    private final TuningRegistry tuningRegistry;
+    private final MvpTaskAuditLogRepository auditLogRepository;
+    private final ThroughputTracker throughput;
+    private final MigrationMetrics metrics;
+    private final MigrationTracing tracing;
+    private final RemoteCallAccounting remoteCalls;
 
     private static final int BATCH_SIZE = 10;
 
+    /**
+     * 近期优先模式的迁移层级
+     */
+    public static final String TIER_RECENT = "recent";
+    public static final String TIER_BACKFILL = "backfill";
+
+    /**
+     * 文件夹进度读改写锁 (分片并发更新同一文件夹)
+     */
+    private final Map<String, Object> folderLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 每页列出的邮件数 (自适应页大小的初始值)，页内按大小分道并发迁移
+     */
+    @Value("${migratehero.migration.email-page-size:100}")
+    private int emailPageSize;
+
+    /**
+     * 每个迁移范围 (文件夹或分片) 内已提交未完成的邮件数上限，超过时暂停列出下一页
+     */
+    @Value("${migratehero.migration.lanes.window-items:200}")
+    private int laneWindowItems;
+
+    /**
+     * 运行中任务的目标 APPENDLIMIT (字节)，0 表示目标未声明上限
+     */
+    private final Map<Long, Long> appendLimits = new ConcurrentHashMap<>();
+
+    /**
+     * 邮件数达到该阈值的文件夹按接收时间分片迁移
+     */
+    @Value("${migratehero.migration.shard-threshold:20000}")
+    private int shardThreshold;
+
+    /**
+     * 目标分片大小 (邮件数)
+     */
+    @Value("${migratehero.migration.shard-target-size:10000}")
+    private long shardTargetSize;
+
+    /**
+     * 单个文件夹的分片数上限
+     */
+    @Value("${migratehero.migration.max-shards-per-folder:16}")
+    private int maxShardsPerFolder;
+
+
+    /**
+     * 直方图探测的时间桶数
+     */
+    @Value("${migratehero.migration.shard-probe-buckets:16}")
+    private int shardProbeBuckets;
+
+    /**
+     * 近期优先模式的近期窗口 (天)
+     */
+    @Value("${migratehero.migration.recent-window-days:30}")
+    private int recentWindowDays;
+
     /**
      * 创建迁移任务
      */
@@ -83,6 +200,11 @@ public class MvpMigrationService {
         task.setTargetEmail(updatedTask.getTargetEmail());
         task.setTargetPassword(updatedTask.getTargetPassword());
 
+        BandwidthShaper.validate(updatedTask.getWindowSchedule(), updatedTask.getWindowTimeZone());
+        task.setMaxBytesPerSecond(updatedTask.getMaxBytesPerSecond());
+        task.setWindowSchedule(updatedTask.getWindowSchedule());
+        task.setWindowTimeZone(updatedTask.getWindowTimeZone());
+
         return taskRepository.save(task);
     }
 
@@ -138,29 +260,41 @@ public class MvpMigrationService {
     }
 
     /**
-     * 启动迁移任务（异步执行）
+     * 执行迁移任务（同步执行，由 FairTaskScheduler 在迁移执行器上调度）
      */
-    @Async
-    public void startMigration(Long taskId) {
+    public void runMigration(Long taskId) {
         MvpMigrationTask task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
 
+        WorkUnit taskUnit = WorkUnit.task(taskId);
+        CancellationToken token = cancellations.register(taskUnit);
         try {
+            // 沿用任务上保存的性能参数 (可能由其他节点设置)
+            applyTuning(taskId, TuningOverrides.of(task));
+
             // 更新状态为运行中
             task.setStatus(MigrationStatus.RUNNING);
             task.setStartedAt(Instant.now());
             taskRepository.save(task);
             broadcastProgress(task);
 
+            // 预先检测目标 APPENDLIMIT，超限邮件在下载前即判定失败
+            detectAppendLimit(task);
+
             // 1. 获取源端文件夹列表
             log.info("Fetching folders from source...");
-            List<MvpEwsConnector.FolderInfo> folders = ewsConnector.listFolders(
-                    task.getSourceEwsUrl(),
-                    task.getSourceEmail(),
-                    task.getSourcePassword()
-            );
+            List<MvpEwsConnector.FolderInfo> folders = migrationExecutor.call(
+                    ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_list_folders"),
+                    () -> ewsConnector.listFolders(
+                            task.getSourceEwsUrl(),
+                            task.getSourceEmail(),
+                            task.getSourcePassword()
+                    ));
 
             task.setTotalFolders((long) folders.size());
+            // 按字节估算进度：源端文件夹大小之和 (预扫描) 与已迁移邮件大小
+            task.setTotalBytes(folders.stream().mapToLong(MvpEwsConnector.FolderInfo::getSizeBytes).sum());
+            task.setMigratedBytes(migratedEmailRepository.sumMigratedBytesByTaskId(taskId));
             taskRepository.save(task);
 
             // 2. 为每个文件夹创建进度记录
@@ -184,16 +318,36 @@ public class MvpMigrationService {
             long currentFailed = migratedEmailRepository.countByTaskIdAndSuccess(taskId, false);
             task.setMigratedEmails(currentMigrated);
             task.setFailedEmails(currentFailed);
+            task.setMigratedFolders(0L);
             taskRepository.save(task);
 
             broadcastProgress(task);
 
+            // 近期优先：先迁移所有文件夹的近期邮件，完成后重新排队，以较低优先级回填历史邮件
+            if (Boolean.TRUE.equals(task.getRecentFirst())) {
+                if (task.getRecentCompletedAt() == null) {
+                    migrateRecentTier(task, folders, token);
+                    token.throwIfStopRequested();
+
+                    task.setMigrationTier(TIER_BACKFILL);
+                    task.setStatus(MigrationStatus.QUEUED);
+                    taskRepository.save(task);
+                    broadcastProgress(task);
+                    log.info("Recent tier of task {} completed, queued for backfill", taskId);
+                    return;
+                }
+                task.setMigrationTier(TIER_BACKFILL);
+                taskRepository.save(task);
+            }
+
             // 3. 逐个文件夹迁移
             long totalEmails = 0;
             long migratedEmails = currentMigrated;
             long failedEmails = currentFailed;
 
             for (MvpEwsConnector.FolderInfo folder : folders) {
+                token.throwIfStopRequested();
+
                 if (folder.getTotalCount() == 0) {
                     // 跳过空文件夹，标记为完成
                     updateFolderStatus(taskId, folder.getName(), "completed");
@@ -204,14 +358,29 @@ public class MvpMigrationService {
 
                 totalEmails += folder.getTotalCount();
                 task.setTotalEmails(totalEmails);
+
+                // 恢复或重试时，已完整迁移且源端数量未变化的文件夹不再重新扫描
+                if (isFolderComplete(taskId, folder)) {
+                    log.debug("Folder {} already completed, skipping", folder.getName());
+                    task.setMigratedFolders(task.getMigratedFolders() + 1);
+                    taskRepository.save(task);
+                    continue;
+                }
+
                 task.setCurrentFolder(folder.getName());
                 taskRepository.save(task);
                 broadcastProgress(task);
 
-                // 迁移该文件夹
-                MigrationResult result = migrateFolder(task, folder);
-                migratedEmails += result.success;
-                failedEmails += result.failed;
+                // 迁移该文件夹 (持有文件夹租约；被宕机节点遗留的租约占用时等待其过期，不跳过)
+                WorkUnit folderLease = acquireFolderLease(task, folder, token);
+                MigrationResult result;
+                try {
+                    result = migrateFolder(task, folder, token);
+                } finally {
+                    leaseService.release(folderLease);
+                }
+                migratedEmails += result.success.get();
+                failedEmails += result.failed.get();
 
                 task.setMigratedEmails(migratedEmails);
                 task.setFailedEmails(failedEmails);
@@ -222,19 +391,21 @@ public class MvpMigrationService {
             }
 
             // 4. 迁移日历事件
+            token.throwIfStopRequested();
             if (Boolean.TRUE.equals(task.getMigrateCalendar())) {
                 task.setCurrentFolder("日历");
                 taskRepository.save(task);
                 broadcastProgress(task);
-                migrateCalendar(task);
+                migrateCalendar(task, token);
             }
 
             // 5. 迁移联系人
+            token.throwIfStopRequested();
             if (Boolean.TRUE.equals(task.getMigrateContacts())) {
                 task.setCurrentFolder("联系人");
                 taskRepository.save(task);
                 broadcastProgress(task);
-                migrateContacts(task);
+                migrateContacts(task, token);
             }
 
             // 6. 完成 - 检查是否有失败项
@@ -260,7 +431,12 @@ public class MvpMigrationService {
                     task.getMigratedEmails(), task.getTotalEmails(),
                     task.getMigratedCalendarEvents(), task.getTotalCalendarEvents(),
                     task.getMigratedContacts(), task.getTotalContacts());
+            remoteCalls.logSummary(WorkUnit.task(task.getId()));
+            throughput.finished(taskId);
+            remoteCalls.finished(taskUnit);
 
+        } catch (MigrationStoppedException e) {
+            onStopped(taskId, e.getReason());
         } catch (Exception e) {
             log.error("Migration failed: {}", e.getMessage(), e);
             task.setStatus(MigrationStatus.FAILED);
@@ -268,32 +444,433 @@ public class MvpMigrationService {
             task.setCompletedAt(Instant.now());
             taskRepository.save(task);
             broadcastProgress(task);
+            throughput.finished(taskId);
+            remoteCalls.finished(taskUnit);
+        } finally {
+            cancellations.unregister(taskUnit, token);
+            appendLimits.remove(taskId);
+            bandwidthShaper.release(taskId);
+        }
+    }
+
+    private void detectAppendLimit(MvpMigrationTask task) {
+        try {
+            long limit = migrationExecutor.call(
+                    ConnectorProtocol.IMAP, task.getTargetImapHost(), op(task, ConnectorProtocol.IMAP, "imap_capability"),
+                    () -> imapConnector.getAppendLimit(
+                            task.getTargetImapHost(),
+                            task.getTargetImapPort(),
+                            task.getTargetImapSsl(),
+                            task.getTargetEmail(),
+                            task.getTargetPassword()
+                    ));
+            appendLimits.put(task.getId(), limit);
+            if (limit > 0) {
+                log.info("Target {} declares APPENDLIMIT {} bytes", task.getTargetImapHost(), limit);
+            }
+        } catch (Exception e) {
+            log.warn("Could not detect APPENDLIMIT of {}: {}", task.getTargetImapHost(), e.getMessage());
+        }
+    }
+
+    /**
+     * 近期层：统计各文件夹近期窗口内的邮件数，收件箱和已发送优先，按接收时间范围迁移近期邮件；
+     * 文件夹状态保持不变，历史回填时再完整扫描
+     */
+    private void migrateRecentTier(MvpMigrationTask task, List<MvpEwsConnector.FolderInfo> folders,
+                                   CancellationToken token) throws Exception {
+        if (task.getRecentCutoff() == null) {
+            task.setRecentCutoff(Instant.now().minus(Duration.ofDays(recentWindowDays)));
+        }
+        Instant cutoff = task.getRecentCutoff();
+        task.setMigrationTier(TIER_RECENT);
+
+        List<MvpEwsConnector.FolderInfo> ordered = new ArrayList<>(folders);
+        ordered.sort(Comparator.comparingInt(folder -> recentPriority(folder.getName())));
+
+        Map<String, Integer> recentCounts = new HashMap<>();
+        long recentTotal = 0;
+        for (MvpEwsConnector.FolderInfo folder : ordered) {
+            if (folder.getTotalCount() == 0) {
+                continue;
+            }
+            int count = migrationExecutor.call(
+                    ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_count"),
+                    () -> ewsConnector.countEmails(
+                            task.getSourceEwsUrl(),
+                            task.getSourceEmail(),
+                            task.getSourcePassword(),
+                            folder.getId(),
+                            cutoff,
+                            null
+                    ));
+            recentCounts.put(folder.getName(), count);
+            recentTotal += count;
+        }
+        task.setRecentTotalEmails(recentTotal);
+        refreshRecentCounts(task);
+        taskRepository.save(task);
+        broadcastProgress(task);
+        log.info("Migrating {} recent emails (since {}) of task {}", recentTotal, cutoff, task.getId());
+
+        for (MvpEwsConnector.FolderInfo folder : ordered) {
+            token.throwIfStopRequested();
+
+            Integer count = recentCounts.get(folder.getName());
+            if (count == null || count == 0) {
+                continue;
+            }
+
+            task.setCurrentFolder(folder.getName());
+            taskRepository.save(task);
+            broadcastProgress(task);
+
+            WorkUnit folderLease = acquireFolderLease(task, folder, token);
+            try {
+                migrateEmailRange(task, folder, cutoff, null, token, new MigrationResult(), ConcurrentHashMap.newKeySet());
+            } finally {
+                leaseService.release(folderLease);
+                folderLocks.remove(task.getId() + "/" + folder.getName());
+            }
+            updateFolderProgress(task.getId(), folder.getName(), true);
+        }
+
+        refreshRecentCounts(task);
+        task.setRecentCompletedAt(Instant.now());
+        task.setCurrentFolder(null);
+        taskRepository.save(task);
+        broadcastProgress(task);
+    }
+
+    /**
+     * 获取文件夹租约。任务租约已由本节点持有，其他节点持有的文件夹租约只可能是上一个任务持有者宕机遗留的，
+     * 等待其过期后接管；超过一个租约周期仍被占用时任务失败，不跳过该文件夹
+     */
+    private WorkUnit acquireFolderLease(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                                        CancellationToken token) throws InterruptedException {
+        WorkUnit lease = WorkUnit.folder(task.getId(), folder.getName());
+        if (!leaseService.tryAcquireWithinLease(lease, token::throwIfStopRequested)) {
+            throw new RuntimeException("Folder " + folder.getName() + " is still leased by node "
+                    + leaseService.getOwner(lease));
+        }
+        return lease;
+    }
+
+    /**
+     * 近期层文件夹顺序：收件箱、已发送，其余按原顺序
+     */
+    private int recentPriority(String folderName) {
+        return switch (mapFolderName(folderName)) {
+            case "INBOX" -> 0;
+            case "Sent" -> 1;
+            default -> 2;
+        };
+    }
+
+    /**
+     * 按迁移记录刷新近期层计数
+     */
+    private void refreshRecentCounts(MvpMigrationTask task) {
+        if (task.getRecentCutoff() == null) {
+            return;
         }
+        task.setRecentMigratedEmails(migratedEmailRepository.countByTaskIdAndSuccessAndSentDateGreaterThanEqual(
+                task.getId(), true, task.getRecentCutoff()));
+        task.setRecentFailedEmails(migratedEmailRepository.countByTaskIdAndSuccessAndSentDateGreaterThanEqual(
+                task.getId(), false, task.getRecentCutoff()));
     }
 
     /**
-     * 迁移单个文件夹
+     * 协作式停止后的收尾：在途条目已处理完毕，按迁移记录刷新计数并保存最终状态
      */
-    private MigrationResult migrateFolder(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder) {
+    private void onStopped(Long taskId, CancellationToken.Reason reason) {
+        Optional<MvpMigrationTask> current = taskRepository.findById(taskId);
+        if (current.isEmpty()) {
+            log.info("Migration task {} stopped after deletion", taskId);
+            return;
+        }
+
+        MvpMigrationTask task = current.get();
+        task.setMigratedEmails(migratedEmailRepository.countByTaskIdAndSuccess(taskId, true));
+        task.setFailedEmails(migratedEmailRepository.countByTaskIdAndSuccess(taskId, false));
+        task.setProgressPercent(calculateProgress(task));
+        task.setCurrentFolder(null);
+        // 停止请求之后的进度保存可能覆盖了暂停状态；租约被接管时状态由新的持有节点维护
+        if (task.getStatus() == MigrationStatus.RUNNING && reason != CancellationToken.Reason.LEASE_LOST) {
+            task.setStatus(MigrationStatus.PAUSED);
+        }
+        taskRepository.save(task);
+        broadcastProgress(task);
+
+        log.info("Migration task {} stopped ({}), {} emails migrated, {} failed",
+                taskId, reason, task.getMigratedEmails(), task.getFailedEmails());
+    }
+
+    /**
+     * 迁移单个文件夹 (大文件夹按接收时间分片并发迁移)
+     */
+    private MigrationResult migrateFolder(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                                          CancellationToken token) {
         MigrationResult result = new MigrationResult();
-        int offset = 0;
 
-        // 收集本次迁移中看到的所有邮件 ID（用于清理已删除邮件的失败记录）
-        java.util.Set<String> seenEmailIds = new java.util.HashSet<>();
+        // 已有失败记录的邮件 ID，扫描中看到的移出，剩余的即源端已删除/移动（只跟踪失败记录，内存不随文件夹大小增长）
+        Set<String> unseenFailedIds = ConcurrentHashMap.newKeySet();
+        migratedEmailRepository.findByTaskIdAndFolderNameAndSuccess(task.getId(), folder.getName(), false)
+                .forEach(failed -> unseenFailedIds.add(failed.getSourceEmailId()));
 
         updateFolderStatus(task.getId(), folder.getName(), "in_progress");
 
         try {
-            while (true) {
-                // 获取一批邮件
-                MvpEwsConnector.EmailListResult emailList = ewsConnector.listEmails(
+            boolean fullScan = true;
+            if (folder.getTotalCount() >= shardThreshold) {
+                fullScan = migrateShards(task, folder, token, result, unseenFailedIds);
+            } else {
+                migrateEmailRange(task, folder, null, null, token, result, unseenFailedIds);
+            }
+
+            // 清理不存在的失败记录（源邮件已被删除/移动）；恢复时跳过了已完成分片，看到的邮件不完整，不做清理
+            if (fullScan) {
+                cleanupOrphanedFailedRecords(task.getId(), folder.getName(), unseenFailedIds);
+            }
+
+            // 记录本次扫描时的源端邮件数，供恢复时判断文件夹是否需要重新扫描
+            synchronized (folderLock(task.getId(), folder.getName())) {
+                folderProgressRepository.findByTaskIdAndFolderName(task.getId(), folder.getName())
+                        .ifPresent(progress -> {
+                            progress.setTotalEmails((long) folder.getTotalCount());
+                            folderProgressRepository.save(progress);
+                        });
+            }
+            updateFolderProgress(task.getId(), folder.getName(), result.success.get() > 0);
+            updateFolderStatus(task.getId(), folder.getName(), "completed");
+
+        } catch (MigrationStoppedException e) {
+            // 刷新文件夹计数，恢复时从 pending 继续
+            updateFolderProgress(task.getId(), folder.getName(), result.success.get() > 0);
+            updateFolderStatus(task.getId(), folder.getName(), "pending");
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to migrate folder {}: {}", folder.getName(), e.getMessage());
+            updateFolderStatus(task.getId(), folder.getName(), "failed");
+
+            // Store task-level error details
+            task.setFailedEndpoint(formatEndpoint(task.getSourceEwsUrl(), null));
+            task.setFailedRequest(formatRequest("EWS_LIST_EMAILS", folder.getName(), null));
+            task.setFailedResponse(truncate(e.getMessage(), 2000));
+
+            throw new RuntimeException("Migration failed in folder: " + folder.getName(), e);
+        } finally {
+            folderLocks.remove(task.getId() + "/" + folder.getName());
+        }
+
+        return result;
+    }
+
+    /**
+     * 大文件夹分片迁移：按接收时间直方图切分，多个分片并发处理，分片检查点保存在文件夹进度中
+     *
+     * @return 是否扫描了全部分片 (恢复时跳过已完成分片返回 false)
+     */
+    private boolean migrateShards(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder, CancellationToken token,
+                                  MigrationResult result, Set<String> unseenFailedIds) throws Exception {
+        List<ShardCheckpoint> shards = loadOrPlanShards(task, folder);
+        Queue<ShardCheckpoint> pending = new ConcurrentLinkedQueue<>();
+        for (ShardCheckpoint shard : shards) {
+            if (!"completed".equals(shard.getStatus())) {
+                pending.add(shard);
+            }
+        }
+        boolean fullScan = pending.size() == shards.size();
+        // 工作线程数不超过任务的分片闸门 (默认 migratehero.migration.shard-parallelism，可在运行时调小)，
+        // 每个工作线程依次领取待迁移分片，分片池中不会有线程空等闸门
+        AdjustableLimit folderLimit = tuning(task).getFolderLimit();
+        int workers = Math.min(folderLimit.getLimit(), pending.size());
+        log.info("Migrating folder {} in {} shards ({} pending, parallelism {})",
+                folder.getName(), shards.size(), pending.size(), folderLimit.getLimit());
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                folderLimit.acquire();
+                try {
+                    ShardCheckpoint shard;
+                    while (failure.get() == null && (shard = pending.poll()) != null) {
+                        try {
+                            migrateShard(task, folder, shards, shard, token, result, unseenFailedIds);
+                        } catch (Exception e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                } finally {
+                    folderLimit.release();
+                }
+            }, migrationExecutor.getShardExecutor()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return fullScan;
+    }
+
+    private void migrateShard(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder, List<ShardCheckpoint> shards,
+                              ShardCheckpoint shard, CancellationToken token,
+                              MigrationResult result, Set<String> unseenFailedIds) throws Exception {
+        MigrationResult shardResult = new MigrationResult();
+        saveShardState(task.getId(), folder.getName(), shards, shard, "in_progress", shardResult);
+        try {
+            migrateEmailRange(task, folder, shard.getReceivedFrom(), shard.getReceivedTo(), token, shardResult, unseenFailedIds);
+            saveShardState(task.getId(), folder.getName(), shards, shard, "completed", shardResult);
+        } catch (MigrationStoppedException e) {
+            saveShardState(task.getId(), folder.getName(), shards, shard, "pending", shardResult);
+            throw e;
+        } catch (Exception e) {
+            log.error("Shard {} - {} of folder {} failed: {}",
+                    shard.getReceivedFrom(), shard.getReceivedTo(), folder.getName(), e.getMessage());
+            saveShardState(task.getId(), folder.getName(), shards, shard, "failed", shardResult);
+            throw e;
+        } finally {
+            result.success.addAndGet(shardResult.success.get());
+            result.failed.addAndGet(shardResult.failed.get());
+        }
+    }
+
+    /**
+     * 读取分片检查点；没有检查点时探测接收时间直方图并规划分片
+     */
+    private List<ShardCheckpoint> loadOrPlanShards(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder) throws Exception {
+        String shardState = folderProgressRepository.findByTaskIdAndFolderName(task.getId(), folder.getName())
+                .map(MvpFolderProgress::getShardState)
+                .orElse(null);
+        if (shardState != null && !shardState.isEmpty()) {
+            try {
+                List<ShardCheckpoint> saved = objectMapper.readValue(shardState, new TypeReference<List<ShardCheckpoint>>() {});
+                if (!saved.isEmpty()) {
+                    // 分片全部完成说明是重新扫描 (源端有新邮件或重试)，沿用原有分片边界
+                    if (saved.stream().allMatch(shard -> "completed".equals(shard.getStatus()))) {
+                        saved.forEach(shard -> shard.setStatus("pending"));
+                    }
+                    return saved;
+                }
+            } catch (Exception e) {
+                log.warn("Ignoring unreadable shard state of folder {}: {}", folder.getName(), e.getMessage());
+            }
+        }
+
+        MvpEwsConnector.ReceivedRange range = migrationExecutor.call(
+                ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_received_range"),
+                () -> ewsConnector.getReceivedRange(
                         task.getSourceEwsUrl(),
                         task.getSourceEmail(),
                         task.getSourcePassword(),
-                        folder.getId(),
-                        offset,
-                        BATCH_SIZE
-                );
+                        folder.getId()
+                ));
+        List<DateRangeShardPlanner.Shard> planned = DateRangeShardPlanner.plan(
+                range.getOldest(), range.getNewest(), shardProbeBuckets, shardTargetSize, maxShardsPerFolder,
+                (from, to) -> migrationExecutor.call(
+                        ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_count"),
+                        () -> ewsConnector.countEmails(
+                                task.getSourceEwsUrl(),
+                                task.getSourceEmail(),
+                                task.getSourcePassword(),
+                                folder.getId(),
+                                from,
+                                to
+                        )));
+
+        List<ShardCheckpoint> shards = new ArrayList<>();
+        for (DateRangeShardPlanner.Shard shard : planned) {
+            shards.add(new ShardCheckpoint(shard.from(), shard.to(), "pending", shard.estimatedCount(), 0L, 0L));
+        }
+        persistShards(task.getId(), folder.getName(), shards);
+        log.info("Planned {} shards for folder {} ({} emails)", shards.size(), folder.getName(), folder.getTotalCount());
+        return shards;
+    }
+
+    private void saveShardState(Long taskId, String folderName, List<ShardCheckpoint> shards, ShardCheckpoint shard,
+                                String status, MigrationResult shardResult) {
+        synchronized (folderLock(taskId, folderName)) {
+            shard.setStatus(status);
+            shard.setMigratedEmails(shardResult.success.get());
+            shard.setFailedEmails(shardResult.failed.get());
+            persistShards(taskId, folderName, shards);
+        }
+    }
+
+    private void persistShards(Long taskId, String folderName, List<ShardCheckpoint> shards) {
+        synchronized (folderLock(taskId, folderName)) {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(shards);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to serialize shard state", e);
+            }
+            folderProgressRepository.findByTaskIdAndFolderName(taskId, folderName)
+                    .ifPresent(progress -> {
+                        progress.setShardState(json);
+                        folderProgressRepository.save(progress);
+                    });
+        }
+    }
+
+    /**
+     * 同一文件夹的进度记录由多个分片并发更新，读改写需串行
+     */
+    private Object folderLock(Long taskId, String folderName) {
+        return folderLocks.computeIfAbsent(taskId + "/" + folderName, key -> new Object());
+    }
+
+    /**
+     * 按页迁移文件夹中接收时间在 [receivedFrom, receivedTo) 内的邮件，两端均为 null 时迁移整个文件夹
+     */
+    private void migrateEmailRange(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                                   Instant receivedFrom, Instant receivedTo, CancellationToken token,
+                                   MigrationResult result, Set<String> unseenFailedIds) throws Exception {
+        int offset = 0;
+        boolean ranged = receivedFrom != null || receivedTo != null;
+        long appendLimit = appendLimits.getOrDefault(task.getId(), 0L);
+        AdaptiveBatchSizer pageSizer = batchSizing.sizer(AdaptiveBatchSizing.EWS_LIST, task.getSourceEwsUrl(), emailPageSize);
+
+        // 各通道的批次跨页推进，只受窗口内未完成邮件数限制
+        SizeLanes.Window window = sizeLanes.window(laneWindowItems, migrationExecutor.getWorkerExecutor());
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try {
+            while (true) {
+                token.throwIfStopRequested();
+                if (failure.get() != null) {
+                    break;
+                }
+
+                // 获取一批邮件 (页大小按响应时间自适应，耗时在隔离舱内计量，不含排队等待)
+                int currentOffset = offset;
+                int pageSize = pageSizer.current();
+                MvpEwsConnector.EmailListResult emailList = migrationExecutor.call(
+                        ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_list"),
+                        () -> {
+                            long started = System.nanoTime();
+                            MvpEwsConnector.EmailListResult page = ranged
+                                    ? ewsConnector.listEmails(
+                                            task.getSourceEwsUrl(),
+                                            task.getSourceEmail(),
+                                            task.getSourcePassword(),
+                                            folder.getId(),
+                                            receivedFrom,
+                                            receivedTo,
+                                            currentOffset,
+                                            pageSize)
+                                    : ewsConnector.listEmails(
+                                            task.getSourceEwsUrl(),
+                                            task.getSourceEmail(),
+                                            task.getSourcePassword(),
+                                            folder.getId(),
+                                            currentOffset,
+                                            pageSize
+                                    );
+                            pageSizer.record(page.getEmails().size(), (System.nanoTime() - started) / 1_000_000, -1);
+                            return page;
+                        });
 
                 if (emailList.getEmails().isEmpty()) {
                     break;
@@ -304,117 +881,247 @@ public class MvpMigrationService {
                         .map(MvpEwsConnector.EmailInfo::getId)
                         .toList();
 
-                // 记录看到的邮件 ID（用于后续清理不存在的失败记录）
-                seenEmailIds.addAll(emailIds);
+                // 看到的邮件不是孤立的失败记录
+                emailIds.forEach(unseenFailedIds::remove);
 
-                List<MvpEwsConnector.EmailMimeData> mimeDataList = ewsConnector.getEmailsMimeContent(
-                        task.getSourceEwsUrl(),
-                        task.getSourceEmail(),
-                        task.getSourcePassword(),
-                        emailIds
-                );
-
-                // 逐个上传到目标
-                for (MvpEwsConnector.EmailMimeData mimeData : mimeDataList) {
-                    if (mimeData.getError() != null) {
-                        recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
-                                mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
-                                mimeData.getSize(), mimeData.getError(), result);
-                        result.failed++;
-                        continue;
-                    }
+                // 已成功迁移的邮件不再下载 MIME 内容（断点续传）
+                List<MvpEwsConnector.EmailInfo> pending = emailList.getEmails().stream()
+                        .filter(info -> !migratedEmailRepository.existsByTaskIdAndSourceEmailIdAndSuccess(task.getId(), info.getId(), true))
+                        .toList();
 
-                    // 检查是否已迁移过且成功（用于断点续传）
-                    if (migratedEmailRepository.existsByTaskIdAndSourceEmailIdAndSuccess(task.getId(), mimeData.getEmailId(), true)) {
-                        log.debug("Email already successfully migrated, skipping: {}", mimeData.getSubject());
-                        continue;
+                // 超过目标 APPENDLIMIT 的邮件直接记为失败，不再下载
+                List<MvpEwsConnector.EmailInfo> uploadable = new ArrayList<>();
+                for (MvpEwsConnector.EmailInfo info : pending) {
+                    if (appendLimit > 0 && info.getSize() > appendLimit) {
+                        recordEmailFailure(task, folder.getName(), info.getId(), info.getSubject(), info.getFromAddress(),
+                                info.getReceivedDate(), (long) info.getSize(),
+                                "Message size " + info.getSize() + " exceeds target APPENDLIMIT " + appendLimit, result);
+                        result.failed.incrementAndGet();
+                    } else {
+                        uploadable.add(info);
                     }
+                }
 
-                    if (mimeData.getMimeContent() == null) {
-                        recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
-                                mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
-                                mimeData.getSize(), "No MIME content", result);
-                        result.failed++;
-                        continue;
-                    }
+                migrateByLane(task, folder, uploadable, token, result, window, failure);
+                flushProgress(task, folder, result);
 
-                    try {
-                        // 映射文件夹名称到 IMAP 格式
-                        String targetFolder = mapFolderName(folder.getName());
-                        imapConnector.uploadEmail(
-                                task.getTargetImapHost(),
-                                task.getTargetImapPort(),
-                                task.getTargetImapSsl(),
-                                task.getTargetEmail(),
-                                task.getTargetPassword(),
-                                targetFolder,
-                                mimeData.getMimeContent()
-                        );
-
-                        // 如果之前有失败记录，先删除（用于重试成功的情况）
-                        migratedEmailRepository.deleteByTaskIdAndSourceEmailId(task.getId(), mimeData.getEmailId());
-
-                        MvpMigratedEmail record = createMigratedEmailRecord(
-                                task.getId(), mimeData, folder.getName(), true, null);
-                        migratedEmailRepository.save(record);
-                        result.success++;
-                        log.debug("Email migrated successfully: {}", mimeData.getSubject());
-                    } catch (Exception e) {
-                        recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
-                                mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
-                                mimeData.getSize(), e.getMessage(), result);
-                        result.failed++;
-
-                        // Update task-level error details for the first failure
-                        if (task.getFailedEmails() == 0 || task.getFailedEmails() == null) {
-                            task.setFailedEndpoint(formatEndpoint(task.getTargetImapHost(), task.getTargetImapPort()));
-                            task.setFailedRequest(formatRequest("IMAP_UPLOAD", folder.getName(), mimeData.getEmailId()));
-                            task.setFailedResponse(truncate(e.getMessage(), 2000));
-                        }
-                    }
+                offset += pageSize;
 
-                    // 更新文件夹进度
-                    updateFolderProgress(task.getId(), folder.getName(), result.success > 0);
+                if (!emailList.isHasMore()) {
+                    break;
+                }
+            }
+        } finally {
+            // 返回或抛出前等待在途批次结束 (停止请求在条目之间生效)
+            window.await();
+        }
 
-                    // 更新任务进度 (从数据库重新计算，确保准确)
-                    long currentMigrated = migratedEmailRepository.countByTaskIdAndSuccess(task.getId(), true);
-                    long currentFailed = migratedEmailRepository.countByTaskIdAndSuccess(task.getId(), false);
-                    task.setMigratedEmails(currentMigrated);
-                    task.setFailedEmails(currentFailed);
-                    task.setProgressPercent(calculateProgress(task));
-                    taskRepository.save(task);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        flushProgress(task, folder, result);
+    }
 
-                    // 每处理10封邮件广播一次进度
-                    if ((result.success + result.failed) % 10 == 0) {
-                        broadcastProgress(task);
-                    }
-                }
+    /**
+     * 按大小分道提交一页邮件：小邮件按批下载、高并发上传，中大邮件逐封通过各自受限的通道。
+     * 批次提交到跨页窗口后即返回，大邮件通道积压时后续页的小邮件照常推进
+     */
+    private void migrateByLane(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                               List<MvpEwsConnector.EmailInfo> emails, CancellationToken token,
+                               MigrationResult result, SizeLanes.Window window,
+                               AtomicReference<Exception> failure) throws InterruptedException {
+        if (emails.isEmpty()) {
+            return;
+        }
 
-                offset += BATCH_SIZE;
+        Map<SizeLanes.Lane, List<MvpEwsConnector.EmailInfo>> byLane = new EnumMap<>(SizeLanes.Lane.class);
+        for (MvpEwsConnector.EmailInfo info : emails) {
+            byLane.computeIfAbsent(sizeLanes.classify(info.getSize()), lane -> new ArrayList<>()).add(info);
+        }
 
-                if (!emailList.isHasMore()) {
-                    break;
+        // 小邮件的 GetItem 批大小按响应时间和字节量自适应，中大邮件逐封下载
+        AdaptiveBatchSizer fetchSizer = batchSizing.sizer(AdaptiveBatchSizing.EWS_FETCH, task.getSourceEwsUrl(), BATCH_SIZE);
+
+        for (Map.Entry<SizeLanes.Lane, List<MvpEwsConnector.EmailInfo>> entry : byLane.entrySet()) {
+            SizeLanes.Lane lane = entry.getKey();
+            List<MvpEwsConnector.EmailInfo> laneEmails = entry.getValue();
+            boolean small = lane == SizeLanes.Lane.SMALL;
+            int chunkSize = small ? tuning(task).fetchBatchSize(fetchSizer.current()) : 1;
+            for (int i = 0; i < laneEmails.size(); i += chunkSize) {
+                if (failure.get() != null) {
+                    return;
                 }
+                List<MvpEwsConnector.EmailInfo> chunk = laneEmails.subList(i, Math.min(i + chunkSize, laneEmails.size()));
+                long bytes = chunk.stream().mapToLong(MvpEwsConnector.EmailInfo::getSize).sum();
+                window.submit(lane, bytes, chunk.size(), () -> {
+                    // 每批一条 trace：含批量下载和逐封上传
+                    try (MigrationTracing.Span batch = tracing.start(MigrationTracing.BATCH)
+                            .tag("task.id", task.getId())
+                            .tag("folder", folder.getName())
+                            .tag("lane", lane)
+                            .tag("items", chunk.size())
+                            .tag("bytes", bytes)
+                            .tag("endpoint", task.getSourceEwsUrl())) {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                        try {
+                            migrateChunk(task, folder, chunk, small ? fetchSizer : null, token, result);
+                        } catch (Exception e) {
+                            batch.error(e);
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                });
             }
+        }
+    }
 
-            // 清理不存在的失败记录（源邮件已被删除/移动）
-            cleanupOrphanedFailedRecords(task.getId(), folder.getName(), seenEmailIds);
+    /**
+     * 下载一组邮件的 MIME 内容并逐个上传到目标 (停止请求在条目之间生效，当前邮件处理完毕后停止)
+     */
+    private void migrateChunk(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                              List<MvpEwsConnector.EmailInfo> chunk, AdaptiveBatchSizer fetchSizer,
+                              CancellationToken token, MigrationResult result) throws Exception {
+        token.throwIfStopRequested();
+
+        List<String> emailIds = chunk.stream()
+                .map(MvpEwsConnector.EmailInfo::getId)
+                .toList();
+        // 源端读取按列表中的邮件大小预先计入带宽配额
+        try (MigrationTracing.Span throttle = tracing.start(MigrationTracing.THROTTLE)) {
+            bandwidthShaper.acquire(task, BandwidthShaper.Stage.FETCH,
+                    chunk.stream().mapToLong(MvpEwsConnector.EmailInfo::getSize).sum(), token);
+        }
+        List<MvpEwsConnector.EmailMimeData> mimeDataList = migrationExecutor.call(
+                ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_fetch"),
+                () -> {
+                    long started = System.nanoTime();
+                    MigrationEvents.EwsFetch fetchEvent = MigrationEvents.ewsFetch(WorkUnit.task(task.getId()), emailIds.size());
+                    List<MvpEwsConnector.EmailMimeData> fetched = MigrationEvents.record(fetchEvent,
+                            () -> ewsConnector.getEmailsMimeContent(
+                                    task.getSourceEwsUrl(),
+                                    task.getSourceEmail(),
+                                    task.getSourcePassword(),
+                                    emailIds
+                            ),
+                            data -> data.stream()
+                                    .mapToLong(item -> item.getMimeContent() != null ? item.getMimeContent().length : 0)
+                                    .sum());
+                    if (fetchSizer != null) {
+                        fetchSizer.record(fetched.size(), (System.nanoTime() - started) / 1_000_000, fetchEvent.size);
+                    }
+                    return fetched;
+                });
+        metrics.recordItems(WorkUnit.task(task.getId()), "ews", "fetch", mimeDataList.size(),
+                mimeDataList.stream()
+                        .mapToLong(data -> data.getMimeContent() != null ? data.getMimeContent().length : 0)
+                        .sum());
+
+        for (MvpEwsConnector.EmailMimeData mimeData : mimeDataList) {
+            token.throwIfStopRequested();
+            try (MigrationTracing.Span item = tracing.start(MigrationTracing.ITEM)
+                    .tag("task.id", task.getId())
+                    .tag("folder", folder.getName())
+                    .tag("item.id", mimeData.getEmailId())
+                    .tag("size", mimeData.getSize())) {
+                migrateEmail(task, folder, mimeData, token, result);
+            }
+        }
+    }
 
-            updateFolderStatus(task.getId(), folder.getName(), "completed");
+    /**
+     * 上传一封已下载的邮件并记录结果
+     */
+    private void migrateEmail(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder,
+                              MvpEwsConnector.EmailMimeData mimeData, CancellationToken token,
+                              MigrationResult result) throws Exception {
+        if (mimeData.getError() != null) {
+            metrics.recordError(WorkUnit.task(task.getId()), "ews", "fetch", "ItemError");
+            recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
+                    mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
+                    mimeData.getSize(), mimeData.getError(), result);
+            result.failed.incrementAndGet();
+            return;
+        }
 
-        } catch (Exception e) {
-            log.error("Failed to migrate folder {}: {}", folder.getName(), e.getMessage());
-            updateFolderStatus(task.getId(), folder.getName(), "failed");
+        // 检查是否已迁移过且成功（用于断点续传）
+        if (migratedEmailRepository.existsByTaskIdAndSourceEmailIdAndSuccess(task.getId(), mimeData.getEmailId(), true)) {
+            log.debug("Email already successfully migrated, skipping: {}", mimeData.getSubject());
+            return;
+        }
 
-            // Store task-level error details
-            task.setFailedEndpoint(formatEndpoint(task.getSourceEwsUrl(), null));
-            task.setFailedRequest(formatRequest("EWS_LIST_EMAILS", folder.getName(), null));
-            task.setFailedResponse(truncate(e.getMessage(), 2000));
+        if (mimeData.getMimeContent() == null) {
+            recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
+                    mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
+                    mimeData.getSize(), "No MIME content", result);
+            result.failed.incrementAndGet();
+            return;
+        }
 
-            throw new RuntimeException("Migration failed in folder: " + folder.getName(), e);
+        try (MigrationTracing.Span throttle = tracing.start(MigrationTracing.THROTTLE)) {
+            bandwidthShaper.acquire(task, BandwidthShaper.Stage.UPLOAD, mimeData.getMimeContent().length, token);
         }
+        try {
+            // 映射文件夹名称到 IMAP 格式 (写入并发由目标主机的自适应限流器控制，
+            // 名额在隔离舱之外等待，只有 APPEND 本身计入延迟样本)
+            String targetFolder = mapFolderName(folder.getName());
+            tuning(task).getUploadLimit().call(() -> {
+                try (ImapConcurrencyLimiter.Permit permit = imapLimiter.acquire(task.getTargetImapHost())) {
+                    return migrationExecutor.call(
+                            ConnectorProtocol.IMAP, task.getTargetImapHost(), op(task, ConnectorProtocol.IMAP, "imap_append"),
+                            () -> permit.call(() -> MigrationEvents.record(
+                                    MigrationEvents.imapAppend(WorkUnit.task(task.getId()), mimeData.getMimeContent().length),
+                                    () -> imapConnector.uploadEmail(
+                                            task.getTargetImapHost(),
+                                            task.getTargetImapPort(),
+                                            task.getTargetImapSsl(),
+                                            task.getTargetEmail(),
+                                            task.getTargetPassword(),
+                                            targetFolder,
+                                            mimeData.getMimeContent()
+                                    ))));
+                }
+            });
 
-        return result;
+            try (MigrationTracing.Span write = tracing.start(MigrationTracing.DB_WRITE).tag("kind", "record")) {
+                MigrationEvents.record(MigrationEvents.ledgerWrite(WorkUnit.task(task.getId()), "email"), () -> {
+                    // 如果之前有失败记录，先删除（用于重试成功的情况）
+                    migratedEmailRepository.deleteByTaskIdAndSourceEmailId(task.getId(), mimeData.getEmailId());
+
+                    MvpMigratedEmail record = createMigratedEmailRecord(
+                            task.getId(), mimeData, folder.getName(), true, null);
+                    return migratedEmailRepository.save(record);
+                });
+            }
+            result.success.incrementAndGet();
+            long size = mimeData.getSize() != null ? mimeData.getSize() : mimeData.getMimeContent().length;
+            synchronized (task) {
+                task.setMigratedBytes(task.getMigratedBytes() + size);
+            }
+            throughput.record(task.getId(), 1, size);
+            metrics.recordItems(WorkUnit.task(task.getId()), "imap", "upload", 1, mimeData.getMimeContent().length);
+            remoteCalls.recordItems(WorkUnit.task(task.getId()), 1);
+            log.debug("Email migrated successfully: {}", mimeData.getSubject());
+        } catch (CircuitOpenException e) {
+            // 目标持续不可用：停止迁移并保留进度，不把剩余邮件逐封记为失败
+            throw e;
+        } catch (Exception e) {
+            metrics.recordError(WorkUnit.task(task.getId()), "imap", "upload", e);
+            recordEmailFailure(task, folder.getName(), mimeData.getEmailId(),
+                    mimeData.getSubject(), mimeData.getFromAddress(), mimeData.getReceivedDate(),
+                    mimeData.getSize(), e.getMessage(), result);
+            result.failed.incrementAndGet();
+
+            // Update task-level error details for the first failure
+            synchronized (task) {
+                if (task.getFailedEmails() == null || task.getFailedEmails() == 0) {
+                    task.setFailedEndpoint(formatEndpoint(task.getTargetImapHost(), task.getTargetImapPort()));
+                    task.setFailedRequest(formatRequest("IMAP_UPLOAD", folder.getName(), mimeData.getEmailId()));
+                    task.setFailedResponse(truncate(e.getMessage(), 2000));
+                }
+            }
+        }
     }
 
     /**
@@ -422,18 +1129,209 @@ public class MvpMigrationService {
      */
     @Transactional
     public void deleteTask(Long taskId) {
+        // 运行中的任务先停止
+        cancellations.requestStop(WorkUnit.task(taskId), CancellationToken.Reason.CANCEL);
+
         // 删除相关的迁移邮件记录
         migratedEmailRepository.deleteByTaskId(taskId);
 
         // 删除相关的文件夹进度记录
         folderProgressRepository.deleteByTaskId(taskId);
 
+        // 删除租约记录
+        leaseService.deleteAll(WorkLeaseService.MVP_TASK, taskId);
+        leaseService.deleteAll(WorkLeaseService.MVP_FOLDER, taskId);
+
+        // 删除审计日志、运行时参数和吞吐量序列
+        auditLogRepository.deleteByTaskId(taskId);
+        tuningRegistry.remove(WorkUnit.task(taskId));
+        throughput.remove(taskId);
+        metrics.remove(WorkUnit.task(taskId));
+        remoteCalls.remove(WorkUnit.task(taskId));
+
         // 删除任务本身
         taskRepository.deleteById(taskId);
 
         log.info("Deleted migration task: {}", taskId);
     }
 
+    /**
+     * 获取任务的运行时性能参数 (保存在任务上的覆盖值，任务在本节点运行时附带生效值和在途数)
+     */
+    public Map<String, Object> getTuning(Long taskId) {
+        MvpMigrationTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        TaskTuning local = tuningRegistry.find(WorkUnit.task(taskId));
+        Map<String, Object> tuning = new LinkedHashMap<>();
+        tuning.put("folderParallelism", task.getTuningFolderParallelism());
+        tuning.put("fetchBatchSize", task.getTuningFetchBatchSize());
+        tuning.put("uploadConcurrency", task.getTuningUploadConcurrency());
+        tuning.put("maxBytesPerSecond", task.getTuningMaxBytesPerSecond() != null
+                ? task.getTuningMaxBytesPerSecond() : task.getMaxBytesPerSecond());
+        if (local != null) {
+            tuning.put("effectiveFolderParallelism", local.getFolderLimit().getLimit());
+            tuning.put("shardsInFlight", local.getFolderLimit().getInFlight());
+            tuning.put("uploadsInFlight", local.getUploadLimit().getInFlight());
+        }
+        tuning.put("effectiveBytesPerSecond", bandwidthShaper.currentRate(taskId));
+        tuning.put("runningOnThisNode", cancellations.isActive(WorkUnit.task(taskId)));
+        return tuning;
+    }
+
+    /**
+     * 调整任务的运行时性能参数，变更写入审计日志
+     *
+     * 参数保存在任务上：任务在本节点运行时立即生效，在其他节点运行时由该节点在
+     * migratehero.migration.tuning-sync-ms 内读取生效，任务重启后沿用。
+     */
+    @Transactional
+    public Map<String, Object> updateTuning(Long taskId, TuningRequest request, String actor) {
+        MvpMigrationTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+
+        // 以任务上保存的覆盖值为基准计算变更
+        TaskTuning saved = new TaskTuning(1);
+        saved.apply(orReset(task.getTuningFolderParallelism()), orReset(task.getTuningFetchBatchSize()),
+                orReset(task.getTuningUploadConcurrency()), orReset(task.getTuningMaxBytesPerSecond()));
+        List<String> changes = saved.apply(request.getFolderParallelism(), request.getFetchBatchSize(),
+                request.getUploadConcurrency(), request.getMaxBytesPerSecond());
+
+        if (!changes.isEmpty()) {
+            // 只经由单独的更新语句写入，不修改受管实体 (提交时整行更新会覆盖运行节点刚写入的进度)
+            TuningOverrides current = TuningOverrides.of(task);
+            TuningOverrides updated = new TuningOverrides(
+                    override(request.getFolderParallelism(), current.folderParallelism()),
+                    override(request.getFetchBatchSize(), current.fetchBatchSize()),
+                    override(request.getUploadConcurrency(), current.uploadConcurrency()),
+                    request.getMaxBytesPerSecond() == null ? current.maxBytesPerSecond()
+                            : request.getMaxBytesPerSecond() > 0 ? request.getMaxBytesPerSecond() : null);
+            taskRepository.updateTuning(taskId, updated.folderParallelism(), updated.fetchBatchSize(),
+                    updated.uploadConcurrency(), updated.maxBytesPerSecond());
+            if (cancellations.isActive(WorkUnit.task(taskId))) {
+                applyTuning(taskId, updated);
+            }
+
+            auditLogRepository.save(MvpTaskAuditLog.builder()
+                    .taskId(taskId)
+                    .action("tuning")
+                    .detail(truncate(String.join("; ", changes), 2000))
+                    .actor(actor)
+                    .build());
+            log.info("Task {} tuning changed by {}: {}", taskId, actor, changes);
+        }
+        return getTuning(taskId);
+    }
+
+    /**
+     * 把任务上保存的性能参数同步到本节点运行中的任务 (参数可能由其他节点收到的请求写入)
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.tuning-sync-ms:5000}")
+    public void syncTuning() {
+        for (MvpMigrationTask task : taskRepository.findByStatusOrderByCreatedAtDesc(MigrationStatus.RUNNING)) {
+            if (cancellations.isActive(WorkUnit.task(task.getId()))) {
+                applyTuning(task.getId(), TuningOverrides.of(task));
+            }
+        }
+    }
+
+    /**
+     * 获取任务的吞吐量序列和预计完成时间
+     *
+     * @param coarse true 返回 24 小时降采样序列，否则返回 1 小时细粒度序列
+     */
+    public Map<String, Object> getThroughput(Long taskId, boolean coarse) {
+        MvpMigrationTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        return getThroughput(task, coarse);
+    }
+
+    private Map<String, Object> getThroughput(MvpMigrationTask task, boolean coarse) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("taskId", task.getId());
+        result.put("status", task.getStatus().name());
+        result.putAll(throughput.estimate(task));
+        result.put("resolution", coarse ? "coarse" : "fine");
+        result.put("series", throughput.points(task.getId(), coarse));
+        return result;
+    }
+
+    /**
+     * 获取任务的远程调用统计 (按连接器操作分组的调用次数和每迁移条目调用次数)
+     */
+    public Map<String, Object> getRemoteCalls(Long taskId) {
+        MvpMigrationTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("taskId", task.getId());
+        result.put("status", task.getStatus().name());
+        result.putAll(remoteCalls.report(WorkUnit.task(taskId)).toMap());
+        return result;
+    }
+
+    /**
+     * 获取任务审计日志 (最新在前)
+     */
+    public List<MvpTaskAuditLog> getAuditLog(Long taskId) {
+        return auditLogRepository.findByTaskIdOrderByCreatedAtDesc(taskId);
+    }
+
+    private TaskTuning tuning(MvpMigrationTask task) {
+        return tuningRegistry.get(WorkUnit.task(task.getId()));
+    }
+
+    /**
+     * 把任务上保存的性能参数应用到本节点的运行时参数
+     */
+    private void applyTuning(Long taskId, TuningOverrides overrides) {
+        List<String> changes = tuningRegistry.get(WorkUnit.task(taskId)).apply(
+                orReset(overrides.folderParallelism()), orReset(overrides.fetchBatchSize()),
+                orReset(overrides.uploadConcurrency()), orReset(overrides.maxBytesPerSecond()));
+        if (!changes.isEmpty()) {
+            bandwidthShaper.refresh(taskId);
+            log.info("Task {} applied tuning: {}", taskId, changes);
+        }
+    }
+
+    /**
+     * 任务上保存的性能参数覆盖值 (为空使用默认值)
+     */
+    private record TuningOverrides(Integer folderParallelism, Integer fetchBatchSize,
+                                   Integer uploadConcurrency, Long maxBytesPerSecond) {
+
+        static TuningOverrides of(MvpMigrationTask task) {
+            return new TuningOverrides(task.getTuningFolderParallelism(), task.getTuningFetchBatchSize(),
+                    task.getTuningUploadConcurrency(), task.getTuningMaxBytesPerSecond());
+        }
+    }
+
+    /**
+     * 未设置的覆盖值以 0 传给 TaskTuning.apply，表示恢复默认
+     */
+    private static Integer orReset(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static Long orReset(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * 请求中的参数：为空保持原值，0 表示恢复默认
+     */
+    private static Integer override(Integer requested, Integer current) {
+        if (requested == null) {
+            return current;
+        }
+        return requested > 0 ? requested : null;
+    }
+
+    /**
+     * 任务一次连接器调用的指标标签
+     */
+    private MigrationMetrics.Op op(MvpMigrationTask task, ConnectorProtocol protocol, String operation) {
+        return metrics.op(WorkUnit.task(task.getId()), protocol, operation);
+    }
+
     /**
      * 暂停迁移任务
      */
@@ -442,13 +1340,14 @@ public class MvpMigrationService {
         MvpMigrationTask task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
 
-        if (task.getStatus() != MigrationStatus.RUNNING) {
-            throw new RuntimeException("Task is not running");
+        if (task.getStatus() != MigrationStatus.RUNNING && task.getStatus() != MigrationStatus.QUEUED) {
+            throw new RuntimeException("Task is not running or queued");
         }
 
-        // 更新状态为暂停
+        // 更新状态为暂停，并通知执行流程在当前条目处理完毕后停止
         task.setStatus(MigrationStatus.PAUSED);
         taskRepository.save(task);
+        cancellations.requestStop(WorkUnit.task(taskId), CancellationToken.Reason.PAUSE);
 
         log.info("Paused migration task: {}", taskId);
     }
@@ -456,13 +1355,16 @@ public class MvpMigrationService {
     /**
      * 清理不存在的失败记录（源邮件已被删除或移动到其他文件夹）
      */
-    private void cleanupOrphanedFailedRecords(Long taskId, String folderName, java.util.Set<String> seenEmailIds) {
+    private void cleanupOrphanedFailedRecords(Long taskId, String folderName, Set<String> unseenFailedIds) {
+        if (unseenFailedIds.isEmpty()) {
+            return;
+        }
         List<MvpMigratedEmail> failedRecords = migratedEmailRepository.findByTaskIdAndFolderNameAndSuccess(
                 taskId, folderName, false);
 
         int deletedCount = 0;
         for (MvpMigratedEmail failedRecord : failedRecords) {
-            if (!seenEmailIds.contains(failedRecord.getSourceEmailId())) {
+            if (unseenFailedIds.contains(failedRecord.getSourceEmailId())) {
                 // 源邮件已不存在，删除失败记录
                 migratedEmailRepository.delete(failedRecord);
                 deletedCount++;
@@ -482,13 +1384,15 @@ public class MvpMigrationService {
     private void recordEmailFailure(MvpMigrationTask task, String folderName, String emailId,
                                   String subject, String fromAddress, Instant sentDate, Long sizeBytes,
                                   String errorMessage, MigrationResult result) {
-        // 先删除旧的失败记录（如果存在），避免重复记录
-        migratedEmailRepository.deleteByTaskIdAndSourceEmailId(task.getId(), emailId);
-
-        MvpMigratedEmail record = createMigratedEmailRecord(
-                task.getId(), emailId, subject, fromAddress, sentDate, sizeBytes, folderName,
-                false, truncate(errorMessage, 1000));
-        migratedEmailRepository.save(record);
+        MigrationEvents.record(MigrationEvents.ledgerWrite(WorkUnit.task(task.getId()), "email_failure"), () -> {
+            // 先删除旧的失败记录（如果存在），避免重复记录
+            migratedEmailRepository.deleteByTaskIdAndSourceEmailId(task.getId(), emailId);
+
+            MvpMigratedEmail record = createMigratedEmailRecord(
+                    task.getId(), emailId, subject, fromAddress, sentDate, sizeBytes, folderName,
+                    false, truncate(errorMessage, 1000));
+            return migratedEmailRepository.save(record);
+        });
     }
 
     /**
@@ -565,30 +1469,66 @@ public class MvpMigrationService {
         };
     }
 
+    /**
+     * 文件夹是否已完整迁移：状态为 completed、没有失败记录且源端邮件数与记录一致
+     */
+    private boolean isFolderComplete(Long taskId, MvpEwsConnector.FolderInfo folder) {
+        return folderProgressRepository.findByTaskIdAndFolderName(taskId, folder.getName())
+                .filter(progress -> "completed".equals(progress.getStatus()))
+                .filter(progress -> progress.getFailedEmails() == null || progress.getFailedEmails() == 0)
+                .filter(progress -> progress.getTotalEmails() != null && progress.getTotalEmails() == folder.getTotalCount())
+                .isPresent();
+    }
+
     private void updateFolderStatus(Long taskId, String folderName, String status) {
-        folderProgressRepository.findByTaskIdAndFolderName(taskId, folderName)
-                .ifPresent(progress -> {
-                    progress.setStatus(status);
-                    if ("in_progress".equals(status)) {
-                        progress.setStartedAt(Instant.now());
-                    } else if ("completed".equals(status) || "failed".equals(status)) {
-                        progress.setCompletedAt(Instant.now());
-                    }
-                    folderProgressRepository.save(progress);
-                });
+        synchronized (folderLock(taskId, folderName)) {
+            folderProgressRepository.findByTaskIdAndFolderName(taskId, folderName)
+                    .ifPresent(progress -> {
+                        progress.setStatus(status);
+                        if ("in_progress".equals(status)) {
+                            progress.setStartedAt(Instant.now());
+                        } else if ("completed".equals(status) || "failed".equals(status)) {
+                            progress.setCompletedAt(Instant.now());
+                        }
+                        folderProgressRepository.save(progress);
+                    });
+        }
     }
 
     private void updateFolderProgress(Long taskId, String folderName, boolean success) {
-        folderProgressRepository.findByTaskIdAndFolderName(taskId, folderName)
-                .ifPresent(progress -> {
-                    // 从数据库重新计算文件夹统计，确保准确
-                    long migrated = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, folderName, true);
-                    long failed = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, folderName, false);
-
-                    progress.setMigratedEmails(migrated);
-                    progress.setFailedEmails(failed);
-                    folderProgressRepository.save(progress);
-                });
+        synchronized (folderLock(taskId, folderName)) {
+            folderProgressRepository.findByTaskIdAndFolderName(taskId, folderName)
+                    .ifPresent(progress -> {
+                        // 从数据库重新计算文件夹统计，确保准确 (各分片的迁移记录自然汇总到文件夹)
+                        long migrated = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, folderName, true);
+                        long failed = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, folderName, false);
+
+                        progress.setMigratedEmails(migrated);
+                        progress.setFailedEmails(failed);
+                        folderProgressRepository.save(progress);
+                    });
+        }
+    }
+
+    /**
+     * 按迁移记录刷新文件夹和任务计数并广播进度；每页一次，逐封邮件只累加内存计数
+     */
+    private void flushProgress(MvpMigrationTask task, MvpEwsConnector.FolderInfo folder, MigrationResult result) {
+        try (MigrationTracing.Span write = tracing.start(MigrationTracing.DB_WRITE).tag("kind", "progress")) {
+            updateFolderProgress(task.getId(), folder.getName(), result.success.get() > 0);
+
+            // 从数据库重新计算 (重试成功会替换原失败记录)；分片并发时串行保存
+            synchronized (task) {
+                task.setMigratedEmails(migratedEmailRepository.countByTaskIdAndSuccess(task.getId(), true));
+                task.setFailedEmails(migratedEmailRepository.countByTaskIdAndSuccess(task.getId(), false));
+                task.setProgressPercent(calculateProgress(task));
+                if (TIER_RECENT.equals(task.getMigrationTier())) {
+                    refreshRecentCounts(task);
+                }
+                taskRepository.save(task);
+            }
+        }
+        broadcastProgress(task);
     }
 
     private int calculateProgress(MvpMigrationTask task) {
@@ -629,6 +1569,14 @@ public class MvpMigrationService {
             progress.put("failedEmails", task.getFailedEmails());
             progress.put("currentFolder", task.getCurrentFolder());
             progress.put("errorMessage", task.getErrorMessage());
+            // 分层进度 (近期优先模式)
+            if (Boolean.TRUE.equals(task.getRecentFirst())) {
+                progress.put("migrationTier", task.getMigrationTier());
+                progress.put("recentTotalEmails", task.getRecentTotalEmails());
+                progress.put("recentMigratedEmails", task.getRecentMigratedEmails());
+                progress.put("recentFailedEmails", task.getRecentFailedEmails());
+                progress.put("recentCompleted", task.getRecentCompletedAt() != null);
+            }
             // 日历进度
             progress.put("totalCalendarEvents", task.getTotalCalendarEvents());
             progress.put("migratedCalendarEvents", task.getMigratedCalendarEvents());
@@ -637,8 +1585,18 @@ public class MvpMigrationService {
             progress.put("totalContacts", task.getTotalContacts());
             progress.put("migratedContacts", task.getMigratedContacts());
             progress.put("failedContacts", task.getFailedContacts());
+            // 字节进度、近期吞吐量和预计完成时间
+            progress.put("totalBytes", task.getTotalBytes());
+            progress.put("migratedBytes", task.getMigratedBytes());
+            progress.put("throughput", throughput.estimate(task));
 
             messagingTemplate.convertAndSend("/topic/migration/" + task.getId() + "/progress", progress);
+
+            // 完整吞吐量序列按时间桶间隔推送，避免每次进度更新都发送整个序列
+            if (task.getStatus() == MigrationStatus.RUNNING && throughput.shouldPublishSeries(task.getId())) {
+                messagingTemplate.convertAndSend("/topic/migration/" + task.getId() + "/throughput",
+                        getThroughput(task, false));
+            }
         } catch (Exception e) {
             log.warn("Failed to broadcast progress: {}", e.getMessage());
         }
@@ -654,7 +1612,7 @@ public class MvpMigrationService {
     /**
      * 迁移日历事件
      */
-    private void migrateCalendar(MvpMigrationTask task) {
+    private void migrateCalendar(MvpMigrationTask task, CancellationToken token) {
         log.info("Starting calendar migration for task {}", task.getId());
 
         try {
@@ -684,6 +1642,7 @@ public class MvpMigrationService {
                 log.warn("CalDAV URL not available, skipping calendar migration");
                 return;
             }
+            String targetCalDavUrl = calDavUrl;
 
             // 分批获取并迁移日历事件
             int offset = 0;
@@ -691,19 +1650,24 @@ public class MvpMigrationService {
             long failedEvents = 0;
 
             while (true) {
-                MvpEwsConnector.CalendarEventListResult eventList = ewsConnector.listCalendarEvents(
-                        task.getSourceEwsUrl(),
-                        task.getSourceEmail(),
-                        task.getSourcePassword(),
-                        offset,
-                        BATCH_SIZE
-                );
+                int currentOffset = offset;
+                MvpEwsConnector.CalendarEventListResult eventList = migrationExecutor.call(
+                        ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_list_events"),
+                        () -> ewsConnector.listCalendarEvents(
+                                task.getSourceEwsUrl(),
+                                task.getSourceEmail(),
+                                task.getSourcePassword(),
+                                currentOffset,
+                                BATCH_SIZE
+                        ));
 
                 if (eventList.getEvents().isEmpty()) {
                     break;
                 }
 
                 for (MvpEwsConnector.CalendarEventInfo eventInfo : eventList.getEvents()) {
+                    token.throwIfStopRequested();
+
                     // 检查是否已迁移
                     if (calendarEventRepository.existsByTaskIdAndSourceEventIdAndSuccess(
                             task.getId(), eventInfo.getId(), true)) {
@@ -712,23 +1676,31 @@ public class MvpMigrationService {
 
                     try {
                         // 获取事件详情
-                        MvpEwsConnector.CalendarEventDetail eventDetail = ewsConnector.getCalendarEventDetail(
-                                task.getSourceEwsUrl(),
-                                task.getSourceEmail(),
-                                task.getSourcePassword(),
-                                eventInfo.getId()
-                        );
+                        MvpEwsConnector.CalendarEventDetail eventDetail = migrationExecutor.call(
+                                ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_get_event"),
+                                () -> ewsConnector.getCalendarEventDetail(
+                                        task.getSourceEwsUrl(),
+                                        task.getSourceEmail(),
+                                        task.getSourcePassword(),
+                                        eventInfo.getId()
+                                ));
 
                         // 转换为 iCalendar 格式
-                        String iCalData = calendarTransformer.toICalendar(eventDetail);
-
-                        // 上传到目标
-                        String targetEventId = calDavConnector.createEvent(
-                                calDavUrl,
-                                task.getTargetEmail(),
-                                task.getTargetPassword(),
-                                iCalData
-                        );
+                        String iCalData = MigrationEvents.record(
+                                MigrationEvents.transform(WorkUnit.task(task.getId()), "calendar"),
+                                () -> calendarTransformer.toICalendar(eventDetail), String::length);
+
+                        // 上传到目标 (计入任务和租户的带宽配额)
+                        bandwidthShaper.acquire(task, BandwidthShaper.Stage.UPLOAD,
+                                iCalData.getBytes(StandardCharsets.UTF_8).length, token);
+                        String targetEventId = tuning(task).getUploadLimit().call(() -> migrationExecutor.call(
+                                ConnectorProtocol.DAV, targetCalDavUrl, op(task, ConnectorProtocol.DAV, "dav_put"),
+                                () -> calDavConnector.createEvent(
+                                        targetCalDavUrl,
+                                        task.getTargetEmail(),
+                                        task.getTargetPassword(),
+                                        iCalData
+                                )));
 
                         // 记录成功
                         MvpMigratedCalendarEvent record = MvpMigratedCalendarEvent.builder()
@@ -746,9 +1718,16 @@ public class MvpMigrationService {
                                 .build();
                         calendarEventRepository.save(record);
                         migratedEvents++;
+                        throughput.record(task.getId(), 1, iCalData.length());
+                        metrics.recordItems(WorkUnit.task(task.getId()), "dav", "upload", 1,
+                                iCalData.getBytes(StandardCharsets.UTF_8).length);
+                        remoteCalls.recordItems(WorkUnit.task(task.getId()), 1);
 
+                    } catch (CircuitOpenException | MigrationStoppedException e) {
+                        throw e;
                     } catch (Exception e) {
                         log.warn("Failed to migrate calendar event {}: {}", eventInfo.getId(), e.getMessage());
+                        metrics.recordError(WorkUnit.task(task.getId()), "dav", "upload", e);
                         MvpMigratedCalendarEvent record = MvpMigratedCalendarEvent.builder()
                                 .taskId(task.getId())
                                 .sourceEventId(eventInfo.getId())
@@ -781,6 +1760,8 @@ public class MvpMigrationService {
 
             log.info("Calendar migration completed. Migrated: {}, Failed: {}", migratedEvents, failedEvents);
 
+        } catch (CircuitOpenException | MigrationStoppedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Calendar migration failed: {}", e.getMessage(), e);
             task.setErrorMessage("Calendar migration failed: " + e.getMessage());
@@ -793,7 +1774,7 @@ public class MvpMigrationService {
     /**
      * 迁移联系人
      */
-    private void migrateContacts(MvpMigrationTask task) {
+    private void migrateContacts(MvpMigrationTask task, CancellationToken token) {
         log.info("Starting contacts migration for task {}", task.getId());
 
         try {
@@ -823,6 +1804,7 @@ public class MvpMigrationService {
                 log.warn("CardDAV URL not available, skipping contacts migration");
                 return;
             }
+            String targetCardDavUrl = cardDavUrl;
 
             // 分批获取并迁移联系人
             int offset = 0;
@@ -830,19 +1812,24 @@ public class MvpMigrationService {
             long failedContacts = 0;
 
             while (true) {
-                MvpEwsConnector.ContactListResult contactList = ewsConnector.listContacts(
-                        task.getSourceEwsUrl(),
-                        task.getSourceEmail(),
-                        task.getSourcePassword(),
-                        offset,
-                        BATCH_SIZE
-                );
+                int currentOffset = offset;
+                MvpEwsConnector.ContactListResult contactList = migrationExecutor.call(
+                        ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_list_contacts"),
+                        () -> ewsConnector.listContacts(
+                                task.getSourceEwsUrl(),
+                                task.getSourceEmail(),
+                                task.getSourcePassword(),
+                                currentOffset,
+                                BATCH_SIZE
+                        ));
 
                 if (contactList.getContacts().isEmpty()) {
                     break;
                 }
 
                 for (MvpEwsConnector.ContactInfo contactInfo : contactList.getContacts()) {
+                    token.throwIfStopRequested();
+
                     // 检查是否已迁移
                     if (contactRepository.existsByTaskIdAndSourceContactIdAndSuccess(
                             task.getId(), contactInfo.getId(), true)) {
@@ -851,23 +1838,31 @@ public class MvpMigrationService {
 
                     try {
                         // 获取联系人详情
-                        MvpEwsConnector.ContactDetail contactDetail = ewsConnector.getContactDetail(
-                                task.getSourceEwsUrl(),
-                                task.getSourceEmail(),
-                                task.getSourcePassword(),
-                                contactInfo.getId()
-                        );
+                        MvpEwsConnector.ContactDetail contactDetail = migrationExecutor.call(
+                                ConnectorProtocol.EWS, task.getSourceEwsUrl(), op(task, ConnectorProtocol.EWS, "ews_get_contact"),
+                                () -> ewsConnector.getContactDetail(
+                                        task.getSourceEwsUrl(),
+                                        task.getSourceEmail(),
+                                        task.getSourcePassword(),
+                                        contactInfo.getId()
+                                ));
 
                         // 转换为 vCard 格式
-                        String vCardData = contactTransformer.toVCard(contactDetail);
-
-                        // 上传到目标
-                        String targetContactId = cardDavConnector.createContact(
-                                cardDavUrl,
-                                task.getTargetEmail(),
-                                task.getTargetPassword(),
-                                vCardData
-                        );
+                        String vCardData = MigrationEvents.record(
+                                MigrationEvents.transform(WorkUnit.task(task.getId()), "contact"),
+                                () -> contactTransformer.toVCard(contactDetail), String::length);
+
+                        // 上传到目标 (计入任务和租户的带宽配额)
+                        bandwidthShaper.acquire(task, BandwidthShaper.Stage.UPLOAD,
+                                vCardData.getBytes(StandardCharsets.UTF_8).length, token);
+                        String targetContactId = tuning(task).getUploadLimit().call(() -> migrationExecutor.call(
+                                ConnectorProtocol.DAV, targetCardDavUrl, op(task, ConnectorProtocol.DAV, "dav_put"),
+                                () -> cardDavConnector.createContact(
+                                        targetCardDavUrl,
+                                        task.getTargetEmail(),
+                                        task.getTargetPassword(),
+                                        vCardData
+                                )));
 
                         // 记录成功
                         MvpMigratedContact record = MvpMigratedContact.builder()
@@ -884,9 +1879,16 @@ public class MvpMigrationService {
                                 .build();
                         contactRepository.save(record);
                         migratedContacts++;
+                        throughput.record(task.getId(), 1, vCardData.length());
+                        metrics.recordItems(WorkUnit.task(task.getId()), "dav", "upload", 1,
+                                vCardData.getBytes(StandardCharsets.UTF_8).length);
+                        remoteCalls.recordItems(WorkUnit.task(task.getId()), 1);
 
+                    } catch (CircuitOpenException | MigrationStoppedException e) {
+                        throw e;
                     } catch (Exception e) {
                         log.warn("Failed to migrate contact {}: {}", contactInfo.getId(), e.getMessage());
+                        metrics.recordError(WorkUnit.task(task.getId()), "dav", "upload", e);
                         MvpMigratedContact record = MvpMigratedContact.builder()
                                 .taskId(task.getId())
                                 .sourceContactId(contactInfo.getId())
@@ -917,6 +1919,8 @@ public class MvpMigrationService {
 
             log.info("Contacts migration completed. Migrated: {}, Failed: {}", migratedContacts, failedContacts);
 
+        } catch (CircuitOpenException | MigrationStoppedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Contacts migration failed: {}", e.getMessage(), e);
             task.setErrorMessage("Contacts migration failed: " + e.getMessage());
@@ -924,8 +1928,26 @@ public class MvpMigrationService {
         }
     }
 
+    /**
+     * 迁移计数，由分片和通道批次并发累加
+     */
     private static class MigrationResult {
-        int success = 0;
-        int failed = 0;
+        final AtomicInteger success = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+    }
+
+    /**
+     * 分片检查点：接收时间范围 [receivedFrom, receivedTo) 及其迁移状态，以 JSON 保存在文件夹进度中
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ShardCheckpoint {
+        private Instant receivedFrom;
+        private Instant receivedTo;
+        private String status;
+        private long estimatedEmails;
+        private long migratedEmails;
+        private long failedEmails;
     }
 }
@@ -0,0 +1,579 @@
+package com.migratehero.service;
+
+import com.migratehero.dto.request.MvpMigrationRequest;
+import com.migratehero.dto.request.MvpWaveImportRequest;
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.MvpMigrationWave;
+import com.migratehero.model.enums.ConnectorProtocol;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.repository.MvpMigrationTaskRepository;
+import com.migratehero.repository.MvpMigrationWaveRepository;
+import com.migratehero.service.connector.ews.MvpEwsConnector;
+import com.migratehero.service.connector.imap.ImapConnector;
+import com.migratehero.service.execution.BandwidthShaper;
+import com.migratehero.service.execution.FairTaskScheduler;
+import com.migratehero.service.execution.MigrationExecutor;
+import com.migratehero.service.execution.MigrationMetrics;
+import com.migratehero.service.execution.MigrationWindowSchedule;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * MVP 批量迁移服务 - 清单导入、并发预检与按批次 (Wave) 调度
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MvpWaveService {
+
+    private static final String DEFAULT_WAVE = "default";
+
+    private static final List<MigrationStatus> TERMINAL_STATUSES = List.of(
+            MigrationStatus.COMPLETED,
+            MigrationStatus.COMPLETED_WITH_ERRORS,
+            MigrationStatus.FAILED,
+            MigrationStatus.CANCELLED
+    );
+
+    private final MvpMigrationWaveRepository waveRepository;
+    private final MvpMigrationTaskRepository taskRepository;
+    private final MvpMigrationService migrationService;
+    private final FairTaskScheduler taskScheduler;
+    private final MigrationExecutor migrationExecutor;
+    private final MigrationMetrics metrics;
+    private final MvpEwsConnector ewsConnector;
+    private final ImapConnector imapConnector;
+    private final Validator validator;
+
+    /**
+     * 预检并发度
+     */
+    @Value("${migratehero.migration.preflight-parallelism:32}")
+    private int preflightParallelism;
+
+    /**
+     * 导入 JSON 清单
+     */
+    public ImportResult importManifest(MvpWaveImportRequest request) {
+        List<MvpMigrationWave> waves = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        Set<String> seenSources = new HashSet<>();
+        int created = 0;
+
+        for (MvpWaveImportRequest.WaveManifest manifest : request.getWaves()) {
+            MvpMigrationWave wave = getOrCreateWave(manifest.getName(), manifest.getWindowStart(), manifest.getWindowEnd());
+            waves.add(wave);
+
+            List<MvpMigrationTask> tasks = new ArrayList<>();
+            for (MvpMigrationRequest mailbox : manifest.getMailboxes()) {
+                String sourceEmail = mailbox.getSourceEmail().toLowerCase(Locale.ROOT);
+                if (!seenSources.add(sourceEmail)) {
+                    skipped.add(mailbox.getSourceEmail() + ": duplicated in manifest");
+                    continue;
+                }
+                if (migrationService.hasActiveTask(mailbox.getSourceEmail())) {
+                    skipped.add(mailbox.getSourceEmail() + ": already has an active task");
+                    continue;
+                }
+                try {
+                    BandwidthShaper.validate(mailbox.getWindowSchedule(), mailbox.getWindowTimeZone());
+                } catch (IllegalArgumentException e) {
+                    skipped.add(mailbox.getSourceEmail() + ": " + e.getMessage());
+                    continue;
+                }
+                tasks.add(toTask(mailbox, wave.getId()));
+            }
+            taskRepository.saveAll(tasks);
+            created += tasks.size();
+        }
+
+        log.info("Imported manifest: {} waves, {} tasks created, {} skipped", waves.size(), created, skipped.size());
+        return new ImportResult(waves, created, skipped);
+    }
+
+    /**
+     * 导入 CSV 清单
+     *
+     * 首行为表头，列名与 MvpMigrationRequest 字段一致；可选列 wave、windowStart、windowEnd (ISO-8601)
+     */
+    public ImportResult importCsv(String csv) {
+        List<List<String>> rows = parseCsv(csv);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Manifest is empty");
+        }
+
+        Map<String, Integer> header = new HashMap<>();
+        List<String> headerRow = rows.get(0);
+        for (int i = 0; i < headerRow.size(); i++) {
+            header.put(headerRow.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        Map<String, MvpWaveImportRequest.WaveManifest> manifests = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+
+        for (int r = 1; r < rows.size(); r++) {
+            List<String> row = rows.get(r);
+            if (row.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            int line = r + 1;
+
+            try {
+                MvpMigrationRequest mailbox = new MvpMigrationRequest();
+                mailbox.setSourceEwsUrl(column(row, header, "sourceEwsUrl"));
+                mailbox.setSourceEmail(column(row, header, "sourceEmail"));
+                mailbox.setSourcePassword(column(row, header, "sourcePassword"));
+                mailbox.setTargetImapHost(column(row, header, "targetImapHost"));
+                String port = column(row, header, "targetImapPort");
+                mailbox.setTargetImapPort(port != null ? Integer.valueOf(port) : null);
+                String ssl = column(row, header, "targetImapSsl");
+                mailbox.setTargetImapSsl(ssl != null ? Boolean.valueOf(ssl) : null);
+                mailbox.setTargetEmail(column(row, header, "targetEmail"));
+                mailbox.setTargetPassword(column(row, header, "targetPassword"));
+                mailbox.setTargetCalDavUrl(column(row, header, "targetCalDavUrl"));
+                mailbox.setTargetCardDavUrl(column(row, header, "targetCardDavUrl"));
+                String migrateEmails = column(row, header, "migrateEmails");
+                if (migrateEmails != null) {
+                    mailbox.setMigrateEmails(Boolean.valueOf(migrateEmails));
+                }
+                String migrateCalendar = column(row, header, "migrateCalendar");
+                if (migrateCalendar != null) {
+                    mailbox.setMigrateCalendar(Boolean.valueOf(migrateCalendar));
+                }
+                String migrateContacts = column(row, header, "migrateContacts");
+                if (migrateContacts != null) {
+                    mailbox.setMigrateContacts(Boolean.valueOf(migrateContacts));
+                }
+                String recentFirst = column(row, header, "recentFirst");
+                if (recentFirst != null) {
+                    mailbox.setRecentFirst(Boolean.valueOf(recentFirst));
+                }
+                String maxBytesPerSecond = column(row, header, "maxBytesPerSecond");
+                if (maxBytesPerSecond != null) {
+                    mailbox.setMaxBytesPerSecond(MigrationWindowSchedule.parseRate(maxBytesPerSecond));
+                }
+                mailbox.setWindowSchedule(column(row, header, "windowSchedule"));
+                mailbox.setWindowTimeZone(column(row, header, "windowTimeZone"));
+
+                Set<ConstraintViolation<MvpMigrationRequest>> violations = validator.validate(mailbox);
+                if (!violations.isEmpty()) {
+                    errors.add("line " + line + ": " + violations.iterator().next().getMessage());
+                    continue;
+                }
+
+                String waveName = Optional.ofNullable(column(row, header, "wave")).orElse(DEFAULT_WAVE);
+                MvpWaveImportRequest.WaveManifest manifest = manifests.computeIfAbsent(waveName, name -> {
+                    MvpWaveImportRequest.WaveManifest m = new MvpWaveImportRequest.WaveManifest();
+                    m.setName(name);
+                    m.setMailboxes(new ArrayList<>());
+                    return m;
+                });
+                String windowStart = column(row, header, "windowStart");
+                if (windowStart != null && manifest.getWindowStart() == null) {
+                    manifest.setWindowStart(Instant.parse(windowStart));
+                }
+                String windowEnd = column(row, header, "windowEnd");
+                if (windowEnd != null && manifest.getWindowEnd() == null) {
+                    manifest.setWindowEnd(Instant.parse(windowEnd));
+                }
+                manifest.getMailboxes().add(mailbox);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                errors.add("line " + line + ": " + e.getMessage());
+            }
+        }
+
+        MvpWaveImportRequest request = new MvpWaveImportRequest();
+        request.setWaves(new ArrayList<>(manifests.values()));
+        ImportResult result = request.getWaves().isEmpty()
+                ? new ImportResult(List.of(), 0, new ArrayList<>())
+                : importManifest(request);
+        result.skipped().addAll(0, errors);
+        return result;
+    }
+
+    public List<MvpMigrationWave> getAllWaves() {
+        return waveRepository.findAllByOrderByCreatedAtDesc();
+    }
+
+    public Optional<MvpMigrationWave> getWave(Long waveId) {
+        return waveRepository.findById(waveId);
+    }
+
+    public List<MvpMigrationTask> getWaveTasks(Long waveId) {
+        return taskRepository.findByWaveId(waveId);
+    }
+
+    /**
+     * 一次查询加载多个批次的任务，按批次 ID 分组 (没有任务的批次不在结果中)
+     */
+    public Map<Long, List<MvpMigrationTask>> getWaveTasks(Collection<MvpMigrationWave> waves) {
+        if (waves.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> waveIds = waves.stream().map(MvpMigrationWave::getId).toList();
+        return taskRepository.findByWaveIdIn(waveIds).stream()
+                .collect(Collectors.groupingBy(MvpMigrationTask::getWaveId));
+    }
+
+    /**
+     * 并发预检批次内所有任务的源端与目标端凭据 (异步执行，结果写回任务)
+     *
+     * @return 参与预检的任务数
+     */
+    public int preflightWave(Long waveId) {
+        MvpMigrationWave wave = requireWave(waveId);
+        List<MvpMigrationTask> tasks = taskRepository.findByWaveIdAndStatusIn(wave.getId(), List.of(
+                MigrationStatus.DRAFT, MigrationStatus.PAUSED, MigrationStatus.FAILED));
+
+        for (MvpMigrationTask task : tasks) {
+            taskRepository.updatePreflight(task.getId(), "pending", null);
+        }
+
+        // 分发线程在任务池上等待许可，各项预检作为叶子调用在工作池上执行
+        ExecutorService workers = migrationExecutor.getWorkerExecutor();
+        Semaphore permits = new Semaphore(preflightParallelism);
+        migrationExecutor.getExecutorService().execute(() -> {
+            for (MvpMigrationTask task : tasks) {
+                permits.acquireUninterruptibly();
+                workers.execute(() -> {
+                    try {
+                        preflight(task);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            log.info("Preflight dispatched for wave {} ({} tasks)", wave.getName(), tasks.size());
+        });
+
+        return tasks.size();
+    }
+
+    /**
+     * 启动批次：窗口未到时标记为已计划，窗口开启后自动入队
+     *
+     * @return 本次入队的任务数
+     */
+    public int startWave(Long waveId) {
+        MvpMigrationWave wave = requireWave(waveId);
+        if (wave.getWindowEnd() != null && Instant.now().isAfter(wave.getWindowEnd())) {
+            throw new RuntimeException("Wave start window has already closed");
+        }
+        if (wave.getWindowStart() != null && Instant.now().isBefore(wave.getWindowStart())) {
+            wave.setStatus(MigrationStatus.SCHEDULED);
+            waveRepository.save(wave);
+            log.info("Wave {} scheduled for {}", wave.getName(), wave.getWindowStart());
+            return 0;
+        }
+        return openWave(wave, List.of(MigrationStatus.DRAFT, MigrationStatus.PAUSED));
+    }
+
+    /**
+     * 暂停批次内所有排队中和运行中的任务
+     *
+     * @return 被暂停的任务数
+     */
+    public int pauseWave(Long waveId) {
+        MvpMigrationWave wave = requireWave(waveId);
+        int paused = pauseTasks(wave, List.of(MigrationStatus.QUEUED, MigrationStatus.RUNNING));
+
+        wave.setStatus(MigrationStatus.PAUSED);
+        waveRepository.save(wave);
+        log.info("Paused wave {} ({} tasks)", wave.getName(), paused);
+        return paused;
+    }
+
+    /**
+     * 重试批次内失败或部分失败的任务
+     *
+     * @return 重新入队的任务数
+     */
+    public int retryWave(Long waveId) {
+        MvpMigrationWave wave = requireWave(waveId);
+        wave.setCompletedAt(null);
+        return openWave(wave, List.of(MigrationStatus.FAILED, MigrationStatus.COMPLETED_WITH_ERRORS));
+    }
+
+    /**
+     * 批次节拍：开启到期窗口、关闭过期窗口、汇总批次状态
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.wave-tick-ms:30000}")
+    public void tick() {
+        Instant now = Instant.now();
+        for (MvpMigrationWave wave : waveRepository.findByStatusIn(
+                List.of(MigrationStatus.SCHEDULED, MigrationStatus.RUNNING))) {
+            try {
+                if (wave.getStatus() == MigrationStatus.SCHEDULED) {
+                    if (wave.getWindowStart() == null || !now.isBefore(wave.getWindowStart())) {
+                        openWave(wave, List.of(MigrationStatus.DRAFT, MigrationStatus.PAUSED));
+                    }
+                    continue;
+                }
+
+                // 窗口关闭后仍在排队的任务不再启动
+                if (wave.getWindowEnd() != null && now.isAfter(wave.getWindowEnd())) {
+                    int paused = pauseTasks(wave, List.of(MigrationStatus.QUEUED));
+                    if (paused > 0) {
+                        log.info("Start window of wave {} closed, paused {} queued tasks", wave.getName(), paused);
+                    }
+                }
+
+                updateWaveStatus(wave);
+            } catch (Exception e) {
+                log.error("Failed to process wave {}: {}", wave.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private int openWave(MvpMigrationWave wave, List<MigrationStatus> fromStatuses) {
+        int queued = 0;
+        for (MvpMigrationTask task : taskRepository.findByWaveIdAndStatusIn(wave.getId(), fromStatuses)) {
+            if ("failed".equals(task.getPreflightStatus())) {
+                continue;
+            }
+            try {
+                taskScheduler.enqueue(task.getId());
+                queued++;
+            } catch (Exception e) {
+                log.warn("Failed to queue task {} of wave {}: {}", task.getId(), wave.getName(), e.getMessage());
+            }
+        }
+
+        wave.setStatus(MigrationStatus.RUNNING);
+        if (wave.getStartedAt() == null) {
+            wave.setStartedAt(Instant.now());
+        }
+        waveRepository.save(wave);
+        log.info("Started wave {} ({} tasks queued)", wave.getName(), queued);
+        return queued;
+    }
+
+    private int pauseTasks(MvpMigrationWave wave, List<MigrationStatus> statuses) {
+        int paused = 0;
+        for (MvpMigrationTask task : taskRepository.findByWaveIdAndStatusIn(wave.getId(), statuses)) {
+            try {
+                taskScheduler.dequeue(task.getId());
+                migrationService.pauseTask(task.getId());
+                paused++;
+            } catch (Exception e) {
+                log.warn("Failed to pause task {} of wave {}: {}", task.getId(), wave.getName(), e.getMessage());
+            }
+        }
+        return paused;
+    }
+
+    private void updateWaveStatus(MvpMigrationWave wave) {
+        List<MvpMigrationTask> tasks = taskRepository.findByWaveId(wave.getId());
+        boolean active = tasks.stream().anyMatch(t ->
+                t.getStatus() == MigrationStatus.QUEUED || t.getStatus() == MigrationStatus.RUNNING);
+        if (active) {
+            return;
+        }
+
+        if (tasks.stream().allMatch(t -> t.getStatus() == MigrationStatus.COMPLETED)) {
+            wave.setStatus(MigrationStatus.COMPLETED);
+        } else if (tasks.stream().allMatch(t -> TERMINAL_STATUSES.contains(t.getStatus()))) {
+            wave.setStatus(MigrationStatus.COMPLETED_WITH_ERRORS);
+        } else {
+            wave.setStatus(MigrationStatus.PAUSED);
+        }
+        if (wave.getStatus() != MigrationStatus.PAUSED) {
+            wave.setCompletedAt(Instant.now());
+        }
+        waveRepository.save(wave);
+        log.info("Wave {} finished with status {}", wave.getName(), wave.getStatus());
+    }
+
+    private void preflight(MvpMigrationTask task) {
+        try {
+            WorkUnit unit = WorkUnit.task(task.getId());
+            boolean sourceOk = migrationExecutor.call(ConnectorProtocol.EWS, task.getSourceEwsUrl(),
+                    metrics.op(unit, ConnectorProtocol.EWS, "ews_test_connection"),
+                    () -> ewsConnector.testConnection(
+                            task.getSourceEwsUrl(),
+                            task.getSourceEmail(),
+                            task.getSourcePassword()
+                    ));
+            boolean targetOk = migrationExecutor.call(ConnectorProtocol.IMAP, task.getTargetImapHost(),
+                    metrics.op(unit, ConnectorProtocol.IMAP, "imap_test_connection"),
+                    () -> imapConnector.testConnection(
+                            task.getTargetImapHost(),
+                            task.getTargetImapPort(),
+                            task.getTargetImapSsl(),
+                            task.getTargetEmail(),
+                            task.getTargetPassword()
+                    ));
+
+            if (sourceOk) {
+                recordMailboxSize(task, unit);
+            }
+
+            if (sourceOk && targetOk) {
+                taskRepository.updatePreflight(task.getId(), "passed", null);
+            } else {
+                String message = !sourceOk && !targetOk ? "Source and target connection failed"
+                        : !sourceOk ? "Source connection failed" : "Target connection failed";
+                taskRepository.updatePreflight(task.getId(), "failed", message);
+            }
+        } catch (Exception e) {
+            taskRepository.updatePreflight(task.getId(), "failed", truncate(e.getMessage(), 1000));
+        }
+    }
+
+    /**
+     * 记录源邮箱大小，入队时调度器据此估算成本而不必在请求线程上访问源端；失败不影响预检结果
+     */
+    private void recordMailboxSize(MvpMigrationTask task, WorkUnit unit) {
+        if (task.getTotalEmails() != null && task.getTotalEmails() > 0) {
+            return;
+        }
+        try {
+            List<MvpEwsConnector.FolderInfo> folders = migrationExecutor.call(ConnectorProtocol.EWS, task.getSourceEwsUrl(),
+                    metrics.op(unit, ConnectorProtocol.EWS, "ews_list_folders"),
+                    () -> ewsConnector.listFolders(
+                            task.getSourceEwsUrl(),
+                            task.getSourceEmail(),
+                            task.getSourcePassword()
+                    ));
+            long total = folders.stream().mapToLong(MvpEwsConnector.FolderInfo::getTotalCount).sum();
+            if (total > 0) {
+                taskRepository.updateEstimatedSize(task.getId(), total);
+            }
+        } catch (Exception e) {
+            log.debug("Could not estimate mailbox size for task {}: {}", task.getId(), e.getMessage());
+        }
+    }
+
+    private MvpMigrationWave getOrCreateWave(String name, Instant windowStart, Instant windowEnd) {
+        MvpMigrationWave wave = waveRepository.findByName(name)
+                .orElseGet(() -> MvpMigrationWave.builder().name(name).build());
+        if (windowStart != null) {
+            wave.setWindowStart(windowStart);
+        }
+        if (windowEnd != null) {
+            wave.setWindowEnd(windowEnd);
+        }
+        return waveRepository.save(wave);
+    }
+
+    private MvpMigrationTask toTask(MvpMigrationRequest request, Long waveId) {
+        return MvpMigrationTask.builder()
+                .sourceEwsUrl(request.getSourceEwsUrl())
+                .sourceEmail(request.getSourceEmail())
+                .sourcePassword(request.getSourcePassword())
+                .targetImapHost(request.getTargetImapHost())
+                .targetImapPort(request.getTargetImapPort())
+                .targetImapSsl(request.getTargetImapSsl())
+                .targetEmail(request.getTargetEmail())
+                .targetPassword(request.getTargetPassword())
+                // 迁移类型
+                .migrateEmails(request.getMigrateEmails() != null ? request.getMigrateEmails() : true)
+                .migrateCalendar(request.getMigrateCalendar() != null ? request.getMigrateCalendar() : false)
+                .migrateContacts(request.getMigrateContacts() != null ? request.getMigrateContacts() : false)
+                .recentFirst(Boolean.TRUE.equals(request.getRecentFirst()))
+                // 带宽控制
+                .maxBytesPerSecond(request.getMaxBytesPerSecond())
+                .windowSchedule(request.getWindowSchedule())
+                .windowTimeZone(request.getWindowTimeZone())
+                // CalDAV/CardDAV 配置
+                .targetCalDavUrl(request.getTargetCalDavUrl())
+                .targetCardDavUrl(request.getTargetCardDavUrl())
+                .waveId(waveId)
+                .status(MigrationStatus.DRAFT)
+                .build();
+    }
+
+    private MvpMigrationWave requireWave(Long waveId) {
+        return waveRepository.findById(waveId)
+                .orElseThrow(() -> new RuntimeException("Wave not found: " + waveId));
+    }
+
+    private String column(List<String> row, Map<String, Integer> header, String name) {
+        Integer index = header.get(name.toLowerCase(Locale.ROOT));
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        String value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 解析 CSV (RFC 4180: 支持双引号包裹、字段内逗号/换行及 "" 转义)
+     */
+    private List<List<String>> parseCsv(String csv) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else if (c != '\uFEFF') {
+                field.append(c);
+            }
+        }
+        if (field.length() > 0 || !row.isEmpty()) {
+            row.add(field.toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private String truncate(String str, int maxLength) {
+        if (str == null) {
+            return null;
+        }
+        return str.length() > maxLength ? str.substring(0, maxLength) : str;
+    }
+
+    /**
+     * 清单导入结果
+     */
+    public record ImportResult(List<MvpMigrationWave> waves, int created, List<String> skipped) {}
+}
@@ -1,6 +1,7 @@
 package com.migratehero.service.connector;
 
 import com.migratehero.model.EmailAccount;
+import com.migratehero.model.enums.ConnectorProtocol;
 import com.migratehero.model.enums.ProviderType;
 import com.migratehero.service.connector.ews.EwsCalendarConnector;
 import com.migratehero.service.connector.ews.EwsContactConnector;
@@ -126,6 +127,16 @@ public class ConnectorFactory {
         };
     }
 
+    /**
+     * 获取账户对应的连接器协议
+     */
+    public ConnectorProtocol getProtocol(EmailAccount account) {
+        return switch (account.getProvider()) {
+            case GOOGLE -> ConnectorProtocol.GMAIL;
+            case MICROSOFT -> useMicrosoftEws ? ConnectorProtocol.EWS : ConnectorProtocol.GRAPH;
+        };
+    }
+
     /**
      * 检查是否使用 EWS
      */
@@ -4,6 +4,7 @@ import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.Contact;
 import com.migratehero.service.EncryptionService;
 import com.migratehero.service.connector.ContactConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import microsoft.exchange.webservices.data.core.ExchangeService;
@@ -320,11 +321,17 @@ public class EwsContactConnector implements ContactConnector {
     }
 
     private ExchangeService createExchangeService(EmailAccount account) throws Exception {
-        ExchangeService service = new ExchangeService(ExchangeVersion.Exchange2010_SP2);
-        String accessToken = encryptionService.decrypt(account.getAccessTokenEncrypted());
-        service.getHttpHeaders().put("Authorization", "Bearer " + accessToken);
-        service.setUrl(new URI(EWS_URL));
-        return service;
+        ExchangeService service = RemoteCallAccounting.ews(new ExchangeService(ExchangeVersion.Exchange2010_SP2));
+        try {
+            String accessToken = encryptionService.decrypt(account.getAccessTokenEncrypted());
+            service.getHttpHeaders().put("Authorization", "Bearer " + accessToken);
+            service.setUrl(new URI(EWS_URL));
+            return service;
+        } catch (Exception e) {
+            // 配置失败时释放已创建的连接池
+            closeService(service);
+            throw e;
+        }
     }
 
     private void closeService(ExchangeService service) {
@@ -4,11 +4,13 @@ import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.EmailMessage;
 import com.migratehero.service.EncryptionService;
 import com.migratehero.service.connector.EmailConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import microsoft.exchange.webservices.data.core.ExchangeService;
 import microsoft.exchange.webservices.data.core.PropertySet;
 import microsoft.exchange.webservices.data.core.enumeration.misc.ExchangeVersion;
+import microsoft.exchange.webservices.data.core.enumeration.notification.EventType;
 import microsoft.exchange.webservices.data.core.enumeration.property.BasePropertySet;
 import microsoft.exchange.webservices.data.core.enumeration.property.BodyType;
 import microsoft.exchange.webservices.data.core.enumeration.property.WellKnownFolderName;
@@ -19,6 +21,12 @@ import microsoft.exchange.webservices.data.core.service.folder.Folder;
 import microsoft.exchange.webservices.data.core.service.item.Item;
 import microsoft.exchange.webservices.data.core.service.schema.EmailMessageSchema;
 import microsoft.exchange.webservices.data.core.service.schema.ItemSchema;
+import microsoft.exchange.webservices.data.notification.GetEventsResults;
+import microsoft.exchange.webservices.data.notification.ItemEvent;
+import microsoft.exchange.webservices.data.notification.NotificationEvent;
+import microsoft.exchange.webservices.data.notification.PullSubscription;
+import microsoft.exchange.webservices.data.notification.StreamingSubscription;
+import microsoft.exchange.webservices.data.notification.StreamingSubscriptionConnection;
 import microsoft.exchange.webservices.data.property.complex.Attachment;
 import microsoft.exchange.webservices.data.property.complex.EmailAddress;
 import microsoft.exchange.webservices.data.property.complex.EmailAddressCollection;
@@ -35,6 +43,7 @@ import org.springframework.stereotype.Component;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * EWS 邮件连接器 - 使用 Exchange Web Services 访问 Microsoft 邮箱
@@ -309,22 +318,149 @@ public class EwsEmailConnector implements EmailConnector {
         }
     }
 
+    /**
+     * 订阅收件箱的拉取通知 (Pull Notification)
+     *
+     * @param watermark 上次消费到的水位，传入后可从断点继续接收事件
+     */
+    public PullSubscriptionInfo subscribeToPullNotifications(EmailAccount account, String watermark, int timeoutMinutes) {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(account);
+
+            PullSubscription subscription = service.subscribeToPullNotifications(
+                    List.of(new FolderId(WellKnownFolderName.Inbox)),
+                    timeoutMinutes,
+                    watermark,
+                    EventType.NewMail, EventType.Created, EventType.Modified,
+                    EventType.Moved, EventType.Copied, EventType.Deleted
+            );
+
+            return new PullSubscriptionInfo(subscription.getId(), subscription.getWaterMark());
+
+        } catch (Exception e) {
+            log.error("Failed to subscribe to pull notifications via EWS for account {}: {}",
+                    account.getEmail(), e.getMessage(), e);
+            throw new RuntimeException("Failed to subscribe to pull notifications via EWS", e);
+        } finally {
+            closeService(service);
+        }
+    }
+
+    /**
+     * 拉取订阅上的新事件
+     */
+    public NotificationBatch pullEvents(EmailAccount account, String subscriptionId, String watermark) {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(account);
+
+            GetEventsResults results = service.getEvents(subscriptionId, watermark);
+
+            List<ItemNotification> items = new ArrayList<>();
+            String newWatermark = watermark;
+            for (NotificationEvent event : results.getAllEvents()) {
+                newWatermark = event.getWatermark();
+                if (event instanceof ItemEvent itemEvent) {
+                    items.add(new ItemNotification(itemEvent.getItemId().getUniqueId(), itemEvent.getEventType()));
+                }
+            }
+
+            return new NotificationBatch(items, newWatermark);
+
+        } catch (Exception e) {
+            log.error("Failed to pull EWS events for subscription {}: {}", subscriptionId, e.getMessage());
+            throw new RuntimeException("Failed to pull EWS events", e);
+        } finally {
+            closeService(service);
+        }
+    }
+
+    /**
+     * 取消拉取订阅
+     */
+    public void unsubscribe(EmailAccount account, String subscriptionId) {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(account);
+            service.unsubscribe(subscriptionId);
+        } catch (Exception e) {
+            log.warn("Failed to unsubscribe EWS subscription {}: {}", subscriptionId, e.getMessage());
+        } finally {
+            closeService(service);
+        }
+    }
+
+    /**
+     * 打开收件箱的流式通知连接 (Streaming Notification)
+     *
+     * 连接到达生存期后会被服务端断开，由 onDisconnect 回调决定是否重新打开。
+     */
+    public StreamingSubscriptionConnection openStreamingSubscription(
+            EmailAccount account, int lifetimeMinutes,
+            Consumer<List<ItemNotification>> onEvents,
+            Consumer<StreamingSubscriptionConnection> onDisconnect) {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(account);
+
+            StreamingSubscription subscription = service.subscribeToStreamingNotifications(
+                    List.of(new FolderId(WellKnownFolderName.Inbox)),
+                    EventType.NewMail, EventType.Created, EventType.Modified,
+                    EventType.Moved, EventType.Copied, EventType.Deleted
+            );
+
+            StreamingSubscriptionConnection connection = new StreamingSubscriptionConnection(service, lifetimeMinutes);
+            connection.addSubscription(subscription);
+            connection.addOnNotificationEvent((sender, args) -> {
+                List<ItemNotification> items = new ArrayList<>();
+                for (NotificationEvent event : args.getEvents()) {
+                    if (event instanceof ItemEvent itemEvent) {
+                        items.add(new ItemNotification(itemEvent.getItemId().getUniqueId(), itemEvent.getEventType()));
+                    }
+                }
+                if (!items.isEmpty()) {
+                    onEvents.accept(items);
+                }
+            });
+            connection.addOnSubscriptionError((sender, args) ->
+                    log.warn("EWS streaming subscription error for account {}: {}", account.getEmail(),
+                            args.getException() != null ? args.getException().getMessage() : "unknown"));
+            connection.addOnDisconnect((sender, args) -> onDisconnect.accept(connection));
+            connection.open();
+
+            return connection;
+
+        } catch (Exception e) {
+            // 订阅或连接未建立时 service 不会被连接持有，需在此释放
+            closeService(service);
+            log.error("Failed to open EWS streaming subscription for account {}: {}",
+                    account.getEmail(), e.getMessage(), e);
+            throw new RuntimeException("Failed to open EWS streaming subscription", e);
+        }
+    }
+
     /**
      * 创建 Exchange 服务实例
      */
     private ExchangeService createExchangeService(EmailAccount account) throws Exception {
-        ExchangeService service = new ExchangeService(ExchangeVersion.Exchange2010_SP2);
-
-        // 解密 OAuth token
-        String accessToken = encryptionService.decrypt(account.getAccessTokenEncrypted());
+        ExchangeService service = RemoteCallAccounting.ews(new ExchangeService(ExchangeVersion.Exchange2010_SP2));
+        try {
+            // 解密 OAuth token
+            String accessToken = encryptionService.decrypt(account.getAccessTokenEncrypted());
 
-        // 使用 OAuth 2.0 Bearer Token
-        service.getHttpHeaders().put("Authorization", "Bearer " + accessToken);
+            // 使用 OAuth 2.0 Bearer Token
+            service.getHttpHeaders().put("Authorization", "Bearer " + accessToken);
 
-        // 设置 EWS 端点
-        service.setUrl(new URI(EWS_URL));
+            // 设置 EWS 端点
+            service.setUrl(new URI(EWS_URL));
 
-        return service;
+            return service;
+        } catch (Exception e) {
+            // 配置失败时释放已创建的连接池
+            closeService(service);
+            throw e;
+        }
     }
 
     /**
@@ -428,4 +564,28 @@ public class EwsEmailConnector implements EmailConnector {
             return "Inbox";
         }
     }
+
+    /**
+     * 拉取订阅信息
+     */
+    public record PullSubscriptionInfo(
+            String subscriptionId,
+            String watermark
+    ) {}
+
+    /**
+     * 单个项目的变更通知
+     */
+    public record ItemNotification(
+            String itemId,
+            EventType eventType
+    ) {}
+
+    /**
+     * 一次拉取得到的通知批次
+     */
+    public record NotificationBatch(
+            List<ItemNotification> items,
+            String newWatermark
+    ) {}
 }
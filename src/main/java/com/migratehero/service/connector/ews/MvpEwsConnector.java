@@ -1,5 +1,6 @@
 package com.migratehero.service.connector.ews;
 
+import com.migratehero.service.execution.RemoteCallAccounting;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import microsoft.exchange.webservices.data.core.ExchangeService;
@@ -7,9 +8,11 @@ import microsoft.exchange.webservices.data.core.PropertySet;
 import microsoft.exchange.webservices.data.core.enumeration.misc.ExchangeVersion;
 import microsoft.exchange.webservices.data.core.enumeration.property.BasePropertySet;
 import microsoft.exchange.webservices.data.core.enumeration.property.BodyType;
+import microsoft.exchange.webservices.data.core.enumeration.property.MapiPropertyType;
 import microsoft.exchange.webservices.data.core.enumeration.property.PhoneNumberKey;
 import microsoft.exchange.webservices.data.core.enumeration.property.PhysicalAddressKey;
 import microsoft.exchange.webservices.data.core.enumeration.property.WellKnownFolderName;
+import microsoft.exchange.webservices.data.core.enumeration.search.LogicalOperator;
 import microsoft.exchange.webservices.data.core.enumeration.search.SortDirection;
 import microsoft.exchange.webservices.data.core.service.folder.CalendarFolder;
 import microsoft.exchange.webservices.data.core.service.folder.ContactsFolder;
@@ -21,6 +24,7 @@ import microsoft.exchange.webservices.data.core.service.schema.AppointmentSchema
 import microsoft.exchange.webservices.data.core.service.schema.ContactSchema;
 import microsoft.exchange.webservices.data.core.service.schema.ItemSchema;
 import microsoft.exchange.webservices.data.credential.WebCredentials;
+import microsoft.exchange.webservices.data.misc.OutParam;
 import microsoft.exchange.webservices.data.property.complex.EmailAddress;
 import microsoft.exchange.webservices.data.property.complex.FolderId;
 import microsoft.exchange.webservices.data.property.complex.ItemId;
@@ -28,15 +32,18 @@ import microsoft.exchange.webservices.data.property.complex.MimeContent;
 import microsoft.exchange.webservices.data.property.complex.PhoneNumberDictionary;
 import microsoft.exchange.webservices.data.property.complex.PhysicalAddressDictionary;
 import microsoft.exchange.webservices.data.property.complex.PhysicalAddressEntry;
+import microsoft.exchange.webservices.data.property.definition.ExtendedPropertyDefinition;
 import microsoft.exchange.webservices.data.search.FindFoldersResults;
 import microsoft.exchange.webservices.data.search.FindItemsResults;
 import microsoft.exchange.webservices.data.search.FolderView;
 import microsoft.exchange.webservices.data.search.ItemView;
+import microsoft.exchange.webservices.data.search.filter.SearchFilter;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -48,6 +55,11 @@ public class MvpEwsConnector {
 
     private static final int DEFAULT_PAGE_SIZE = 50;
 
+    /**
+     * 文件夹内邮件总大小 (PR_MESSAGE_SIZE_EXTENDED, 0x0E08)
+     */
+    private static final ExtendedPropertyDefinition FOLDER_SIZE = folderSizeDefinition();
+
     /**
      * 测试 EWS 连接
      */
@@ -77,6 +89,7 @@ public class MvpEwsConnector {
 
             // 获取根文件夹
             FolderView view = new FolderView(100);
+            view.setPropertySet(folderProperties());
             FindFoldersResults results = service.findFolders(WellKnownFolderName.MsgFolderRoot, view);
 
             for (Folder folder : results.getFolders()) {
@@ -98,10 +111,12 @@ public class MvpEwsConnector {
             info.setName(folder.getDisplayName());
             info.setPath(folderPath);
             info.setTotalCount(folder.getTotalCount());
+            info.setSizeBytes(folderSize(folder));
             folders.add(info);
 
             // 递归获取子文件夹
             FolderView view = new FolderView(100);
+            view.setPropertySet(folderProperties());
             FindFoldersResults subFolders = service.findFolders(folder.getId(), view);
             for (Folder subFolder : subFolders.getFolders()) {
                 addFolderRecursive(service, subFolder, folders, folderPath);
@@ -111,6 +126,38 @@ public class MvpEwsConnector {
         }
     }
 
+    private static PropertySet folderProperties() {
+        return FOLDER_SIZE != null
+                ? new PropertySet(BasePropertySet.FirstClassProperties, FOLDER_SIZE)
+                : new PropertySet(BasePropertySet.FirstClassProperties);
+    }
+
+    private static ExtendedPropertyDefinition folderSizeDefinition() {
+        try {
+            return new ExtendedPropertyDefinition(0x0E08, MapiPropertyType.Long);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 文件夹内邮件总大小，用于按字节估算迁移进度
+     */
+    private long folderSize(Folder folder) {
+        if (FOLDER_SIZE == null) {
+            return 0;
+        }
+        try {
+            OutParam<Object> size = new OutParam<>();
+            if (folder.tryGetProperty(FOLDER_SIZE, size) && size.getParam() instanceof Number number) {
+                return number.longValue();
+            }
+        } catch (Exception e) {
+            log.debug("Folder size not available for {}: {}", folder.getId(), e.getMessage());
+        }
+        return 0;
+    }
+
     /**
      * 获取文件夹中的邮件列表（分页）
      */
@@ -127,28 +174,10 @@ public class MvpEwsConnector {
             FolderId folderIdObj = new FolderId(folderId);
             FindItemsResults<Item> results = service.findItems(folderIdObj, view);
 
-            List<EmailInfo> emails = new ArrayList<>();
-            for (Item item : results.getItems()) {
-                if (item instanceof microsoft.exchange.webservices.data.core.service.item.EmailMessage) {
-                    microsoft.exchange.webservices.data.core.service.item.EmailMessage msg =
-                            (microsoft.exchange.webservices.data.core.service.item.EmailMessage) item;
-
-                    EmailInfo info = new EmailInfo();
-                    info.setId(msg.getId().getUniqueId());
-                    info.setSubject(msg.getSubject());
-                    info.setFromAddress(msg.getFrom() != null ? msg.getFrom().getAddress() : null);
-                    info.setReceivedDate(msg.getDateTimeReceived() != null ?
-                            msg.getDateTimeReceived().toInstant() : null);
-                    info.setSize(msg.getSize());
-                    info.setRead(msg.getIsRead());
-                    emails.add(info);
-                }
-            }
-
             Folder folder = Folder.bind(service, folderIdObj);
 
             EmailListResult result = new EmailListResult();
-            result.setEmails(emails);
+            result.setEmails(toEmailInfos(results));
             result.setTotalCount(folder.getTotalCount());
             result.setHasMore(results.isMoreAvailable());
 
@@ -158,6 +187,123 @@ public class MvpEwsConnector {
         }
     }
 
+    /**
+     * 获取文件夹中指定接收时间范围 [receivedFrom, receivedTo) 内的邮件列表（分页，用于大文件夹分片）
+     *
+     * @param receivedFrom 起始时间 (含)，为 null 表示不限
+     * @param receivedTo   结束时间 (不含)，为 null 表示不限
+     */
+    public EmailListResult listEmails(String ewsUrl, String email, String password, String folderId,
+                                      Instant receivedFrom, Instant receivedTo,
+                                      int offset, int pageSize) throws Exception {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(ewsUrl, email, password);
+
+            ItemView view = new ItemView(pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE, offset);
+            view.getOrderBy().add(ItemSchema.DateTimeReceived, SortDirection.Descending);
+            view.setPropertySet(new PropertySet(BasePropertySet.FirstClassProperties));
+
+            FindItemsResults<Item> results = findInRange(service, folderId, receivedFrom, receivedTo, view);
+
+            EmailListResult result = new EmailListResult();
+            result.setEmails(toEmailInfos(results));
+            result.setTotalCount(results.getTotalCount());
+            result.setHasMore(results.isMoreAvailable());
+
+            return result;
+        } finally {
+            closeService(service);
+        }
+    }
+
+    /**
+     * 统计接收时间范围 [receivedFrom, receivedTo) 内的邮件数 (分片直方图探测，只取总数不取条目)
+     */
+    public int countEmails(String ewsUrl, String email, String password, String folderId,
+                           Instant receivedFrom, Instant receivedTo) throws Exception {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(ewsUrl, email, password);
+
+            ItemView view = new ItemView(1);
+            view.setPropertySet(new PropertySet(BasePropertySet.IdOnly));
+
+            return findInRange(service, folderId, receivedFrom, receivedTo, view).getTotalCount();
+        } finally {
+            closeService(service);
+        }
+    }
+
+    /**
+     * 获取文件夹中最早和最晚的邮件接收时间，文件夹为空时两者均为 null
+     */
+    public ReceivedRange getReceivedRange(String ewsUrl, String email, String password, String folderId) throws Exception {
+        ExchangeService service = null;
+        try {
+            service = createExchangeService(ewsUrl, email, password);
+
+            ReceivedRange range = new ReceivedRange();
+            range.setOldest(firstReceived(service, folderId, SortDirection.Ascending));
+            range.setNewest(firstReceived(service, folderId, SortDirection.Descending));
+            return range;
+        } finally {
+            closeService(service);
+        }
+    }
+
+    private Instant firstReceived(ExchangeService service, String folderId, SortDirection direction) throws Exception {
+        ItemView view = new ItemView(1);
+        view.getOrderBy().add(ItemSchema.DateTimeReceived, direction);
+        view.setPropertySet(new PropertySet(BasePropertySet.IdOnly, ItemSchema.DateTimeReceived));
+
+        FindItemsResults<Item> results = service.findItems(new FolderId(folderId), view);
+        if (results.getItems().isEmpty() || results.getItems().get(0).getDateTimeReceived() == null) {
+            return null;
+        }
+        return results.getItems().get(0).getDateTimeReceived().toInstant();
+    }
+
+    private FindItemsResults<Item> findInRange(ExchangeService service, String folderId,
+                                               Instant receivedFrom, Instant receivedTo, ItemView view) throws Exception {
+        List<SearchFilter> filters = new ArrayList<>();
+        if (receivedFrom != null) {
+            filters.add(new SearchFilter.IsGreaterThanOrEqualTo(ItemSchema.DateTimeReceived, Date.from(receivedFrom)));
+        }
+        if (receivedTo != null) {
+            filters.add(new SearchFilter.IsLessThan(ItemSchema.DateTimeReceived, Date.from(receivedTo)));
+        }
+
+        FolderId folderIdObj = new FolderId(folderId);
+        if (filters.isEmpty()) {
+            return service.findItems(folderIdObj, view);
+        }
+        SearchFilter filter = filters.size() == 1 ? filters.get(0)
+                : new SearchFilter.SearchFilterCollection(LogicalOperator.And, filters.toArray(new SearchFilter[0]));
+        return service.findItems(folderIdObj, filter, view);
+    }
+
+    private List<EmailInfo> toEmailInfos(FindItemsResults<Item> results) {
+        List<EmailInfo> emails = new ArrayList<>();
+        for (Item item : results.getItems()) {
+            if (item instanceof microsoft.exchange.webservices.data.core.service.item.EmailMessage) {
+                microsoft.exchange.webservices.data.core.service.item.EmailMessage msg =
+                        (microsoft.exchange.webservices.data.core.service.item.EmailMessage) item;
+
+                EmailInfo info = new EmailInfo();
+                info.setId(msg.getId().getUniqueId());
+                info.setSubject(msg.getSubject());
+                info.setFromAddress(msg.getFrom() != null ? msg.getFrom().getAddress() : null);
+                info.setReceivedDate(msg.getDateTimeReceived() != null ?
+                        msg.getDateTimeReceived().toInstant() : null);
+                info.setSize(msg.getSize());
+                info.setRead(msg.getIsRead());
+                emails.add(info);
+            }
+        }
+        return emails;
+    }
+
     /**
      * 获取邮件的原始 MIME 内容（用于迁移）
      */
@@ -512,11 +658,16 @@ public class MvpEwsConnector {
     }
 
     private ExchangeService createExchangeService(String ewsUrl, String email, String password) throws Exception {
-        ExchangeService service = new ExchangeService(ExchangeVersion.Exchange2010_SP2);
-        service.setCredentials(new WebCredentials(email, password));
-        service.setUrl(new URI(ewsUrl));
-        service.setTraceEnabled(false);
-        return service;
+        ExchangeService service = RemoteCallAccounting.ews(new ExchangeService(ExchangeVersion.Exchange2010_SP2));
+        try {
+            service.setCredentials(new WebCredentials(email, password));
+            service.setUrl(new URI(ewsUrl));
+            return service;
+        } catch (Exception e) {
+            // 配置失败时释放已创建的连接池
+            closeService(service);
+            throw e;
+        }
     }
 
     private void closeService(ExchangeService service) {
@@ -537,6 +688,8 @@ public class MvpEwsConnector {
         private String name;
         private String path;
         private int totalCount;
+        // 文件夹内邮件总字节数 (PR_MESSAGE_SIZE_EXTENDED)，服务器不提供时为 0
+        private long sizeBytes;
     }
 
     @Data
@@ -556,6 +709,12 @@ public class MvpEwsConnector {
         private boolean hasMore;
     }
 
+    @Data
+    public static class ReceivedRange {
+        private Instant oldest;
+        private Instant newest;
+    }
+
     @Data
     public static class EmailMimeData {
         private String emailId;
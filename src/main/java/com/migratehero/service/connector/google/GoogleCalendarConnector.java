@@ -11,6 +11,7 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.CalendarEvent;
 import com.migratehero.service.connector.CalendarConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import com.migratehero.service.oauth.GoogleOAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -231,7 +232,7 @@ public class GoogleCalendarConnector implements CalendarConnector {
         return new Calendar.Builder(
                 new NetHttpTransport(),
                 GsonFactory.getDefaultInstance(),
-                new HttpCredentialsAdapter(credentials)
+                RemoteCallAccounting.google(new HttpCredentialsAdapter(credentials))
         ).setApplicationName(APPLICATION_NAME).build();
     }
 
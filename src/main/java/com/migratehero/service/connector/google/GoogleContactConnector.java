@@ -10,6 +10,7 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.Contact;
 import com.migratehero.service.connector.ContactConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import com.migratehero.service.oauth.GoogleOAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -177,7 +178,7 @@ public class GoogleContactConnector implements ContactConnector {
         return new PeopleService.Builder(
                 new NetHttpTransport(),
                 GsonFactory.getDefaultInstance(),
-                new HttpCredentialsAdapter(credentials)
+                RemoteCallAccounting.google(new HttpCredentialsAdapter(credentials))
         ).setApplicationName(APPLICATION_NAME).build();
     }
 
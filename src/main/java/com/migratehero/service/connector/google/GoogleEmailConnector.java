@@ -11,6 +11,7 @@ import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.EmailMessage;
 import com.migratehero.service.EncryptionService;
 import com.migratehero.service.connector.EmailConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import com.migratehero.service.oauth.GoogleOAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -232,7 +233,7 @@ public class GoogleEmailConnector implements EmailConnector {
         return new Gmail.Builder(
                 new NetHttpTransport(),
                 GsonFactory.getDefaultInstance(),
-                new HttpCredentialsAdapter(credentials)
+                RemoteCallAccounting.google(new HttpCredentialsAdapter(credentials))
         ).setApplicationName(APPLICATION_NAME).build();
     }
 
@@ -1,12 +1,13 @@
 package com.migratehero.service.connector.imap;
 
+import com.sun.mail.imap.IMAPFolder;
 import jakarta.mail.*;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.util.Collection;
 import java.util.Properties;
 
 /**
@@ -16,6 +17,8 @@ import java.util.Properties;
 @Component
 public class ImapConnector {
 
+    private static final Session PARSE_SESSION = Session.getInstance(new Properties());
+
     /**
      * 测试 IMAP 连接
      */
@@ -71,9 +74,7 @@ public class ImapConnector {
             folder.open(Folder.READ_WRITE);
 
             // 从原始邮件数据创建 MimeMessage
-            Session session = Session.getInstance(new Properties());
-            InputStream is = new ByteArrayInputStream(rawEmail);
-            MimeMessage message = new MimeMessage(session, is);
+            MimeMessage message = parseMessage(rawEmail);
 
             // 追加到文件夹
             folder.appendMessages(new Message[]{message});
@@ -82,9 +83,7 @@ public class ImapConnector {
             return null; // IMAP 标准不返回 UID，需要额外查询
 
         } finally {
-            if (folder != null && folder.isOpen()) {
-                folder.close(false);
-            }
+            closeFolder(folder);
             closeStore(store);
         }
     }
@@ -101,13 +100,11 @@ public class ImapConnector {
             folder = getOrCreateFolder(store, folderName);
             folder.open(Folder.READ_WRITE);
 
-            Session session = Session.getInstance(new Properties());
             Message[] messages = new Message[rawEmails.length];
 
             for (int i = 0; i < rawEmails.length; i++) {
                 try {
-                    InputStream is = new ByteArrayInputStream(rawEmails[i]);
-                    messages[i] = new MimeMessage(session, is);
+                    messages[i] = parseMessage(rawEmails[i]);
                 } catch (Exception e) {
                     log.warn("Failed to parse email {}: {}", i, e.getMessage());
                     messages[i] = null;
@@ -127,13 +124,51 @@ public class ImapConnector {
             return validMessages.length;
 
         } finally {
-            if (folder != null && folder.isOpen()) {
-                folder.close(false);
-            }
+            closeFolder(folder);
             closeStore(store);
         }
     }
 
+    /**
+     * 把原始邮件 (RFC 822) 解析为待 APPEND 的 MimeMessage
+     *
+     * 解析只用到会话的默认配置，所有调用共享一个会话，避免每封邮件重新加载 JavaMail 提供者配置。
+     */
+    public static MimeMessage parseMessage(byte[] rawEmail) throws MessagingException {
+        return new MimeMessage(PARSE_SESSION, new ByteArrayInputStream(rawEmail));
+    }
+
+    /**
+     * 获取目标服务器声明的 APPENDLIMIT (RFC 7889)，单位字节；未声明全局上限时返回 0
+     */
+    public long getAppendLimit(String host, int port, boolean ssl, String email, String password) throws Exception {
+        Store store = null;
+        try {
+            store = connectToStore(host, port, ssl, email, password);
+            IMAPFolder inbox = (IMAPFolder) store.getFolder("INBOX");
+            Object limit = inbox.doCommand(protocol -> parseAppendLimit(protocol.getCapabilities().keySet()));
+            return (Long) limit;
+        } finally {
+            closeStore(store);
+        }
+    }
+
+    /**
+     * 从 CAPABILITY 列表中解析 APPENDLIMIT=n；不带数值的 APPENDLIMIT 表示按文件夹限制，视为未声明
+     */
+    static long parseAppendLimit(Collection<String> capabilities) {
+        for (String capability : capabilities) {
+            if (capability.toUpperCase().startsWith("APPENDLIMIT=")) {
+                try {
+                    return Long.parseLong(capability.substring("APPENDLIMIT=".length()).trim());
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed capability: {}", capability);
+                }
+            }
+        }
+        return 0;
+    }
+
     /**
      * 列出所有文件夹
      */
@@ -186,6 +221,19 @@ public class ImapConnector {
         return store;
     }
 
+    /**
+     * 关闭文件夹 - 失败只记录日志，保证后续的 closeStore 一定执行
+     */
+    private void closeFolder(Folder folder) {
+        if (folder != null && folder.isOpen()) {
+            try {
+                folder.close(false);
+            } catch (MessagingException e) {
+                log.warn("Failed to close IMAP folder: {}", e.getMessage());
+            }
+        }
+    }
+
     private void closeStore(Store store) {
         if (store != null && store.isConnected()) {
             try {
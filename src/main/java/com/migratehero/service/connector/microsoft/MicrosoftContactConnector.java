@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.Contact;
 import com.migratehero.service.connector.ContactConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import com.migratehero.service.oauth.MicrosoftOAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,7 +25,7 @@ public class MicrosoftContactConnector implements ContactConnector {
 
     private final MicrosoftOAuthService microsoftOAuthService;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate = RemoteCallAccounting.restTemplate(new RestTemplate(), "graph");
 
     private static final String GRAPH_API_URL = "https://graph.microsoft.com/v1.0";
 
@@ -5,10 +5,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.migratehero.model.EmailAccount;
 import com.migratehero.model.dto.EmailMessage;
 import com.migratehero.service.connector.EmailConnector;
+import com.migratehero.service.execution.RemoteCallAccounting;
 import com.migratehero.service.oauth.MicrosoftOAuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -26,7 +28,10 @@ public class MicrosoftEmailConnector implements EmailConnector {
 
     private final MicrosoftOAuthService microsoftOAuthService;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate = RemoteCallAccounting.restTemplate(new RestTemplate(), "graph");
+    // JDK HttpURLConnection 不支持 PATCH，续订订阅时使用 HttpClient 实现
+    private final RestTemplate patchRestTemplate = RemoteCallAccounting.restTemplate(
+            new RestTemplate(new HttpComponentsClientHttpRequestFactory()), "graph");
 
     private static final String GRAPH_API_URL = "https://graph.microsoft.com/v1.0";
 
@@ -192,6 +197,81 @@ public class MicrosoftEmailConnector implements EmailConnector {
         }
     }
 
+    /**
+     * 创建收件箱变更订阅 (Graph Change Notification)
+     *
+     * @param notificationUrl 本地 Webhook 接收地址，必须可被 Graph 公网访问
+     * @param clientState     用于校验通知来源的共享密钥
+     * @return 订阅 ID
+     */
+    public String createSubscription(EmailAccount account, String notificationUrl, String clientState,
+                                     Instant expiration) {
+        try {
+            String accessToken = microsoftOAuthService.getAccessToken(account);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(accessToken);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            Map<String, Object> subscription = new HashMap<>();
+            subscription.put("changeType", "created,updated,deleted");
+            subscription.put("notificationUrl", notificationUrl);
+            subscription.put("resource", "me/mailFolders('inbox')/messages");
+            subscription.put("expirationDateTime", expiration.toString());
+            subscription.put("clientState", clientState);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    GRAPH_API_URL + "/subscriptions",
+                    new HttpEntity<>(subscription, headers),
+                    String.class);
+
+            JsonNode result = objectMapper.readTree(response.getBody());
+            return result.get("id").asText();
+        } catch (Exception e) {
+            log.error("Failed to create Graph subscription for account: {}", account.getEmail(), e);
+            throw new RuntimeException("Failed to create Graph subscription", e);
+        }
+    }
+
+    /**
+     * 续订变更订阅
+     */
+    public void renewSubscription(EmailAccount account, String subscriptionId, Instant expiration) {
+        try {
+            String accessToken = microsoftOAuthService.getAccessToken(account);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(accessToken);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            patchRestTemplate.exchange(
+                    GRAPH_API_URL + "/subscriptions/" + subscriptionId,
+                    HttpMethod.PATCH,
+                    new HttpEntity<>(Map.of("expirationDateTime", expiration.toString()), headers),
+                    String.class);
+        } catch (Exception e) {
+            log.error("Failed to renew Graph subscription {}", subscriptionId, e);
+            throw new RuntimeException("Failed to renew Graph subscription", e);
+        }
+    }
+
+    /**
+     * 删除变更订阅
+     */
+    public void deleteSubscription(EmailAccount account, String subscriptionId) {
+        try {
+            String accessToken = microsoftOAuthService.getAccessToken(account);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(accessToken);
+
+            restTemplate.exchange(
+                    GRAPH_API_URL + "/subscriptions/" + subscriptionId,
+                    HttpMethod.DELETE,
+                    new HttpEntity<>(headers),
+                    String.class);
+        } catch (Exception e) {
+            log.warn("Failed to delete Graph subscription {}: {}", subscriptionId, e.getMessage());
+        }
+    }
+
     private EmailMessage convertToEmailMessage(JsonNode node) {
         EmailMessage.EmailMessageBuilder builder = EmailMessage.builder()
                 .id(node.get("id").asText())
@@ -0,0 +1,84 @@
+package com.migratehero.service.execution;
+
+/**
+ * 自适应批大小控制器 - 根据每次请求的响应时间和字节量调整下一次请求的条目数
+ *
+ * 以指数加权平均估算单条目耗时和字节数，推算达到目标响应时间 / 目标字节量的理想批大小，
+ * 当前值每次向理想值靠近一半；响应时间超过目标两倍时直接减半。结果限制在 [min, max] 内。
+ */
+public final class AdaptiveBatchSizer {
+
+    /**
+     * 指数加权平均的平滑系数
+     */
+    private static final double ALPHA = 0.3;
+
+    private final int min;
+    private final int max;
+    private final long targetLatencyMs;
+    private final long targetBytes;
+
+    private double size;
+    private double msPerItem = -1;
+    private double bytesPerItem = -1;
+
+    /**
+     * @param initial         初始批大小
+     * @param min             批大小下限
+     * @param max             批大小上限
+     * @param targetLatencyMs 目标单次响应时间 (毫秒)
+     * @param targetBytes     目标单次字节量，<= 0 表示不按字节量限制
+     */
+    public AdaptiveBatchSizer(int initial, int min, int max, long targetLatencyMs, long targetBytes) {
+        this.min = Math.max(min, 1);
+        this.max = Math.max(max, this.min);
+        this.targetLatencyMs = Math.max(targetLatencyMs, 1);
+        this.targetBytes = targetBytes;
+        this.size = clamp(initial);
+    }
+
+    /**
+     * 下一次请求使用的批大小
+     */
+    public synchronized int current() {
+        return (int) Math.round(size);
+    }
+
+    /**
+     * 记录一次请求的结果并调整批大小
+     *
+     * @param items     本次返回的条目数
+     * @param elapsedMs 本次耗时 (毫秒)
+     * @param bytes     本次字节量，< 0 表示未知
+     * @return 调整后的批大小
+     */
+    public synchronized int record(int items, long elapsedMs, long bytes) {
+        if (items <= 0) {
+            return current();
+        }
+
+        msPerItem = smooth(msPerItem, Math.max(elapsedMs, 1) / (double) items);
+        if (bytes >= 0) {
+            bytesPerItem = smooth(bytesPerItem, bytes / (double) items);
+        }
+
+        if (elapsedMs > targetLatencyMs * 2) {
+            size = clamp(size / 2);
+        } else {
+            double ideal = targetLatencyMs / msPerItem;
+            if (targetBytes > 0 && bytesPerItem > 0) {
+                ideal = Math.min(ideal, targetBytes / bytesPerItem);
+            }
+            size = clamp(size + (ideal - size) / 2);
+        }
+        return current();
+    }
+
+    private double smooth(double average, double sample) {
+        return average < 0 ? sample : average + ALPHA * (sample - average);
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,81 @@
+package com.migratehero.service.execution;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应批大小注册表 - 按操作和远程主机维护批大小控制器，当前批大小以 migratehero.batch.size 指标上报
+ *
+ * 操作示例: ews.list (分页列出邮件)、ews.fetch (GetItem 批量下载)、engine.emails (迁移引擎读取邮件)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdaptiveBatchSizing {
+
+    public static final String EWS_LIST = "ews.list";
+    public static final String EWS_FETCH = "ews.fetch";
+    public static final String ENGINE_EMAILS = "engine.emails";
+    public static final String ENGINE_CONTACTS = "engine.contacts";
+    public static final String ENGINE_EVENTS = "engine.events";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migratehero.migration.batch.min:5}")
+    private int minSize;
+
+    @Value("${migratehero.migration.batch.max:200}")
+    private int maxSize;
+
+    @Value("${migratehero.migration.batch.target-latency-ms:2000}")
+    private long targetLatencyMs;
+
+    @Value("${migratehero.migration.batch.target-bytes:8388608}")
+    private long targetBytes;
+
+    private final Map<String, AdaptiveBatchSizer> sizers = new ConcurrentHashMap<>();
+
+    /**
+     * 获取 (或创建) 某操作在某主机上的批大小控制器
+     *
+     * @param initial 首次创建时的初始批大小
+     */
+    public AdaptiveBatchSizer sizer(String operation, String host, int initial) {
+        String hostKey = hostKey(host);
+        return sizers.computeIfAbsent(operation + "|" + hostKey, key -> {
+            AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(initial, minSize, maxSize, targetLatencyMs, targetBytes);
+            Gauge.builder("migratehero.batch.size", sizer, AdaptiveBatchSizer::current)
+                    .description("Current adaptive batch size")
+                    .tag("operation", operation)
+                    .tag("host", hostKey)
+                    .register(meterRegistry);
+            log.debug("Created adaptive batch sizer for {} on {} (initial {})", operation, hostKey, initial);
+            return sizer;
+        });
+    }
+
+    private String hostKey(String host) {
+        if (host == null || host.isEmpty()) {
+            return "default";
+        }
+        if (host.contains("://")) {
+            try {
+                String parsed = URI.create(host).getHost();
+                if (parsed != null) {
+                    return parsed.toLowerCase();
+                }
+            } catch (IllegalArgumentException e) {
+                // 非法 URL 按原样作为主机键
+            }
+        }
+        return host.toLowerCase();
+    }
+}
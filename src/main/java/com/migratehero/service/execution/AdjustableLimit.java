@@ -0,0 +1,67 @@
+package com.migratehero.service.execution;
+
+/**
+ * 可在运行时调整上限的并发闸门
+ *
+ * 调大上限立即唤醒等待者；调小上限不打断在途调用，在途数回落到新上限以下后才放行新的调用。
+ */
+public final class AdjustableLimit {
+
+    /**
+     * 不限并发
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private int limit;
+    private int inFlight;
+
+    public AdjustableLimit(int limit) {
+        this.limit = normalize(limit);
+    }
+
+    public synchronized void setLimit(int limit) {
+        this.limit = normalize(limit);
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized void acquire() {
+        while (inFlight >= limit) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for concurrency limit", e);
+            }
+        }
+        inFlight++;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * 在上限内执行一次调用
+     */
+    public <T, E extends Exception> T call(MigrationExecutor.IoCall<T, E> work) throws E {
+        acquire();
+        try {
+            return work.call();
+        } finally {
+            release();
+        }
+    }
+
+    private static int normalize(int limit) {
+        return limit > 0 ? limit : UNLIMITED;
+    }
+}
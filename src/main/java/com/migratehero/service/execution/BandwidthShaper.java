@@ -0,0 +1,267 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带宽整形 - 按 MIME 字节对任务和租户分别限速
+ *
+ * 每个任务、每个租户 (源邮箱域名) 在源端读取 (FETCH) 和目标端写入 (UPLOAD) 两个阶段各有一个令牌桶，
+ * 调用方需同时满足两者。任务速率取 maxBytesPerSecond 与时间窗口计划 (含边界爬坡) 的较小值；
+ * 窗口为 pause 时阻塞等待直到窗口结束或任务被停止。运行时调整的速率上限 (TuningRegistry) 优先于任务设置。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BandwidthShaper {
+
+    public enum Stage {
+        FETCH, UPLOAD
+    }
+
+    /**
+     * 窗口速率的重新计算间隔
+     */
+    private static final long RATE_REFRESH_NANOS = 5_000_000_000L;
+
+    /**
+     * 暂停或等待令牌时的单次休眠上限，便于及时响应停止请求
+     */
+    private static final long MAX_SLEEP_MS = 1_000;
+
+    private final TuningRegistry tuningRegistry;
+
+    @Value("${migratehero.bandwidth.tenant-bytes-per-sec:0}")
+    private long tenantBytesPerSec;
+
+    @Value("${migratehero.bandwidth.tenant-limits:}")
+    private String tenantLimitsSpec;
+
+    @Value("${migratehero.bandwidth.default-window-schedule:}")
+    private String defaultWindowSchedule;
+
+    @Value("${migratehero.bandwidth.full-speed-bytes-per-sec:52428800}")
+    private long fullSpeedBytesPerSec;
+
+    @Value("${migratehero.bandwidth.ramp-minutes:15}")
+    private int rampMinutes;
+
+    @Value("${migratehero.bandwidth.burst-seconds:2}")
+    private double burstSeconds;
+
+    private final Map<String, Long> tenantLimits = new HashMap<>();
+    private final Map<Long, TaskShape> taskShapes = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> tenantBuckets = new ConcurrentHashMap<>();
+    private final Map<WorkUnit, TokenBucket> unitBuckets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (tenantLimitsSpec != null && !tenantLimitsSpec.isBlank()) {
+            for (String entry : tenantLimitsSpec.split(",")) {
+                String[] kv = entry.split("=", 2);
+                if (kv.length == 2) {
+                    tenantLimits.put(kv[0].trim().toLowerCase(Locale.ROOT), MigrationWindowSchedule.parseRate(kv[1]));
+                }
+            }
+        }
+        MigrationWindowSchedule.parse(defaultWindowSchedule);
+        log.info("Bandwidth shaping: tenant default {} B/s, {} tenant overrides, ramp {} min",
+                tenantBytesPerSec > 0 ? tenantBytesPerSec : "unlimited", tenantLimits.size(), rampMinutes);
+    }
+
+    /**
+     * 校验任务的窗口计划和时区
+     *
+     * @throws IllegalArgumentException 计划格式错误或时区无效
+     */
+    public static void validate(String windowSchedule, String windowTimeZone) {
+        MigrationWindowSchedule.parse(windowSchedule);
+        if (windowTimeZone != null && !windowTimeZone.isBlank()) {
+            try {
+                ZoneId.of(windowTimeZone);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Invalid time zone: " + windowTimeZone);
+            }
+        }
+    }
+
+    /**
+     * 为任务的一次传输申请 bytes 字节配额，必要时阻塞等待
+     *
+     * @throws MigrationStoppedException 等待期间任务被停止
+     */
+    public void acquire(MvpMigrationTask task, Stage stage, long bytes, CancellationToken token) {
+        if (bytes <= 0) {
+            return;
+        }
+        TaskShape shape = taskShapes.computeIfAbsent(task.getId(), id -> new TaskShape(task));
+        long rate = shape.rate(System.nanoTime());
+        if (rate == MigrationWindowSchedule.PAUSED) {
+            log.info("Task {} outside migration window, pausing transfers", task.getId());
+            do {
+                sleep(MAX_SLEEP_MS, token);
+                rate = shape.rate(System.nanoTime());
+            } while (rate == MigrationWindowSchedule.PAUSED);
+            log.info("Task {} migration window open, resuming at {} B/s", task.getId(),
+                    rate == TokenBucket.UNLIMITED ? "unlimited" : rate);
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = shape.bucket(stage, rate, now).reserve(bytes, now);
+        TokenBucket tenantBucket = tenantBucket(task.getTenantId(), stage);
+        if (tenantBucket != null) {
+            waitNanos = Math.max(waitNanos, tenantBucket.reserve(bytes, now));
+        }
+        if (waitNanos > 0) {
+            sleep(waitNanos / 1_000_000, token);
+        }
+    }
+
+    /**
+     * 为迁移作业的一次传输申请配额 - 作业没有窗口计划和租户限额，只受运行时调整的速率上限约束
+     */
+    public void acquire(WorkUnit unit, long bytes, CancellationToken token) {
+        TaskTuning tuning = tuningRegistry.find(unit);
+        Long max = tuning != null ? tuning.getMaxBytesPerSecond() : null;
+        if (max == null) {
+            unitBuckets.remove(unit);
+            return;
+        }
+        if (bytes <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = unitBuckets.computeIfAbsent(unit, u -> new TokenBucket(max, burstSeconds, now));
+        if (bucket.getRate() != max) {
+            bucket.setRate(max, now);
+        }
+        long waitNanos = bucket.reserve(bytes, now);
+        if (waitNanos > 0) {
+            sleep(waitNanos / 1_000_000, token);
+        }
+    }
+
+    /**
+     * 速率参数调整后立即重新计算 (不等待下一个刷新周期)
+     */
+    public void refresh(Long taskId) {
+        TaskShape shape = taskShapes.get(taskId);
+        if (shape != null) {
+            shape.invalidate();
+        }
+    }
+
+    /**
+     * 任务当前生效的速率 (字节/秒)，不限速返回 -1
+     */
+    public long currentRate(Long taskId) {
+        TaskShape shape = taskShapes.get(taskId);
+        if (shape == null) {
+            return -1;
+        }
+        long rate = shape.rate(System.nanoTime());
+        return rate == TokenBucket.UNLIMITED ? -1 : rate;
+    }
+
+    /**
+     * 任务结束后释放其令牌桶
+     */
+    public void release(Long taskId) {
+        taskShapes.remove(taskId);
+    }
+
+    /**
+     * 作业结束后释放其令牌桶
+     */
+    public void release(WorkUnit unit) {
+        unitBuckets.remove(unit);
+    }
+
+    private TokenBucket tenantBucket(String tenantId, Stage stage) {
+        String tenant = tenantId != null ? tenantId.toLowerCase(Locale.ROOT) : "default";
+        long rate = tenantLimits.getOrDefault(tenant, tenantBytesPerSec > 0 ? tenantBytesPerSec : TokenBucket.UNLIMITED);
+        if (rate == TokenBucket.UNLIMITED || rate <= 0) {
+            return null;
+        }
+        return tenantBuckets.computeIfAbsent(tenant + ":" + stage,
+                k -> new TokenBucket(rate, burstSeconds, System.nanoTime()));
+    }
+
+    private void sleep(long millis, CancellationToken token) {
+        long deadline = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (remaining > 0) {
+            if (token != null) {
+                token.throwIfStopRequested();
+            }
+            try {
+                Thread.sleep(Math.min(remaining, MAX_SLEEP_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for bandwidth", e);
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (token != null) {
+            token.throwIfStopRequested();
+        }
+    }
+
+    private final class TaskShape {
+        private final long maxBytesPerSecond;
+        private final TaskTuning tuning;
+        private final MigrationWindowSchedule schedule;
+        private final ZoneId zone;
+        private final Map<Stage, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private long rate;
+        private long refreshedAt;
+        private boolean computed;
+
+        private TaskShape(MvpMigrationTask task) {
+            Long max = task.getMaxBytesPerSecond();
+            this.maxBytesPerSecond = max != null && max > 0 ? max : TokenBucket.UNLIMITED;
+            this.tuning = tuningRegistry.get(WorkUnit.task(task.getId()));
+            String spec = task.getWindowSchedule() != null && !task.getWindowSchedule().isBlank()
+                    ? task.getWindowSchedule() : defaultWindowSchedule;
+            this.schedule = MigrationWindowSchedule.parse(spec);
+            this.zone = task.getWindowTimeZone() != null && !task.getWindowTimeZone().isBlank()
+                    ? ZoneId.of(task.getWindowTimeZone()) : ZoneId.systemDefault();
+        }
+
+        synchronized long rate(long nowNanos) {
+            if (!computed || nowNanos - refreshedAt >= RATE_REFRESH_NANOS) {
+                long windowRate = schedule.effectiveRate(LocalDateTime.now(zone), rampMinutes, fullSpeedBytesPerSec);
+                Long tuned = tuning.getMaxBytesPerSecond();
+                rate = Math.min(tuned != null ? tuned : maxBytesPerSecond, windowRate);
+                refreshedAt = nowNanos;
+                computed = true;
+            }
+            return rate;
+        }
+
+        synchronized void invalidate() {
+            computed = false;
+        }
+
+        TokenBucket bucket(Stage stage, long rate, long nowNanos) {
+            TokenBucket bucket = buckets.computeIfAbsent(stage, s -> new TokenBucket(rate, burstSeconds, nowNanos));
+            if (bucket.getRate() != rate) {
+                bucket.setRate(rate, nowNanos);
+            }
+            return bucket;
+        }
+    }
+}
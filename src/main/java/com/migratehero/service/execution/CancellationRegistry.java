@@ -0,0 +1,87 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 停止令牌注册表 - 运行中的任务/作业在内存中登记令牌，执行流程检查令牌而不是逐页查询数据库
+ *
+ * 任务在其他节点运行时，通过撤销其租约传递停止请求：持有节点在下次心跳时发现租约丢失并停止。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CancellationRegistry {
+
+    private final WorkLeaseService leaseService;
+
+    private final Map<WorkUnit, CancellationToken> tokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        leaseService.addLeaseLostListener(unit -> {
+            CancellationToken token = tokens.get(unit);
+            if (token != null) {
+                // 租约被撤销 (其他节点上的暂停/取消) 或被其他节点接管
+                token.requestStop(leaseService.getOwner(unit) == null
+                        ? CancellationToken.Reason.PAUSE
+                        : CancellationToken.Reason.LEASE_LOST);
+            }
+        });
+    }
+
+    /**
+     * 登记运行中的工作单元，返回其停止令牌
+     */
+    public CancellationToken register(WorkUnit unit) {
+        CancellationToken token = new CancellationToken();
+        tokens.put(unit, token);
+        return token;
+    }
+
+    public void unregister(WorkUnit unit, CancellationToken token) {
+        tokens.remove(unit, token);
+    }
+
+    /**
+     * 工作单元是否仍在本节点运行 (包括停止请求后尚未退出的情况)
+     */
+    public boolean isActive(WorkUnit unit) {
+        return tokens.containsKey(unit);
+    }
+
+    public boolean isStopRequested(WorkUnit unit) {
+        CancellationToken token = tokens.get(unit);
+        return token != null && token.isStopRequested();
+    }
+
+    /**
+     * 停止原因，未请求停止时返回 null
+     */
+    public CancellationToken.Reason getReason(WorkUnit unit) {
+        CancellationToken token = tokens.get(unit);
+        return token != null ? token.getReason() : null;
+    }
+
+    /**
+     * 请求停止
+     *
+     * @return 工作单元在本节点运行时返回 true；否则撤销其租约，由持有节点停止
+     */
+    public boolean requestStop(WorkUnit unit, CancellationToken.Reason reason) {
+        CancellationToken token = tokens.get(unit);
+        if (token != null) {
+            token.requestStop(reason);
+            log.info("Requested {} of {}", reason, unit);
+            return true;
+        }
+        leaseService.revoke(unit);
+        return false;
+    }
+}
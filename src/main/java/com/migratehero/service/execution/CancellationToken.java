@@ -0,0 +1,48 @@
+package com.migratehero.service.execution;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 协作式停止令牌 - 每个运行中的任务/作业持有一个，暂停或取消时置位
+ *
+ * 执行流程在各阶段边界 (文件夹、分页、单个条目之间) 检查令牌，当前条目处理完毕后停止，
+ * 保证已写入目标端的条目都有对应的迁移记录和检查点。
+ */
+public class CancellationToken {
+
+    public enum Reason {
+        PAUSE,
+        CANCEL,
+        /**
+         * 租约已被其他节点接管
+         */
+        LEASE_LOST
+    }
+
+    private final AtomicReference<Reason> reason = new AtomicReference<>();
+
+    /**
+     * 请求停止，仅首次请求的原因生效
+     */
+    public void requestStop(Reason stopReason) {
+        reason.compareAndSet(null, stopReason);
+    }
+
+    public boolean isStopRequested() {
+        return reason.get() != null;
+    }
+
+    public Reason getReason() {
+        return reason.get();
+    }
+
+    /**
+     * 已请求停止时抛出 {@link MigrationStoppedException}
+     */
+    public void throwIfStopRequested() {
+        Reason current = reason.get();
+        if (current != null) {
+            throw new MigrationStoppedException(current);
+        }
+    }
+}
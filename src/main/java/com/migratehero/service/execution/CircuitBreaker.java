@@ -0,0 +1,111 @@
+package com.migratehero.service.execution;
+
+/**
+ * 单个远程端点的熔断器
+ *
+ * - CLOSED: 正常放行，连续失败达到阈值后熔断 (OPEN)
+ * - OPEN: 拒绝调用，熔断时长到期后放行一次探测调用 (HALF_OPEN)
+ * - HALF_OPEN: 只允许一个探测调用在途；探测成功恢复 CLOSED，失败重新熔断并将熔断时长加倍 (不超过上限)；
+ *   探测调用未给出结果就退出 (被中断、抛出 Error) 时回到 OPEN 并立即允许下一次探测
+ *
+ * 时间由调用方传入，便于测试。
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 探测调用在途时其他调用的重试间隔
+     */
+    private static final long PROBE_WAIT_MS = 500;
+
+    private final int failureThreshold;
+    private final long initialOpenMs;
+    private final long maxOpenMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openMs;
+    private long openUntil;
+    private Thread prober;
+
+    public CircuitBreaker(int failureThreshold, long initialOpenMs, long maxOpenMs) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.initialOpenMs = Math.max(initialOpenMs, 1);
+        this.maxOpenMs = Math.max(maxOpenMs, this.initialOpenMs);
+        this.openMs = this.initialOpenMs;
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return 0 表示可以调用 (HALF_OPEN 时本次即为探测调用)，否则为建议等待的毫秒数
+     */
+    public synchronized long tryAcquire(long nowMs) {
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                if (nowMs >= openUntil) {
+                    state = State.HALF_OPEN;
+                    prober = Thread.currentThread();
+                    return 0;
+                }
+                return openUntil - nowMs;
+            default:
+                return PROBE_WAIT_MS;
+        }
+    }
+
+    /**
+     * 调用成功 (或端点有响应)：恢复 CLOSED
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openMs = initialOpenMs;
+        prober = null;
+    }
+
+    /**
+     * 端点故障 (连接失败、超时等)
+     *
+     * @return 本次失败是否导致熔断
+     */
+    public synchronized boolean onFailure(long nowMs) {
+        if (state == State.HALF_OPEN) {
+            openMs = Math.min(openMs * 2, maxOpenMs);
+            open(nowMs);
+            return true;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open(nowMs);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 调用结束 (无论结果是否已上报)：当前线程持有的探测未上报结果时回到 OPEN，下一次调用即可重新探测
+     */
+    public synchronized void onExit(long nowMs) {
+        if (state == State.HALF_OPEN && prober == Thread.currentThread()) {
+            state = State.OPEN;
+            openUntil = nowMs;
+            prober = null;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open(long nowMs) {
+        state = State.OPEN;
+        openUntil = nowMs + openMs;
+        consecutiveFailures = 0;
+        prober = null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.migratehero.service.execution;
+
+/**
+ * 远程端点持续熔断，等待超过上限仍未恢复
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String endpoint;
+
+    public CircuitOpenException(String endpoint, long waitedMs) {
+        super("Endpoint " + endpoint + " unavailable (circuit open for " + waitedMs / 1000 + "s)");
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,175 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.model.MigrationJob;
+import com.migratehero.model.MvpFolderProgress;
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.enums.MigrationPhase;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.repository.MigrationJobRepository;
+import com.migratehero.repository.MvpFolderProgressRepository;
+import com.migratehero.repository.MvpMigratedEmailRepository;
+import com.migratehero.repository.MvpMigrationTaskRepository;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import com.migratehero.service.migration.CheckpointService;
+import com.migratehero.service.migration.MigrationEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 崩溃恢复服务 - 启动时恢复上次进程中断时仍处于 RUNNING 状态的任务
+ *
+ * - MVP 任务: 按迁移记录校正文件夹进度，中断中的文件夹重置为 pending，然后优先重新排队；
+ *   已完整迁移的文件夹不再扫描，已迁移的邮件不再下载
+ * - 迁移作业: 校验同步检查点后重新提交执行，从持久化的分页令牌继续，已完成初始同步的数据类型跳过
+ * - 多节点部署时，任务租约仍由存活节点持有的不做处理；作业租约过期后 (持有节点宕机未重启)
+ *   由存活节点在心跳节拍中认领并继续执行，任务的接管见 FairTaskScheduler
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CrashRecoveryService {
+
+    private final MvpMigrationTaskRepository taskRepository;
+    private final MvpFolderProgressRepository folderProgressRepository;
+    private final MvpMigratedEmailRepository migratedEmailRepository;
+    private final MigrationJobRepository jobRepository;
+    private final CheckpointService checkpointService;
+    private final MigrationEngine migrationEngine;
+    private final FairTaskScheduler taskScheduler;
+    private final WorkLeaseService leaseService;
+
+    private static final int JOB_TAKEOVER_BATCH = 10;
+
+    @Value("${migratehero.migration.recover-on-startup:true}")
+    private boolean recoverOnStartup;
+
+    /**
+     * 启动恢复，先于排队任务的恢复执行，使中断任务排在队首
+     */
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!recoverOnStartup) {
+            return;
+        }
+        int tasks = recoverTasks();
+        int jobs = recoverJobs();
+        if (tasks > 0 || jobs > 0) {
+            log.info("Crash recovery resumed {} migration tasks and {} migration jobs", tasks, jobs);
+        }
+    }
+
+    private int recoverTasks() {
+        int recovered = 0;
+        for (MvpMigrationTask task : taskRepository.findByStatusOrderByCreatedAtDesc(MigrationStatus.RUNNING)) {
+            WorkUnit lease = WorkUnit.task(task.getId());
+            if (!leaseService.tryAcquire(lease)) {
+                log.info("Migration task {} is still running on another node", task.getId());
+                continue;
+            }
+            try {
+                validateFolderProgress(task);
+                taskScheduler.requeueInterrupted(task);
+                recovered++;
+                log.info("Re-queued interrupted migration task {} ({}/{} emails migrated)",
+                        task.getId(), task.getMigratedEmails(), task.getTotalEmails());
+            } catch (Exception e) {
+                log.error("Failed to recover migration task {}: {}", task.getId(), e.getMessage(), e);
+            } finally {
+                leaseService.release(lease);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 以迁移记录为准校正文件夹与任务计数；中断或失败的文件夹重置为 pending，
+     * 记录少于源端邮件数的 "completed" 文件夹同样重新扫描
+     */
+    private void validateFolderProgress(MvpMigrationTask task) {
+        Long taskId = task.getId();
+        List<MvpFolderProgress> folders = folderProgressRepository.findByTaskIdOrderByFolderNameAsc(taskId);
+        for (MvpFolderProgress progress : folders) {
+            long migrated = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, progress.getFolderName(), true);
+            long failed = migratedEmailRepository.countByTaskIdAndFolderNameAndSuccess(taskId, progress.getFolderName(), false);
+            progress.setMigratedEmails(migrated);
+            progress.setFailedEmails(failed);
+
+            boolean interrupted = "in_progress".equals(progress.getStatus()) || "failed".equals(progress.getStatus());
+            boolean incomplete = "completed".equals(progress.getStatus())
+                    && progress.getTotalEmails() != null && migrated + failed < progress.getTotalEmails();
+            if (interrupted || incomplete) {
+                log.debug("Folder {} of task {} will be resumed ({} migrated, {} failed of {})",
+                        progress.getFolderName(), taskId, migrated, failed, progress.getTotalEmails());
+                progress.setStatus("pending");
+                progress.setCompletedAt(null);
+            }
+            folderProgressRepository.save(progress);
+        }
+
+        task.setMigratedEmails(migratedEmailRepository.countByTaskIdAndSuccess(taskId, true));
+        task.setFailedEmails(migratedEmailRepository.countByTaskIdAndSuccess(taskId, false));
+        task.setCurrentFolder(null);
+    }
+
+    private int recoverJobs() {
+        int recovered = 0;
+        for (MigrationJob job : jobRepository.findRunningJobsOutsideIncrementalSync()) {
+            WorkUnit lease = WorkUnit.job(job.getId());
+            if (!leaseService.tryAcquire(lease)) {
+                log.info("Migration job {} is still running on another node", job.getId());
+                continue;
+            }
+            if (resumeJob(job, lease)) {
+                recovered++;
+                log.info("Resumed interrupted migration job {} in phase {}", job.getId(), job.getPhase());
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 接管宕机节点遗留的迁移作业：作业租约过期后由本节点认领并继续执行
+     */
+    @Scheduled(fixedDelayString = "${migratehero.cluster.heartbeat-interval-ms:15000}")
+    public void takeOverExpiredJobs() {
+        for (WorkUnit lease : leaseService.claimExpired(WorkLeaseService.MIGRATION_JOB, JOB_TAKEOVER_BATCH)) {
+            MigrationJob job = jobRepository.findByIdWithAccounts(lease.refId()).orElse(null);
+            if (job == null || job.getStatus() != MigrationStatus.RUNNING
+                    || job.getPhase() == MigrationPhase.INCREMENTAL_SYNC) {
+                // 已结束，或是增量同步轮次遗留的租约 (由增量同步调度器按轮次重新获取)
+                leaseService.release(lease);
+                continue;
+            }
+            if (resumeJob(job, lease)) {
+                log.warn("Resumed migration job {} abandoned by another node", job.getId());
+            }
+        }
+    }
+
+    /**
+     * 校验检查点后重新提交作业，调用方须已持有作业租约 (执行结束时由 MigrationEngine 释放)
+     */
+    private boolean resumeJob(MigrationJob job, WorkUnit lease) {
+        try {
+            int repaired = checkpointService.validateForResume(job);
+            if (repaired > 0) {
+                log.warn("Repaired {} checkpoints of migration job {}", repaired, job.getId());
+            }
+            migrationEngine.executeMigration(job);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to recover migration job {}: {}", job.getId(), e.getMessage(), e);
+            leaseService.release(lease);
+            return false;
+        }
+    }
+}
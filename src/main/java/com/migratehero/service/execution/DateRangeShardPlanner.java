@@ -0,0 +1,170 @@
+package com.migratehero.service.execution;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按接收时间切分大文件夹的分片规划器
+ *
+ * 先将 [最早, 最晚] 等分为若干时间桶并探测每个桶的邮件数 (直方图)，邮件过于集中的桶继续细分，
+ * 再把相邻的桶贪心合并为接近目标大小的分片。首个分片下界和末个分片上界不设限，
+ * 探测之后新到达或时间异常的邮件也会落在某个分片内。
+ */
+public final class DateRangeShardPlanner {
+
+    /**
+     * 细分过密时间桶的最大层数
+     */
+    private static final int MAX_REFINE_DEPTH = 2;
+
+    /**
+     * 不再细分的最小桶跨度
+     */
+    private static final Duration MIN_BUCKET_SPAN = Duration.ofMinutes(1);
+
+    private DateRangeShardPlanner() {
+    }
+
+    /**
+     * 统计 [from, to) 内的邮件数
+     */
+    @FunctionalInterface
+    public interface RangeCounter {
+        long count(Instant from, Instant to) throws Exception;
+    }
+
+    /**
+     * 分片：接收时间范围 [from, to)，null 表示该侧不限
+     */
+    public record Shard(Instant from, Instant to, long estimatedCount) {}
+
+    /**
+     * 规划分片
+     *
+     * @param oldest     最早接收时间
+     * @param newest     最晚接收时间
+     * @param buckets    每层探测的时间桶数
+     * @param targetSize 目标分片大小 (邮件数)
+     * @param maxShards  分片数上限
+     * @param counter    范围计数 (直方图探测)
+     */
+    public static List<Shard> plan(Instant oldest, Instant newest, int buckets, long targetSize, int maxShards,
+                                   RangeCounter counter) throws Exception {
+        if (oldest == null || newest == null || !newest.isAfter(oldest) || maxShards <= 1) {
+            return List.of(new Shard(null, null, 0));
+        }
+
+        int bucketCount = Math.max(buckets, 2);
+        Instant end = newest.plusMillis(1);
+        List<Shard> histogram = probe(oldest, end, bucketCount, counter);
+
+        long total = histogram.stream().mapToLong(Shard::estimatedCount).sum();
+        long target = Math.max(Math.max(targetSize, 1), ceilDiv(total, maxShards));
+
+        // 过密的桶继续细分
+        List<Shard> refined = new ArrayList<>();
+        for (Shard bucket : histogram) {
+            refined.addAll(refine(bucket, target, bucketCount, 1, counter));
+        }
+
+        List<Shard> shards = merge(refined, target);
+        while (shards.size() > maxShards) {
+            mergeSmallestPair(shards);
+        }
+
+        // 首尾分片不设限
+        int last = shards.size() - 1;
+        Shard first = shards.get(0);
+        shards.set(0, new Shard(null, first.to(), first.estimatedCount()));
+        Shard tail = shards.get(last);
+        shards.set(last, new Shard(tail.from(), null, tail.estimatedCount()));
+        return shards;
+    }
+
+    private static List<Shard> probe(Instant from, Instant to, int buckets, RangeCounter counter) throws Exception {
+        long spanMillis = Duration.between(from, to).toMillis();
+        List<Shard> histogram = new ArrayList<>(buckets);
+        Instant bucketStart = from;
+        for (int i = 1; i <= buckets; i++) {
+            Instant bucketEnd = i == buckets ? to : from.plusMillis(spanMillis * i / buckets);
+            if (bucketEnd.isAfter(bucketStart)) {
+                histogram.add(new Shard(bucketStart, bucketEnd, counter.count(bucketStart, bucketEnd)));
+                bucketStart = bucketEnd;
+            }
+        }
+        return histogram;
+    }
+
+    private static List<Shard> refine(Shard bucket, long target, int buckets, int depth,
+                                      RangeCounter counter) throws Exception {
+        boolean dense = bucket.estimatedCount() > target * 2;
+        boolean splittable = Duration.between(bucket.from(), bucket.to()).compareTo(MIN_BUCKET_SPAN) > 0;
+        if (!dense || !splittable || depth > MAX_REFINE_DEPTH) {
+            return List.of(bucket);
+        }
+        List<Shard> refined = new ArrayList<>();
+        for (Shard sub : probe(bucket.from(), bucket.to(), buckets, counter)) {
+            refined.addAll(refine(sub, target, buckets, depth + 1, counter));
+        }
+        return refined;
+    }
+
+    /**
+     * 相邻桶贪心合并，累计达到目标大小即成一个分片；加入下一个桶超出目标比不加入差得更多时提前截断
+     */
+    private static List<Shard> merge(List<Shard> buckets, long target) {
+        List<Shard> shards = new ArrayList<>();
+        Instant shardStart = null;
+        long count = 0;
+        for (Shard bucket : buckets) {
+            long combined = count + bucket.estimatedCount();
+            if (shardStart != null && count > 0 && combined > target && combined - target > target - count) {
+                shards.add(new Shard(shardStart, bucket.from(), count));
+                shardStart = null;
+                count = 0;
+            }
+            if (shardStart == null) {
+                shardStart = bucket.from();
+            }
+            count += bucket.estimatedCount();
+            if (count >= target) {
+                shards.add(new Shard(shardStart, bucket.to(), count));
+                shardStart = null;
+                count = 0;
+            }
+        }
+        if (shardStart != null) {
+            Instant end = buckets.get(buckets.size() - 1).to();
+            if (!shards.isEmpty() && count < target / 2) {
+                // 尾部零头并入上一个分片
+                Shard previous = shards.remove(shards.size() - 1);
+                shards.add(new Shard(previous.from(), end, previous.estimatedCount() + count));
+            } else {
+                shards.add(new Shard(shardStart, end, count));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * 合并相邻两个分片中合计最小的一对
+     */
+    private static void mergeSmallestPair(List<Shard> shards) {
+        int best = 0;
+        for (int i = 1; i < shards.size() - 1; i++) {
+            long pair = shards.get(i).estimatedCount() + shards.get(i + 1).estimatedCount();
+            if (pair < shards.get(best).estimatedCount() + shards.get(best + 1).estimatedCount()) {
+                best = i;
+            }
+        }
+        Shard left = shards.get(best);
+        Shard right = shards.remove(best + 1);
+        shards.set(best, new Shard(left.from(), right.to(), left.estimatedCount() + right.estimatedCount()));
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,368 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.repository.MvpMigrationTaskRepository;
+import com.migratehero.service.MvpMigrationService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公平任务调度器 - 多租户迁移任务的准入与排队
+ *
+ * - 全局并发上限: migratehero.migration.max-concurrent-jobs
+ * - 单租户并发上限: migratehero.migration.max-concurrent-jobs-per-tenant (租户 = 源邮箱域名)
+ * - 两个上限都按整个集群计算：调度时统计任务表中持有有效租约的 RUNNING 任务，加上本节点已调度但尚未写入 RUNNING 的任务
+ * - 排队顺序: 加权公平队列，成本按邮箱大小估算；近期优先任务的历史回填按回填系数放大成本，排在其他任务之后
+ * - 排队状态 (QUEUED + 虚拟完成时间) 持久化在任务表中，重启后恢复
+ * - 多节点部署: 各节点从任务表拉取排队任务，调度前获取任务租约，只有一个节点执行；
+ *   持有节点宕机后租约过期，由其他节点接管继续执行
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FairTaskScheduler {
+
+    private final MvpMigrationTaskRepository taskRepository;
+    private final MvpMigrationService migrationService;
+    private final MigrationExecutor migrationExecutor;
+    private final WorkLeaseService leaseService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migratehero.migration.max-concurrent-jobs:3}")
+    private int maxConcurrentJobs;
+
+    @Value("${migratehero.migration.max-concurrent-jobs-per-tenant:1}")
+    private int maxConcurrentJobsPerTenant;
+
+    @Value("${migratehero.migration.backfill-cost-factor:4}")
+    private double backfillCostFactor;
+
+    /**
+     * 未预检、大小未知的邮箱按此条目数估算排队成本
+     */
+    @Value("${migratehero.migration.default-mailbox-size:10000}")
+    private long defaultMailboxSize;
+
+    private final WeightedFairQueue queue = new WeightedFairQueue();
+
+    /**
+     * 本节点运行中的任务 -> 租户
+     */
+    private final Map<Long, String> running = new ConcurrentHashMap<>();
+
+    /**
+     * 已暂停、正在处理在途条目的任务；不占用并发名额，退出前不会被再次调度
+     */
+    private final Set<Long> draining = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("migratehero.scheduler.queued", queue, WeightedFairQueue::size)
+                .description("Migration tasks waiting in the fair queue")
+                .register(meterRegistry);
+        Gauge.builder("migratehero.scheduler.running", running, Map::size)
+                .description("Migration tasks running on this node")
+                .register(meterRegistry);
+        Gauge.builder("migratehero.scheduler.draining", draining, Set::size)
+                .description("Paused migration tasks finishing in-flight items")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动后恢复持久化的排队任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreQueue() {
+        int restored = syncQueue();
+        if (restored > 0) {
+            log.info("Restored {} queued migration tasks", restored);
+        }
+        dispatch();
+    }
+
+    /**
+     * 调度节拍：拉取其他节点入队的任务，接管过期租约，然后调度
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.scheduler-tick-ms:5000}")
+    public void tick() {
+        int pulled = syncQueue();
+        if (pulled > 0) {
+            log.debug("Pulled {} queued migration tasks from the task table", pulled);
+        }
+        takeOverExpired();
+        dispatch();
+    }
+
+    /**
+     * 任务入队，返回排队位置 (已被立即调度时返回 0)
+     *
+     * 同步执行：状态检查与保存之间不能插入另一个启动请求，否则同一任务会被入队两次
+     */
+    public synchronized int enqueue(Long taskId) {
+        MvpMigrationTask task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+
+        if (task.getStatus() == MigrationStatus.RUNNING || running.containsKey(taskId)) {
+            throw new RuntimeException("Task is already running");
+        }
+        if (draining.contains(taskId)) {
+            throw new RuntimeException("Task is still stopping, please retry shortly");
+        }
+        if (task.getStatus() == MigrationStatus.QUEUED) {
+            if (queue.position(taskId) == 0) {
+                // 由其他节点入队，本节点尚未同步
+                double finishTag = task.getVirtualFinishTime() != null ? task.getVirtualFinishTime() : 0.0;
+                queue.restore(taskId, tenantOf(task), finishTag);
+                dispatch();
+            }
+            return queue.position(taskId);
+        }
+
+        String tenant = tenantOf(task.getSourceEmail());
+        double cost = WeightedFairQueue.cost(estimateSize(task));
+
+        task.setStatus(MigrationStatus.QUEUED);
+        task.setTenantId(tenant);
+        task.setQueuedAt(Instant.now());
+        task.setVirtualFinishTime(queue.enqueue(taskId, tenant, cost));
+        taskRepository.save(task);
+
+        log.info("Queued migration task {} for tenant {} (cost {}, queue size {})",
+                taskId, tenant, String.format("%.2f", cost), queue.size());
+
+        dispatch();
+        return queue.position(taskId);
+    }
+
+    /**
+     * 重新排入中断的任务 (崩溃恢复时调用)：虚拟完成时间置零，优先于其他排队任务执行
+     */
+    public synchronized void requeueInterrupted(MvpMigrationTask task) {
+        String tenant = tenantOf(task);
+        task.setStatus(MigrationStatus.QUEUED);
+        task.setTenantId(tenant);
+        task.setQueuedAt(Instant.now());
+        task.setVirtualFinishTime(0.0);
+        taskRepository.save(task);
+        queue.restore(task.getId(), tenant, 0.0);
+    }
+
+    /**
+     * 从队列中移除 (暂停任务时调用)；运行中的任务立即释放并发名额，供其他租户的排队任务使用
+     */
+    public synchronized boolean dequeue(Long taskId) {
+        boolean removed = queue.remove(taskId);
+        if (running.remove(taskId) != null) {
+            draining.add(taskId);
+            dispatch();
+        }
+        return removed;
+    }
+
+    /**
+     * 排队位置，从 1 开始，不在队列中返回 null
+     */
+    public Integer getQueuePosition(Long taskId) {
+        int position = queue.position(taskId);
+        return position > 0 ? position : null;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    /**
+     * 在并发上限内调度排队任务；入队、任务结束及定时节拍都会触发
+     */
+    public synchronized void dispatch() {
+        List<MvpMigrationTask> deferred = new ArrayList<>();
+        Map<Long, String> active = clusterRunning();
+        while (active.size() < maxConcurrentJobs) {
+            Long taskId = queue.pollEligible(tenant -> runningForTenant(active, tenant) < maxConcurrentJobsPerTenant);
+            if (taskId == null) {
+                break;
+            }
+
+            Optional<MvpMigrationTask> task = taskRepository.findById(taskId);
+            if (task.isEmpty() || task.get().getStatus() != MigrationStatus.QUEUED) {
+                // 排队期间被暂停或删除
+                continue;
+            }
+            if (draining.contains(taskId)) {
+                // 上一次运行尚未退出，下个节拍再调度
+                deferred.add(task.get());
+                continue;
+            }
+
+            if (!leaseService.tryAcquire(WorkUnit.task(taskId))) {
+                // 已由其他节点调度
+                continue;
+            }
+
+            log.info("Dispatching migration task {} ({} running, {} queued)", taskId, active.size() + 1, queue.size());
+            launch(task.get());
+            active.put(taskId, tenantOf(task.get()));
+        }
+
+        for (MvpMigrationTask task : deferred) {
+            double finishTag = task.getVirtualFinishTime() != null ? task.getVirtualFinishTime() : 0.0;
+            queue.restore(task.getId(), tenantOf(task), finishTag);
+        }
+    }
+
+    /**
+     * 将任务表中本地队列尚未包含的 QUEUED 任务加入队列
+     */
+    private synchronized int syncQueue() {
+        int added = 0;
+        for (MvpMigrationTask task : taskRepository.findByStatusOrderByVirtualFinishTimeAsc(MigrationStatus.QUEUED)) {
+            if (running.containsKey(task.getId()) || queue.position(task.getId()) > 0) {
+                continue;
+            }
+            double finishTag = task.getVirtualFinishTime() != null ? task.getVirtualFinishTime() : 0.0;
+            queue.restore(task.getId(), tenantOf(task), finishTag);
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * 接管宕机节点遗留的运行中任务：任务租约过期后由本节点认领并继续执行
+     */
+    private synchronized void takeOverExpired() {
+        int slots = maxConcurrentJobs - clusterRunning().size();
+        for (WorkUnit unit : leaseService.claimExpired(WorkLeaseService.MVP_TASK, slots)) {
+            Optional<MvpMigrationTask> task = taskRepository.findById(unit.refId());
+            if (task.isEmpty() || task.get().getStatus() != MigrationStatus.RUNNING) {
+                leaseService.release(unit);
+                continue;
+            }
+            log.warn("Resuming migration task {} abandoned by another node", unit.refId());
+            launch(task.get());
+        }
+    }
+
+    /**
+     * 在迁移执行器上运行任务，调用方须已持有任务租约
+     */
+    private void launch(MvpMigrationTask task) {
+        Long taskId = task.getId();
+        WorkUnit lease = WorkUnit.task(taskId);
+        running.put(taskId, tenantOf(task));
+
+        migrationExecutor.getExecutorService().execute(() -> {
+            try {
+                migrationService.runMigration(taskId);
+            } catch (Exception e) {
+                log.error("Migration task {} terminated unexpectedly: {}", taskId, e.getMessage(), e);
+            } finally {
+                leaseService.release(lease);
+                finished(taskId);
+                requeueBackfill(taskId);
+                dispatch();
+            }
+        });
+    }
+
+    /**
+     * 任务退出后释放并发名额或结束排空；与 dequeue 同步，避免任务 ID 残留在 draining 中
+     */
+    private synchronized void finished(Long taskId) {
+        if (!draining.remove(taskId)) {
+            running.remove(taskId);
+        }
+    }
+
+    /**
+     * 近期层完成后重新排队回填历史邮件，成本按剩余邮件数乘以回填系数
+     */
+    private synchronized void requeueBackfill(Long taskId) {
+        Optional<MvpMigrationTask> current = taskRepository.findById(taskId);
+        if (current.isEmpty() || current.get().getStatus() != MigrationStatus.QUEUED
+                || !MvpMigrationService.TIER_BACKFILL.equals(current.get().getMigrationTier())
+                || queue.position(taskId) > 0) {
+            return;
+        }
+
+        MvpMigrationTask task = current.get();
+        String tenant = tenantOf(task);
+        long migrated = task.getMigratedEmails() != null ? task.getMigratedEmails() : 0;
+        long remaining = Math.max(estimateSize(task) - migrated, 0);
+        double cost = WeightedFairQueue.cost(remaining) * Math.max(backfillCostFactor, 1.0);
+
+        task.setTenantId(tenant);
+        task.setQueuedAt(Instant.now());
+        task.setVirtualFinishTime(queue.enqueue(taskId, tenant, cost));
+        taskRepository.save(task);
+
+        log.info("Queued backfill of migration task {} for tenant {} (cost {})",
+                taskId, tenant, String.format("%.2f", cost));
+    }
+
+    /**
+     * 集群内占用并发名额的任务 -> 租户
+     *
+     * 任务表中持有有效租约的 RUNNING 任务覆盖所有节点；本节点刚调度的任务在 runMigration 写入 RUNNING 之前
+     * 只在 running 中，两者合并。已暂停、正在排空的任务不计入。
+     */
+    private Map<Long, String> clusterRunning() {
+        Map<Long, String> active = new HashMap<>(running);
+        for (MvpMigrationTask task : taskRepository.findByStatusWithLiveLease(MigrationStatus.RUNNING,
+                WorkLeaseService.MVP_TASK, WorkLeaseService.WHOLE, Instant.now())) {
+            if (!draining.contains(task.getId())) {
+                active.putIfAbsent(task.getId(), tenantOf(task));
+            }
+        }
+        return active;
+    }
+
+    private int runningForTenant(Map<Long, String> active, String tenant) {
+        return (int) active.values().stream().filter(tenant::equals).count();
+    }
+
+    /**
+     * 估算邮箱大小：使用已知总数 (预检或上次运行写入)，未知时取默认值；
+     * 入队在调度器锁内执行，不在这里访问源端
+     */
+    private long estimateSize(MvpMigrationTask task) {
+        if (task.getTotalEmails() != null && task.getTotalEmails() > 0) {
+            return task.getTotalEmails();
+        }
+        return defaultMailboxSize;
+    }
+
+    private String tenantOf(MvpMigrationTask task) {
+        return task.getTenantId() != null ? task.getTenantId() : tenantOf(task.getSourceEmail());
+    }
+
+    private String tenantOf(String sourceEmail) {
+        if (sourceEmail == null) {
+            return "unknown";
+        }
+        int at = sourceEmail.lastIndexOf('@');
+        return at >= 0 ? sourceEmail.substring(at + 1).toLowerCase() : sourceEmail.toLowerCase();
+    }
+}
@@ -0,0 +1,109 @@
+package com.migratehero.service.execution;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JFR 录制分析 - 把录制中的迁移事件汇总为各阶段延迟分布
+ *
+ * 用法: java -cp migratehero.jar -Dloader.main=com.migratehero.service.execution.FlightRecordingReport \
+ *          org.springframework.boot.loader.launch.PropertiesLauncher recording.jfr [taskId]
+ * 输出每个阶段的次数、失败数、字节数、总耗时占比和 p50/p90/p99/max 耗时 (毫秒)。
+ */
+public final class FlightRecordingReport {
+
+    private static final String EVENT_PREFIX = "com.migratehero.";
+
+    /**
+     * 一个阶段的统计
+     */
+    public record StageSummary(String stage, int count, int failures, long bytes, double totalMs,
+                               double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+
+    private FlightRecordingReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: FlightRecordingReport <recording.jfr> [taskId]");
+            System.exit(2);
+        }
+        List<StageSummary> summaries = summarize(Path.of(args[0]), args.length > 1 ? args[1] : null);
+        print(summaries, System.out);
+    }
+
+    /**
+     * 读取录制文件并按阶段汇总
+     *
+     * @param taskId 只统计该任务的事件 (task-1 / job-1)，为空统计全部
+     */
+    public static List<StageSummary> summarize(Path recording, String taskId) throws IOException {
+        Map<String, List<RecordedEvent>> byStage = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String name = event.getEventType().getName();
+            if (!name.startsWith(EVENT_PREFIX)) {
+                continue;
+            }
+            if (taskId != null && !taskId.equals(event.getString("taskId"))) {
+                continue;
+            }
+            byStage.computeIfAbsent(name.substring(EVENT_PREFIX.length()), k -> new ArrayList<>()).add(event);
+        }
+
+        List<StageSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<RecordedEvent>> entry : byStage.entrySet()) {
+            List<Double> durations = new ArrayList<>();
+            int failures = 0;
+            long bytes = 0;
+            double total = 0;
+            for (RecordedEvent event : entry.getValue()) {
+                double ms = event.getDuration().toNanos() / 1_000_000.0;
+                durations.add(ms);
+                total += ms;
+                bytes += event.getLong("size");
+                if (!MigrationEvents.SUCCESS.equals(event.getString("outcome"))) {
+                    failures++;
+                }
+            }
+            Collections.sort(durations);
+            summaries.add(new StageSummary(entry.getKey(), durations.size(), failures, bytes, total,
+                    percentile(durations, 0.50), percentile(durations, 0.90), percentile(durations, 0.99),
+                    durations.get(durations.size() - 1)));
+        }
+        return summaries;
+    }
+
+    public static void print(List<StageSummary> summaries, PrintStream out) {
+        if (summaries.isEmpty()) {
+            out.println("No migration events in recording");
+            return;
+        }
+        double grandTotal = summaries.stream().mapToDouble(StageSummary::totalMs).sum();
+        out.printf("%-12s %8s %6s %12s %8s %10s %10s %10s %10s%n",
+                "stage", "count", "fail", "bytes", "time%", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (StageSummary s : summaries) {
+            out.printf("%-12s %8d %6d %12d %7.1f%% %10.2f %10.2f %10.2f %10.2f%n",
+                    s.stage(), s.count(), s.failures(), s.bytes(),
+                    grandTotal > 0 ? s.totalMs() * 100 / grandTotal : 0,
+                    s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs());
+        }
+    }
+
+    /**
+     * 最近秩百分位 (输入已排序)
+     */
+    static double percentile(List<Double> sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.migratehero.service.execution;
+
+/**
+ * 基于延迟梯度的并发上限估算 (Gradient/Vegas 思路)
+ *
+ * 长期 RTT 以慢速指数平均作为无排队基线，每个样本计算梯度 = 容忍系数 × 长期 RTT / 本次 RTT (限制在 [0.5, 1])：
+ * 延迟平稳时梯度为 1，上限按 sqrt(上限) 的排队余量增长；延迟上升时梯度小于 1，上限随之收缩。
+ * 请求被拒绝 (NO/BYE、超时) 时上限按退避系数直接下降。
+ */
+public final class GradientLimit {
+
+    /**
+     * 新上限的平滑系数
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * 本次 RTT 相对长期基线的容忍倍数，在此范围内视为延迟平稳
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * 请求被拒绝时的退避系数
+     */
+    private static final double BACKOFF_RATIO = 0.7;
+
+    /**
+     * 长期 RTT 平均的样本窗口
+     */
+    private static final int LONG_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private double longRttMs = -1;
+
+    public GradientLimit(int initial, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = clamp(initial);
+    }
+
+    /**
+     * 当前并发上限
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * 记录一次请求结果并更新上限
+     *
+     * @param rttMs    本次耗时 (毫秒)
+     * @param inFlight 发出本次请求时的在途请求数 (含本次)
+     * @param rejected 是否被目标拒绝或超时
+     * @return 更新后的并发上限
+     */
+    public synchronized int onSample(double rttMs, int inFlight, boolean rejected) {
+        if (rejected) {
+            limit = clamp(limit * BACKOFF_RATIO);
+            return getLimit();
+        }
+
+        double rtt = Math.max(rttMs, 0.001);
+        if (longRttMs < 0) {
+            longRttMs = rtt;
+        } else {
+            longRttMs += (rtt - longRttMs) / LONG_WINDOW;
+        }
+        // 延迟整体下降后基线跟随回落，避免长期偏高的基线掩盖排队
+        if (longRttMs > rtt * 2) {
+            longRttMs *= 0.95;
+        }
+
+        // 在途请求不足上限一半时说明负载不足，样本不能反映上限是否合适
+        if (inFlight < limit / 2) {
+            return getLimit();
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttMs / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+        return getLimit();
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
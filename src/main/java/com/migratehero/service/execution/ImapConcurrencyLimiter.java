@@ -0,0 +1,196 @@
+package com.migratehero.service.execution;
+
+import com.sun.mail.iap.CommandFailedException;
+import com.sun.mail.iap.ConnectionException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.FolderClosedException;
+import jakarta.mail.StoreClosedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IMAP 目标写入的自适应并发限制 - 每个目标主机一个梯度限流器
+ *
+ * APPEND 延迟平稳时逐步放开并发，延迟上升或收到 NO/BYE、超时、RFC 5530 资源类响应码时收缩；
+ * 当前上限和在途数以 migratehero.imap.concurrency.limit / inflight 指标按主机上报。
+ * 固定的主机隔离舱 (migratehero.execution.bulkheads.per-host) 仍是硬上限。
+ * 名额在进入隔离舱之前获取，只有 APPEND 本身的耗时作为延迟样本。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImapConcurrencyLimiter {
+
+    /**
+     * 表示目标资源不足的 IMAP 响应码 (RFC 5530)
+     */
+    private static final String[] OVERLOAD_CODES = {"[LIMIT]", "[UNAVAILABLE]", "[INUSE]", "[OVERQUOTA]", "[SERVERBUG]"};
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migratehero.execution.imap-limiter.initial:4}")
+    private int initialLimit;
+
+    @Value("${migratehero.execution.imap-limiter.min:1}")
+    private int minLimit;
+
+    @Value("${migratehero.execution.imap-limiter.max:20}")
+    private int maxLimit;
+
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 占用目标主机的一个写入名额，由调用方在写入完成后关闭；
+     * 在执行器隔离舱之外获取，等待名额期间不占用全局、协议和主机许可
+     */
+    public Permit acquire(String host) {
+        HostLimiter limiter = limiterFor(host);
+        return new Permit(host, limiter, limiter.acquire());
+    }
+
+    /**
+     * 目标主机当前的并发上限 (未写入过返回初始值)
+     */
+    public int getLimit(String host) {
+        HostLimiter limiter = limiters.get(key(host));
+        return limiter != null ? limiter.limit.getLimit() : initialLimit;
+    }
+
+    private HostLimiter limiterFor(String host) {
+        String key = key(host);
+        return limiters.computeIfAbsent(key, k -> {
+            HostLimiter limiter = new HostLimiter(new GradientLimit(initialLimit, minLimit, maxLimit));
+            Gauge.builder("migratehero.imap.concurrency.limit", limiter.limit, GradientLimit::getLimit)
+                    .description("Adaptive IMAP write concurrency limit")
+                    .tag("host", k)
+                    .register(meterRegistry);
+            Gauge.builder("migratehero.imap.concurrency.inflight", limiter, HostLimiter::getInFlight)
+                    .description("IMAP writes in flight")
+                    .tag("host", k)
+                    .register(meterRegistry);
+            return limiter;
+        });
+    }
+
+    /**
+     * 目标拒绝或过载：NO (CommandFailedException)、BYE / 连接断开、超时、资源类响应码
+     */
+    private boolean isOverload(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof CommandFailedException || t instanceof ConnectionException
+                    || t instanceof StoreClosedException || t instanceof FolderClosedException
+                    || t instanceof SocketTimeoutException) {
+                return true;
+            }
+            String message = t.getMessage();
+            if (message != null) {
+                for (String code : OVERLOAD_CODES) {
+                    if (message.contains(code)) {
+                        return true;
+                    }
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private String key(String host) {
+        return host != null ? host.toLowerCase() : "default";
+    }
+
+    /**
+     * 一个写入名额 - call 执行写入并把耗时反馈给限流器，close 归还名额 (未反馈过样本时不计样本)
+     */
+    public final class Permit implements AutoCloseable {
+        private final String host;
+        private final HostLimiter limiter;
+        private final int inFlight;
+        private boolean released;
+
+        private Permit(String host, HostLimiter limiter, int inFlight) {
+            this.host = host;
+            this.limiter = limiter;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * 执行一次写入，只计量 work 本身的耗时
+         */
+        public <T, E extends Exception> T call(MigrationExecutor.IoCall<T, E> work) throws E {
+            long started = System.nanoTime();
+            try {
+                T result = work.call();
+                sample((System.nanoTime() - started) / 1_000_000.0, false);
+                return result;
+            } catch (Exception e) {
+                if (isOverload(e)) {
+                    int limit = sample(0, true);
+                    log.debug("IMAP target {} rejected write, concurrency limit now {}: {}", host, limit, e.getMessage());
+                }
+                throw e;
+            }
+        }
+
+        private synchronized int sample(double rttMs, boolean rejected) {
+            if (released) {
+                return limiter.limit.getLimit();
+            }
+            released = true;
+            return limiter.release(rttMs, inFlight, rejected);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                limiter.release();
+            }
+        }
+    }
+
+    private static final class HostLimiter {
+        private final GradientLimit limit;
+        private int inFlight;
+
+        private HostLimiter(GradientLimit limit) {
+            this.limit = limit;
+        }
+
+        synchronized int acquire() {
+            while (inFlight >= limit.getLimit()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for IMAP concurrency limit", e);
+                }
+            }
+            return ++inFlight;
+        }
+
+        synchronized int release(double rttMs, int sampleInFlight, boolean rejected) {
+            int updated = limit.onSample(rttMs, sampleInFlight, rejected);
+            release();
+            return updated;
+        }
+
+        synchronized void release() {
+            inFlight--;
+            notifyAll();
+        }
+
+        synchronized int getInFlight() {
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * 迁移热点路径的 JFR 事件 - 开销极低，可在生产节点常开，用 jcmd 按需导出录制
+ *
+ * 每个事件带耗时 (JFR 自带)、字节数、任务标识和结果 (success 或异常类名)。
+ * 启用方式: jcmd &lt;pid&gt; JFR.start settings=/path/to/migratehero.jfc (配置见 resources/jfr/migratehero.jfc)，
+ * 录制文件用 {@link FlightRecordingReport} 汇总为各阶段延迟分布。
+ */
+public final class MigrationEvents {
+
+    public static final String SUCCESS = "success";
+
+    private MigrationEvents() {
+    }
+
+    /**
+     * 任务或作业的事件标识 (task-1 / job-1)
+     */
+    public static String id(WorkUnit unit) {
+        return (WorkLeaseService.MIGRATION_JOB.equals(unit.workType()) ? "job-" : "task-") + unit.refId();
+    }
+
+    /**
+     * 在事件范围内执行调用，结束时按结果提交事件
+     */
+    public static <T, E extends Exception> T record(StageEvent event, MigrationExecutor.IoCall<T, E> work) throws E {
+        event.begin();
+        try {
+            T result = work.call();
+            event.outcome = SUCCESS;
+            return result;
+        } catch (Exception e) {
+            event.outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * 同 {@link #record(StageEvent, MigrationExecutor.IoCall)}，字节数在调用完成后由结果计算
+     */
+    public static <T, E extends Exception> T record(StageEvent event, MigrationExecutor.IoCall<T, E> work,
+                                                    ToLongFunction<? super T> size) throws E {
+        return record(event, () -> {
+            T result = work.call();
+            event.size = size.applyAsLong(result);
+            return result;
+        });
+    }
+
+    public static EwsFetch ewsFetch(WorkUnit unit, int items) {
+        EwsFetch event = new EwsFetch();
+        event.taskId = id(unit);
+        event.items = items;
+        return event;
+    }
+
+    public static ImapAppend imapAppend(WorkUnit unit, long size) {
+        ImapAppend event = new ImapAppend();
+        event.taskId = id(unit);
+        event.size = size;
+        return event;
+    }
+
+    public static LedgerWrite ledgerWrite(WorkUnit unit, String kind) {
+        LedgerWrite event = new LedgerWrite();
+        event.taskId = id(unit);
+        event.kind = kind;
+        return event;
+    }
+
+    public static Transform transform(WorkUnit unit, String kind) {
+        Transform event = new Transform();
+        event.taskId = id(unit);
+        event.kind = kind;
+        return event;
+    }
+
+    /**
+     * 各阶段事件的公共字段
+     */
+    @Category({"MigrateHero", "Migration"})
+    @StackTrace(false)
+    public abstract static class StageEvent extends Event {
+
+        @Label("Task")
+        public String taskId;
+
+        @Label("Size")
+        @DataAmount
+        public long size;
+
+        @Label("Outcome")
+        @Description("success or the exception class name")
+        public String outcome;
+    }
+
+    @Name("com.migratehero.EwsFetch")
+    @Label("EWS Batch Fetch")
+    @Description("GetItem MIME batch fetch from the source mailbox")
+    public static final class EwsFetch extends StageEvent {
+
+        @Label("Items")
+        public int items;
+    }
+
+    @Name("com.migratehero.ImapAppend")
+    @Label("IMAP Append")
+    @Description("APPEND of one message to the target mailbox")
+    public static final class ImapAppend extends StageEvent {
+    }
+
+    @Name("com.migratehero.LedgerWrite")
+    @Label("Ledger Write")
+    @Description("Migrated-item ledger write (success or failure record)")
+    public static final class LedgerWrite extends StageEvent {
+
+        @Label("Kind")
+        public String kind;
+    }
+
+    @Name("com.migratehero.Transform")
+    @Label("Transform")
+    @Description("Item format conversion (email, contact, calendar event)")
+    public static final class Transform extends StageEvent {
+
+        @Label("Kind")
+        public String kind;
+    }
+}
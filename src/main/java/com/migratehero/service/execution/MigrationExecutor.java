@@ -0,0 +1,435 @@
+package com.migratehero.service.execution;
+
+import com.google.api.client.http.HttpResponseException;
+import com.migratehero.model.enums.ConnectorProtocol;
+import com.sun.mail.iap.ConnectionException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import microsoft.exchange.webservices.data.core.exception.http.HttpErrorException;
+import microsoft.exchange.webservices.data.core.exception.service.remote.ServiceRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 迁移执行器 - 统一承载所有迁移任务与连接器阻塞 I/O
+ *
+ * 运行在 JDK 21+ 时使用虚拟线程 (每任务一个)，否则回退为固定大小的平台线程池。
+ * 平台线程下按嵌套层级拆成三个池：任务池 (整个迁移任务、增量同步、@Async) -> 分片池 -> 工作池 (通道批次)，
+ * 每层只等待下一层的池，工作池中的批次不再等待任何池内任务，父任务阻塞等待不会占满子任务所需的线程。
+ * 每次远程调用需通过三层隔离舱：远程主机 -> 协议 (EWS/Graph/Gmail/IMAP/DAV) -> 全局 (由窄到宽依次获取)，
+ * 大量阻塞等待不再占用同等数量的平台线程，单个慢服务也不会拖垮其他服务。
+ *
+ * 每个远程端点 (协议 + 主机) 另有一个熔断器：连续出现连接失败、超时或 5xx 后熔断 (认证失败和 4xx 不计入)，
+ * 熔断期间调用方在进入隔离舱之前等待 (相应的流水线阶段暂停)，到期后放行一次探测调用，
+ * 探测成功即恢复；持续熔断超过等待上限时抛出 CircuitOpenException。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigrationExecutor {
+
+    /**
+     * EWS 在 ServiceRequestException 消息中给出的 HTTP 状态码，如 "The remote server returned an error: (401)Unauthorized"
+     */
+    private static final Pattern EWS_HTTP_STATUS = Pattern.compile("returned an error: \\((\\d{3})\\)");
+
+    private final MeterRegistry meterRegistry;
+    private final MigrationMetrics metrics;
+    private final MigrationTracing tracing;
+    private final RemoteCallAccounting accounting;
+
+    @Value("${migratehero.execution.fallback-threads:64}")
+    private int fallbackThreads;
+
+    @Value("${migratehero.execution.fallback-shard-threads:16}")
+    private int fallbackShardThreads;
+
+    @Value("${migratehero.execution.fallback-worker-threads:64}")
+    private int fallbackWorkerThreads;
+
+    @Value("${migratehero.execution.bulkheads.global:200}")
+    private int globalLimit;
+
+    @Value("${migratehero.execution.bulkheads.per-host:20}")
+    private int perHostLimit;
+
+    @Value("${migratehero.execution.bulkheads.ews:50}")
+    private int ewsLimit;
+
+    @Value("${migratehero.execution.bulkheads.graph:50}")
+    private int graphLimit;
+
+    @Value("${migratehero.execution.bulkheads.gmail:50}")
+    private int gmailLimit;
+
+    @Value("${migratehero.execution.bulkheads.imap:40}")
+    private int imapLimit;
+
+    @Value("${migratehero.execution.bulkheads.dav:20}")
+    private int davLimit;
+
+    @Value("${migratehero.execution.circuit-breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${migratehero.execution.circuit-breaker.open-ms:10000}")
+    private long breakerOpenMs;
+
+    @Value("${migratehero.execution.circuit-breaker.max-open-ms:300000}")
+    private long breakerMaxOpenMs;
+
+    @Value("${migratehero.execution.circuit-breaker.max-wait-ms:900000}")
+    private long breakerMaxWaitMs;
+
+    private ExecutorService executorService;
+    private ExecutorService shardExecutor;
+    private ExecutorService workerExecutor;
+    private boolean virtualThreads;
+    private Semaphore globalBulkhead;
+    private final Map<ConnectorProtocol, Semaphore> protocolBulkheads = new EnumMap<>(ConnectorProtocol.class);
+    private final Map<String, Semaphore> hostBulkheads = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        executorService = createExecutorService();
+        shardExecutor = virtualThreads ? executorService : platformPool(fallbackShardThreads, "MigrationShard-");
+        workerExecutor = virtualThreads ? executorService : platformPool(fallbackWorkerThreads, "MigrationWorker-");
+        globalBulkhead = new Semaphore(globalLimit, true);
+        protocolBulkheads.put(ConnectorProtocol.EWS, new Semaphore(ewsLimit, true));
+        protocolBulkheads.put(ConnectorProtocol.GRAPH, new Semaphore(graphLimit, true));
+        protocolBulkheads.put(ConnectorProtocol.GMAIL, new Semaphore(gmailLimit, true));
+        protocolBulkheads.put(ConnectorProtocol.IMAP, new Semaphore(imapLimit, true));
+        protocolBulkheads.put(ConnectorProtocol.DAV, new Semaphore(davLimit, true));
+        registerBulkheadGauges("global", globalBulkhead, globalLimit);
+        protocolBulkheads.forEach((protocol, bulkhead) -> registerBulkheadGauges(
+                protocol.name().toLowerCase(), bulkhead, limitOf(protocol)));
+        log.info("Migration executor started ({} threads), bulkheads: global={}, perHost={}, ews={}, graph={}, gmail={}, imap={}, dav={}",
+                virtualThreads ? "virtual" : "platform", globalLimit, perHostLimit,
+                ewsLimit, graphLimit, gmailLimit, imapLimit, davLimit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerExecutor.shutdownNow();
+        shardExecutor.shutdownNow();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * 底层执行器，用于运行整个迁移任务
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * 分片执行器：任务线程在此并发推进文件夹分片并等待其完成
+     */
+    public ExecutorService getShardExecutor() {
+        return shardExecutor;
+    }
+
+    /**
+     * 工作执行器：分片或任务线程提交的叶子批次，批次内只等待远程调用和隔离舱，不再等待其他池内任务
+     */
+    public ExecutorService getWorkerExecutor() {
+        return workerExecutor;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * 在隔离舱内执行一次远程调用 (在当前线程上阻塞等待许可)，并按 op 的标签记录调用耗时 (不含隔离舱和熔断等待)；
+     * 同时记录一个连接器 span，等待熔断和隔离舱的时长作为 span 属性，并统计调用期间发出的远程请求数
+     *
+     * @param protocol 连接器协议
+     * @param host     远程主机名或 URL，为空时使用协议默认主机
+     * @param op       指标与远程请求统计的归属 (任务、提供商、操作名)
+     */
+    public <T, E extends Exception> T call(ConnectorProtocol protocol, String host, MigrationMetrics.Op op,
+                                           IoCall<T, E> work) throws E {
+        String hostKey = hostKey(protocol, host);
+        Semaphore protocolBulkhead = protocolBulkheads.get(protocol);
+        Semaphore hostBulkhead = hostBulkheads.computeIfAbsent(hostKey,
+                key -> new Semaphore(perHostLimit, true));
+        String endpoint = protocol.name() + ":" + hostKey;
+        CircuitBreaker breaker = circuitBreakerFor(endpoint);
+
+        // 熔断期间在占用隔离舱许可之前等待
+        long waitStarted = System.nanoTime();
+        awaitCircuit(breaker, endpoint);
+
+        try {
+            // 由内向外获取：先等最窄的主机许可，等待期间不占用协议和全局许可，慢主机不会拖住其他主机
+            acquire(hostBulkhead, protocol);
+            try {
+                acquire(protocolBulkhead, protocol);
+                try {
+                    acquire(globalBulkhead, protocol);
+                    long started = System.nanoTime();
+                    try (MigrationTracing.Span span = tracing.connector(op, endpoint)
+                            .tag("wait.ms", (started - waitStarted) / 1_000_000)) {
+                        try {
+                            T result = accounting.account(op, work);
+                            metrics.recordCall(op, System.nanoTime() - started, null);
+                            breaker.onSuccess();
+                            return result;
+                        } catch (Exception e) {
+                            metrics.recordCall(op, System.nanoTime() - started, e);
+                            span.error(e);
+                            throw e;
+                        }
+                    } catch (Exception e) {
+                        if (!isEndpointFailure(e)) {
+                            // 端点有响应，业务错误不计入熔断
+                            breaker.onSuccess();
+                        } else if (breaker.onFailure(System.currentTimeMillis())) {
+                            log.warn("Circuit opened for {} after endpoint failure: {}", endpoint, e.getMessage());
+                        }
+                        throw e;
+                    } finally {
+                        globalBulkhead.release();
+                    }
+                } finally {
+                    protocolBulkhead.release();
+                }
+            } finally {
+                hostBulkhead.release();
+            }
+        } finally {
+            // 探测调用在上报结果之前退出 (等待隔离舱被中断、抛出 Error) 时不能让熔断器停在 HALF_OPEN
+            breaker.onExit(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 在隔离舱内执行一次无返回值的远程调用，并记录调用耗时
+     */
+    public <E extends Exception> void run(ConnectorProtocol protocol, String host, MigrationMetrics.Op op,
+                                          IoRun<E> work) throws E {
+        call(protocol, host, op, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * 异步提交一次远程调用，在执行器线程上等待隔离舱许可
+     */
+    public <T> CompletableFuture<T> submit(ConnectorProtocol protocol, String host, MigrationMetrics.Op op,
+                                           Callable<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        workerExecutor.execute(() -> {
+            try {
+                future.complete(call(protocol, host, op, work::call));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 当前可用许可数 (用于监控)
+     */
+    public int availablePermits(ConnectorProtocol protocol) {
+        return protocolBulkheads.get(protocol).availablePermits();
+    }
+
+    /**
+     * 端点熔断状态 (用于监控)
+     */
+    public CircuitBreaker.State circuitState(ConnectorProtocol protocol, String host) {
+        CircuitBreaker breaker = circuitBreakers.get(protocol.name() + ":" + hostKey(protocol, host));
+        return breaker != null ? breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * 隔离舱占用数、上限和排队等待数；占用数 / 上限即为该协议连接池的利用率
+     */
+    private void registerBulkheadGauges(String name, Semaphore bulkhead, int limit) {
+        Gauge.builder("migratehero.bulkhead.in_use", bulkhead, b -> limit - b.availablePermits())
+                .description("Bulkhead permits in use")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("migratehero.bulkhead.limit", bulkhead, b -> limit)
+                .description("Bulkhead permit limit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("migratehero.bulkhead.waiting", bulkhead, Semaphore::getQueueLength)
+                .description("Calls waiting for a bulkhead permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    private int limitOf(ConnectorProtocol protocol) {
+        return switch (protocol) {
+            case EWS -> ewsLimit;
+            case GRAPH -> graphLimit;
+            case GMAIL -> gmailLimit;
+            case IMAP -> imapLimit;
+            case DAV -> davLimit;
+        };
+    }
+
+    private CircuitBreaker circuitBreakerFor(String endpoint) {
+        return circuitBreakers.computeIfAbsent(endpoint, key -> {
+            CircuitBreaker breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMs, breakerMaxOpenMs);
+            Gauge.builder("migratehero.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Circuit breaker state (0=closed, 1=open, 2=half-open)")
+                    .tag("endpoint", key)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    /**
+     * 等待熔断器放行；HALF_OPEN 时只有探测调用通过，其余调用继续等待探测结果
+     */
+    private void awaitCircuit(CircuitBreaker breaker, String endpoint) {
+        long start = System.currentTimeMillis();
+        boolean logged = false;
+        while (true) {
+            long now = System.currentTimeMillis();
+            long delay = breaker.tryAcquire(now);
+            if (delay == 0) {
+                if (logged) {
+                    log.info("Circuit for {} admitted call after {} ms", endpoint, now - start);
+                }
+                return;
+            }
+            if (now - start >= breakerMaxWaitMs) {
+                throw new CircuitOpenException(endpoint, now - start);
+            }
+            if (!logged) {
+                log.info("Circuit for {} is {}, pausing call", endpoint, breaker.getState());
+                logged = true;
+            }
+            try {
+                Thread.sleep(Math.min(delay, 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for circuit of " + endpoint, e);
+            }
+        }
+    }
+
+    /**
+     * 端点故障：连接失败、超时、IMAP BYE、EWS 请求失败、HTTP 5xx；
+     * 认证失败和 4xx 说明端点有响应 (如单个租户凭据失效)，不计入共享端点的熔断
+     */
+    private boolean isEndpointFailure(Throwable error) {
+        // EWS 把 HTTP 错误包装在 ServiceRequestException 里，先在整条异常链上找状态码
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof AuthenticationFailedException) {
+                return false;
+            }
+            if (t instanceof HttpResponseException http) {
+                return http.getStatusCode() >= 500;
+            }
+            if (t instanceof HttpStatusCodeException http) {
+                return http.getStatusCode().is5xxServerError();
+            }
+            if (t instanceof HttpErrorException http && http.getHttpErrorCode() > 0) {
+                return http.getHttpErrorCode() >= 500;
+            }
+            if (t instanceof ServiceRequestException && t.getMessage() != null) {
+                Matcher status = EWS_HTTP_STATUS.matcher(t.getMessage());
+                if (status.find()) {
+                    return Integer.parseInt(status.group(1)) >= 500;
+                }
+            }
+        }
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ServiceRequestException || t instanceof ConnectionException
+                    || t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void acquire(Semaphore bulkhead, ConnectorProtocol protocol) {
+        try {
+            bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + protocol + " bulkhead", e);
+        }
+    }
+
+    private String hostKey(ConnectorProtocol protocol, String host) {
+        if (host == null || host.isEmpty()) {
+            host = protocol.getDefaultHost() != null ? protocol.getDefaultHost() : protocol.name();
+        }
+        if (host.contains("://")) {
+            try {
+                String parsed = URI.create(host).getHost();
+                if (parsed != null) {
+                    host = parsed;
+                }
+            } catch (IllegalArgumentException e) {
+                // 非法 URL 按原样作为主机键
+            }
+        }
+        return host.toLowerCase();
+    }
+
+    private ExecutorService createExecutorService() {
+        try {
+            // JDK 21+ 提供虚拟线程；项目仍以 17 为编译目标，因此通过反射获取
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            virtualThreads = true;
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return platformPool(fallbackThreads, "MigrationIO-");
+        }
+    }
+
+    private static ExecutorService platformPool(int threads, String namePrefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 可抛出受检异常的远程调用
+     */
+    @FunctionalInterface
+    public interface IoCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface IoRun<E extends Exception> {
+        void run() throws E;
+    }
+}
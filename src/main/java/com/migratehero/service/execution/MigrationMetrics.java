@@ -0,0 +1,197 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.model.enums.ConnectorProtocol;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 迁移指标 - 连接器调用延迟直方图、各阶段条目数/字节数和按异常类型分类的错误数
+ *
+ * 所有指标带 task (任务或作业) 和 provider (ews / imap / dav / google / microsoft ...) 标签，
+ * 经 /actuator/prometheus 暴露，速率由 Prometheus 对计数器求 rate() 得到。
+ * 默认关闭 migratehero.metrics.per-task，task 标签统一为 all；开启时按任务的数值只以计数器上报
+ * (调用次数、调用耗时合计)，延迟直方图始终只在 task=all 的汇总序列上发布，避免时间序列随任务数膨胀；
+ * 任务删除后移除该任务的全部指标。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MigrationMetrics {
+
+    private static final String ALL_TASKS = "all";
+
+    /**
+     * 一次连接器调用的指标标签
+     *
+     * @param unit      所属任务或作业，不属于任何任务时为 null
+     * @param task      任务标签，见 {@link #task(WorkUnit)}
+     * @param provider  提供商/协议
+     * @param operation 操作名，如 ews_fetch、imap_append、dav_put
+     */
+    public record Op(WorkUnit unit, String task, String provider, String operation) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migratehero.metrics.per-task:false}")
+    private boolean perTask;
+
+    @Value("${migratehero.metrics.histograms:true}")
+    private boolean histograms;
+
+    /**
+     * 任务或作业的 task 标签值 (task-1 / job-1)
+     */
+    public String task(WorkUnit unit) {
+        if (!perTask) {
+            return ALL_TASKS;
+        }
+        return (WorkLeaseService.MIGRATION_JOB.equals(unit.workType()) ? "job-" : "task-") + unit.refId();
+    }
+
+    public Op op(WorkUnit unit, String provider, String operation) {
+        return new Op(unit, task(unit), provider(provider), operation);
+    }
+
+    public Op op(WorkUnit unit, ConnectorProtocol protocol, String operation) {
+        return op(unit, protocol.name(), operation);
+    }
+
+    /**
+     * 记录一次连接器调用的耗时，失败时另按异常类型计数
+     *
+     * 延迟直方图只记在汇总序列上；按任务的调用次数和耗时合计以计数器记录
+     */
+    public void recordCall(Op op, long nanos, Throwable error) {
+        String outcome = error == null ? "success" : "error";
+        Timer.builder("migratehero.connector.latency")
+                .description("Connector call latency")
+                .tag("task", ALL_TASKS)
+                .tag("provider", op.provider())
+                .tag("operation", op.operation())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(histograms)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (!ALL_TASKS.equals(op.task())) {
+            Counter.builder("migratehero.connector.calls")
+                    .description("Connector calls per task")
+                    .tag("task", op.task())
+                    .tag("provider", op.provider())
+                    .tag("operation", op.operation())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment();
+            Counter.builder("migratehero.connector.time")
+                    .description("Total connector call time per task")
+                    .baseUnit("seconds")
+                    .tag("task", op.task())
+                    .tag("provider", op.provider())
+                    .tag("operation", op.operation())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(nanos / 1e9);
+        }
+        if (error != null) {
+            Counter.builder("migratehero.connector.errors")
+                    .description("Failed connector calls by exception class")
+                    .tag("task", op.task())
+                    .tag("provider", op.provider())
+                    .tag("operation", op.operation())
+                    .tag("exception", error.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * 记录一个阶段完成的条目数和字节数
+     *
+     * @param stage 阶段，如 fetch、upload
+     */
+    public void recordItems(WorkUnit unit, String provider, String stage, long items, long bytes) {
+        String task = task(unit);
+        String providerTag = provider(provider);
+        Counter.builder("migratehero.stage.items")
+                .description("Items completed per migration stage")
+                .tag("task", task)
+                .tag("provider", providerTag)
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .increment(items);
+        if (bytes > 0) {
+            Counter.builder("migratehero.stage.bytes")
+                    .description("Bytes transferred per migration stage")
+                    .baseUnit("bytes")
+                    .tag("task", task)
+                    .tag("provider", providerTag)
+                    .tag("stage", stage)
+                    .register(meterRegistry)
+                    .increment(bytes);
+        }
+    }
+
+    /**
+     * 记录一个条目在某阶段失败，按根因异常类型分类
+     */
+    public void recordError(WorkUnit unit, String provider, String stage, Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        recordError(unit, provider, stage, root.getClass().getSimpleName());
+    }
+
+    /**
+     * 记录一个条目在某阶段失败
+     *
+     * @param errorClass 错误分类 (连接器以文本返回条目级错误时使用)
+     */
+    public void recordError(WorkUnit unit, String provider, String stage, String errorClass) {
+        Counter.builder("migratehero.stage.errors")
+                .description("Failed items per migration stage by exception class")
+                .tag("task", task(unit))
+                .tag("provider", provider(provider))
+                .tag("stage", stage)
+                .tag("exception", errorClass)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 移除任务或作业的全部指标
+     */
+    public void remove(WorkUnit unit) {
+        if (!perTask) {
+            return;
+        }
+        String task = task(unit);
+        int removed = 0;
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (task.equals(meter.getId().getTag("task"))) {
+                meterRegistry.remove(meter);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Removed {} meters for {}", removed, task);
+        }
+    }
+
+    private static String provider(String provider) {
+        return provider != null ? provider.toLowerCase(Locale.ROOT) : "unknown";
+    }
+}
@@ -0,0 +1,18 @@
+package com.migratehero.service.execution;
+
+/**
+ * 迁移被协作式停止 (暂停、取消或租约丢失)，不属于失败
+ */
+public class MigrationStoppedException extends RuntimeException {
+
+    private final CancellationToken.Reason reason;
+
+    public MigrationStoppedException(CancellationToken.Reason reason) {
+        super("Migration stopped: " + reason);
+        this.reason = reason;
+    }
+
+    public CancellationToken.Reason getReason() {
+        return reason;
+    }
+}
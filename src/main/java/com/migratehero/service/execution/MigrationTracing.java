@@ -0,0 +1,91 @@
+package com.migratehero.service.execution;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 迁移链路追踪 - 基于 Micrometer Observation，经 OpenTelemetry 桥接导出为 span
+ *
+ * 每批条目 (一页或一个 GetItem 批次) 是一条 trace 的根，其下为逐条目 span，条目内再细分为
+ * 连接器调用 (由 MigrationExecutor 记录)、限速等待和数据库写入，便于定位单条慢条目耗在哪个阶段。
+ * 采样比例由 management.tracing.sampling.probability 控制，按 trace (即批次) 采样；
+ * 导出到 OTLP 收集器 (management.otlp.tracing.endpoint) 或本地文件 (migratehero.tracing.file)。
+ */
+@Component
+@RequiredArgsConstructor
+public class MigrationTracing {
+
+    public static final String BATCH = "migration.batch";
+    public static final String ITEM = "migration.item";
+    public static final String CONNECTOR = "migration.connector";
+    public static final String TRANSFORM = "migration.transform";
+    public static final String THROTTLE = "migration.throttle";
+    public static final String DB_WRITE = "migration.db_write";
+
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * 开始一个 span 并设为当前线程的上下文，父 span 为当前线程上正在进行的 span
+     */
+    public Span start(String name) {
+        Observation observation = Observation.createNotStarted(name, observationRegistry).start();
+        return new Span(observation, observation.openScope());
+    }
+
+    /**
+     * 开始一个连接器调用 span，操作名和提供商作为低基数标签
+     */
+    public Span connector(MigrationMetrics.Op op, String endpoint) {
+        Observation observation = Observation.createNotStarted(CONNECTOR, observationRegistry)
+                .lowCardinalityKeyValue("operation", op.operation())
+                .lowCardinalityKeyValue("provider", op.provider())
+                .highCardinalityKeyValue("task", op.task())
+                .highCardinalityKeyValue("endpoint", endpoint)
+                .start();
+        return new Span(observation, observation.openScope());
+    }
+
+    /**
+     * 在一个 span 内执行调用
+     */
+    public <T, E extends Exception> T trace(String name, MigrationExecutor.IoCall<T, E> work) throws E {
+        try (Span span = start(name)) {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                span.error(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 进行中的 span，关闭时结束并恢复之前的上下文
+     */
+    public static final class Span implements AutoCloseable {
+        private final Observation observation;
+        private final Observation.Scope scope;
+
+        private Span(Observation observation, Observation.Scope scope) {
+            this.observation = observation;
+            this.scope = scope;
+        }
+
+        public Span tag(String key, Object value) {
+            observation.highCardinalityKeyValue(key, String.valueOf(value));
+            return this;
+        }
+
+        public void error(Throwable error) {
+            observation.error(error);
+        }
+
+        @Override
+        public void close() {
+            scope.close();
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.migratehero.service.execution;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 迁移时间窗口计划 - 按星期和时段指定字节速率
+ *
+ * 格式为分号分隔的条目，每条为 "[星期] 开始-结束=速率"，例如：
+ * "Mon-Fri 08:00-18:00=2MB; Mon-Fri 18:00-08:00=unlimited; Sat,Sun 00:00-24:00=unlimited"
+ * - 星期：Mon..Sun，支持范围 (Mon-Fri) 和逗号列表，省略或 * 表示每天
+ * - 时段：结束早于开始表示跨午夜，跨过的部分归属开始那天
+ * - 速率：每秒字节数，支持 B/KB/MB/GB 后缀；unlimited 不限速，pause 暂停迁移
+ * 按顺序取第一个匹配的条目，没有匹配时不限速。
+ */
+public final class MigrationWindowSchedule {
+
+    /**
+     * 不限速
+     */
+    public static final long UNLIMITED = TokenBucket.UNLIMITED;
+
+    /**
+     * 暂停
+     */
+    public static final long PAUSED = 0;
+
+    private static final MigrationWindowSchedule ALWAYS_UNLIMITED = new MigrationWindowSchedule(Collections.emptyList());
+
+    private static final String[] DAY_NAMES = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+
+    private final List<Window> windows;
+
+    private MigrationWindowSchedule(List<Window> windows) {
+        this.windows = windows;
+    }
+
+    /**
+     * 解析窗口计划，空字符串表示全天不限速
+     *
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static MigrationWindowSchedule parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return ALWAYS_UNLIMITED;
+        }
+        List<Window> windows = new ArrayList<>();
+        for (String raw : spec.split(";")) {
+            String entry = raw.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Window entry missing '=rate': " + entry);
+            }
+            long rate = parseRate(entry.substring(eq + 1).trim());
+            String[] parts = entry.substring(0, eq).trim().split("\\s+");
+            if (parts.length > 2 || parts[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid window entry: " + entry);
+            }
+            Set<DayOfWeek> days = parts.length == 2 ? parseDays(parts[0]) : EnumSet.allOf(DayOfWeek.class);
+            String[] range = parts[parts.length - 1].split("-");
+            if (range.length != 2) {
+                throw new IllegalArgumentException("Invalid time range: " + parts[parts.length - 1]);
+            }
+            int start = parseMinute(range[0]);
+            int end = parseMinute(range[1]);
+            if (start == end || start == 24 * 60) {
+                throw new IllegalArgumentException("Empty time range: " + parts[parts.length - 1]);
+            }
+            windows.add(new Window(days, start, end, rate));
+        }
+        return new MigrationWindowSchedule(List.copyOf(windows));
+    }
+
+    /**
+     * 解析速率：数字 + 可选 B/KB/MB/GB (可带 /s)，或 unlimited / pause
+     */
+    public static long parseRate(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("/s")) {
+            v = v.substring(0, v.length() - 2).trim();
+        }
+        if (v.equals("unlimited") || v.equals("full")) {
+            return UNLIMITED;
+        }
+        if (v.equals("pause") || v.equals("paused") || v.equals("off")) {
+            return PAUSED;
+        }
+        long multiplier = 1;
+        if (v.endsWith("gb")) {
+            multiplier = 1024L * 1024 * 1024;
+        } else if (v.endsWith("mb")) {
+            multiplier = 1024L * 1024;
+        } else if (v.endsWith("kb")) {
+            multiplier = 1024L;
+        }
+        v = v.replaceAll("[a-z]+$", "").trim();
+        try {
+            double amount = Double.parseDouble(v);
+            if (amount < 0) {
+                throw new IllegalArgumentException("Negative rate: " + value);
+            }
+            return (long) (amount * multiplier);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate: " + value);
+        }
+    }
+
+    /**
+     * 指定时刻所在窗口的速率
+     */
+    public long rateAt(LocalDateTime time) {
+        DayOfWeek day = time.getDayOfWeek();
+        int minute = time.getHour() * 60 + time.getMinute();
+        for (Window window : windows) {
+            if (window.matches(day, minute)) {
+                return window.rate;
+            }
+        }
+        return UNLIMITED;
+    }
+
+    /**
+     * 带爬坡的速率：进入较低速率窗口前 rampMinutes 分钟内线性降速，进入较高速率窗口后 rampMinutes 分钟内线性升速，
+     * 避免窗口边界处流量突变。不限速窗口在插值时按 fullSpeed 计算，fullSpeed 不大于 0 时不限速边界不爬坡。
+     */
+    public long effectiveRate(LocalDateTime time, int rampMinutes, long fullSpeed) {
+        long current = rateAt(time);
+        if (rampMinutes <= 0 || windows.isEmpty() || current == PAUSED) {
+            return current;
+        }
+        double cur = level(current, fullSpeed);
+        if (cur < 0) {
+            return current;
+        }
+        double effective = cur;
+        for (int k = 1; k <= rampMinutes; k++) {
+            double fraction = (double) k / (rampMinutes + 1);
+            // 即将进入的低速窗口：距边界越近越接近目标速率
+            double ahead = level(rateAt(time.plusMinutes(k)), fullSpeed);
+            if (ahead >= 0 && ahead < cur) {
+                effective = Math.min(effective, ahead + (cur - ahead) * fraction);
+            }
+            // 刚离开的低速窗口：离边界越远越接近当前速率
+            double behind = level(rateAt(time.minusMinutes(k)), fullSpeed);
+            if (behind >= 0 && behind < cur) {
+                effective = Math.min(effective, behind + (cur - behind) * fraction);
+            }
+        }
+        if (effective >= cur) {
+            return current;
+        }
+        return Math.max(1, (long) effective);
+    }
+
+    public boolean isEmpty() {
+        return windows.isEmpty();
+    }
+
+    private static double level(long rate, long fullSpeed) {
+        if (rate == UNLIMITED) {
+            return fullSpeed > 0 ? fullSpeed : -1;
+        }
+        return rate;
+    }
+
+    private static Set<DayOfWeek> parseDays(String value) {
+        if (value.equals("*")) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String token : value.split(",")) {
+            String[] range = token.trim().split("-");
+            if (range.length == 1) {
+                days.add(parseDay(range[0]));
+            } else if (range.length == 2) {
+                DayOfWeek from = parseDay(range[0]);
+                DayOfWeek to = parseDay(range[1]);
+                for (DayOfWeek d = from; ; d = d.plus(1)) {
+                    days.add(d);
+                    if (d == to) {
+                        break;
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid day range: " + token);
+            }
+        }
+        return days;
+    }
+
+    private static DayOfWeek parseDay(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            if (v.startsWith(DAY_NAMES[i])) {
+                return DayOfWeek.of(i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Invalid day: " + value);
+    }
+
+    private static int parseMinute(String value) {
+        String[] hm = value.trim().split(":");
+        try {
+            int hour = Integer.parseInt(hm[0]);
+            int minute = hm.length > 1 ? Integer.parseInt(hm[1]) : 0;
+            int total = hour * 60 + minute;
+            if (hm.length > 2 || hour < 0 || minute < 0 || minute >= 60 || total > 24 * 60) {
+                throw new IllegalArgumentException("Invalid time: " + value);
+            }
+            return total;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    private static final class Window {
+        private final Set<DayOfWeek> days;
+        private final int startMinute;
+        private final int endMinute;
+        private final long rate;
+
+        private Window(Set<DayOfWeek> days, int startMinute, int endMinute, long rate) {
+            this.days = days;
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+            this.rate = rate;
+        }
+
+        private boolean matches(DayOfWeek day, int minute) {
+            if (startMinute < endMinute) {
+                return days.contains(day) && minute >= startMinute && minute < endMinute;
+            }
+            // 跨午夜：开始当天的后半段 + 次日的前半段
+            return (days.contains(day) && minute >= startMinute)
+                    || (days.contains(day.minus(1)) && minute < endMinute);
+        }
+    }
+}
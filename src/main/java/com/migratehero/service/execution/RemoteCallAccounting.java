@@ -0,0 +1,219 @@
+package com.migratehero.service.execution;
+
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import lombok.extern.slf4j.Slf4j;
+import microsoft.exchange.webservices.data.core.ExchangeService;
+import microsoft.exchange.webservices.data.core.enumeration.misc.TraceFlags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 远程调用计数 - 按任务和连接器操作统计实际发出的远程请求数，并给出"每迁移条目调用次数"
+ *
+ * MigrationExecutor 在每次连接器调用期间于当前线程上打开一个计数帧，连接器内部发出的 HTTP/SOAP 请求
+ * 由各自的钩子 (Google HttpRequestInitializer、Graph RestTemplate 拦截器、EWS 请求头跟踪监听器) 计入当前帧，
+ * 调用结束后并入该任务的统计；没有钩子的协议 (IMAP、DAV) 每次连接器调用计为一次请求。
+ * 据此可发现逐条目请求 (如 Gmail 列表对每封邮件再 get 一次) 和逐页重复的绑定请求。
+ * 统计只保存在运行任务的节点内存中，任务进入终态后保留 retention-minutes，不经过执行器的直接调用不计入。
+ */
+@Slf4j
+@Component
+public class RemoteCallAccounting {
+
+    private static final ThreadLocal<Map<String, Long>> CURRENT = new ThreadLocal<>();
+
+    @Value("${migratehero.metrics.retention-minutes:60}")
+    private int retentionMinutes;
+
+    private final Map<WorkUnit, TaskCalls> tasks = new ConcurrentHashMap<>();
+    /**
+     * 已进入终态的任务及其结束时间
+     */
+    private final Map<WorkUnit, Long> finishedAt = new ConcurrentHashMap<>();
+
+    /**
+     * 在计数帧内执行一次连接器调用，结束后把帧内的请求计入 op 所属任务
+     */
+    public <T, E extends Exception> T account(MigrationMetrics.Op op, MigrationExecutor.IoCall<T, E> work) throws E {
+        Map<String, Long> previous = CURRENT.get();
+        Map<String, Long> frame = new LinkedHashMap<>();
+        CURRENT.set(frame);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            if (op.unit() != null) {
+                if (frame.isEmpty()) {
+                    frame.put(op.operation(), 1L);
+                }
+                finishedAt.remove(op.unit());
+                TaskCalls calls = tasks.computeIfAbsent(op.unit(), unit -> new TaskCalls());
+                Map<String, LongAdder> requests = calls.operations.computeIfAbsent(op.operation(),
+                        operation -> new ConcurrentHashMap<>());
+                frame.forEach((request, count) -> requests.computeIfAbsent(request, r -> new LongAdder()).add(count));
+            }
+        }
+    }
+
+    /**
+     * 记录任务已迁移的条目数 (调用次数比值的分母)
+     */
+    public void recordItems(WorkUnit unit, long items) {
+        tasks.computeIfAbsent(unit, u -> new TaskCalls()).items.addAndGet(items);
+    }
+
+    public RemoteCallReport report(WorkUnit unit) {
+        TaskCalls calls = tasks.get(unit);
+        Map<String, Map<String, Long>> operations = new LinkedHashMap<>();
+        if (calls == null) {
+            return new RemoteCallReport(MigrationEvents.id(unit), 0, operations);
+        }
+        calls.operations.forEach((operation, requests) -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            requests.forEach((request, count) -> counts.put(request, count.sum()));
+            operations.put(operation, counts);
+        });
+        return new RemoteCallReport(MigrationEvents.id(unit), calls.items.get(), operations);
+    }
+
+    /**
+     * 任务结束时输出调用统计
+     */
+    public void logSummary(WorkUnit unit) {
+        if (tasks.containsKey(unit)) {
+            log.info("Remote calls for {}", report(unit).describe());
+        }
+    }
+
+    /**
+     * 任务进入终态，保留期过后释放其统计 (任务重新开始发出调用时取消释放)
+     */
+    public void finished(WorkUnit unit) {
+        finishedAt.put(unit, System.currentTimeMillis());
+    }
+
+    /**
+     * 释放已超过保留期的终态任务统计
+     */
+    @Scheduled(fixedDelayString = "${migratehero.metrics.evict-interval-ms:60000}")
+    public void evictFinished() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000L;
+        finishedAt.forEach((unit, at) -> {
+            if (at < cutoff && finishedAt.remove(unit, at)) {
+                tasks.remove(unit);
+            }
+        });
+    }
+
+    /**
+     * 任务删除后释放其统计
+     */
+    public void remove(WorkUnit unit) {
+        tasks.remove(unit);
+        finishedAt.remove(unit);
+    }
+
+    /**
+     * 把一次远程请求计入当前线程的计数帧 (不在连接器调用内时忽略)
+     *
+     * @param request 请求分类，如 "google GET /gmail/v1/users/me/messages/{id}"、"ews request"
+     */
+    public static void countRequest(String request) {
+        Map<String, Long> frame = CURRENT.get();
+        if (frame != null) {
+            frame.merge(request, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * 包装 Google API 客户端的请求初始化器，统计每个 HTTP 请求 (保留原有的认证拦截器)
+     */
+    public static HttpRequestInitializer google(HttpRequestInitializer delegate) {
+        return request -> {
+            delegate.initialize(request);
+            HttpExecuteInterceptor interceptor = request.getInterceptor();
+            request.setInterceptor(r -> {
+                countRequest(requestName("google", r.getRequestMethod(), r.getUrl().getRawPath()));
+                if (interceptor != null) {
+                    interceptor.intercept(r);
+                }
+            });
+        };
+    }
+
+    /**
+     * 为 RestTemplate 添加请求计数拦截器
+     *
+     * @param api 请求分类前缀，如 graph
+     */
+    public static RestTemplate restTemplate(RestTemplate restTemplate, String api) {
+        ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+            URI uri = request.getURI();
+            countRequest(requestName(api, request.getMethod().name(), uri.getRawPath()));
+            return execution.execute(request, body);
+        };
+        restTemplate.getInterceptors().add(interceptor);
+        return restTemplate;
+    }
+
+    /**
+     * 为 ExchangeService 注册跟踪监听器，每个 SOAP 请求计一次
+     *
+     * 只开启 HTTP 请求头跟踪：EwsRequest 跟踪会缓冲并重新格式化整个 SOAP 请求体 (包括 base64 MIME)，
+     * 请求头跟踪只格式化几行头部。SOAP 操作名因此不可得，按操作的细分由外层连接器操作 (ews_fetch ...) 提供。
+     */
+    public static ExchangeService ews(ExchangeService service) {
+        service.setTraceListener((traceType, traceMessage) -> countRequest("ews request"));
+        service.setTraceFlags(EnumSet.of(TraceFlags.EwsRequestHttpHeaders));
+        service.setTraceEnabled(true);
+        return service;
+    }
+
+    /**
+     * 请求分类名，路径中的条目/文件夹 ID 段替换为 {id}，避免每个条目各成一类
+     */
+    static String requestName(String api, String method, String path) {
+        StringBuilder sb = new StringBuilder(api).append(' ').append(method.toUpperCase(Locale.ROOT)).append(' ');
+        if (path == null || path.isEmpty()) {
+            return sb.append('/').toString();
+        }
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            sb.append('/').append(isId(segment) ? "{id}" : segment);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isId(String segment) {
+        if (segment.length() >= 24 || segment.contains("=") || segment.contains("%")
+                || segment.contains("@")) {
+            return true;
+        }
+        return segment.length() >= 8 && segment.chars().anyMatch(Character::isDigit);
+    }
+
+    private static final class TaskCalls {
+        private final AtomicLong items = new AtomicLong();
+        private final Map<String, Map<String, LongAdder>> operations = new ConcurrentHashMap<>();
+    }
+}
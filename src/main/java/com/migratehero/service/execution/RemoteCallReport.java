@@ -0,0 +1,92 @@
+package com.migratehero.service.execution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一个任务的远程调用统计快照 - 按连接器操作分组，每个操作下按实际发出的远程请求分类计数
+ *
+ * 例如 list_emails 下的 "google GET /gmail/v1/users/me/messages/{id}" 计数接近条目数，即该操作存在逐条目请求 (N+1)。
+ *
+ * @param task       任务标识 (task-1 / job-1)
+ * @param items      已迁移条目数
+ * @param operations 操作名 -> (远程请求 -> 次数)
+ */
+public record RemoteCallReport(String task, long items, Map<String, Map<String, Long>> operations) {
+
+    /**
+     * 远程调用总次数
+     */
+    public long calls() {
+        long calls = 0;
+        for (String operation : operations.keySet()) {
+            calls += calls(operation);
+        }
+        return calls;
+    }
+
+    /**
+     * 某个操作的远程调用次数
+     */
+    public long calls(String operation) {
+        Map<String, Long> requests = operations.get(operation);
+        return requests == null ? 0 : requests.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 每迁移一个条目的远程调用次数 (尚无条目时为调用总数)
+     */
+    public double callsPerItem() {
+        return calls() / (double) Math.max(items, 1);
+    }
+
+    public double callsPerItem(String operation) {
+        return calls(operation) / (double) Math.max(items, 1);
+    }
+
+    /**
+     * 用于接口返回的摘要，操作按调用次数降序
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("task", task);
+        result.put("items", items);
+        result.put("calls", calls());
+        result.put("callsPerItem", round(callsPerItem()));
+        Map<String, Object> byOperation = new LinkedHashMap<>();
+        operations.keySet().stream()
+                .sorted((a, b) -> Long.compare(calls(b), calls(a)))
+                .forEach(operation -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("calls", calls(operation));
+                    entry.put("callsPerItem", round(callsPerItem(operation)));
+                    entry.put("requests", operations.get(operation));
+                    byOperation.put(operation, entry);
+                });
+        result.put("operations", byOperation);
+        return result;
+    }
+
+    /**
+     * 多行文本摘要 (日志和断言失败信息使用)
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s: %d calls for %d items (%.2f per item)", task, calls(), items, callsPerItem()));
+        operations.keySet().stream()
+                .sorted((a, b) -> Long.compare(calls(b), calls(a)))
+                .forEach(operation -> {
+                    sb.append(String.format("%n  %-24s %8d  %6.2f/item", operation, calls(operation),
+                            callsPerItem(operation)));
+                    operations.get(operation).entrySet().stream()
+                            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                            .forEach(request -> sb.append(String.format("%n      %-52s %8d",
+                                    request.getKey(), request.getValue())));
+                });
+        return sb.toString();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,245 @@
+package com.migratehero.service.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按邮件大小分道处理 - 小邮件高并发，大邮件在受限通道中逐个通过
+ *
+ * 每条通道有独立的并发上限和在途字节预算 (下载 + 上传期间占用)，
+ * 单封超大邮件只会占满大邮件通道，不会阻塞小邮件通道。
+ * 批次通过 {@link Window} 提交：各通道各自排队、有名额即启动，提交方可以跨页持续提交，
+ * 只受窗口内未完成条目数的限制，大邮件通道积压时小邮件不必等它跑完当前页。
+ */
+@Slf4j
+@Component
+public class SizeLanes {
+
+    public enum Lane {
+        SMALL, MEDIUM, LARGE
+    }
+
+    @Value("${migratehero.migration.lanes.small-max-bytes:1048576}")
+    private long smallMaxBytes;
+
+    @Value("${migratehero.migration.lanes.large-min-bytes:10485760}")
+    private long largeMinBytes;
+
+    @Value("${migratehero.migration.lanes.small-concurrency:16}")
+    private int smallConcurrency;
+
+    @Value("${migratehero.migration.lanes.medium-concurrency:4}")
+    private int mediumConcurrency;
+
+    @Value("${migratehero.migration.lanes.large-concurrency:1}")
+    private int largeConcurrency;
+
+    @Value("${migratehero.migration.lanes.small-budget-mb:64}")
+    private int smallBudgetMb;
+
+    @Value("${migratehero.migration.lanes.medium-budget-mb:128}")
+    private int mediumBudgetMb;
+
+    @Value("${migratehero.migration.lanes.large-budget-mb:256}")
+    private int largeBudgetMb;
+
+    /**
+     * 窗口等待期间重试获取通道名额的间隔 (名额可能由其他任务的窗口归还)
+     */
+    private static final long RETRY_MS = 50;
+
+    private final Map<Lane, Gate> gates = new EnumMap<>(Lane.class);
+
+    @PostConstruct
+    public void init() {
+        gates.put(Lane.SMALL, new Gate(smallConcurrency, smallBudgetMb));
+        gates.put(Lane.MEDIUM, new Gate(mediumConcurrency, mediumBudgetMb));
+        gates.put(Lane.LARGE, new Gate(largeConcurrency, largeBudgetMb));
+        log.info("Size lanes: small<{}B x{} ({}MB), medium x{} ({}MB), large>={}B x{} ({}MB)",
+                smallMaxBytes, smallConcurrency, smallBudgetMb, mediumConcurrency, mediumBudgetMb,
+                largeMinBytes, largeConcurrency, largeBudgetMb);
+    }
+
+    /**
+     * 按邮件大小归入通道，大小未知 (<= 0) 时按小邮件处理
+     */
+    public Lane classify(long sizeBytes) {
+        if (sizeBytes >= largeMinBytes) {
+            return Lane.LARGE;
+        }
+        if (sizeBytes >= smallMaxBytes) {
+            return Lane.MEDIUM;
+        }
+        return Lane.SMALL;
+    }
+
+    /**
+     * 打开一个在途窗口，批次在 executor 上执行，窗口内最多 maxItems 个条目未完成
+     */
+    public Window window(int maxItems, Executor executor) {
+        return new Window(maxItems, executor);
+    }
+
+    /**
+     * 尝试占用通道名额和字节预算 (超过预算时占满整个预算)，不可用时返回 null
+     */
+    private Permit tryAcquire(Lane lane, long bytes) {
+        Gate gate = gates.get(lane);
+        int kilobytes = (int) Math.min(Math.max((bytes + 1023) / 1024, 1), gate.budgetKb);
+
+        if (!gate.slots.tryAcquire()) {
+            return null;
+        }
+        if (!gate.bytes.tryAcquire(kilobytes)) {
+            gate.slots.release();
+            return null;
+        }
+        return new Permit(gate, kilobytes);
+    }
+
+    /**
+     * 跨页的在途窗口：批次按通道先进先出排队，通道有空闲名额即启动，各通道互不等待。
+     * 名额在提交方或完成批次的线程上以 tryAcquire 获取，工作池线程不会阻塞在通道闸门上；
+     * 通道名额由所有任务共享，其他任务归还的名额由等待中的提交方定时重试取得。
+     */
+    public final class Window {
+        private final int maxItems;
+        private final Executor executor;
+        private final Map<Lane, Deque<Batch>> queued = new EnumMap<>(Lane.class);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private int outstanding;
+
+        private Window(int maxItems, Executor executor) {
+            this.maxItems = Math.max(maxItems, 1);
+            this.executor = executor;
+        }
+
+        /**
+         * 提交一个批次；窗口已满时在当前线程上等待，直到已提交的批次完成腾出空间
+         */
+        public void submit(Lane lane, long bytes, int items, Runnable work) throws InterruptedException {
+            int weight = Math.min(Math.max(items, 1), maxItems);
+            lock.lock();
+            try {
+                while (outstanding + weight > maxItems) {
+                    dispatch();
+                    changed.await(RETRY_MS, TimeUnit.MILLISECONDS);
+                }
+                outstanding += weight;
+                queued.computeIfAbsent(lane, l -> new ArrayDeque<>()).add(new Batch(lane, bytes, weight, work));
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 等待窗口内的全部批次完成
+         */
+        public void await() throws InterruptedException {
+            lock.lock();
+            try {
+                while (outstanding > 0) {
+                    dispatch();
+                    changed.await(RETRY_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 启动各通道队首可以取得名额的批次 (调用方持有锁)
+         */
+        private void dispatch() {
+            for (Deque<Batch> lane : queued.values()) {
+                Batch next;
+                while ((next = lane.peek()) != null) {
+                    Permit permit = tryAcquire(next.lane(), next.bytes());
+                    if (permit == null) {
+                        break;
+                    }
+                    lane.poll();
+                    start(next, permit);
+                }
+            }
+        }
+
+        private void start(Batch batch, Permit permit) {
+            try {
+                executor.execute(() -> {
+                    try (permit) {
+                        batch.work().run();
+                    } finally {
+                        finished(batch);
+                    }
+                });
+            } catch (RuntimeException e) {
+                permit.close();
+                outstanding -= batch.weight();
+                throw e;
+            }
+        }
+
+        private void finished(Batch batch) {
+            lock.lock();
+            try {
+                outstanding -= batch.weight();
+                dispatch();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private record Batch(Lane lane, long bytes, int weight, Runnable work) {}
+
+    /**
+     * 已占用的通道名额，关闭时归还 (可重复关闭)
+     */
+    private static final class Permit implements AutoCloseable {
+        private final Gate gate;
+        private final int kilobytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Gate gate, int kilobytes) {
+            this.gate = gate;
+            this.kilobytes = kilobytes;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                gate.bytes.release(kilobytes);
+                gate.slots.release();
+            }
+        }
+    }
+
+    private static final class Gate {
+        private final Semaphore slots;
+        private final Semaphore bytes;
+        private final int budgetKb;
+
+        private Gate(int concurrency, int budgetMb) {
+            this.slots = new Semaphore(Math.max(concurrency, 1), true);
+            this.budgetKb = Math.max(budgetMb, 1) * 1024;
+            this.bytes = new Semaphore(budgetKb, true);
+        }
+    }
+}
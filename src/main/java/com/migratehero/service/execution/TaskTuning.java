@@ -0,0 +1,126 @@
+package com.migratehero.service.execution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 单个任务/作业的运行时性能参数
+ *
+ * 覆盖值为空表示使用默认值；执行流程每次使用时读取，调整在下一次分片、批次或上传时生效。
+ */
+public final class TaskTuning {
+
+    private final int defaultFolderParallelism;
+    private final AdjustableLimit folderLimit;
+    private final AdjustableLimit uploadLimit;
+
+    private volatile Integer folderParallelism;
+    private volatile Integer fetchBatchSize;
+    private volatile Integer uploadConcurrency;
+    private volatile Long maxBytesPerSecond;
+
+    public TaskTuning(int defaultFolderParallelism) {
+        this.defaultFolderParallelism = Math.max(defaultFolderParallelism, 1);
+        this.folderLimit = new AdjustableLimit(this.defaultFolderParallelism);
+        this.uploadLimit = new AdjustableLimit(AdjustableLimit.UNLIMITED);
+    }
+
+    /**
+     * 文件夹内分片并发闸门
+     */
+    public AdjustableLimit getFolderLimit() {
+        return folderLimit;
+    }
+
+    /**
+     * 上传并发闸门
+     */
+    public AdjustableLimit getUploadLimit() {
+        return uploadLimit;
+    }
+
+    /**
+     * 读取批大小：有覆盖值时使用覆盖值，否则使用自适应值
+     */
+    public int fetchBatchSize(int adaptive) {
+        Integer override = fetchBatchSize;
+        return override != null ? override : adaptive;
+    }
+
+    /**
+     * 读取批大小覆盖值，为空表示自适应
+     */
+    public Integer getFetchBatchSize() {
+        return fetchBatchSize;
+    }
+
+    /**
+     * 字节速率上限覆盖值，为空表示沿用任务设置
+     */
+    public Long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * 应用调整，参数为空表示不修改，0 表示恢复默认
+     *
+     * @return 实际发生的变更描述，如 "fetchBatchSize: adaptive -> 20"
+     */
+    public synchronized List<String> apply(Integer folderParallelism, Integer fetchBatchSize,
+                                           Integer uploadConcurrency, Long maxBytesPerSecond) {
+        List<String> changes = new ArrayList<>();
+        if (folderParallelism != null) {
+            Integer value = folderParallelism > 0 ? folderParallelism : null;
+            if (!Objects.equals(value, this.folderParallelism)) {
+                changes.add(describe("folderParallelism", this.folderParallelism, value, "default"));
+                this.folderParallelism = value;
+                folderLimit.setLimit(value != null ? value : defaultFolderParallelism);
+            }
+        }
+        if (fetchBatchSize != null) {
+            Integer value = fetchBatchSize > 0 ? fetchBatchSize : null;
+            if (!Objects.equals(value, this.fetchBatchSize)) {
+                changes.add(describe("fetchBatchSize", this.fetchBatchSize, value, "adaptive"));
+                this.fetchBatchSize = value;
+            }
+        }
+        if (uploadConcurrency != null) {
+            Integer value = uploadConcurrency > 0 ? uploadConcurrency : null;
+            if (!Objects.equals(value, this.uploadConcurrency)) {
+                changes.add(describe("uploadConcurrency", this.uploadConcurrency, value, "unlimited"));
+                this.uploadConcurrency = value;
+                uploadLimit.setLimit(value != null ? value : AdjustableLimit.UNLIMITED);
+            }
+        }
+        if (maxBytesPerSecond != null) {
+            Long value = maxBytesPerSecond > 0 ? maxBytesPerSecond : null;
+            if (!Objects.equals(value, this.maxBytesPerSecond)) {
+                changes.add(describe("maxBytesPerSecond", this.maxBytesPerSecond, value, "task setting"));
+                this.maxBytesPerSecond = value;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * 当前参数和在途数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("folderParallelism", folderLimit.getLimit());
+        snapshot.put("folderParallelismOverridden", folderParallelism != null);
+        snapshot.put("shardsInFlight", folderLimit.getInFlight());
+        snapshot.put("fetchBatchSize", fetchBatchSize);
+        snapshot.put("uploadConcurrency", uploadConcurrency);
+        snapshot.put("uploadsInFlight", uploadLimit.getInFlight());
+        snapshot.put("maxBytesPerSecond", maxBytesPerSecond);
+        return snapshot;
+    }
+
+    private static String describe(String name, Object from, Object to, String defaultLabel) {
+        return name + ": " + (from != null ? from : defaultLabel) + " -> " + (to != null ? to : defaultLabel);
+    }
+}
@@ -0,0 +1,125 @@
+package com.migratehero.service.execution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 吞吐量时间序列 - 两级环形缓冲 (细粒度近期 + 降采样的粗粒度长期)，记录每个时间桶内完成的条目数和字节数
+ *
+ * 内存固定：细粒度默认 10 秒 × 360 桶 (1 小时)，粗粒度默认 5 分钟 × 288 桶 (24 小时)。
+ * 时间由调用方传入，便于测试。
+ */
+public final class ThroughputSeries {
+
+    /**
+     * 一个时间桶的平均速率
+     */
+    public record Point(long timestampMs, double itemsPerSecond, double bytesPerSecond) {
+    }
+
+    private final Ring fine;
+    private final Ring coarse;
+    private long firstRecordMs = -1;
+
+    public ThroughputSeries(long fineBucketMs, int fineBuckets, long coarseBucketMs, int coarseBuckets) {
+        this.fine = new Ring(fineBucketMs, fineBuckets);
+        this.coarse = new Ring(coarseBucketMs, coarseBuckets);
+    }
+
+    public synchronized void record(long nowMs, long items, long bytes) {
+        if (firstRecordMs < 0) {
+            firstRecordMs = nowMs;
+        }
+        fine.add(nowMs, items, bytes);
+        coarse.add(nowMs, items, bytes);
+    }
+
+    /**
+     * 最近 windowMs 内的平均速率 (序列不足一个窗口时按实际时长计算)
+     *
+     * @return [条目/秒, 字节/秒]
+     */
+    public synchronized double[] rate(long nowMs, long windowMs) {
+        if (firstRecordMs < 0) {
+            return new double[]{0, 0};
+        }
+        Ring ring = windowMs <= fine.span() ? fine : coarse;
+        long from = nowMs - windowMs;
+        long items = 0;
+        long bytes = 0;
+        for (int i = 0; i < ring.capacity; i++) {
+            long start = ring.starts[i];
+            if (start >= 0 && start + ring.bucketMs > from && start <= nowMs) {
+                items += ring.items[i];
+                bytes += ring.bytes[i];
+            }
+        }
+        double seconds = Math.max(Math.min(windowMs, nowMs - firstRecordMs), 1000) / 1000.0;
+        return new double[]{items / seconds, bytes / seconds};
+    }
+
+    /**
+     * 按时间顺序返回缓冲区内的全部数据点，空桶速率为 0
+     *
+     * @param coarseResolution true 返回降采样的长期序列
+     */
+    public synchronized List<Point> points(long nowMs, boolean coarseResolution) {
+        Ring ring = coarseResolution ? coarse : fine;
+        List<Point> points = new ArrayList<>();
+        if (firstRecordMs < 0) {
+            return points;
+        }
+        long current = Math.floorDiv(nowMs, ring.bucketMs) * ring.bucketMs;
+        long first = Math.max(current - (long) (ring.capacity - 1) * ring.bucketMs,
+                Math.floorDiv(firstRecordMs, ring.bucketMs) * ring.bucketMs);
+        for (long start = first; start <= current; start += ring.bucketMs) {
+            int index = ring.index(start);
+            boolean filled = ring.starts[index] == start;
+            // 当前桶尚未结束，按已经过的时长计算
+            double seconds = (start == current ? Math.max(nowMs - start, 1000) : ring.bucketMs) / 1000.0;
+            points.add(new Point(start,
+                    filled ? ring.items[index] / seconds : 0,
+                    filled ? ring.bytes[index] / seconds : 0));
+        }
+        return points;
+    }
+
+    private static final class Ring {
+        private final long bucketMs;
+        private final int capacity;
+        private final long[] starts;
+        private final long[] items;
+        private final long[] bytes;
+
+        private Ring(long bucketMs, int capacity) {
+            this.bucketMs = Math.max(bucketMs, 1);
+            this.capacity = Math.max(capacity, 1);
+            this.starts = new long[this.capacity];
+            this.items = new long[this.capacity];
+            this.bytes = new long[this.capacity];
+            Arrays.fill(starts, -1);
+        }
+
+        private void add(long nowMs, long itemCount, long byteCount) {
+            long start = Math.floorDiv(nowMs, bucketMs) * bucketMs;
+            int index = index(start);
+            if (starts[index] != start) {
+                // 桶已过期 (环绕)，复用
+                starts[index] = start;
+                items[index] = 0;
+                bytes[index] = 0;
+            }
+            items[index] += itemCount;
+            bytes[index] += byteCount;
+        }
+
+        private int index(long start) {
+            return (int) Math.floorMod(start / bucketMs, (long) capacity);
+        }
+
+        private long span() {
+            return bucketMs * capacity;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.model.MvpMigrationTask;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务吞吐量跟踪 - 每个任务一个内存中的吞吐量时间序列，并据近期吞吐量估算剩余时间
+ *
+ * 源端文件夹大小已知时按剩余字节估算，否则按剩余条目数估算。序列只保存在运行任务的节点内存中，
+ * 任务进入终态后保留 retention-minutes 供查看，之后释放 (任务重新开始时取消释放)。
+ */
+@Component
+public class ThroughputTracker {
+
+    @Value("${migratehero.throughput.bucket-seconds:10}")
+    private int bucketSeconds;
+
+    @Value("${migratehero.throughput.buckets:360}")
+    private int buckets;
+
+    @Value("${migratehero.throughput.coarse-bucket-seconds:300}")
+    private int coarseBucketSeconds;
+
+    @Value("${migratehero.throughput.coarse-buckets:288}")
+    private int coarseBuckets;
+
+    /**
+     * 估算剩余时间所用的近期吞吐量窗口
+     */
+    @Value("${migratehero.throughput.eta-window-seconds:300}")
+    private int etaWindowSeconds;
+
+    @Value("${migratehero.metrics.retention-minutes:60}")
+    private int retentionMinutes;
+
+    private final Map<Long, ThroughputSeries> series = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastPublished = new ConcurrentHashMap<>();
+    /**
+     * 已进入终态的任务及其结束时间
+     */
+    private final Map<Long, Long> finishedAt = new ConcurrentHashMap<>();
+
+    /**
+     * 记录任务完成的条目数和字节数
+     */
+    public void record(Long taskId, long items, long bytes) {
+        finishedAt.remove(taskId);
+        series.computeIfAbsent(taskId, id -> new ThroughputSeries(
+                        bucketSeconds * 1000L, buckets, coarseBucketSeconds * 1000L, coarseBuckets))
+                .record(System.currentTimeMillis(), items, bytes);
+    }
+
+    /**
+     * 近期吞吐量和剩余时间估算
+     */
+    public Map<String, Object> estimate(MvpMigrationTask task) {
+        long now = System.currentTimeMillis();
+        ThroughputSeries taskSeries = series.get(task.getId());
+        double[] rate = taskSeries != null ? taskSeries.rate(now, etaWindowSeconds * 1000L) : new double[]{0, 0};
+
+        long remainingItems = Math.max(0, remaining(task.getTotalEmails(), task.getMigratedEmails(), task.getFailedEmails())
+                + remaining(task.getTotalCalendarEvents(), task.getMigratedCalendarEvents(), task.getFailedCalendarEvents())
+                + remaining(task.getTotalContacts(), task.getMigratedContacts(), task.getFailedContacts()));
+        long totalBytes = task.getTotalBytes() != null ? task.getTotalBytes() : 0;
+        long remainingBytes = Math.max(0, totalBytes - (task.getMigratedBytes() != null ? task.getMigratedBytes() : 0));
+
+        Long etaSeconds = null;
+        if (totalBytes > 0 && rate[1] > 0) {
+            etaSeconds = (long) Math.ceil(remainingBytes / rate[1]);
+        } else if (rate[0] > 0) {
+            etaSeconds = (long) Math.ceil(remainingItems / rate[0]);
+        }
+
+        Map<String, Object> estimate = new LinkedHashMap<>();
+        estimate.put("itemsPerSecond", round(rate[0]));
+        estimate.put("bytesPerSecond", round(rate[1]));
+        estimate.put("remainingItems", remainingItems);
+        estimate.put("totalBytes", totalBytes > 0 ? totalBytes : null);
+        estimate.put("migratedBytes", task.getMigratedBytes());
+        estimate.put("remainingBytes", totalBytes > 0 ? remainingBytes : null);
+        estimate.put("etaSeconds", etaSeconds);
+        estimate.put("estimatedCompletionAt", etaSeconds != null ? Instant.ofEpochMilli(now).plusSeconds(etaSeconds) : null);
+        return estimate;
+    }
+
+    /**
+     * 吞吐量序列
+     *
+     * @param coarse true 返回 24 小时降采样序列，否则返回 1 小时细粒度序列
+     */
+    public List<ThroughputSeries.Point> points(Long taskId, boolean coarse) {
+        ThroughputSeries taskSeries = series.get(taskId);
+        return taskSeries != null ? taskSeries.points(System.currentTimeMillis(), coarse) : List.of();
+    }
+
+    /**
+     * 距上次推送完整序列已超过一个时间桶时返回 true 并记录本次推送
+     */
+    public boolean shouldPublishSeries(Long taskId) {
+        long now = System.currentTimeMillis();
+        Long last = lastPublished.get(taskId);
+        if (last != null && now - last < bucketSeconds * 1000L) {
+            return false;
+        }
+        lastPublished.put(taskId, now);
+        return true;
+    }
+
+    /**
+     * 任务进入终态，保留期过后释放其序列
+     */
+    public void finished(Long taskId) {
+        finishedAt.put(taskId, System.currentTimeMillis());
+    }
+
+    /**
+     * 释放已超过保留期的终态任务序列
+     */
+    @Scheduled(fixedDelayString = "${migratehero.metrics.evict-interval-ms:60000}")
+    public void evictFinished() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000L;
+        finishedAt.forEach((taskId, at) -> {
+            if (at < cutoff && finishedAt.remove(taskId, at)) {
+                series.remove(taskId);
+                lastPublished.remove(taskId);
+            }
+        });
+    }
+
+    /**
+     * 任务删除后释放其序列
+     */
+    public void remove(Long taskId) {
+        series.remove(taskId);
+        lastPublished.remove(taskId);
+        finishedAt.remove(taskId);
+    }
+
+    private static long remaining(Long total, Long migrated, Long failed) {
+        return (total != null ? total : 0) - (migrated != null ? migrated : 0) - (failed != null ? failed : 0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.migratehero.service.execution;
+
+/**
+ * 字节令牌桶 - 按速率补充令牌，容量为 burstSeconds 秒的流量
+ *
+ * 预留允许透支：令牌不足时仍记账，返回调用方需要等待的时间，后续预留依次顺延，
+ * 单个大于桶容量的请求 (如大附件邮件) 也能按速率通过。
+ */
+public final class TokenBucket {
+
+    /**
+     * 不限速
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final double burstSeconds;
+
+    private long bytesPerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long bytesPerSecond, double burstSeconds, long nowNanos) {
+        this.burstSeconds = Math.max(burstSeconds, 0.1);
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = capacity();
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * 调整速率 (时间窗口切换或爬坡时调用)，已有的透支保留
+     */
+    public synchronized void setRate(long bytesPerSecond, long nowNanos) {
+        refill(nowNanos);
+        this.bytesPerSecond = bytesPerSecond;
+        tokens = Math.min(tokens, capacity());
+    }
+
+    public synchronized long getRate() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * 预留 bytes 字节
+     *
+     * @return 需要等待的纳秒数，0 表示可以立即发送
+     */
+    public synchronized long reserve(long bytes, long nowNanos) {
+        if (bytesPerSecond == UNLIMITED || bytes <= 0) {
+            return 0;
+        }
+        if (bytesPerSecond <= 0) {
+            throw new IllegalStateException("Token bucket is paused");
+        }
+        refill(nowNanos);
+        tokens -= bytes;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / bytesPerSecond * 1_000_000_000L);
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        lastRefillNanos = nowNanos;
+        if (elapsed <= 0 || bytesPerSecond == UNLIMITED || bytesPerSecond <= 0) {
+            return;
+        }
+        tokens = Math.min(capacity(), tokens + elapsed / 1_000_000_000.0 * bytesPerSecond);
+    }
+
+    private double capacity() {
+        if (bytesPerSecond == UNLIMITED || bytesPerSecond <= 0) {
+            return 0;
+        }
+        return bytesPerSecond * burstSeconds;
+    }
+}
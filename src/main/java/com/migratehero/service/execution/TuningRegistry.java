@@ -0,0 +1,41 @@
+package com.migratehero.service.execution;
+
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 运行时性能参数注册表 - 按工作单元 (MVP 任务 / 迁移作业) 保存可在线调整的参数
+ *
+ * 这里是运行节点上生效的参数。MVP 任务的参数同时保存在任务上，由运行任务的节点定期读取；
+ * 迁移作业的参数只保存在本节点内存中，只接受运行在本节点的作业的调整。
+ */
+@Component
+public class TuningRegistry {
+
+    @Value("${migratehero.migration.shard-parallelism:4}")
+    private int defaultFolderParallelism;
+
+    private final Map<WorkUnit, TaskTuning> tunings = new ConcurrentHashMap<>();
+
+    public TaskTuning get(WorkUnit unit) {
+        return tunings.computeIfAbsent(unit, u -> new TaskTuning(defaultFolderParallelism));
+    }
+
+    /**
+     * 已有参数 (未调整过返回空)
+     */
+    public TaskTuning find(WorkUnit unit) {
+        return tunings.get(unit);
+    }
+
+    /**
+     * 任务删除后移除其参数
+     */
+    public void remove(WorkUnit unit) {
+        tunings.remove(unit);
+    }
+}
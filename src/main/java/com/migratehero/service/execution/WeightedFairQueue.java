@@ -0,0 +1,107 @@
+package com.migratehero.service.execution;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * 加权公平队列 (自时钟公平排队 SCFQ)
+ *
+ * 每个任务按估算成本获得虚拟完成时间：finish = max(V, 租户上次 finish) + cost。
+ * 出队时选择虚拟完成时间最小且租户可准入的任务，并将系统虚拟时间 V 推进到该任务的完成时间。
+ * 小邮箱成本低、完成时间早，因而优先执行；大邮箱的完成时间固定不变，随 V 推进终会轮到，不会饿死。
+ * 同一租户的多个任务依次累加完成时间，单个租户无法挤占整个队列。
+ */
+public class WeightedFairQueue {
+
+    private final TreeSet<Entry> entries = new TreeSet<>(
+            Comparator.comparingDouble(Entry::finishTag).thenComparingLong(Entry::sequence));
+    private final Map<Long, Entry> byTaskId = new HashMap<>();
+    private final Map<String, Double> tenantFinish = new HashMap<>();
+    private double virtualTime;
+    private long sequence;
+
+    /**
+     * 估算成本：按邮件数取对数压缩，避免超大邮箱的完成时间远到无法追上
+     */
+    public static double cost(long estimatedItems) {
+        return Math.log(2 + Math.max(estimatedItems, 0)) / Math.log(2);
+    }
+
+    /**
+     * 入队，返回虚拟完成时间
+     */
+    public synchronized double enqueue(Long taskId, String tenant, double cost) {
+        remove(taskId);
+        double start = Math.max(virtualTime, tenantFinish.getOrDefault(tenant, 0.0));
+        double finish = start + cost;
+        tenantFinish.put(tenant, finish);
+        add(new Entry(taskId, tenant, finish, sequence++));
+        return finish;
+    }
+
+    /**
+     * 按持久化的虚拟完成时间恢复队列 (重启后调用)
+     */
+    public synchronized void restore(Long taskId, String tenant, double finishTag) {
+        remove(taskId);
+        tenantFinish.merge(tenant, finishTag, Math::max);
+        add(new Entry(taskId, tenant, finishTag, sequence++));
+        // 新到任务不应排到已恢复的队首任务之前
+        virtualTime = Math.max(virtualTime, entries.first().finishTag());
+    }
+
+    /**
+     * 取出虚拟完成时间最小且租户可准入的任务
+     *
+     * @return 任务 ID，没有可准入任务时返回 null
+     */
+    public synchronized Long pollEligible(Predicate<String> tenantAdmissible) {
+        Iterator<Entry> it = entries.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (tenantAdmissible.test(entry.tenant())) {
+                it.remove();
+                byTaskId.remove(entry.taskId());
+                virtualTime = Math.max(virtualTime, entry.finishTag());
+                return entry.taskId();
+            }
+        }
+        return null;
+    }
+
+    public synchronized boolean remove(Long taskId) {
+        Entry entry = byTaskId.remove(taskId);
+        return entry != null && entries.remove(entry);
+    }
+
+    /**
+     * 排队位置，从 1 开始，不在队列中返回 0
+     */
+    public synchronized int position(Long taskId) {
+        Entry target = byTaskId.get(taskId);
+        if (target == null) {
+            return 0;
+        }
+        return entries.headSet(target, true).size();
+    }
+
+    public synchronized String tenantOf(Long taskId) {
+        Entry entry = byTaskId.get(taskId);
+        return entry != null ? entry.tenant() : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void add(Entry entry) {
+        entries.add(entry);
+        byTaskId.put(entry.taskId(), entry);
+    }
+
+    private record Entry(Long taskId, String tenant, double finishTag, long sequence) {}
+}
@@ -0,0 +1,350 @@
+package com.migratehero.service.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 工作租约服务 - 多个 MigrateHero 节点通过数据库租约表分摊迁移工作
+ *
+ * - 获取: 条件 UPDATE (无持有者 / 本节点持有 / 已过期) 原子抢占，行不存在时 INSERT，唯一约束保证只有一个节点成功
+ * - 接管: PostgreSQL/MySQL 使用 SELECT ... FOR UPDATE SKIP LOCKED 认领过期租约，多节点并发接管互不阻塞；
+ *         H2 等不支持 SKIP LOCKED 的数据库退化为逐行条件 UPDATE
+ * - 心跳: 定时续约本节点持有的全部租约，续约失败说明已被其他节点接管
+ * - 节点标识: 未配置 node-id 时首次启动生成并持久化到 node-id-file，重启后沿用，
+ *         崩溃后在租约过期前重启的节点可直接重新获取自己遗留的租约
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkLeaseService {
+
+    public static final String MVP_TASK = "MVP_TASK";
+    public static final String MVP_FOLDER = "MVP_FOLDER";
+    public static final String MIGRATION_JOB = "MIGRATION_JOB";
+
+    /**
+     * 整个任务/作业的单元键
+     */
+    public static final String WHOLE = "*";
+
+    /**
+     * 作业变更通知订阅的单元键
+     */
+    public static final String NOTIFICATIONS = "notifications";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${migratehero.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${migratehero.cluster.node-id-file:./data/node-id}")
+    private String nodeIdFile;
+
+    @Value("${migratehero.cluster.lease-duration-seconds:60}")
+    private long leaseDurationSeconds;
+
+    private String nodeId;
+    private boolean skipLocked;
+
+    /**
+     * 本节点持有的租约
+     */
+    private final Set<WorkUnit> held = ConcurrentHashMap.newKeySet();
+
+    private final List<Consumer<WorkUnit>> leaseLostListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 工作单元
+     */
+    public record WorkUnit(String workType, Long refId, String unitKey) {
+
+        public static WorkUnit task(Long taskId) {
+            return new WorkUnit(MVP_TASK, taskId, WHOLE);
+        }
+
+        public static WorkUnit folder(Long taskId, String folderName) {
+            return new WorkUnit(MVP_FOLDER, taskId, folderName);
+        }
+
+        public static WorkUnit job(Long jobId) {
+            return new WorkUnit(MIGRATION_JOB, jobId, WHOLE);
+        }
+
+        /**
+         * 作业的变更通知订阅，持有者长期持有，与同步用的作业租约互不影响
+         */
+        public static WorkUnit notifications(Long jobId) {
+            return new WorkUnit(MIGRATION_JOB, jobId, NOTIFICATIONS);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : persistedNodeId();
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        skipLocked = product != null
+                && (product.toLowerCase().contains("postgresql") || product.toLowerCase().contains("mysql"));
+        log.info("Work leasing on node {} ({}, skip locked: {})", nodeId, product, skipLocked);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 尝试获取租约
+     *
+     * @return 获取成功 (包括本节点已持有) 返回 true，其他节点持有未过期租约时返回 false
+     */
+    public boolean tryAcquire(WorkUnit unit) {
+        Instant now = Instant.now();
+        Timestamp nowTs = Timestamp.from(now);
+        Timestamp expiresTs = Timestamp.from(now.plus(leaseDuration()));
+
+        int updated = jdbcTemplate.update(
+                "UPDATE work_lease SET owner_id = ?, lease_expires_at = ?, heartbeat_at = ?, acquired_at = ? " +
+                "WHERE work_type = ? AND ref_id = ? AND unit_key = ? " +
+                "AND (owner_id IS NULL OR owner_id = ? OR lease_expires_at < ?)",
+                nodeId, expiresTs, nowTs, nowTs,
+                unit.workType(), unit.refId(), unit.unitKey(), nodeId, nowTs);
+
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO work_lease (work_type, ref_id, unit_key, owner_id, lease_expires_at, heartbeat_at, acquired_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                        unit.workType(), unit.refId(), unit.unitKey(), nodeId, expiresTs, nowTs, nowTs);
+            } catch (DataIntegrityViolationException e) {
+                // 行已存在且由其他节点持有
+                log.debug("Lease {} is held by another node", unit);
+                return false;
+            }
+        }
+
+        held.add(unit);
+        return true;
+    }
+
+    /**
+     * 在一个租约周期内反复尝试获取租约，等待其他节点遗留的租约过期
+     *
+     * @param beforeRetry 每次重试前执行，可抛出异常中止等待 (如检查停止请求)
+     * @return 获取成功返回 true，超过一个租约周期仍被其他节点持有返回 false
+     */
+    public boolean tryAcquireWithinLease(WorkUnit unit, Runnable beforeRetry) throws InterruptedException {
+        Instant deadline = Instant.now().plus(leaseDuration()).plusSeconds(1);
+        while (!tryAcquire(unit)) {
+            if (Instant.now().isAfter(deadline)) {
+                return false;
+            }
+            beforeRetry.run();
+            Thread.sleep(1000);
+        }
+        return true;
+    }
+
+    /**
+     * 认领其他节点遗留的过期租约 (节点宕机后接管其工作)
+     *
+     * @return 本节点新认领的工作单元
+     */
+    @Transactional
+    public List<WorkUnit> claimExpired(String workType, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        Timestamp nowTs = Timestamp.from(now);
+        Timestamp expiresTs = Timestamp.from(now.plus(leaseDuration()));
+
+        String select = "SELECT id, ref_id, unit_key, owner_id FROM work_lease " +
+                "WHERE work_type = ? AND owner_id IS NOT NULL AND owner_id <> ? AND lease_expires_at < ? " +
+                "ORDER BY lease_expires_at LIMIT ?" +
+                (skipLocked ? " FOR UPDATE SKIP LOCKED" : "");
+
+        List<ExpiredLease> candidates = jdbcTemplate.query(select,
+                (rs, rowNum) -> new ExpiredLease(rs.getLong("id"), rs.getLong("ref_id"),
+                        rs.getString("unit_key"), rs.getString("owner_id")),
+                workType, nodeId, nowTs, limit);
+
+        List<WorkUnit> claimed = new ArrayList<>();
+        for (ExpiredLease candidate : candidates) {
+            // 无 SKIP LOCKED 时依靠过期条件保证只有一个节点认领成功
+            int updated = jdbcTemplate.update(
+                    "UPDATE work_lease SET owner_id = ?, lease_expires_at = ?, heartbeat_at = ?, acquired_at = ? " +
+                    "WHERE id = ? AND owner_id = ? AND lease_expires_at < ?",
+                    nodeId, expiresTs, nowTs, nowTs, candidate.id(), candidate.ownerId(), nowTs);
+            if (updated == 1) {
+                WorkUnit unit = new WorkUnit(workType, candidate.refId(), candidate.unitKey());
+                held.add(unit);
+                claimed.add(unit);
+                log.warn("Took over expired lease {} from node {}", unit, candidate.ownerId());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 本节点是否仍持有该租约 (心跳续约失败后返回 false)
+     */
+    public boolean isHeld(WorkUnit unit) {
+        return held.contains(unit);
+    }
+
+    /**
+     * 释放租约
+     */
+    public void release(WorkUnit unit) {
+        held.remove(unit);
+        jdbcTemplate.update(
+                "UPDATE work_lease SET owner_id = NULL, lease_expires_at = NULL " +
+                "WHERE work_type = ? AND ref_id = ? AND unit_key = ? AND owner_id = ?",
+                unit.workType(), unit.refId(), unit.unitKey(), nodeId);
+    }
+
+    /**
+     * 撤销租约 (不论持有者)，持有节点在下次心跳时发现租约丢失
+     */
+    public void revoke(WorkUnit unit) {
+        held.remove(unit);
+        jdbcTemplate.update(
+                "UPDATE work_lease SET owner_id = NULL, lease_expires_at = NULL " +
+                "WHERE work_type = ? AND ref_id = ? AND unit_key = ?",
+                unit.workType(), unit.refId(), unit.unitKey());
+    }
+
+    /**
+     * 当前持有者节点 ID，无人持有时返回 null
+     */
+    public String getOwner(WorkUnit unit) {
+        List<String> owners = jdbcTemplate.queryForList(
+                "SELECT owner_id FROM work_lease WHERE work_type = ? AND ref_id = ? AND unit_key = ?",
+                String.class, unit.workType(), unit.refId(), unit.unitKey());
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+
+    /**
+     * 注册租约丢失监听 (心跳续约失败时回调)
+     */
+    public void addLeaseLostListener(Consumer<WorkUnit> listener) {
+        leaseLostListeners.add(listener);
+    }
+
+    /**
+     * 删除任务的全部租约记录 (任务删除时调用)
+     */
+    public void deleteAll(String workType, Long refId) {
+        held.removeIf(unit -> unit.workType().equals(workType) && unit.refId().equals(refId));
+        jdbcTemplate.update("DELETE FROM work_lease WHERE work_type = ? AND ref_id = ?", workType, refId);
+    }
+
+    /**
+     * 心跳续约
+     */
+    @Scheduled(fixedDelayString = "${migratehero.cluster.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (held.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Timestamp nowTs = Timestamp.from(now);
+        Timestamp expiresTs = Timestamp.from(now.plus(leaseDuration()));
+
+        for (WorkUnit unit : List.copyOf(held)) {
+            try {
+                int updated = jdbcTemplate.update(
+                        "UPDATE work_lease SET lease_expires_at = ?, heartbeat_at = ? " +
+                        "WHERE work_type = ? AND ref_id = ? AND unit_key = ? AND owner_id = ?",
+                        expiresTs, nowTs, unit.workType(), unit.refId(), unit.unitKey(), nodeId);
+                if (updated == 0) {
+                    held.remove(unit);
+                    log.warn("Lost lease {} - it was revoked or taken over by another node", unit);
+                    leaseLostListeners.forEach(listener -> listener.accept(unit));
+                }
+            } catch (Exception e) {
+                // 数据库暂不可用时保留租约，下次心跳重试
+                log.warn("Failed to renew lease {}: {}", unit, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 正常停机时释放租约，其他节点无需等待过期即可接手
+     */
+    @PreDestroy
+    public void releaseAll() {
+        for (WorkUnit unit : List.copyOf(held)) {
+            try {
+                release(unit);
+            } catch (Exception e) {
+                log.debug("Failed to release lease {} on shutdown: {}", unit, e.getMessage());
+            }
+        }
+    }
+
+    private Duration leaseDuration() {
+        return Duration.ofSeconds(leaseDurationSeconds);
+    }
+
+    /**
+     * 读取持久化的节点标识，不存在时生成 (主机名 + 随机后缀，区分同一主机上的多个节点) 并写入；
+     * 无法写入时退化为主机名，仍在重启前后保持不变
+     */
+    private String persistedNodeId() {
+        Path file = Paths.get(nodeIdFile);
+        try {
+            if (Files.exists(file)) {
+                String stored = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (!stored.isEmpty()) {
+                    return stored;
+                }
+            }
+            String generated = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, generated, StandardCharsets.UTF_8);
+            return generated;
+        } catch (IOException e) {
+            log.warn("Could not persist node id to {}: {}, using host name", file, e.getMessage());
+            return hostName();
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+
+    private record ExpiredLease(long id, long refId, String unitKey, String ownerId) {}
+}
@@ -0,0 +1,484 @@
+package com.migratehero.service.migration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migratehero.model.ChangeSubscription;
+import com.migratehero.model.MigrationJob;
+import com.migratehero.model.enums.DataType;
+import com.migratehero.model.enums.MigrationPhase;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.model.enums.ProviderType;
+import com.migratehero.repository.ChangeSubscriptionRepository;
+import com.migratehero.repository.MigrationJobRepository;
+import com.migratehero.service.connector.ConnectorFactory;
+import com.migratehero.service.connector.ews.EwsEmailConnector;
+import com.migratehero.service.connector.microsoft.MicrosoftEmailConnector;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import microsoft.exchange.webservices.data.notification.StreamingSubscriptionConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 变更通知服务 - 以订阅代替轮询驱动增量同步
+ *
+ * 对处于增量同步阶段的 Microsoft 源账户：
+ * - EWS: 拉取通知 (pull) 或流式通知 (streaming)
+ * - Graph: 变更通知，经本地 Webhook 接收
+ * 收到的变更项目 ID 进入 {@link ChangeQueue}，队列有积压时触发一轮按同步令牌的邮件增量同步。
+ * 通知本身只是"有变更"的信号，变更内容和进度都以同步令牌为准，通知重复、丢失或节点重启后队列清空都不会重复或漏迁邮件。
+ * Google 源账户仍走轮询式增量同步。
+ *
+ * 多节点部署时每个作业的订阅只由持有其通知租约 ({@link WorkUnit#notifications}) 的节点建立、维护和消费，
+ * 订阅 ID 与 clientState 记录在 change_subscription 表中：任意节点都能校验 Graph 推送，
+ * 非持有节点只标记待同步，由持有者在作业租约下触发同步。租约转移后新持有者沿用已有的 Graph/EWS 拉取订阅。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeNotificationService {
+
+    private static final String WATERMARK_KEY = "ewsWatermark";
+
+    private final MigrationJobRepository jobRepository;
+    private final ConnectorFactory connectorFactory;
+    private final EwsEmailConnector ewsEmailConnector;
+    private final MicrosoftEmailConnector microsoftEmailConnector;
+    private final CheckpointService checkpointService;
+    private final MigrationEngine migrationEngine;
+    private final ChangeQueue changeQueue;
+    private final ObjectMapper objectMapper;
+    private final ChangeSubscriptionRepository subscriptionRepository;
+    private final WorkLeaseService leaseService;
+
+    /**
+     * 是否启用订阅模式，关闭时完全依赖轮询
+     */
+    @Value("${migratehero.migration.notifications.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * EWS 订阅方式: pull 或 streaming
+     */
+    @Value("${migratehero.migration.notifications.ews-mode:pull}")
+    private String ewsMode;
+
+    @Value("${migratehero.migration.notifications.subscription-timeout-minutes:30}")
+    private int subscriptionTimeoutMinutes;
+
+    /**
+     * Graph Webhook 的公网回调地址，为空时不创建 Graph 订阅
+     */
+    @Value("${migratehero.migration.notifications.graph-notification-url:}")
+    private String graphNotificationUrl;
+
+    @Value("${migratehero.migration.notifications.graph-subscription-minutes:4200}")
+    private int graphSubscriptionMinutes;
+
+    /**
+     * 本节点持有的订阅
+     */
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 为增量同步阶段的任务建立/维护订阅，并拉取 EWS 拉取订阅上的事件
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.notifications.pull-interval-ms:30000}")
+    public void refreshSubscriptions() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Long> activeJobIds = new HashSet<>();
+        for (MigrationJob job : jobRepository.findJobsInIncrementalSync()) {
+            if (job.getSourceAccount().getProvider() != ProviderType.MICROSOFT || !isEmailEnabled(job)) {
+                continue;
+            }
+            activeJobIds.add(job.getId());
+
+            WorkUnit lease = WorkUnit.notifications(job.getId());
+            Subscription subscription = subscriptions.get(job.getId());
+            if (subscription != null && !leaseService.isHeld(lease)) {
+                // 租约已被其他节点接管，只关闭本地连接，源端订阅由新持有者沿用
+                log.info("Notification lease for job {} moved to another node", job.getId());
+                dropSubscription(job.getId());
+                subscription = null;
+            }
+            if (subscription == null && !leaseService.tryAcquire(lease)) {
+                continue;
+            }
+
+            try {
+                if (subscription == null) {
+                    subscription = adoptOrSubscribe(job);
+                    if (subscription == null) {
+                        leaseService.release(lease);
+                        continue;
+                    }
+                    subscriptions.put(job.getId(), subscription);
+                }
+                maintain(job, subscription);
+            } catch (Exception e) {
+                log.warn("Notification subscription for job {} failed, falling back to polling: {}",
+                        job.getId(), e.getMessage());
+                dropSubscription(job.getId());
+                subscriptionRepository.deleteByJobId(job.getId());
+                leaseService.release(lease);
+            }
+        }
+
+        // 离开增量同步阶段的任务取消订阅 (包括已下线节点遗留的订阅)
+        for (ChangeSubscription record : subscriptionRepository.findAll()) {
+            Long jobId = record.getJobId();
+            WorkUnit lease = WorkUnit.notifications(jobId);
+            if (activeJobIds.contains(jobId) || (!subscriptions.containsKey(jobId) && !leaseService.tryAcquire(lease))) {
+                continue;
+            }
+            Subscription subscription = subscriptions.getOrDefault(jobId, fromRecord(record));
+            try {
+                jobRepository.findByIdWithAccounts(jobId).ifPresent(job -> unsubscribe(job, subscription));
+            } catch (Exception e) {
+                log.warn("Failed to remove notification subscription for job {}: {}", jobId, e.getMessage());
+            } finally {
+                dropSubscription(jobId);
+                subscriptionRepository.deleteByJobId(jobId);
+                changeQueue.clear(jobId);
+                leaseService.release(lease);
+            }
+        }
+    }
+
+    /**
+     * 消费变更队列：积压的变更合并为一轮邮件增量同步
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.notifications.drain-interval-ms:5000}")
+    public void drainQueues() {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Long> pendingJobIds = new HashSet<>(changeQueue.pendingJobIds());
+        // 其他节点代收的 Graph 推送
+        subscriptionRepository.findNotifiedJobIds().stream()
+                .filter(subscriptions::containsKey)
+                .forEach(pendingJobIds::add);
+
+        for (Long jobId : pendingJobIds) {
+            if (!leaseService.isHeld(WorkUnit.notifications(jobId))) {
+                // 订阅已转移，之后的推送由新持有者处理，同步进度以令牌为准不会丢失
+                changeQueue.clear(jobId);
+                continue;
+            }
+            Optional<MigrationJob> job = jobRepository.findByIdWithAccounts(jobId);
+            if (job.isEmpty() || job.get().getStatus() != MigrationStatus.RUNNING
+                    || job.get().getPhase() != MigrationPhase.INCREMENTAL_SYNC) {
+                changeQueue.clear(jobId);
+                continue;
+            }
+
+            // 与轮询同步、补齐同步互斥：本节点或其他节点正在同步该作业时留到下一轮
+            WorkUnit lease = WorkUnit.job(jobId);
+            if (leaseService.isHeld(lease) || !leaseService.tryAcquire(lease)) {
+                continue;
+            }
+            try {
+                // 先清空再同步，同步期间到达的通知会触发下一轮
+                int queued = changeQueue.poll(jobId, Integer.MAX_VALUE).size();
+                int notified = subscriptionRepository.clearNotified(jobId);
+                if (queued > 0 || notified > 0) {
+                    log.debug("Syncing emails for job {} after {} queued changes", jobId, queued);
+                    migrationEngine.syncNotifiedEmails(job.get());
+                }
+            } catch (Exception e) {
+                // 令牌未推进，标记后下一轮重试
+                log.warn("Notified email sync for job {} failed: {}", jobId, e.getMessage());
+                subscriptionRepository.markNotified(jobId, Instant.now());
+            } finally {
+                leaseService.release(lease);
+            }
+        }
+    }
+
+    /**
+     * 任务是否由订阅驱动 (任一节点订阅即可，此时无需再轮询)
+     */
+    public boolean isSubscribed(Long jobId) {
+        return enabled && (subscriptions.containsKey(jobId) || subscriptionRepository.existsByJobId(jobId));
+    }
+
+    /**
+     * 处理 Graph Webhook 推送的单条通知
+     */
+    public void onGraphNotification(String subscriptionId, String clientState, String resourceId, String changeType) {
+        for (Map.Entry<Long, Subscription> entry : subscriptions.entrySet()) {
+            Subscription subscription = entry.getValue();
+            if (subscription.kind != Kind.GRAPH || !subscription.subscriptionId.equals(subscriptionId)) {
+                continue;
+            }
+            if (!subscription.clientState.equals(clientState)) {
+                log.warn("Rejected Graph notification with mismatched clientState for subscription {}", subscriptionId);
+                return;
+            }
+            changeQueue.offer(entry.getKey(), resourceId, mapGraphChangeType(changeType));
+            return;
+        }
+
+        // 订阅由其他节点持有：校验后标记，由持有者触发同步
+        Optional<ChangeSubscription> record = subscriptionRepository.findBySubscriptionId(subscriptionId);
+        if (record.isEmpty() || !Kind.GRAPH.name().equals(record.get().getKind())) {
+            log.debug("Ignoring Graph notification for unknown subscription {}", subscriptionId);
+            return;
+        }
+        if (!record.get().getClientState().equals(clientState)) {
+            log.warn("Rejected Graph notification with mismatched clientState for subscription {}", subscriptionId);
+            return;
+        }
+        subscriptionRepository.markNotified(record.get().getJobId(), Instant.now());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(this::closeConnection);
+        subscriptions.clear();
+    }
+
+    /**
+     * 沿用其他节点建立的订阅，没有可沿用的订阅时新建并记录
+     */
+    private Subscription adoptOrSubscribe(MigrationJob job) {
+        Optional<ChangeSubscription> existing = subscriptionRepository.findByJobId(job.getId());
+        if (existing.isPresent()) {
+            Subscription adopted = adopt(job, existing.get());
+            if (adopted != null) {
+                return adopted;
+            }
+            subscriptionRepository.deleteByJobId(job.getId());
+        }
+
+        Subscription subscription = subscribe(job);
+        if (subscription != null) {
+            subscriptionRepository.save(ChangeSubscription.builder()
+                    .jobId(job.getId())
+                    .kind(subscription.kind.name())
+                    .subscriptionId(subscription.subscriptionId)
+                    .clientState(subscription.clientState)
+                    .expiresAt(subscription.expiresAt)
+                    .build());
+        }
+        return subscription;
+    }
+
+    /**
+     * Graph 和 EWS 拉取订阅不绑定节点，可以直接沿用；流式订阅随原节点的连接失效，只能重建
+     */
+    private Subscription adopt(MigrationJob job, ChangeSubscription record) {
+        Subscription subscription = fromRecord(record);
+        if (subscription.kind == Kind.EWS_STREAMING) {
+            return null;
+        }
+        if (subscription.kind == Kind.EWS_PULL) {
+            subscription.watermark = checkpointService.getStateValue(job, DataType.EMAILS, WATERMARK_KEY);
+        }
+        log.info("Took over {} subscription for job {}", subscription.kind, job.getId());
+        return subscription;
+    }
+
+    private Subscription fromRecord(ChangeSubscription record) {
+        Subscription subscription = new Subscription(Kind.valueOf(record.getKind()), record.getSubscriptionId());
+        subscription.clientState = record.getClientState();
+        subscription.expiresAt = record.getExpiresAt();
+        return subscription;
+    }
+
+    private Subscription subscribe(MigrationJob job) {
+        if (connectorFactory.isUsingEws()) {
+            return "streaming".equalsIgnoreCase(ewsMode) ? subscribeStreaming(job) : subscribePull(job);
+        }
+        if (graphNotificationUrl == null || graphNotificationUrl.isEmpty()) {
+            return null;
+        }
+        return subscribeGraph(job);
+    }
+
+    private Subscription subscribePull(MigrationJob job) {
+        String watermark = checkpointService.getStateValue(job, DataType.EMAILS, WATERMARK_KEY);
+        EwsEmailConnector.PullSubscriptionInfo info;
+        try {
+            info = ewsEmailConnector.subscribeToPullNotifications(
+                    job.getSourceAccount(), watermark, subscriptionTimeoutMinutes);
+        } catch (Exception e) {
+            if (watermark == null) {
+                throw e;
+            }
+            // 水位已过期，重新订阅并用一次按同步令牌的增量同步补齐中间的变更
+            log.warn("EWS watermark expired for job {}, resubscribing and reconciling by polling", job.getId());
+            info = ewsEmailConnector.subscribeToPullNotifications(
+                    job.getSourceAccount(), null, subscriptionTimeoutMinutes);
+            migrationEngine.executeMigration(job);
+        }
+
+        Subscription subscription = new Subscription(Kind.EWS_PULL, info.subscriptionId());
+        subscription.watermark = info.watermark();
+        log.info("Created EWS pull subscription for job {}", job.getId());
+        return subscription;
+    }
+
+    private Subscription subscribeStreaming(MigrationJob job) {
+        Long jobId = job.getId();
+        StreamingSubscriptionConnection connection = ewsEmailConnector.openStreamingSubscription(
+                job.getSourceAccount(),
+                subscriptionTimeoutMinutes,
+                items -> items.forEach(item ->
+                        changeQueue.offer(jobId, item.itemId(), mapEwsEventType(item.eventType()))),
+                this::reopenStreaming
+        );
+
+        Subscription subscription = new Subscription(Kind.EWS_STREAMING, null);
+        subscription.connection = connection;
+        log.info("Opened EWS streaming subscription for job {}", jobId);
+        return subscription;
+    }
+
+    private Subscription subscribeGraph(MigrationJob job) {
+        String clientState = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(graphSubscriptionMinutes));
+        String subscriptionId = microsoftEmailConnector.createSubscription(
+                job.getSourceAccount(), graphNotificationUrl, clientState, expiresAt);
+
+        Subscription subscription = new Subscription(Kind.GRAPH, subscriptionId);
+        subscription.clientState = clientState;
+        subscription.expiresAt = expiresAt;
+        log.info("Created Graph change subscription {} for job {}", subscriptionId, job.getId());
+        return subscription;
+    }
+
+    private void maintain(MigrationJob job, Subscription subscription) {
+        switch (subscription.kind) {
+            case EWS_PULL -> {
+                EwsEmailConnector.NotificationBatch batch = ewsEmailConnector.pullEvents(
+                        job.getSourceAccount(), subscription.subscriptionId, subscription.watermark);
+                for (EwsEmailConnector.ItemNotification item : batch.items()) {
+                    changeQueue.offer(job.getId(), item.itemId(), mapEwsEventType(item.eventType()));
+                }
+                if (batch.newWatermark() != null && !batch.newWatermark().equals(subscription.watermark)) {
+                    subscription.watermark = batch.newWatermark();
+                    checkpointService.updateStateValue(job, DataType.EMAILS, WATERMARK_KEY, batch.newWatermark());
+                }
+            }
+            case GRAPH -> {
+                // 提前一小时续订，避免订阅过期丢失通知
+                if (subscription.expiresAt.isBefore(Instant.now().plus(Duration.ofHours(1)))) {
+                    Instant expiresAt = Instant.now().plus(Duration.ofMinutes(graphSubscriptionMinutes));
+                    microsoftEmailConnector.renewSubscription(job.getSourceAccount(), subscription.subscriptionId, expiresAt);
+                    subscription.expiresAt = expiresAt;
+                    subscriptionRepository.updateExpiresAt(job.getId(), expiresAt);
+                }
+            }
+            case EWS_STREAMING -> {
+                // 断线重连在 reopenStreaming 中处理
+            }
+        }
+    }
+
+    private void reopenStreaming(StreamingSubscriptionConnection connection) {
+        boolean stillWanted = subscriptions.values().stream().anyMatch(s -> s.connection == connection);
+        if (!stillWanted) {
+            return;
+        }
+        try {
+            connection.open();
+        } catch (Exception e) {
+            log.warn("Failed to reopen EWS streaming connection: {}", e.getMessage());
+            subscriptions.entrySet().removeIf(entry -> entry.getValue().connection == connection);
+        }
+    }
+
+    private void unsubscribe(MigrationJob job, Subscription subscription) {
+        if (subscription == null) {
+            return;
+        }
+        switch (subscription.kind) {
+            case EWS_PULL -> ewsEmailConnector.unsubscribe(job.getSourceAccount(), subscription.subscriptionId);
+            case GRAPH -> microsoftEmailConnector.deleteSubscription(job.getSourceAccount(), subscription.subscriptionId);
+            case EWS_STREAMING -> closeConnection(subscription);
+        }
+    }
+
+    private void dropSubscription(Long jobId) {
+        Subscription subscription = subscriptions.remove(jobId);
+        if (subscription != null) {
+            closeConnection(subscription);
+        }
+    }
+
+    private void closeConnection(Subscription subscription) {
+        if (subscription.connection != null) {
+            try {
+                subscription.connection.close();
+            } catch (Exception e) {
+                log.debug("Failed to close EWS streaming connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private ChangeQueue.ChangeType mapEwsEventType(
+            microsoft.exchange.webservices.data.core.enumeration.notification.EventType eventType) {
+        return switch (eventType) {
+            case NewMail, Created, Copied -> ChangeQueue.ChangeType.ADDED;
+            case Deleted -> ChangeQueue.ChangeType.DELETED;
+            default -> ChangeQueue.ChangeType.MODIFIED;
+        };
+    }
+
+    private ChangeQueue.ChangeType mapGraphChangeType(String changeType) {
+        if ("created".equalsIgnoreCase(changeType)) {
+            return ChangeQueue.ChangeType.ADDED;
+        }
+        if ("deleted".equalsIgnoreCase(changeType)) {
+            return ChangeQueue.ChangeType.DELETED;
+        }
+        return ChangeQueue.ChangeType.MODIFIED;
+    }
+
+    private boolean isEmailEnabled(MigrationJob job) {
+        try {
+            Map<String, Boolean> dataTypes = objectMapper.readValue(job.getDataTypesConfig(), new TypeReference<>() {});
+            return Boolean.TRUE.equals(dataTypes.get("emails"));
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private enum Kind {
+        EWS_PULL,
+        EWS_STREAMING,
+        GRAPH
+    }
+
+    private static class Subscription {
+        private final Kind kind;
+        private final String subscriptionId;
+        private volatile String watermark;
+        private String clientState;
+        private volatile Instant expiresAt;
+        private StreamingSubscriptionConnection connection;
+
+        private Subscription(Kind kind, String subscriptionId) {
+            this.kind = kind;
+            this.subscriptionId = subscriptionId;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.migratehero.service.migration;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 变更队列 - 按任务缓存订阅通知推送过来的变更项目 ID，有积压即触发增量同步
+ *
+ * 同一项目在被消费前的多次通知会合并为一条，保留最后一次的变更类型。
+ */
+@Component
+public class ChangeQueue {
+
+    private final Map<Long, LinkedHashMap<String, ChangeType>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 追加一条变更
+     */
+    public void offer(Long jobId, String itemId, ChangeType changeType) {
+        if (itemId == null) {
+            return;
+        }
+        LinkedHashMap<String, ChangeType> queue = queues.computeIfAbsent(jobId, id -> new LinkedHashMap<>());
+        synchronized (queue) {
+            queue.put(itemId, merge(queue.get(itemId), changeType));
+        }
+    }
+
+    /**
+     * 批量追加变更
+     */
+    public void offerAll(Long jobId, Collection<QueuedChange> changes) {
+        for (QueuedChange change : changes) {
+            offer(jobId, change.itemId(), change.changeType());
+        }
+    }
+
+    /**
+     * 取出最多 maxItems 条变更
+     */
+    public List<QueuedChange> poll(Long jobId, int maxItems) {
+        LinkedHashMap<String, ChangeType> queue = queues.get(jobId);
+        if (queue == null) {
+            return List.of();
+        }
+        List<QueuedChange> batch = new ArrayList<>();
+        synchronized (queue) {
+            Iterator<Map.Entry<String, ChangeType>> it = queue.entrySet().iterator();
+            while (it.hasNext() && batch.size() < maxItems) {
+                Map.Entry<String, ChangeType> entry = it.next();
+                batch.add(new QueuedChange(entry.getKey(), entry.getValue()));
+                it.remove();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 当前积压数量
+     */
+    public int size(Long jobId) {
+        LinkedHashMap<String, ChangeType> queue = queues.get(jobId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * 有积压变更的任务 ID
+     */
+    public Set<Long> pendingJobIds() {
+        Set<Long> jobIds = ConcurrentHashMap.newKeySet();
+        queues.forEach((jobId, queue) -> {
+            synchronized (queue) {
+                if (!queue.isEmpty()) {
+                    jobIds.add(jobId);
+                }
+            }
+        });
+        return jobIds;
+    }
+
+    /**
+     * 丢弃任务的全部积压
+     */
+    public void clear(Long jobId) {
+        queues.remove(jobId);
+    }
+
+    private ChangeType merge(ChangeType previous, ChangeType current) {
+        // 新建后又被修改，对目标端来说仍然是新增
+        if (previous == ChangeType.ADDED && current == ChangeType.MODIFIED) {
+            return ChangeType.ADDED;
+        }
+        return current;
+    }
+
+    public enum ChangeType {
+        ADDED,
+        MODIFIED,
+        DELETED
+    }
+
+    public record QueuedChange(String itemId, ChangeType changeType) {}
+}
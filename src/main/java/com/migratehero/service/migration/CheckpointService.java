@@ -1,5 +1,7 @@
 package com.migratehero.service.migration;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.migratehero.model.MigrationJob;
 import com.migratehero.model.SyncCheckpoint;
 import com.migratehero.model.enums.DataType;
@@ -10,6 +12,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -20,6 +25,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CheckpointService {
 
+    private static final ObjectMapper STATE_MAPPER = new ObjectMapper();
+
     private final SyncCheckpointRepository checkpointRepository;
 
     /**
@@ -93,6 +100,44 @@ public class CheckpointService {
         checkpointRepository.save(checkpoint);
     }
 
+    /**
+     * 获取任务最近一次完整同步的时间 (取各数据类型中最早的一个)
+     */
+    @Transactional(readOnly = true)
+    public Instant getLastSyncTime(MigrationJob job) {
+        return checkpointRepository.findByJob(job).stream()
+                .map(SyncCheckpoint::getLastSyncTime)
+                .filter(Objects::nonNull)
+                .min(Instant::compareTo)
+                .orElse(null);
+    }
+
+    /**
+     * 更新检查点附加状态中的单个字段 (state_data JSON)
+     */
+    @Transactional
+    public void updateStateValue(MigrationJob job, DataType dataType, String key, String value) {
+        SyncCheckpoint checkpoint = getOrCreateCheckpoint(job, dataType);
+        Map<String, String> state = readState(checkpoint.getStateData());
+        if (value == null) {
+            state.remove(key);
+        } else {
+            state.put(key, value);
+        }
+        checkpoint.setStateData(writeState(state));
+        checkpointRepository.save(checkpoint);
+    }
+
+    /**
+     * 获取检查点附加状态中的单个字段
+     */
+    @Transactional(readOnly = true)
+    public String getStateValue(MigrationJob job, DataType dataType, String key) {
+        return checkpointRepository.findByJobAndDataType(job, dataType)
+                .map(cp -> readState(cp.getStateData()).get(key))
+                .orElse(null);
+    }
+
     /**
      * 获取分页令牌
      */
@@ -150,6 +195,54 @@ public class CheckpointService {
         log.info("Marked initial sync complete for job {} data type {}", job.getId(), dataType);
     }
 
+    /**
+     * 恢复前校验检查点：已完成初始同步的数据类型不应残留分页令牌，已处理数不应超过批次总数
+     *
+     * @return 修正的检查点数量
+     */
+    @Transactional
+    public int validateForResume(MigrationJob job) {
+        int repaired = 0;
+        for (SyncCheckpoint checkpoint : checkpointRepository.findByJob(job)) {
+            boolean changed = false;
+            if (checkpoint.isInitialSyncComplete() && checkpoint.hasMoreData()) {
+                checkpoint.setNextPageToken(null);
+                changed = true;
+            }
+            if (checkpoint.getBatchTotalCount() != null && checkpoint.getProcessedCount() != null
+                    && checkpoint.getProcessedCount() > checkpoint.getBatchTotalCount()) {
+                checkpoint.setProcessedCount(checkpoint.getBatchTotalCount());
+                changed = true;
+            }
+            if (changed) {
+                checkpointRepository.save(checkpoint);
+                repaired++;
+                log.warn("Repaired inconsistent checkpoint for job {} data type {}", job.getId(), checkpoint.getDataType());
+            }
+        }
+        return repaired;
+    }
+
+    private Map<String, String> readState(String stateData) {
+        if (stateData == null || stateData.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            return STATE_MAPPER.readValue(stateData, new TypeReference<HashMap<String, String>>() {});
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable checkpoint state data: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    private String writeState(Map<String, String> state) {
+        try {
+            return STATE_MAPPER.writeValueAsString(state);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize checkpoint state", e);
+        }
+    }
+
     /**
      * 检查初始同步是否完成
      */
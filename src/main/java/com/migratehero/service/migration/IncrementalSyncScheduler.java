@@ -0,0 +1,194 @@
+package com.migratehero.service.migration;
+
+import com.migratehero.model.MigrationJob;
+import com.migratehero.repository.MigrationJobRepository;
+import com.migratehero.service.execution.MigrationExecutor;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 增量同步调度器 - 按 incremental-sync-interval-minutes 周期性触发增量同步
+ *
+ * - 首次调度时间在一个周期内随机打散，之后每轮间隔带抖动，避免大量任务同一时刻打到源端 API
+ * - 同时运行的增量同步数量受上限控制，超出部分按陈旧程度 (距上次同步最久者优先) 排队
+ * - 上一轮尚未结束的任务跳过本轮
+ * - 已由变更通知驱动的任务不再轮询
+ * - 每个任务的同步延迟以 migratehero.sync.lag 指标暴露
+ * - 多节点部署时按作业获取工作租约，同一作业同一时刻只在一个节点上同步
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IncrementalSyncScheduler {
+
+    private final MigrationJobRepository jobRepository;
+    private final MigrationEngine migrationEngine;
+    private final CheckpointService checkpointService;
+    private final ChangeNotificationService changeNotificationService;
+    private final MeterRegistry meterRegistry;
+    private final MigrationExecutor migrationExecutor;
+    private final WorkLeaseService leaseService;
+
+    @Value("${migratehero.migration.incremental-sync-interval-minutes:5}")
+    private int intervalMinutes;
+
+    /**
+     * 每轮间隔的抖动比例 (百分比)
+     */
+    @Value("${migratehero.migration.incremental-sync-jitter-percent:20}")
+    private int jitterPercent;
+
+    @Value("${migratehero.migration.incremental-sync-max-concurrent:10}")
+    private int maxConcurrent;
+
+    private final Map<Long, SyncState> states = new ConcurrentHashMap<>();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger skippedRunning = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("migratehero.sync.running", running, Set::size)
+                .description("Incremental syncs currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 调度节拍：挑选到期任务并在并发上限内启动
+     */
+    @Scheduled(fixedDelayString = "${migratehero.migration.incremental-sync-tick-ms:30000}")
+    public void tick() {
+        Instant now = Instant.now();
+        List<MigrationJob> jobs = jobRepository.findJobsInIncrementalSync();
+        Set<Long> activeIds = jobs.stream().map(MigrationJob::getId).collect(Collectors.toSet());
+
+        // 已离开增量同步阶段的任务不再统计
+        for (Long jobId : Set.copyOf(states.keySet())) {
+            if (!activeIds.contains(jobId) && !running.contains(jobId)) {
+                SyncState state = states.remove(jobId);
+                meterRegistry.remove(state.lagGauge);
+            }
+        }
+
+        List<MigrationJob> due = jobs.stream()
+                .filter(job -> !changeNotificationService.isSubscribed(job.getId()))
+                .filter(job -> {
+                    SyncState state = states.computeIfAbsent(job.getId(), id -> newState(job, now));
+                    if (now.isBefore(state.nextDueAt)) {
+                        return false;
+                    }
+                    if (running.contains(job.getId())) {
+                        skippedRunning.incrementAndGet();
+                        log.debug("Incremental sync for job {} still running, skipping this round", job.getId());
+                        return false;
+                    }
+                    return true;
+                })
+                .sorted(Comparator.comparing(job -> states.get(job.getId()).lastSyncedAt))
+                .toList();
+
+        int slots = Math.max(maxConcurrent - running.size(), 0);
+        for (MigrationJob job : due.subList(0, Math.min(slots, due.size()))) {
+            running.add(job.getId());
+            migrationExecutor.getExecutorService().execute(() -> runSync(job));
+        }
+        if (due.size() > slots) {
+            log.debug("Incremental sync concurrency cap reached, {} due jobs deferred", due.size() - slots);
+        }
+    }
+
+    /**
+     * 任务当前的同步延迟 (秒)
+     */
+    public long getSyncLagSeconds(Long jobId) {
+        SyncState state = states.get(jobId);
+        if (state == null) {
+            return 0;
+        }
+        return Duration.between(state.lastSyncedAt, Instant.now()).toSeconds();
+    }
+
+    public int getSkippedRunningCount() {
+        return skippedRunning.get();
+    }
+
+    private void runSync(MigrationJob job) {
+        SyncState state = states.get(job.getId());
+        WorkUnit lease = WorkUnit.job(job.getId());
+        boolean leased = false;
+        try {
+            leased = leaseService.tryAcquire(lease);
+            if (!leased) {
+                log.debug("Incremental sync for job {} is running on another node", job.getId());
+                // 同步在其他节点完成，按检查点刷新本节点的同步延迟
+                Instant lastSyncedAt = checkpointService.getLastSyncTime(job);
+                if (lastSyncedAt != null && lastSyncedAt.isAfter(state.lastSyncedAt)) {
+                    state.lastSyncedAt = lastSyncedAt;
+                }
+                return;
+            }
+            migrationEngine.runIncrementalSync(job);
+            state.lastSyncedAt = Instant.now();
+        } catch (Exception e) {
+            // 失败不改变任务状态，下一周期重试
+            log.warn("Incremental sync for job {} failed: {}", job.getId(), e.getMessage());
+        } finally {
+            if (leased) {
+                leaseService.release(lease);
+            }
+            state.nextDueAt = Instant.now().plus(jitteredInterval());
+            running.remove(job.getId());
+        }
+    }
+
+    private SyncState newState(MigrationJob job, Instant now) {
+        Instant lastSyncedAt = checkpointService.getLastSyncTime(job);
+        if (lastSyncedAt == null) {
+            lastSyncedAt = now;
+        }
+
+        SyncState state = new SyncState();
+        state.lastSyncedAt = lastSyncedAt;
+        // 首次运行在一个周期内随机打散
+        long intervalMillis = Duration.ofMinutes(intervalMinutes).toMillis();
+        state.nextDueAt = now.plusMillis(ThreadLocalRandom.current().nextLong(Math.max(intervalMillis, 1)));
+        state.lagGauge = Gauge.builder("migratehero.sync.lag", state,
+                        s -> Duration.between(s.lastSyncedAt, Instant.now()).toSeconds())
+                .description("Seconds since the last completed incremental sync")
+                .baseUnit("seconds")
+                .tag("jobId", String.valueOf(job.getId()))
+                .register(meterRegistry);
+        return state;
+    }
+
+    private Duration jitteredInterval() {
+        long intervalMillis = Duration.ofMinutes(intervalMinutes).toMillis();
+        long jitterMillis = intervalMillis * jitterPercent / 100;
+        long offset = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        return Duration.ofMillis(intervalMillis + offset);
+    }
+
+    private static class SyncState {
+        private volatile Instant lastSyncedAt;
+        private volatile Instant nextDueAt;
+        private Gauge lagGauge;
+    }
+}
@@ -16,6 +16,22 @@ import com.migratehero.repository.MigrationJobRepository;
 import com.migratehero.repository.MigrationLogRepository;
 import com.migratehero.service.ProgressBroadcaster;
 import com.migratehero.service.connector.*;
+import com.migratehero.service.execution.AdaptiveBatchSizer;
+import com.migratehero.service.execution.AdaptiveBatchSizing;
+import com.migratehero.service.execution.BandwidthShaper;
+import com.migratehero.service.execution.CancellationRegistry;
+import com.migratehero.service.execution.CancellationToken;
+import com.migratehero.service.execution.CircuitOpenException;
+import com.migratehero.service.execution.MigrationEvents;
+import com.migratehero.service.execution.MigrationExecutor;
+import com.migratehero.service.execution.MigrationMetrics;
+import com.migratehero.service.execution.MigrationStoppedException;
+import com.migratehero.service.execution.MigrationTracing;
+import com.migratehero.service.execution.RemoteCallAccounting;
+import com.migratehero.service.execution.TaskTuning;
+import com.migratehero.service.execution.TuningRegistry;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
 import com.migratehero.service.transform.CalendarTransformer;
 import com.migratehero.service.transform.ContactTransformer;
 import com.migratehero.service.transform.EmailTransformer;
@@ -28,6 +44,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * 迁移引擎 - 核心迁移逻辑编排器
@@ -46,6 +65,15 @@ public class MigrationEngine {
     private final MigrationLogRepository logRepository;
     private final ProgressBroadcaster progressBroadcaster;
     private final ObjectMapper objectMapper;
+    private final MigrationExecutor migrationExecutor;
+    private final WorkLeaseService leaseService;
+    private final CancellationRegistry cancellations;
+    private final AdaptiveBatchSizing batchSizing;
+    private final TuningRegistry tuningRegistry;
+    private final BandwidthShaper bandwidthShaper;
+    private final MigrationMetrics metrics;
+    private final MigrationTracing tracing;
+    private final RemoteCallAccounting remoteCalls;
 
     private static final int BATCH_SIZE = 50;
 
@@ -54,8 +82,14 @@ public class MigrationEngine {
      */
     @Async("migrationTaskExecutor")
     public void executeMigration(MigrationJob job) {
+        WorkUnit lease = WorkUnit.job(job.getId());
+        if (!leaseService.tryAcquire(lease)) {
+            log.info("Migration job {} is running on another node", job.getId());
+            return;
+        }
         log.info("Starting migration job: {}", job.getId());
 
+        CancellationToken token = cancellations.register(lease);
         try {
             // 解析数据类型配置
             Map<String, Boolean> dataTypes = parseDataTypesConfig(job.getDataTypesConfig());
@@ -67,10 +101,29 @@ public class MigrationEngine {
                 case GO_LIVE -> executeGoLive(job, dataTypes);
             }
 
+        } catch (MigrationStoppedException e) {
+            // 状态已由暂停/取消操作写入，计数与检查点已在停止点刷新
+            log.info("Migration job {} stopped ({})", job.getId(), e.getReason());
+            logJobEvent(job, LogLevel.INFO, "Migration stopped: " + e.getReason());
+            broadcastProgress(job);
         } catch (Exception e) {
             log.error("Migration job {} failed", job.getId(), e);
             markJobFailed(job, e.getMessage());
+        } finally {
+            cancellations.unregister(lease, token);
+            bandwidthShaper.release(lease);
+            leaseService.release(lease);
+        }
+    }
+
+    /**
+     * 同步执行一轮增量同步 (供增量同步调度器调用)
+     */
+    public void runIncrementalSync(MigrationJob job) {
+        if (job.getPhase() != MigrationPhase.INCREMENTAL_SYNC) {
+            return;
         }
+        executeIncrementalSync(job, parseDataTypesConfig(job.getDataTypesConfig()));
     }
 
     /**
@@ -81,22 +134,26 @@ public class MigrationEngine {
         logJobEvent(job, LogLevel.INFO, "Starting initial sync phase");
 
         try {
-            // 迁移邮件
-            if (Boolean.TRUE.equals(dataTypes.get("emails"))) {
+            // 迁移邮件 (中断恢复时跳过已完成初始同步的数据类型，下同)
+            if (Boolean.TRUE.equals(dataTypes.get("emails"))
+                    && !checkpointService.isInitialSyncComplete(job, DataType.EMAILS)) {
                 migrateEmails(job);
             }
 
             // 迁移联系人
-            if (Boolean.TRUE.equals(dataTypes.get("contacts"))) {
+            if (Boolean.TRUE.equals(dataTypes.get("contacts"))
+                    && !checkpointService.isInitialSyncComplete(job, DataType.CONTACTS)) {
                 migrateContacts(job);
             }
 
             // 迁移日历
-            if (Boolean.TRUE.equals(dataTypes.get("calendars"))) {
+            if (Boolean.TRUE.equals(dataTypes.get("calendars"))
+                    && !checkpointService.isInitialSyncComplete(job, DataType.CALENDARS)) {
                 migrateCalendars(job);
             }
 
             // 初始同步完成，进入增量同步阶段
+            remoteCalls.logSummary(WorkUnit.job(job.getId()));
             transitionToIncrementalSync(job);
 
         } catch (Exception e) {
@@ -130,41 +187,66 @@ public class MigrationEngine {
             // 检查任务状态
             if (!isJobRunning(job.getId())) {
                 log.info("Job {} is no longer running, stopping email migration", job.getId());
-                return;
+                updateJobEmailCounts(job, migratedCount, failedCount, stats.totalCount());
+                throw stopped(job);
             }
 
-            // 读取源邮件
-            EmailConnector.EmailListResult result = sourceConnector.listEmails(source, pageToken, BATCH_SIZE);
-
-            for (EmailMessage email : result.emails()) {
-                try {
-                    // 转换邮件格式
-                    EmailMessage transformed = emailTransformer.transform(email, target.getProvider());
-
-                    // 写入目标账户
-                    targetConnector.createEmail(target, transformed);
-
-                    migratedCount++;
-                } catch (Exception e) {
-                    log.error("Failed to migrate email: {}", email.getId(), e);
-                    logJobEvent(job, LogLevel.ERROR, "Failed to migrate email: " + email.getId() + " - " + e.getMessage());
-                    failedCount++;
-                }
-
-                // 更新进度
-                if (migratedCount % 10 == 0) {
-                    updateJobProgress(job, DataType.EMAILS, migratedCount, stats.totalCount());
-                    broadcastProgress(job);
+            // 每页一条 trace：读取、逐条转换写入、检查点
+            try (MigrationTracing.Span batch = tracing.start(MigrationTracing.BATCH)
+                    .tag("job.id", job.getId())
+                    .tag("data.type", DataType.EMAILS)
+                    .tag("endpoint", source.getProvider())) {
+                // 读取源邮件
+                String currentPageToken = pageToken;
+                EmailConnector.EmailListResult result = readPage(job, source, AdaptiveBatchSizing.ENGINE_EMAILS,
+                        size -> sourceConnector.listEmails(source, currentPageToken, size),
+                        page -> page.emails().size());
+
+                for (EmailMessage email : result.emails()) {
+                    try (MigrationTracing.Span item = tracing.start(MigrationTracing.ITEM)
+                            .tag("job.id", job.getId())
+                            .tag("item.id", email.getId())) {
+                        try {
+                            // 转换邮件格式
+                            EmailMessage transformed = transform(job, "email",
+                                    () -> emailTransformer.transform(email, target.getProvider()), this::estimateBytes);
+
+                            // 写入目标账户 (运行时设置了速率上限时按估算字节数限速)
+                            long bytes = estimateBytes(transformed);
+                            try (MigrationTracing.Span throttle = tracing.start(MigrationTracing.THROTTLE)) {
+                                bandwidthShaper.acquire(WorkUnit.job(job.getId()), bytes, null);
+                            }
+                            io(job, target, "create_email", () -> targetConnector.createEmail(target, transformed));
+
+                            migratedCount++;
+                            metrics.recordItems(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", 1, bytes);
+                            remoteCalls.recordItems(WorkUnit.job(job.getId()), 1);
+                        } catch (CircuitOpenException e) {
+                            // 端点持续不可用：停止本轮迁移，保留检查点，不把剩余条目逐个记为失败
+                            throw e;
+                        } catch (Exception e) {
+                            metrics.recordError(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", e);
+                            log.error("Failed to migrate email: {}", email.getId(), e);
+                            logJobEvent(job, LogLevel.ERROR, "Failed to migrate email: " + email.getId() + " - " + e.getMessage());
+                            failedCount++;
+                        }
+
+                        // 更新进度
+                        if (migratedCount % 10 == 0) {
+                            updateJobProgress(job, DataType.EMAILS, migratedCount, stats.totalCount());
+                            broadcastProgress(job);
+                        }
+                    }
                 }
-            }
 
-            // 更新检查点
-            pageToken = result.nextPageToken();
-            checkpointService.updatePageToken(job, DataType.EMAILS, pageToken);
+                // 更新检查点
+                pageToken = result.nextPageToken();
+                checkpointService.updatePageToken(job, DataType.EMAILS, pageToken);
 
-            // 保存同步令牌用于增量同步
-            if (result.historyId() != null) {
-                checkpointService.updateSyncToken(job, DataType.EMAILS, result.historyId());
+                // 保存同步令牌用于增量同步
+                if (result.historyId() != null) {
+                    checkpointService.updateSyncToken(job, DataType.EMAILS, result.historyId());
+                }
             }
 
         } while (pageToken != null);
@@ -200,33 +282,54 @@ public class MigrationEngine {
 
         do {
             if (!isJobRunning(job.getId())) {
-                return;
+                log.info("Job {} is no longer running, stopping contact migration", job.getId());
+                updateJobContactCounts(job, migratedCount, failedCount, totalCount);
+                throw stopped(job);
             }
 
-            ContactConnector.ContactListResult result = sourceConnector.listContacts(source, pageToken, BATCH_SIZE);
-
-            for (Contact contact : result.contacts()) {
-                try {
-                    Contact transformed = contactTransformer.transform(contact, target.getProvider());
-                    targetConnector.createContact(target, transformed);
-                    migratedCount++;
-                } catch (Exception e) {
-                    log.error("Failed to migrate contact: {}", contact.getId(), e);
-                    logJobEvent(job, LogLevel.ERROR, "Failed to migrate contact: " + contact.getId());
-                    failedCount++;
-                }
-
-                if (migratedCount % 10 == 0) {
-                    updateJobProgress(job, DataType.CONTACTS, migratedCount, totalCount);
-                    broadcastProgress(job);
+            try (MigrationTracing.Span batch = tracing.start(MigrationTracing.BATCH)
+                    .tag("job.id", job.getId())
+                    .tag("data.type", DataType.CONTACTS)
+                    .tag("endpoint", source.getProvider())) {
+                String currentPageToken = pageToken;
+                ContactConnector.ContactListResult result = readPage(job, source, AdaptiveBatchSizing.ENGINE_CONTACTS,
+                        size -> sourceConnector.listContacts(source, currentPageToken, size),
+                        page -> page.contacts().size());
+
+                for (Contact contact : result.contacts()) {
+                    try (MigrationTracing.Span item = tracing.start(MigrationTracing.ITEM)
+                            .tag("job.id", job.getId())
+                            .tag("item.id", contact.getId())) {
+                        try {
+                            Contact transformed = transform(job, "contact",
+                                    () -> contactTransformer.transform(contact, target.getProvider()), converted -> 0);
+                            io(job, target, "create_contact", () -> targetConnector.createContact(target, transformed));
+                            migratedCount++;
+                            metrics.recordItems(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", 1, 0);
+                            remoteCalls.recordItems(WorkUnit.job(job.getId()), 1);
+                        } catch (CircuitOpenException e) {
+                            // 端点持续不可用：停止本轮迁移，保留检查点，不把剩余条目逐个记为失败
+                            throw e;
+                        } catch (Exception e) {
+                            metrics.recordError(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", e);
+                            log.error("Failed to migrate contact: {}", contact.getId(), e);
+                            logJobEvent(job, LogLevel.ERROR, "Failed to migrate contact: " + contact.getId());
+                            failedCount++;
+                        }
+
+                        if (migratedCount % 10 == 0) {
+                            updateJobProgress(job, DataType.CONTACTS, migratedCount, totalCount);
+                            broadcastProgress(job);
+                        }
+                    }
                 }
-            }
 
-            pageToken = result.nextPageToken();
-            checkpointService.updatePageToken(job, DataType.CONTACTS, pageToken);
+                pageToken = result.nextPageToken();
+                checkpointService.updatePageToken(job, DataType.CONTACTS, pageToken);
 
-            if (result.syncToken() != null) {
-                checkpointService.updateSyncToken(job, DataType.CONTACTS, result.syncToken());
+                if (result.syncToken() != null) {
+                    checkpointService.updateSyncToken(job, DataType.CONTACTS, result.syncToken());
+                }
             }
 
         } while (pageToken != null);
@@ -274,7 +377,9 @@ public class MigrationEngine {
         // 遍历源日历
         for (CalendarConnector.CalendarInfo calendar : sourceCalendars) {
             if (!isJobRunning(job.getId())) {
-                return;
+                log.info("Job {} is no longer running, stopping calendar migration", job.getId());
+                updateJobEventCounts(job, migratedCount, failedCount, totalEvents);
+                throw stopped(job);
             }
 
             long calendarEventCount = sourceConnector.getEventCount(source, calendar.id());
@@ -284,30 +389,48 @@ public class MigrationEngine {
             String pageToken = null;
 
             do {
-                CalendarConnector.EventListResult result = sourceConnector.listEvents(
-                        source, calendar.id(), pageToken, BATCH_SIZE);
-
-                for (CalendarEvent event : result.events()) {
-                    try {
-                        CalendarEvent transformed = calendarTransformer.transform(event, target.getProvider());
-                        targetConnector.createEvent(target, targetCalendarId, transformed);
-                        migratedCount++;
-                    } catch (Exception e) {
-                        log.error("Failed to migrate calendar event: {}", event.getId(), e);
-                        logJobEvent(job, LogLevel.ERROR, "Failed to migrate event: " + event.getId());
-                        failedCount++;
-                    }
-
-                    if (migratedCount % 10 == 0) {
-                        updateJobProgress(job, DataType.CALENDARS, migratedCount, totalEvents);
-                        broadcastProgress(job);
+                try (MigrationTracing.Span batch = tracing.start(MigrationTracing.BATCH)
+                        .tag("job.id", job.getId())
+                        .tag("data.type", DataType.CALENDARS)
+                        .tag("endpoint", source.getProvider())) {
+                    String currentPageToken = pageToken;
+                    CalendarConnector.EventListResult result = readPage(job, source, AdaptiveBatchSizing.ENGINE_EVENTS,
+                            size -> sourceConnector.listEvents(source, calendar.id(), currentPageToken, size),
+                            page -> page.events().size());
+
+                    for (CalendarEvent event : result.events()) {
+                        try (MigrationTracing.Span item = tracing.start(MigrationTracing.ITEM)
+                                .tag("job.id", job.getId())
+                                .tag("item.id", event.getId())) {
+                            try {
+                                CalendarEvent transformed = transform(job, "calendar",
+                                        () -> calendarTransformer.transform(event, target.getProvider()), converted -> 0);
+                                io(job, target, "create_event", () -> targetConnector.createEvent(target, targetCalendarId, transformed));
+                                migratedCount++;
+                                metrics.recordItems(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", 1, 0);
+                                remoteCalls.recordItems(WorkUnit.job(job.getId()), 1);
+                            } catch (CircuitOpenException e) {
+                                // 端点持续不可用：停止本轮迁移，保留检查点，不把剩余条目逐个记为失败
+                                throw e;
+                            } catch (Exception e) {
+                                metrics.recordError(WorkUnit.job(job.getId()), target.getProvider().name(), "upload", e);
+                                log.error("Failed to migrate calendar event: {}", event.getId(), e);
+                                logJobEvent(job, LogLevel.ERROR, "Failed to migrate event: " + event.getId());
+                                failedCount++;
+                            }
+
+                            if (migratedCount % 10 == 0) {
+                                updateJobProgress(job, DataType.CALENDARS, migratedCount, totalEvents);
+                                broadcastProgress(job);
+                            }
+                        }
                     }
-                }
 
-                pageToken = result.nextPageToken();
+                    pageToken = result.nextPageToken();
 
-                if (result.syncToken() != null) {
-                    checkpointService.updateSyncToken(job, DataType.CALENDARS, result.syncToken());
+                    if (result.syncToken() != null) {
+                        checkpointService.updateSyncToken(job, DataType.CALENDARS, result.syncToken());
+                    }
                 }
 
             } while (pageToken != null);
@@ -370,10 +493,10 @@ public class MigrationEngine {
         // 处理新增邮件
         for (String emailId : changes.addedIds()) {
             try {
-                EmailMessage email = sourceConnector.getEmail(source, emailId);
+                EmailMessage email = io(job, source, "get_email", () -> sourceConnector.getEmail(source, emailId));
                 if (email != null) {
                     EmailMessage transformed = emailTransformer.transform(email, target.getProvider());
-                    targetConnector.createEmail(target, transformed);
+                    io(job, target, "create_email", () -> targetConnector.createEmail(target, transformed));
                 }
             } catch (Exception e) {
                 log.error("Failed to sync added email: {}", emailId, e);
@@ -407,7 +530,7 @@ public class MigrationEngine {
         for (Contact contact : changes.added()) {
             try {
                 Contact transformed = contactTransformer.transform(contact, target.getProvider());
-                targetConnector.createContact(target, transformed);
+                io(job, target, "create_contact", () -> targetConnector.createContact(target, transformed));
             } catch (Exception e) {
                 log.error("Failed to sync added contact: {}", contact.getId(), e);
             }
@@ -416,7 +539,8 @@ public class MigrationEngine {
         for (Contact contact : changes.modified()) {
             try {
                 Contact transformed = contactTransformer.transform(contact, target.getProvider());
-                targetConnector.updateContact(target, contact.getId(), transformed);
+                migrationExecutor.run(connectorFactory.getProtocol(target), null, op(job, target, "update_contact"),
+                        () -> targetConnector.updateContact(target, contact.getId(), transformed));
             } catch (Exception e) {
                 log.error("Failed to sync modified contact: {}", contact.getId(), e);
             }
@@ -470,7 +594,7 @@ public class MigrationEngine {
         for (CalendarEvent event : changes.modified()) {
             try {
                 CalendarEvent transformed = calendarTransformer.transform(event, target.getProvider());
-                targetConnector.createEvent(target, targetCalendarId, transformed);
+                io(job, target, "create_event", () -> targetConnector.createEvent(target, targetCalendarId, transformed));
             } catch (Exception e) {
                 log.error("Failed to sync calendar event: {}", event.getId(), e);
             }
@@ -479,6 +603,20 @@ public class MigrationEngine {
         checkpointService.updateSyncToken(job, DataType.CALENDARS, changes.newSyncToken());
     }
 
+    /**
+     * 订阅通知触发的邮件增量同步 - 由 ChangeNotificationService 在变更队列有积压时调用
+     *
+     * 通知只作为触发信号，变更仍按同步令牌拉取并在完成后推进令牌，与轮询式增量同步共用同一进度，
+     * 之后的轮询或水位过期后的补齐同步不会重放已同步的邮件。
+     */
+    public void syncNotifiedEmails(MigrationJob job) {
+        if (job.getPhase() != MigrationPhase.INCREMENTAL_SYNC) {
+            return;
+        }
+        syncIncrementalEmails(job);
+        broadcastProgress(job);
+    }
+
     /**
      * 执行 Go Live - Phase 3
      */
@@ -550,6 +688,7 @@ public class MigrationEngine {
         job.setOverallProgressPercent(100);
         jobRepository.save(job);
         broadcastProgress(job);
+        remoteCalls.finished(WorkUnit.job(job.getId()));
     }
 
     /**
@@ -561,15 +700,19 @@ public class MigrationEngine {
         jobRepository.save(job);
         logJobEvent(job, LogLevel.ERROR, "Migration failed: " + errorMessage);
         broadcastProgress(job);
+        remoteCalls.finished(WorkUnit.job(job.getId()));
     }
 
     /**
-     * 检查任务是否仍在运行
+     * 检查任务是否仍在运行 (读取内存中的停止令牌，暂停/取消时置位)
      */
     private boolean isJobRunning(Long jobId) {
-        return jobRepository.findById(jobId)
-                .map(j -> j.getStatus() == MigrationStatus.RUNNING)
-                .orElse(false);
+        return !cancellations.isStopRequested(WorkUnit.job(jobId));
+    }
+
+    private MigrationStoppedException stopped(MigrationJob job) {
+        CancellationToken.Reason reason = cancellations.getReason(WorkUnit.job(job.getId()));
+        return new MigrationStoppedException(reason != null ? reason : CancellationToken.Reason.PAUSE);
     }
 
     /**
@@ -641,6 +784,69 @@ public class MigrationEngine {
         return (int) ((migratedItems * 100) / totalItems);
     }
 
+    /**
+     * 经隔离舱执行连接器调用，按作业和提供商记录调用耗时
+     */
+    private <T> T io(MigrationJob job, EmailAccount account, String operation,
+                     MigrationExecutor.IoCall<T, RuntimeException> call) {
+        return migrationExecutor.call(connectorFactory.getProtocol(account), null, op(job, account, operation), call);
+    }
+
+    private MigrationMetrics.Op op(MigrationJob job, EmailAccount account, String operation) {
+        return metrics.op(WorkUnit.job(job.getId()), account.getProvider().name(), operation);
+    }
+
+    /**
+     * 条目格式转换，记录 trace span 和 JFR 事件
+     */
+    private <T> T transform(MigrationJob job, String kind, MigrationExecutor.IoCall<T, RuntimeException> work,
+                            ToLongFunction<? super T> size) {
+        return tracing.trace(MigrationTracing.TRANSFORM, () -> MigrationEvents.record(
+                MigrationEvents.transform(WorkUnit.job(job.getId()), kind), work, size));
+    }
+
+    /**
+     * 按自适应批大小读取一页 (BATCH_SIZE 为初始值)，本次耗时和条目数反馈给该提供商的批大小控制器；
+     * 作业在运行时设置了读取批大小时使用设置值
+     */
+    private <T> T readPage(MigrationJob job, EmailAccount source, String operation,
+                           IntFunction<T> read, ToIntFunction<T> items) {
+        AdaptiveBatchSizer sizer = batchSizing.sizer(operation, source.getProvider().name(), BATCH_SIZE);
+        TaskTuning tuning = tuningRegistry.find(WorkUnit.job(job.getId()));
+        int size = tuning != null ? tuning.fetchBatchSize(sizer.current()) : sizer.current();
+        String listOperation = "list_" + operation.substring(operation.lastIndexOf('.') + 1);
+        return io(job, source, listOperation, () -> {
+            long started = System.nanoTime();
+            T page = read.apply(size);
+            int count = items.applyAsInt(page);
+            sizer.record(count, (System.nanoTime() - started) / 1_000_000, -1);
+            metrics.recordItems(WorkUnit.job(job.getId()), source.getProvider().name(), "fetch", count, 0);
+            return page;
+        });
+    }
+
+    /**
+     * 邮件传输字节数估算：有原始 MIME 时取其长度，否则取正文和附件大小之和
+     */
+    private long estimateBytes(EmailMessage email) {
+        if (email.getRawMime() != null) {
+            return email.getRawMime().length();
+        }
+        long bytes = 0;
+        if (email.getBodyHtml() != null) {
+            bytes += email.getBodyHtml().length();
+        }
+        if (email.getBodyText() != null) {
+            bytes += email.getBodyText().length();
+        }
+        if (email.getAttachments() != null) {
+            for (EmailMessage.Attachment attachment : email.getAttachments()) {
+                bytes += attachment.getSize();
+            }
+        }
+        return bytes;
+    }
+
     private void broadcastProgress(MigrationJob job) {
         progressBroadcaster.broadcastProgress(job);
     }
@@ -3,6 +3,7 @@ package com.migratehero.service.migration;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.migratehero.dto.request.CreateMigrationRequest;
+import com.migratehero.dto.request.TuningRequest;
 import com.migratehero.dto.response.MigrationJobResponse;
 import com.migratehero.dto.response.MigrationProgressResponse;
 import com.migratehero.exception.BusinessException;
@@ -18,6 +19,14 @@ import com.migratehero.repository.EmailAccountRepository;
 import com.migratehero.repository.MigrationJobRepository;
 import com.migratehero.repository.MigrationLogRepository;
 import com.migratehero.repository.UserRepository;
+import com.migratehero.service.execution.CancellationRegistry;
+import com.migratehero.service.execution.CancellationToken;
+import com.migratehero.service.execution.MigrationMetrics;
+import com.migratehero.service.execution.RemoteCallAccounting;
+import com.migratehero.service.execution.TaskTuning;
+import com.migratehero.service.execution.TuningRegistry;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -28,6 +37,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -44,6 +54,11 @@ public class MigrationJobService {
     private final MigrationLogRepository migrationLogRepository;
     private final ObjectMapper objectMapper;
     private final MigrationEngine migrationEngine;
+    private final CancellationRegistry cancellations;
+    private final WorkLeaseService leaseService;
+    private final TuningRegistry tuningRegistry;
+    private final MigrationMetrics metrics;
+    private final RemoteCallAccounting remoteCalls;
 
     /**
      * 创建迁移任务
@@ -150,6 +165,7 @@ public class MigrationJobService {
 
         job.setStatus(MigrationStatus.PAUSED);
         migrationJobRepository.save(job);
+        cancellations.requestStop(WorkUnit.job(jobId), CancellationToken.Reason.PAUSE);
 
         logJobEvent(job, LogLevel.INFO, "Migration job paused");
         log.info("Paused migration job: {}", jobId);
@@ -165,6 +181,9 @@ public class MigrationJobService {
         if (!job.canResume()) {
             throw new BusinessException("CANNOT_RESUME", "Migration job cannot be resumed in current state: " + job.getStatus());
         }
+        if (cancellations.isActive(WorkUnit.job(jobId))) {
+            throw new BusinessException("STILL_STOPPING", "Migration job is still stopping, please retry shortly");
+        }
 
         job.setStatus(MigrationStatus.RUNNING);
         migrationJobRepository.save(job);
@@ -190,6 +209,8 @@ public class MigrationJobService {
         job.setStatus(MigrationStatus.CANCELLED);
         job.setCompletedAt(LocalDateTime.now());
         migrationJobRepository.save(job);
+        cancellations.requestStop(WorkUnit.job(jobId), CancellationToken.Reason.CANCEL);
+        remoteCalls.finished(WorkUnit.job(jobId));
 
         logJobEvent(job, LogLevel.INFO, "Migration job cancelled");
         log.info("Cancelled migration job: {}", jobId);
@@ -207,9 +228,70 @@ public class MigrationJobService {
         }
 
         migrationJobRepository.delete(job);
+        tuningRegistry.remove(WorkUnit.job(jobId));
+        metrics.remove(WorkUnit.job(jobId));
+        remoteCalls.remove(WorkUnit.job(jobId));
         log.info("Deleted migration job: {}", jobId);
     }
 
+    /**
+     * 获取作业的运行时性能参数
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTuning(Long userId, Long jobId) {
+        getJobEntity(userId, jobId);
+        return tuningSnapshot(jobId);
+    }
+
+    /**
+     * 调整作业的运行时性能参数，下一页读取/写入时生效并记录到作业日志
+     *
+     * 迁移引擎按页顺序读写，不支持文件夹并发和上传并发参数；
+     * 参数只保存在运行作业的节点内存中，作业不在本节点运行时拒绝 (返回持有节点，由调用方转发)
+     */
+    @Transactional
+    public Map<String, Object> updateTuning(Long userId, Long jobId, TuningRequest request) {
+        MigrationJob job = getJobEntity(userId, jobId);
+
+        if (request.getFolderParallelism() != null || request.getUploadConcurrency() != null) {
+            throw new BusinessException("UNSUPPORTED_TUNING",
+                    "Migration jobs only support fetchBatchSize and maxBytesPerSecond");
+        }
+        WorkUnit unit = WorkUnit.job(jobId);
+        if (!cancellations.isActive(unit)) {
+            String owner = leaseService.getOwner(unit);
+            throw new BusinessException("TUNING_NOT_LOCAL", owner != null
+                    ? "Migration job is running on node " + owner + ", send the tuning request to that node"
+                    : "Migration job is not running, tuning only applies to a running job");
+        }
+
+        List<String> changes = tuningRegistry.get(unit)
+                .apply(null, request.getFetchBatchSize(), null, request.getMaxBytesPerSecond());
+        if (!changes.isEmpty()) {
+            logJobEvent(job, LogLevel.INFO, "Tuning changed: " + String.join("; ", changes));
+            log.info("Job {} tuning changed: {}", jobId, changes);
+        }
+        return tuningSnapshot(jobId);
+    }
+
+    /**
+     * 获取作业的远程调用统计 (按连接器操作分组的调用次数和每迁移条目调用次数)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRemoteCalls(Long userId, Long jobId) {
+        getJobEntity(userId, jobId);
+        return remoteCalls.report(WorkUnit.job(jobId)).toMap();
+    }
+
+    private Map<String, Object> tuningSnapshot(Long jobId) {
+        TaskTuning tuning = tuningRegistry.find(WorkUnit.job(jobId));
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("fetchBatchSize", tuning != null ? tuning.getFetchBatchSize() : null);
+        snapshot.put("maxBytesPerSecond", tuning != null ? tuning.getMaxBytesPerSecond() : null);
+        snapshot.put("runningOnThisNode", cancellations.isActive(WorkUnit.job(jobId)));
+        return snapshot;
+    }
+
     /**
      * 获取迁移进度
      */
@@ -0,0 +1,23 @@
+-- Bulk wave migration: wave table and wave/preflight columns on MVP task
+
+CREATE TABLE mvp_migration_wave (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'DRAFT',
+    window_start TIMESTAMP NULL,
+    window_end TIMESTAMP NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP NULL,
+    completed_at TIMESTAMP NULL
+);
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN wave_id BIGINT NULL AFTER status;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN preflight_status VARCHAR(20) NULL AFTER wave_id;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN preflight_message VARCHAR(1000) NULL AFTER preflight_status;
+
+CREATE INDEX idx_mvp_task_wave_id ON mvp_migration_task (wave_id);
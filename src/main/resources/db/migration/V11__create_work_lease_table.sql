@@ -0,0 +1,16 @@
+-- Distributed work leasing at (task, folder) granularity
+
+CREATE TABLE work_lease (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    work_type VARCHAR(32) NOT NULL,
+    ref_id BIGINT NOT NULL,
+    unit_key VARCHAR(500) NOT NULL,
+    owner_id VARCHAR(128) NULL,
+    lease_expires_at TIMESTAMP NULL,
+    heartbeat_at TIMESTAMP NULL,
+    acquired_at TIMESTAMP NULL,
+    CONSTRAINT uk_work_lease_unit UNIQUE (work_type, ref_id, unit_key)
+);
+
+CREATE INDEX idx_work_lease_owner ON work_lease (owner_id);
+CREATE INDEX idx_work_lease_expires ON work_lease (lease_expires_at);
@@ -0,0 +1,4 @@
+-- Add shard checkpoint column to MVP folder progress table
+
+ALTER TABLE mvp_folder_progress
+ADD COLUMN shard_state TEXT NULL;
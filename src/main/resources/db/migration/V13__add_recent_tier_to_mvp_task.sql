@@ -0,0 +1,22 @@
+-- Add recent-first tier columns to MVP migration task table
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_first BOOLEAN DEFAULT FALSE;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN migration_tier VARCHAR(20) NULL;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_cutoff TIMESTAMP NULL;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_total_emails BIGINT DEFAULT 0;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_migrated_emails BIGINT DEFAULT 0;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_failed_emails BIGINT DEFAULT 0;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN recent_completed_at TIMESTAMP NULL;
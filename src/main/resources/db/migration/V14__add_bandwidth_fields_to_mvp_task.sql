@@ -0,0 +1,10 @@
+-- Add bandwidth limit and window schedule columns to MVP migration task table
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN max_bytes_per_second BIGINT NULL;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN window_schedule VARCHAR(1000) NULL;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN window_time_zone VARCHAR(64) NULL;
@@ -0,0 +1,12 @@
+-- Audit trail of operator actions on MVP migration tasks
+
+CREATE TABLE mvp_task_audit_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    task_id BIGINT NOT NULL,
+    action VARCHAR(64) NOT NULL,
+    detail VARCHAR(2000) NULL,
+    actor VARCHAR(255) NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_audit_task ON mvp_task_audit_log (task_id);
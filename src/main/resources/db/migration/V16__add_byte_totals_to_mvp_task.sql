@@ -0,0 +1,7 @@
+-- Add byte-based progress columns to MVP migration task table
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN total_bytes BIGINT DEFAULT 0;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN migrated_bytes BIGINT DEFAULT 0;
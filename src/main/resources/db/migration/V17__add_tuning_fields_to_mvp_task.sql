@@ -0,0 +1,13 @@
+-- Add runtime tuning override columns to MVP migration task table
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN tuning_folder_parallelism INT NULL AFTER window_time_zone;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN tuning_fetch_batch_size INT NULL AFTER tuning_folder_parallelism;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN tuning_upload_concurrency INT NULL AFTER tuning_fetch_batch_size;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN tuning_max_bytes_per_second BIGINT NULL AFTER tuning_upload_concurrency;
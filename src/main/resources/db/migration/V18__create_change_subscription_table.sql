@@ -0,0 +1,15 @@
+-- Change notification subscriptions, shared so any node can route Graph webhooks
+
+CREATE TABLE change_subscription (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    job_id BIGINT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    subscription_id VARCHAR(500) NULL,
+    client_state VARCHAR(64) NULL,
+    expires_at TIMESTAMP NULL,
+    notified_at TIMESTAMP NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_change_subscription_job UNIQUE (job_id)
+);
+
+CREATE INDEX idx_change_subscription_sub ON change_subscription (subscription_id);
@@ -0,0 +1,12 @@
+-- Add fair scheduling queue columns to MVP migration task table
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN tenant_id VARCHAR(255) NULL AFTER status;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN queued_at TIMESTAMP NULL AFTER tenant_id;
+
+ALTER TABLE mvp_migration_task
+ADD COLUMN virtual_finish_time DOUBLE NULL AFTER queued_at;
+
+CREATE INDEX idx_mvp_task_status_vft ON mvp_migration_task (status, virtual_finish_time);
@@ -0,0 +1,470 @@
+package com.migratehero.load;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 合成邮箱语料生成器 - 按固定种子生成形态接近真实邮箱的 StubMailbox，同一种子在任何机器上得到逐字节相同的数据
+ *
+ * 邮件: 正文大小呈对数正态长尾分布，约 15% 带 1-3 个附件，主题约六成为中文 (含 "回复:"、"转发:" 前缀)；
+ * 文件夹: 中文或英文的常用文件夹 (收件箱、已发送邮件 ... 与 mapFolderName 一致) 加最深 4 层的项目文件夹，
+ * 邮件按权重分布，收件箱最多；日历: 约四分之一为重复事件，少量全天事件，0-15 个参会人；
+ * 联系人: 中英文姓名、多个邮箱和电话、单位与住宅地址。
+ * 邮件在读取时按 (种子, 文件夹, 序号) 生成，不常驻内存，可生成百万级语料。
+ */
+public final class CorpusGenerator {
+
+    private static final Instant END = Instant.parse("2024-06-01T00:00:00Z");
+    private static final Duration SPAN = Duration.ofDays(5 * 365);
+    private static final DateTimeFormatter RFC_822 = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.ofHours(8));
+
+    private static final String[][] WELL_KNOWN = {
+            {"收件箱", "Inbox"},
+            {"已发送邮件", "Sent Items"},
+            {"存档", "Archive"},
+            {"已删除邮件", "Deleted Items"},
+            {"垃圾邮件", "Junk Email"},
+            {"草稿", "Drafts"},
+    };
+    private static final double[] WELL_KNOWN_SHARE = {0.35, 0.15, 0.12, 0.05, 0.03, 0.01};
+    private static final double WELL_KNOWN_SHARE_TOTAL = sum(WELL_KNOWN_SHARE);
+
+    private static final String[] PROJECT_NAMES = {"项目", "客户", "财务", "人事", "采购", "Projects", "Clients",
+            "Vendors", "Reports", "Travel", "Newsletters", "Team"};
+    private static final String[] SUB_NAMES = {"华东区", "华南区", "北京", "上海", "深圳", "Alpha", "Beta", "Acme",
+            "Contoso", "Fabrikam", "季度报告", "合同", "发票", "会议纪要", "Q1", "Q2", "Q3", "Q4", "2021", "2022", "2023"};
+
+    private static final String[] SUBJECTS_ZH = {"关于%s的会议纪要", "%s季度预算审批", "请查收：%s合同草案", "%s项目进度周报",
+            "【通知】%s系统维护安排", "%s报销单据", "邀请：%s讨论会", "%s迁移计划确认"};
+    private static final String[] SUBJECTS_EN = {"Minutes: %s sync", "%s budget approval", "Contract draft for %s",
+            "Weekly status - %s", "[Notice] %s maintenance window", "Invoice %s", "Invitation: %s review",
+            "Cutover plan for %s"};
+    private static final String[] TOPICS = {"华东区", "Alpha", "邮箱迁移", "Contoso", "财务系统", "Q3", "数据中心", "Fabrikam"};
+    private static final String[] WORDS = {"迁移", "邮箱", "计划", "确认", "会议", "附件", "请", "审批", "进度", "客户",
+            "migration", "mailbox", "schedule", "please", "review", "the", "and", "for", "attached", "thanks"};
+
+    private static final String[] SURNAMES_ZH = {"王", "李", "张", "刘", "陈", "杨", "赵", "黄", "周", "吴", "欧阳"};
+    private static final String[] GIVEN_ZH = {"伟", "芳", "娜", "秀英", "敏", "静", "磊", "强", "洋", "婷", "子涵"};
+    private static final String[] SURNAMES_EN = {"Smith", "Johnson", "Brown", "Garcia", "Miller", "O'Neil"};
+    private static final String[] GIVEN_EN = {"James", "Mary", "Robert", "Linda", "David", "Emily", "Jean-Luc"};
+    private static final String[] COMPANIES = {"示例科技有限公司", "华信咨询", "Contoso Ltd.", "Fabrikam, Inc.", "Acme & Co."};
+    private static final String[] DEPARTMENTS = {"财务部", "研发中心", "Sales; APAC", "IT Operations", "人力资源部"};
+    private static final String[] TITLES = {"经理", "高级工程师", "Director", "Account Executive", "总监"};
+    private static final String[] CITIES = {"上海", "北京", "深圳", "Singapore", "Seattle"};
+    private static final String[] RECURRENCES = {"FREQ=WEEKLY;COUNT=12", "FREQ=DAILY;COUNT=10",
+            "FREQ=MONTHLY;BYMONTHDAY=1;COUNT=6", "FREQ=WEEKLY;BYDAY=MO,WE,FR;UNTIL=20241231T000000Z"};
+    private static final String[] PHONE_KEYS = {"BusinessPhone", "MobilePhone", "HomePhone", "BusinessFax"};
+
+    private final long seed;
+    private final long messages;
+    private final int events;
+    private final int contacts;
+    private final boolean chinese;
+    private final int maxMessageBytes;
+
+    /**
+     * @param messages 邮件总数
+     * @param chinese  常用文件夹使用中文名 (否则英文名)
+     */
+    public CorpusGenerator(long seed, long messages, int events, int contacts, boolean chinese) {
+        this(seed, messages, events, contacts, chinese, 25 * 1024 * 1024);
+    }
+
+    /**
+     * @param maxMessageBytes 单封邮件大小上限 (长尾截断)
+     */
+    public CorpusGenerator(long seed, long messages, int events, int contacts, boolean chinese, int maxMessageBytes) {
+        this.seed = seed;
+        this.messages = messages;
+        this.events = events;
+        this.contacts = contacts;
+        this.chinese = chinese;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * 生成完整邮箱: 文件夹树与邮件、日历事件和联系人
+     */
+    public StubMailbox build() {
+        StubMailbox mailbox = new StubMailbox();
+        Random random = new Random(seed);
+        Set<String> names = new HashSet<>();
+
+        // 文件夹骨架: 常用文件夹 + 项目文件夹树 (名称全局唯一，迁移按名称记录进度)
+        List<String[]> specs = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (int i = 0; i < WELL_KNOWN.length; i++) {
+            String name = WELL_KNOWN[i][chinese ? 0 : 1];
+            names.add(name);
+            specs.add(new String[]{null, name});
+            weights.add(WELL_KNOWN_SHARE[i]);
+        }
+        int projectFolders = 6 + random.nextInt(10);
+        List<String[]> projects = new ArrayList<>();
+        for (int i = 0; i < projectFolders; i++) {
+            String parent;
+            String name;
+            if (projects.isEmpty() || random.nextDouble() < 0.3) {
+                parent = random.nextDouble() < 0.5 ? specs.get(0)[1] : null;
+                name = unique(names, PROJECT_NAMES[random.nextInt(PROJECT_NAMES.length)]);
+            } else {
+                String[] base = projects.get(random.nextInt(projects.size()));
+                parent = depth(specs, base) < 4 ? base[1] : base[0];
+                name = unique(names, SUB_NAMES[random.nextInt(SUB_NAMES.length)]);
+            }
+            String[] spec = new String[]{parent, name};
+            specs.add(spec);
+            projects.add(spec);
+        }
+        double remaining = 1.0 - WELL_KNOWN_SHARE_TOTAL;
+        double harmonic = 0;
+        for (int rank = 1; rank <= projects.size(); rank++) {
+            harmonic += 1.0 / rank;
+        }
+        for (int rank = 1; rank <= projects.size(); rank++) {
+            weights.add(remaining / rank / harmonic);
+        }
+
+        long[] counts = apportion(weights, messages);
+        Map<String, StubMailbox.Folder> created = new LinkedHashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            String[] spec = specs.get(i);
+            StubMailbox.Folder parent = spec[0] != null ? created.get(spec[0]) : null;
+            String folderId = mailbox.nextFolderId();
+            int ordinal = i;
+            int count = (int) counts[i];
+            long spacing = Math.max(1, SPAN.getSeconds() / Math.max(count, 1));
+            List<StubMailbox.Message> list = new AbstractList<>() {
+                @Override
+                public StubMailbox.Message get(int index) {
+                    return message(folderId, ordinal, index, spacing);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+            long size = 0;
+            for (int index = 0; index < count; index++) {
+                size += estimatedSize(ordinal, index);
+            }
+            created.put(spec[1], mailbox.addFolder(parent, spec[1], list, size));
+        }
+
+        addCalendarAndContacts(mailbox);
+        return mailbox;
+    }
+
+    /**
+     * 只添加日历事件和联系人 (用于等大小邮件的简单邮箱)
+     */
+    public void addCalendarAndContacts(StubMailbox mailbox) {
+        for (int i = 0; i < events; i++) {
+            mailbox.addEvent(event(i));
+        }
+        for (int i = 0; i < contacts; i++) {
+            mailbox.addContact(contact(i));
+        }
+    }
+
+    // ==================== 邮件 ====================
+
+    private StubMailbox.Message message(String folderId, int folder, int index, long spacing) {
+        Random random = random(folder, index);
+        int bodyBytes = bodySize(random);
+        int[] attachments = attachmentSizes(random, bodyBytes);
+
+        Instant received = END.minus(SPAN).plusSeconds(index * spacing + (long) (random.nextDouble() * spacing * 0.9));
+        String from = address(random);
+        String subject = subject(random);
+        boolean read = random.nextDouble() < 0.85;
+        String boundary = "=_mh_" + Long.toHexString(seed) + "_" + folder + "_" + index;
+
+        StringBuilder sb = new StringBuilder(bodyBytes + 1024)
+                .append("From: ").append(from).append("\r\n")
+                .append("To: ").append(address(random));
+        int cc = random.nextInt(4);
+        for (int i = 0; i < cc; i++) {
+            sb.append(", ").append(address(random));
+        }
+        sb.append("\r\n")
+                .append("Subject: ").append(encodeWord(subject)).append("\r\n")
+                .append("Date: ").append(RFC_822.format(received)).append("\r\n")
+                .append("Message-ID: <").append(folderId).append('.').append(index).append('.')
+                .append(Long.toHexString(seed)).append("@corpus.local>\r\n")
+                .append("MIME-Version: 1.0\r\n");
+
+        String text = text(random, bodyBytes);
+        boolean html = random.nextDouble() < 0.7;
+        if (attachments.length == 0 && !html) {
+            sb.append("Content-Type: text/plain; charset=UTF-8\r\n")
+                    .append("Content-Transfer-Encoding: base64\r\n\r\n")
+                    .append(base64(text.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            sb.append("Content-Type: multipart/").append(attachments.length > 0 ? "mixed" : "alternative")
+                    .append("; boundary=\"").append(boundary).append("\"\r\n\r\n");
+            appendBody(sb, boundary, text, html, attachments.length > 0);
+            for (int i = 0; i < attachments.length; i++) {
+                byte[] data = new byte[attachments[i]];
+                random.nextBytes(data);
+                String name = i == 0 && random.nextBoolean() ? "季度报告-" + index + ".pdf" : "attachment-" + i + ".bin";
+                sb.append("--").append(boundary).append("\r\n")
+                        .append("Content-Type: application/octet-stream; name=\"").append(encodeWord(name)).append("\"\r\n")
+                        .append("Content-Disposition: attachment; filename=\"").append(encodeWord(name)).append("\"\r\n")
+                        .append("Content-Transfer-Encoding: base64\r\n\r\n")
+                        .append(base64(data));
+            }
+            sb.append("--").append(boundary).append("--\r\n");
+        }
+
+        return new StubMailbox.Message(StubMailbox.messageId(folderId, index), subject, from, received, read,
+                sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendBody(StringBuilder sb, String boundary, String text, boolean html, boolean mixed) {
+        String alternative = boundary + "_alt";
+        if (mixed && html) {
+            sb.append("--").append(boundary).append("\r\n")
+                    .append("Content-Type: multipart/alternative; boundary=\"").append(alternative).append("\"\r\n\r\n");
+        }
+        String inner = mixed && html ? alternative : boundary;
+        sb.append("--").append(inner).append("\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                .append("Content-Transfer-Encoding: base64\r\n\r\n")
+                .append(base64(text.getBytes(StandardCharsets.UTF_8)));
+        if (html) {
+            String markup = "<html><body><p>" + text.replace("\r\n", "</p><p>") + "</p></body></html>";
+            sb.append("--").append(inner).append("\r\n")
+                    .append("Content-Type: text/html; charset=UTF-8\r\n")
+                    .append("Content-Transfer-Encoding: base64\r\n\r\n")
+                    .append(base64(markup.getBytes(StandardCharsets.UTF_8)));
+        }
+        if (mixed && html) {
+            sb.append("--").append(alternative).append("--\r\n");
+        }
+    }
+
+    /**
+     * 与 message() 相同的随机序列得到的大小估计 (只抽取大小，不生成内容)
+     */
+    private long estimatedSize(int folder, int index) {
+        Random random = random(folder, index);
+        int bodyBytes = bodySize(random);
+        long size = bodyBytes * 2L + 600;
+        for (int attachment : attachmentSizes(random, bodyBytes)) {
+            size += attachment * 4L / 3 + 200;
+        }
+        return size;
+    }
+
+    /**
+     * 正文大小: 对数正态，中位数 6 KB
+     */
+    private int bodySize(Random random) {
+        return (int) Math.min(Math.max(256, lognormal(random, 6 * 1024, 1.1)), maxMessageBytes / 4);
+    }
+
+    private int[] attachmentSizes(Random random, int bodyBytes) {
+        if (random.nextDouble() >= 0.15) {
+            return new int[0];
+        }
+        int[] sizes = new int[1 + random.nextInt(3)];
+        long budget = maxMessageBytes * 3L / 4 - bodyBytes * 2L;
+        for (int i = 0; i < sizes.length; i++) {
+            long size = Math.min(Math.max(1024, (long) lognormal(random, 120 * 1024, 1.4)), Math.max(0, budget));
+            sizes[i] = (int) size;
+            budget -= size;
+        }
+        return sizes;
+    }
+
+    private static String subject(Random random) {
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+        String subject = random.nextDouble() < 0.6
+                ? String.format(SUBJECTS_ZH[random.nextInt(SUBJECTS_ZH.length)], topic)
+                : String.format(SUBJECTS_EN[random.nextInt(SUBJECTS_EN.length)], topic);
+        double prefix = random.nextDouble();
+        if (prefix < 0.2) {
+            return "回复: " + subject;
+        } else if (prefix < 0.3) {
+            return "Re: " + subject;
+        } else if (prefix < 0.35) {
+            return "转发: " + subject;
+        } else if (prefix < 0.4) {
+            return "Fwd: " + subject;
+        }
+        return subject;
+    }
+
+    private static String text(Random random, int size) {
+        StringBuilder sb = new StringBuilder(size);
+        int line = 0;
+        while (sb.length() < size / 2) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(word).append(' ');
+            line += word.length() + 1;
+            if (line > 60) {
+                sb.append("\r\n");
+                line = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    // ==================== 日历与联系人 ====================
+
+    private StubMailbox.Event event(int index) {
+        Random random = random(-1, index);
+        boolean allDay = random.nextDouble() < 0.1;
+        Instant start = END.minus(Duration.ofDays(random.nextInt(365))).plus(Duration.ofHours(1 + random.nextInt(9)));
+        Instant end;
+        if (allDay) {
+            start = start.truncatedTo(ChronoUnit.DAYS);
+            end = start.plus(Duration.ofDays(1 + random.nextInt(3)));
+        } else {
+            end = start.plus(Duration.ofMinutes(30L * (1 + random.nextInt(6))));
+        }
+        String recurrence = random.nextDouble() < 0.25 ? RECURRENCES[random.nextInt(RECURRENCES.length)] : null;
+        List<String> required = new ArrayList<>();
+        List<String> optional = new ArrayList<>();
+        int attendees = random.nextInt(16);
+        for (int i = 0; i < attendees; i++) {
+            (random.nextDouble() < 0.8 ? required : optional).add(address(random));
+        }
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+        String subject = random.nextBoolean() ? topic + " 例会" : "Review: " + topic;
+        String location = random.nextDouble() < 0.7 ? CITIES[random.nextInt(CITIES.length)] + " 3F 会议室, Room 30"
+                + random.nextInt(10) : null;
+        Integer reminder = random.nextDouble() < 0.8 ? new int[]{5, 10, 15, 30, 60}[random.nextInt(5)] : null;
+        return new StubMailbox.Event("E" + index, subject, location, start, end, allDay, address(random),
+                text(random, 200 + random.nextInt(4000)), recurrence, required, optional, reminder);
+    }
+
+    private StubMailbox.Contact contact(int index) {
+        Random random = random(-2, index);
+        boolean zh = random.nextDouble() < 0.6;
+        String surname = zh ? SURNAMES_ZH[random.nextInt(SURNAMES_ZH.length)] : SURNAMES_EN[random.nextInt(SURNAMES_EN.length)];
+        String given = zh ? GIVEN_ZH[random.nextInt(GIVEN_ZH.length)] : GIVEN_EN[random.nextInt(GIVEN_EN.length)];
+        String middle = !zh && random.nextDouble() < 0.3 ? String.valueOf((char) ('A' + random.nextInt(26))) + "." : null;
+        String display = zh ? surname + given : given + " " + surname;
+
+        List<String> emails = new ArrayList<>();
+        int emailCount = 1 + random.nextInt(3);
+        for (int i = 0; i < emailCount; i++) {
+            emails.add("c" + index + "." + i + "@" + new String[]{"example.com", "example.cn", "mail.example.org"}[i]);
+        }
+        Map<String, String> phones = new LinkedHashMap<>();
+        int phoneCount = 1 + random.nextInt(PHONE_KEYS.length);
+        for (int i = 0; i < phoneCount; i++) {
+            phones.put(PHONE_KEYS[i], String.format("+86 %03d %04d %04d", 130 + random.nextInt(60),
+                    random.nextInt(10000), random.nextInt(10000)));
+        }
+        StubMailbox.Address business = new StubMailbox.Address((random.nextInt(999) + 1) + " 世纪大道, Suite " + random.nextInt(50),
+                CITIES[random.nextInt(CITIES.length)], "上海市", String.format("%06d", random.nextInt(1_000_000)), "中国");
+        StubMailbox.Address home = random.nextDouble() < 0.5 ? new StubMailbox.Address(random.nextInt(200) + " 乌鲁木齐路",
+                "上海", "上海市", "200031", "中国") : null;
+        return new StubMailbox.Contact("C" + index, display, given, middle, surname,
+                COMPANIES[random.nextInt(COMPANIES.length)], TITLES[random.nextInt(TITLES.length)],
+                DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                random.nextDouble() < 0.4 ? text(random, 100 + random.nextInt(800)) : null,
+                emails, phones, business, home);
+    }
+
+    // ==================== 工具 ====================
+
+    /**
+     * 每个条目独立的随机序列，任意顺序读取都得到相同内容
+     */
+    private Random random(int folder, int index) {
+        long h = seed * 0x9E3779B97F4A7C15L + folder;
+        h = (h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L + index;
+        return new Random(h ^ (h >>> 29));
+    }
+
+    private static String address(Random random) {
+        return "user" + random.nextInt(500) + "@" + (random.nextBoolean() ? "example.com" : "example.cn");
+    }
+
+    private static double lognormal(Random random, double median, double sigma) {
+        return median * Math.exp(sigma * random.nextGaussian());
+    }
+
+    private static String unique(Set<String> names, String name) {
+        String candidate = name;
+        for (int i = 2; !names.add(candidate); i++) {
+            candidate = name + " (" + i + ")";
+        }
+        return candidate;
+    }
+
+    private static int depth(List<String[]> specs, String[] spec) {
+        int depth = 1;
+        for (String parent = spec[0]; parent != null; depth++) {
+            String current = parent;
+            parent = specs.stream().filter(s -> s[1].equals(current)).findFirst().map(s -> s[0]).orElse(null);
+        }
+        return depth;
+    }
+
+    /**
+     * 按权重分配总数 (最大余数法，总和精确等于 total)
+     */
+    static long[] apportion(List<Double> weights, long total) {
+        double sum = weights.stream().mapToDouble(Double::doubleValue).sum();
+        long[] counts = new long[weights.size()];
+        double[] remainders = new double[weights.size()];
+        long assigned = 0;
+        for (int i = 0; i < counts.length; i++) {
+            double exact = total * weights.get(i) / sum;
+            counts[i] = (long) exact;
+            remainders[i] = exact - counts[i];
+            assigned += counts[i];
+        }
+        for (long left = total - assigned; left > 0; left--) {
+            int best = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            counts[best]++;
+            remainders[best] = -1;
+        }
+        return counts;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static String encodeWord(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7e) {
+                return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+            }
+        }
+        return value;
+    }
+
+    private static String base64(byte[] data) {
+        return Base64.getMimeEncoder(76, new byte[]{'\r', '\n'}).encodeToString(data) + "\r\n";
+    }
+}
@@ -0,0 +1,97 @@
+package com.migratehero.load;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void build_shouldBeDeterministicForSeed() {
+        StubMailbox first = new CorpusGenerator(7, 2_000, 20, 20, true).build();
+        StubMailbox second = new CorpusGenerator(7, 2_000, 20, 20, true).build();
+
+        assertEquals(first.folders().size(), second.folders().size());
+        for (int i = 0; i < first.folders().size(); i++) {
+            StubMailbox.Folder a = first.folders().get(i);
+            StubMailbox.Folder b = second.folders().get(i);
+            assertEquals(first.path(a), second.path(b));
+            assertEquals(a.messages().size(), b.messages().size());
+            if (!a.messages().isEmpty()) {
+                int last = a.messages().size() - 1;
+                assertArrayEquals(a.messages().get(last).mime(), b.messages().get(last).mime());
+            }
+        }
+        assertEquals(first.events(), second.events());
+        assertEquals(first.contacts(), second.contacts());
+
+        StubMailbox other = new CorpusGenerator(8, 2_000, 20, 20, true).build();
+        assertFalse(Arrays.equals(first.folders().get(0).messages().get(0).mime(),
+                other.folders().get(0).messages().get(0).mime()));
+    }
+
+    @Test
+    void build_shouldProduceRealisticShape() throws Exception {
+        StubMailbox mailbox = new CorpusGenerator(42, 3_000, 100, 50, true).build();
+
+        assertEquals(3_000, mailbox.messageCount());
+        assertNotNull(mailbox.folderByName("收件箱"));
+        assertNotNull(mailbox.folderByName("已发送邮件"));
+        assertTrue(mailbox.folders().stream().anyMatch(f -> mailbox.path(f).size() >= 3), "deep folder tree");
+        assertTrue(mailbox.events().stream().anyMatch(StubMailbox.Event::recurring));
+        assertTrue(mailbox.contacts().stream().anyMatch(c -> c.emails().size() > 1 && c.phones().size() > 1));
+
+        StubMailbox.Folder inbox = mailbox.folderByName("收件箱");
+        Session session = Session.getInstance(new Properties());
+        int attachments = 0;
+        for (int i = 0; i < inbox.messages().size(); i++) {
+            StubMailbox.Message message = inbox.messages().get(i);
+            if (i > 0) {
+                assertTrue(message.received().isAfter(inbox.messages().get(i - 1).received()));
+            }
+            if (i % 50 == 0) {
+                MimeMessage mime = new MimeMessage(session, new ByteArrayInputStream(message.mime()));
+                assertEquals(message.subject(), mime.getSubject());
+                if (mime.getContentType().startsWith("multipart/mixed")) {
+                    attachments++;
+                }
+            }
+        }
+        assertTrue(attachments > 0);
+    }
+
+    @Test
+    void writers_shouldEmitAllFormats() throws Exception {
+        StubMailbox mailbox = new CorpusGenerator(1, 200, 30, 25, false).build();
+
+        CorpusWriter.writeEml(mailbox, tempDir.resolve("eml"));
+        CorpusWriter.writeMbox(mailbox, tempDir.resolve("mbox"));
+        CorpusWriter.writeICalendar(mailbox, tempDir.resolve("calendar.ics"));
+        CorpusWriter.writeVCards(mailbox, tempDir.resolve("contacts.vcf"));
+
+        try (Stream<Path> files = Files.walk(tempDir.resolve("eml"))) {
+            assertEquals(200, files.filter(p -> p.toString().endsWith(".eml")).count());
+        }
+        assertTrue(Files.exists(tempDir.resolve("mbox").resolve("Inbox.mbox")));
+        List<String> ics = Files.readAllLines(tempDir.resolve("calendar.ics"), StandardCharsets.UTF_8);
+        assertEquals(30, ics.stream().filter("BEGIN:VEVENT"::equals).count());
+        assertTrue(ics.stream().anyMatch(line -> line.startsWith("RRULE:")));
+        List<String> vcf = Files.readAllLines(tempDir.resolve("contacts.vcf"), StandardCharsets.UTF_8);
+        assertEquals(25, vcf.stream().filter("BEGIN:VCARD"::equals).count());
+    }
+}
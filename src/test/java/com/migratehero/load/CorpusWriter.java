@@ -0,0 +1,298 @@
+package com.migratehero.load;
+
+import jakarta.mail.Flags;
+import jakarta.mail.Folder;
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.Store;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 语料输出 - 把 StubMailbox 写成 EML 目录、mbox 文件、iCalendar 和 vCard，或直接 APPEND 到 IMAP 服务器 (如 GreenMail)
+ *
+ * 用法: ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.migratehero.load.CorpusWriter \
+ *          -Dexec.args="target/corpus [seed] [messages] [events] [contacts]"
+ */
+public final class CorpusWriter {
+
+    private static final DateTimeFormatter ICAL_DATE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ICAL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MBOX_DATE =
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss yyyy", Locale.ROOT).withZone(ZoneOffset.UTC);
+    private static final int APPEND_BATCH = 50;
+
+    private CorpusWriter() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: CorpusWriter <outputDir> [seed] [messages] [events] [contacts]");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        long messages = args.length > 2 ? Long.parseLong(args[2]) : 10_000L;
+        int events = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        int contacts = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+
+        StubMailbox mailbox = new CorpusGenerator(seed, messages, events, contacts, true).build();
+        writeEml(mailbox, dir.resolve("eml"));
+        writeMbox(mailbox, dir.resolve("mbox"));
+        writeICalendar(mailbox, dir.resolve("calendar.ics"));
+        writeVCards(mailbox, dir.resolve("contacts.vcf"));
+        System.out.printf("Wrote %d messages (%.1f MB) in %d folders, %d events, %d contacts to %s%n",
+                mailbox.messageCount(), mailbox.sizeBytes() / (1024.0 * 1024.0), mailbox.folders().size(),
+                mailbox.events().size(), mailbox.contacts().size(), dir.toAbsolutePath());
+    }
+
+    /**
+     * 每个文件夹一个目录 (按文件夹树嵌套)，每封邮件一个 .eml
+     */
+    public static void writeEml(StubMailbox mailbox, Path dir) throws IOException {
+        for (StubMailbox.Folder folder : mailbox.folders()) {
+            Path folderDir = folderPath(mailbox, folder, dir);
+            Files.createDirectories(folderDir);
+            List<StubMailbox.Message> messages = folder.messages();
+            for (int i = 0; i < messages.size(); i++) {
+                Files.write(folderDir.resolve(String.format("%08d.eml", i)), messages.get(i).mime());
+            }
+        }
+    }
+
+    /**
+     * 每个文件夹一个 mbox 文件 (mboxrd 转义，LF 换行)
+     */
+    public static void writeMbox(StubMailbox mailbox, Path dir) throws IOException {
+        for (StubMailbox.Folder folder : mailbox.folders()) {
+            Path folderDir = folderPath(mailbox, folder, dir);
+            Path file = folderDir.resolveSibling(folderDir.getFileName() + ".mbox");
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (StubMailbox.Message message : folder.messages()) {
+                    out.write(("From " + address(message.from()) + " " + MBOX_DATE.format(message.received()) + "\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    for (String line : new String(message.mime(), StandardCharsets.UTF_8).split("\r\n", -1)) {
+                        if (line.replaceFirst("^>*", "").startsWith("From ")) {
+                            out.write('>');
+                        }
+                        out.write(line.getBytes(StandardCharsets.UTF_8));
+                        out.write('\n');
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 全部日历事件写入一个 VCALENDAR (重复事件带 RRULE)
+     */
+    public static void writeICalendar(StubMailbox mailbox, Path file) throws IOException {
+        createParent(file);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//MigrateHero//Synthetic Corpus//EN\r\nCALSCALE:GREGORIAN\r\n");
+            for (StubMailbox.Event event : mailbox.events()) {
+                line(out, "BEGIN:VEVENT");
+                line(out, "UID:" + event.id() + "@corpus.local");
+                line(out, "DTSTAMP:" + ICAL_DATE_TIME.format(event.start()));
+                if (event.allDay()) {
+                    line(out, "DTSTART;VALUE=DATE:" + ICAL_DATE.format(event.start()));
+                    line(out, "DTEND;VALUE=DATE:" + ICAL_DATE.format(event.end()));
+                } else {
+                    line(out, "DTSTART:" + ICAL_DATE_TIME.format(event.start()));
+                    line(out, "DTEND:" + ICAL_DATE_TIME.format(event.end()));
+                }
+                if (event.recurring()) {
+                    line(out, "RRULE:" + event.recurrence());
+                }
+                line(out, "SUMMARY:" + escape(event.subject()));
+                if (event.location() != null) {
+                    line(out, "LOCATION:" + escape(event.location()));
+                }
+                if (event.body() != null) {
+                    line(out, "DESCRIPTION:" + escape(event.body()));
+                }
+                line(out, "ORGANIZER:mailto:" + event.organizer());
+                for (String attendee : event.requiredAttendees()) {
+                    line(out, "ATTENDEE;ROLE=REQ-PARTICIPANT:mailto:" + attendee);
+                }
+                for (String attendee : event.optionalAttendees()) {
+                    line(out, "ATTENDEE;ROLE=OPT-PARTICIPANT:mailto:" + attendee);
+                }
+                if (event.reminderMinutes() != null) {
+                    line(out, "BEGIN:VALARM");
+                    line(out, "ACTION:DISPLAY");
+                    line(out, "DESCRIPTION:Reminder");
+                    line(out, "TRIGGER:-PT" + event.reminderMinutes() + "M");
+                    line(out, "END:VALARM");
+                }
+                line(out, "END:VEVENT");
+            }
+            line(out, "END:VCALENDAR");
+        }
+    }
+
+    /**
+     * 全部联系人写入一个 vCard 3.0 文件
+     */
+    public static void writeVCards(StubMailbox mailbox, Path file) throws IOException {
+        createParent(file);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (StubMailbox.Contact contact : mailbox.contacts()) {
+                line(out, "BEGIN:VCARD");
+                line(out, "VERSION:3.0");
+                line(out, "UID:" + contact.id() + "@corpus.local");
+                line(out, "FN:" + escape(contact.displayName()));
+                line(out, "N:" + escape(nvl(contact.surname())) + ";" + escape(nvl(contact.givenName())) + ";"
+                        + escape(nvl(contact.middleName())) + ";;");
+                line(out, "ORG:" + escape(nvl(contact.company())) + ";" + escape(nvl(contact.department())));
+                if (contact.jobTitle() != null) {
+                    line(out, "TITLE:" + escape(contact.jobTitle()));
+                }
+                for (int i = 0; i < contact.emails().size(); i++) {
+                    line(out, "EMAIL;TYPE=INTERNET" + (i == 0 ? ",PREF" : "") + ":" + contact.emails().get(i));
+                }
+                for (Map.Entry<String, String> phone : contact.phones().entrySet()) {
+                    line(out, "TEL;TYPE=" + phoneType(phone.getKey()) + ":" + phone.getValue());
+                }
+                appendAddress(out, "WORK", contact.businessAddress());
+                appendAddress(out, "HOME", contact.homeAddress());
+                if (contact.notes() != null) {
+                    line(out, "NOTE:" + escape(contact.notes()));
+                }
+                line(out, "END:VCARD");
+            }
+        }
+    }
+
+    /**
+     * 通过 IMAP APPEND 写入本地服务器 (GreenMail 或其他测试服务器)，文件夹按树结构创建
+     *
+     * @return 写入的邮件数
+     */
+    public static long appendToImap(StubMailbox mailbox, String host, int port, String user, String password)
+            throws Exception {
+        Properties props = new Properties();
+        props.put("mail.imap.host", host);
+        props.put("mail.imap.port", String.valueOf(port));
+        Session session = Session.getInstance(props);
+        long appended = 0;
+        try (Store store = session.getStore("imap")) {
+            store.connect(host, port, user, password);
+            char separator = store.getDefaultFolder().getSeparator();
+            for (StubMailbox.Folder source : mailbox.folders()) {
+                String name = String.join(String.valueOf(separator), mailbox.path(source));
+                Folder target = store.getFolder(name);
+                if (!target.exists()) {
+                    target.create(Folder.HOLDS_MESSAGES | Folder.HOLDS_FOLDERS);
+                }
+                List<Message> batch = new ArrayList<>(APPEND_BATCH);
+                for (StubMailbox.Message message : source.messages()) {
+                    MimeMessage mime = new MimeMessage(session, new ByteArrayInputStream(message.mime()));
+                    mime.setFlag(Flags.Flag.SEEN, message.read());
+                    batch.add(mime);
+                    if (batch.size() == APPEND_BATCH) {
+                        target.appendMessages(batch.toArray(new Message[0]));
+                        appended += batch.size();
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    target.appendMessages(batch.toArray(new Message[0]));
+                    appended += batch.size();
+                }
+            }
+        }
+        return appended;
+    }
+
+    private static Path folderPath(StubMailbox mailbox, StubMailbox.Folder folder, Path dir) {
+        Path path = dir;
+        for (String name : mailbox.path(folder)) {
+            String safe = name.replaceAll("[\\\\/:*?\"<>|]", "_");
+            try {
+                path = path.resolve(safe);
+            } catch (InvalidPathException e) {
+                // 文件系统编码不支持中文时 (如 C 语言环境) 退回 URL 编码的目录名
+                path = path.resolve(URLEncoder.encode(safe, StandardCharsets.UTF_8));
+            }
+        }
+        return path;
+    }
+
+    private static void appendAddress(Writer out, String type, StubMailbox.Address address) throws IOException {
+        if (address == null) {
+            return;
+        }
+        line(out, "ADR;TYPE=" + type + ":;;" + escape(nvl(address.street())) + ";" + escape(nvl(address.city())) + ";"
+                + escape(nvl(address.state())) + ";" + escape(nvl(address.postalCode())) + ";"
+                + escape(nvl(address.country())));
+    }
+
+    private static String phoneType(String key) {
+        return switch (key) {
+            case "MobilePhone" -> "CELL";
+            case "HomePhone" -> "HOME,VOICE";
+            case "BusinessFax" -> "WORK,FAX";
+            default -> "WORK,VOICE";
+        };
+    }
+
+    /**
+     * 写一行内容，按 RFC 5545/2425 在 75 字节处折行 (不拆分多字节字符)
+     */
+    private static void line(Writer out, String content) throws IOException {
+        int bytes = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + width > 75) {
+                out.write("\r\n ");
+                bytes = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            bytes += width;
+            i += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    private static String address(String from) {
+        return from != null ? from : "MAILER-DAEMON";
+    }
+
+    private static String nvl(String value) {
+        return value != null ? value : "";
+    }
+
+    private static void createParent(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.migratehero.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CalDAV/CardDAV 桩 - 接受 PUT 创建的资源并只计数 (不保存内容)，GET 用于连接测试
+ */
+public final class DavStub implements Closeable {
+
+    private final StubBehavior behavior;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final LongAdder calendarItems = new LongAdder();
+    private final LongAdder contactItems = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public DavStub(StubBehavior behavior) throws IOException {
+        this.behavior = behavior;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String calendarUrl() {
+        return base() + "/calendars/load/";
+    }
+
+    public String addressBookUrl() {
+        return base() + "/addressbooks/load/";
+    }
+
+    public long calendarItems() {
+        return calendarItems.sum();
+    }
+
+    public long contactItems() {
+        return contactItems.sum();
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private String base() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long length;
+            try (InputStream in = exchange.getRequestBody()) {
+                length = in.transferTo(OutputStream.nullOutputStream());
+            }
+            if (!behavior.admit()) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            if ("PUT".equals(method)) {
+                String path = exchange.getRequestURI().getPath();
+                (path.endsWith(".vcf") ? contactItems : calendarItems).increment();
+                bytes.add(length);
+                exchange.getResponseHeaders().set("ETag", "\"" + Long.toHexString(System.nanoTime()) + "\"");
+                exchange.sendResponseHeaders(201, -1);
+            } else if ("GET".equals(method) || "PROPFIND".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("DELETE".equals(method)) {
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
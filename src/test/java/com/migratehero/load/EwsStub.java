@@ -0,0 +1,496 @@
+package com.migratehero.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EWS SOAP 桩 - 按 StubMailbox 响应 MvpEwsConnector 用到的 FindFolder、GetFolder、FindItem 和 GetItem (含 MimeContent)
+ *
+ * 只实现连接器实际发送的请求形态: IndexedPageItemView 分页、按 DateTimeReceived 的范围限制和排序、
+ * 扩展属性 PR_MESSAGE_SIZE (0x0E08) 的文件夹大小。不校验凭据。
+ */
+public final class EwsStub implements Closeable {
+
+    private static final String TYPES_NS = "http://schemas.microsoft.com/exchange/services/2006/types";
+    private static final String MESSAGES_NS = "http://schemas.microsoft.com/exchange/services/2006/messages";
+    private static final String PATH = "/EWS/Exchange.asmx";
+    private static final DateTimeFormatter XS_DATE_TIME = DateTimeFormatter.ISO_INSTANT;
+
+    private final StubMailbox mailbox;
+    private final StubBehavior behavior;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    public EwsStub(StubMailbox mailbox, StubBehavior behavior) throws IOException {
+        this.mailbox = mailbox;
+        this.behavior = behavior;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * 各 SOAP 操作收到的请求数
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new java.util.TreeMap<>();
+        requests.forEach((operation, count) -> counts.put(operation, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            Element operation = operation(body);
+            String name = operation != null ? operation.getLocalName() : "Unknown";
+            requests.computeIfAbsent(name, n -> new LongAdder()).increment();
+
+            if (!behavior.admit()) {
+                respond(exchange, 503, "Server busy");
+                return;
+            }
+            String response = switch (name) {
+                case "FindFolder" -> findFolder(operation);
+                case "GetFolder" -> getFolder(operation);
+                case "FindItem" -> findItem(operation);
+                case "GetItem" -> getItem(operation);
+                default -> null;
+            };
+            if (response == null) {
+                respond(exchange, 500, fault("Operation not supported by stub: " + name));
+                return;
+            }
+            respond(exchange, 200, envelope(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            respond(exchange, 500, fault(e.toString()));
+        }
+    }
+
+    // ==================== 文件夹 ====================
+
+    private String findFolder(Element request) {
+        Element parent = firstChildElement(first(request, "ParentFolderIds"));
+        List<StubMailbox.Folder> folders;
+        if (parent != null && "DistinguishedFolderId".equals(parent.getLocalName())) {
+            folders = "msgfolderroot".equals(parent.getAttribute("Id")) ? mailbox.roots() : List.of();
+        } else {
+            StubMailbox.Folder folder = parent != null ? mailbox.folder(parent.getAttribute("Id")) : null;
+            folders = folder != null ? folder.children() : List.of();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<m:FindFolderResponse ").append(namespaces()).append("><m:ResponseMessages>")
+                .append("<m:FindFolderResponseMessage ResponseClass=\"Success\"><m:ResponseCode>NoError</m:ResponseCode>")
+                .append("<m:RootFolder IndexedPagingOffset=\"").append(folders.size())
+                .append("\" TotalItemsInView=\"").append(folders.size())
+                .append("\" IncludesLastItemInRange=\"true\"><t:Folders>");
+        for (StubMailbox.Folder folder : folders) {
+            appendMailFolder(sb, folder);
+        }
+        return sb.append("</t:Folders></m:RootFolder></m:FindFolderResponseMessage></m:ResponseMessages></m:FindFolderResponse>")
+                .toString();
+    }
+
+    private String getFolder(Element request) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<m:GetFolderResponse ").append(namespaces()).append("><m:ResponseMessages>");
+        for (Element id : childElements(first(request, "FolderIds"))) {
+            String folderId = id.getAttribute("Id");
+            boolean distinguished = "DistinguishedFolderId".equals(id.getLocalName());
+            StringBuilder folder = new StringBuilder();
+            if (distinguished && "calendar".equals(folderId)) {
+                appendSpecialFolder(folder, "CalendarFolder", "calendar", "Calendar", "IPF.Appointment",
+                        mailbox.events().size());
+            } else if (distinguished && "contacts".equals(folderId)) {
+                appendSpecialFolder(folder, "ContactsFolder", "contacts", "Contacts", "IPF.Contact",
+                        mailbox.contacts().size());
+            } else {
+                StubMailbox.Folder found = distinguished
+                        ? ("inbox".equals(folderId) ? mailbox.folderByName(StubMailbox.INBOX) : null)
+                        : mailbox.folder(folderId);
+                if (found != null) {
+                    appendMailFolder(folder, found);
+                }
+            }
+            if (folder.length() > 0) {
+                sb.append("<m:GetFolderResponseMessage ResponseClass=\"Success\"><m:ResponseCode>NoError</m:ResponseCode>")
+                        .append("<m:Folders>").append(folder).append("</m:Folders></m:GetFolderResponseMessage>");
+            } else {
+                appendError(sb, "GetFolderResponseMessage", "ErrorFolderNotFound", "The specified folder could not be found.");
+            }
+        }
+        return sb.append("</m:ResponseMessages></m:GetFolderResponse>").toString();
+    }
+
+    private void appendMailFolder(StringBuilder sb, StubMailbox.Folder folder) {
+        sb.append("<t:Folder><t:FolderId Id=\"").append(folder.id()).append("\" ChangeKey=\"AQAAAA==\"/>");
+        if (folder.parentId() != null) {
+            sb.append("<t:ParentFolderId Id=\"").append(folder.parentId()).append("\" ChangeKey=\"AQAAAA==\"/>");
+        }
+        sb.append("<t:FolderClass>IPF.Note</t:FolderClass>")
+                .append("<t:DisplayName>").append(escape(folder.name())).append("</t:DisplayName>")
+                .append("<t:TotalCount>").append(folder.messages().size()).append("</t:TotalCount>")
+                .append("<t:ChildFolderCount>").append(folder.children().size()).append("</t:ChildFolderCount>")
+                .append("<t:ExtendedProperty><t:ExtendedFieldURI PropertyTag=\"0xe08\" PropertyType=\"Long\"/>")
+                .append("<t:Value>").append(folder.sizeBytes()).append("</t:Value></t:ExtendedProperty>")
+                .append("<t:UnreadCount>0</t:UnreadCount></t:Folder>");
+    }
+
+    private static void appendSpecialFolder(StringBuilder sb, String element, String id, String name,
+                                            String folderClass, int totalCount) {
+        sb.append("<t:").append(element).append("><t:FolderId Id=\"").append(id).append("\" ChangeKey=\"AQAAAA==\"/>")
+                .append("<t:FolderClass>").append(folderClass).append("</t:FolderClass>")
+                .append("<t:DisplayName>").append(name).append("</t:DisplayName>")
+                .append("<t:TotalCount>").append(totalCount).append("</t:TotalCount>")
+                .append("<t:ChildFolderCount>0</t:ChildFolderCount>")
+                .append("</t:").append(element).append(">");
+    }
+
+    // ==================== 条目 ====================
+
+    private String findItem(Element request) {
+        Element parent = firstChildElement(first(request, "ParentFolderIds"));
+        Element view = first(request, "IndexedPageItemView");
+        int max = view != null ? Integer.parseInt(view.getAttribute("MaxEntriesReturned")) : Integer.MAX_VALUE;
+        int offset = view != null && !view.getAttribute("Offset").isEmpty() ? Integer.parseInt(view.getAttribute("Offset")) : 0;
+        boolean idOnly = "IdOnly".equals(text(first(first(request, "ItemShape"), "BaseShape")));
+
+        StringBuilder items = new StringBuilder();
+        int total;
+        String parentId = parent != null ? parent.getAttribute("Id") : "";
+        if ("calendar".equals(parentId)) {
+            List<StubMailbox.Event> events = mailbox.events();
+            total = events.size();
+            for (int i = offset; i < Math.min(total, offset + max); i++) {
+                appendEvent(items, events.get(i), false);
+            }
+        } else if ("contacts".equals(parentId)) {
+            List<StubMailbox.Contact> contacts = mailbox.contacts();
+            total = contacts.size();
+            for (int i = offset; i < Math.min(total, offset + max); i++) {
+                appendContact(items, contacts.get(i), false);
+            }
+        } else {
+            StubMailbox.Folder folder = mailbox.folder(parentId);
+            if (folder == null) {
+                StringBuilder error = new StringBuilder("<m:FindItemResponse ").append(namespaces()).append("><m:ResponseMessages>");
+                appendError(error, "FindItemResponseMessage", "ErrorFolderNotFound", "The specified folder could not be found.");
+                return error.append("</m:ResponseMessages></m:FindItemResponse>").toString();
+            }
+            Instant from = restriction(request, "IsGreaterThanOrEqualTo");
+            Instant to = restriction(request, "IsLessThan");
+            int low = from != null ? folder.indexOf(from) : 0;
+            int high = to != null ? folder.indexOf(to) : folder.messages().size();
+            total = Math.max(0, high - low);
+            Element fieldOrder = first(first(request, "SortOrder"), "FieldOrder");
+            boolean descending = fieldOrder == null || "Descending".equals(fieldOrder.getAttribute("Order"));
+            for (int i = offset; i < Math.min(total, offset + max); i++) {
+                int index = descending ? high - 1 - i : low + i;
+                appendMessage(items, folder.messages().get(index), idOnly, false);
+            }
+        }
+
+        int returned = Math.max(0, Math.min(total, offset + max) - offset);
+        return "<m:FindItemResponse " + namespaces() + "><m:ResponseMessages>"
+                + "<m:FindItemResponseMessage ResponseClass=\"Success\"><m:ResponseCode>NoError</m:ResponseCode>"
+                + "<m:RootFolder IndexedPagingOffset=\"" + (offset + returned) + "\" TotalItemsInView=\"" + total
+                + "\" IncludesLastItemInRange=\"" + (offset + returned >= total) + "\"><t:Items>" + items
+                + "</t:Items></m:RootFolder></m:FindItemResponseMessage></m:ResponseMessages></m:FindItemResponse>";
+    }
+
+    private String getItem(Element request) {
+        boolean mime = false;
+        for (Element uri : elements(first(request, "AdditionalProperties"), "FieldURI")) {
+            mime |= "item:MimeContent".equals(uri.getAttribute("FieldURI"));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<m:GetItemResponse ").append(namespaces()).append("><m:ResponseMessages>");
+        for (Element itemId : elements(first(request, "ItemIds"), "ItemId")) {
+            String id = itemId.getAttribute("Id");
+            StringBuilder item = new StringBuilder();
+            StubMailbox.Message message = mailbox.message(id);
+            if (message != null) {
+                appendMessage(item, message, false, mime);
+            } else if (mailbox.event(id) != null) {
+                appendEvent(item, mailbox.event(id), true);
+            } else if (mailbox.contact(id) != null) {
+                appendContact(item, mailbox.contact(id), true);
+            }
+            if (item.length() > 0) {
+                sb.append("<m:GetItemResponseMessage ResponseClass=\"Success\"><m:ResponseCode>NoError</m:ResponseCode>")
+                        .append("<m:Items>").append(item).append("</m:Items></m:GetItemResponseMessage>");
+            } else {
+                appendError(sb, "GetItemResponseMessage", "ErrorItemNotFound", "The specified object was not found in the store.");
+            }
+        }
+        return sb.append("</m:ResponseMessages></m:GetItemResponse>").toString();
+    }
+
+    private static void appendMessage(StringBuilder sb, StubMailbox.Message message, boolean idOnly, boolean mime) {
+        sb.append("<t:Message>");
+        if (mime) {
+            sb.append("<t:MimeContent CharacterSet=\"UTF-8\">")
+                    .append(Base64.getEncoder().encodeToString(message.mime())).append("</t:MimeContent>");
+        }
+        sb.append("<t:ItemId Id=\"").append(message.id()).append("\" ChangeKey=\"CQAAAA==\"/>")
+                .append("<t:DateTimeReceived>").append(date(message.received())).append("</t:DateTimeReceived>");
+        if (!idOnly) {
+            sb.append("<t:ItemClass>IPM.Note</t:ItemClass>")
+                    .append("<t:Subject>").append(escape(message.subject())).append("</t:Subject>")
+                    .append("<t:Size>").append(message.mime().length).append("</t:Size>")
+                    .append("<t:DateTimeSent>").append(date(message.received())).append("</t:DateTimeSent>")
+                    .append("<t:HasAttachments>false</t:HasAttachments>");
+            appendMailbox(sb, "From", message.from());
+            sb.append("<t:IsRead>").append(message.read()).append("</t:IsRead>");
+        }
+        sb.append("</t:Message>");
+    }
+
+    private static void appendEvent(StringBuilder sb, StubMailbox.Event event, boolean detail) {
+        sb.append("<t:CalendarItem><t:ItemId Id=\"").append(event.id()).append("\" ChangeKey=\"DwAAAA==\"/>")
+                .append("<t:ItemClass>IPM.Appointment</t:ItemClass>")
+                .append("<t:Subject>").append(escape(event.subject())).append("</t:Subject>")
+                .append("<t:Start>").append(date(event.start())).append("</t:Start>")
+                .append("<t:End>").append(date(event.end())).append("</t:End>")
+                .append("<t:IsAllDayEvent>").append(event.allDay()).append("</t:IsAllDayEvent>")
+                .append("<t:Location>").append(escape(nvl(event.location()))).append("</t:Location>");
+        appendMailbox(sb, "Organizer", event.organizer());
+        if (detail) {
+            sb.append("<t:Body BodyType=\"Text\">").append(escape(nvl(event.body()))).append("</t:Body>")
+                    .append("<t:ReminderIsSet>").append(event.reminderMinutes() != null).append("</t:ReminderIsSet>")
+                    .append("<t:ReminderMinutesBeforeStart>")
+                    .append(event.reminderMinutes() != null ? event.reminderMinutes() : 0)
+                    .append("</t:ReminderMinutesBeforeStart>")
+                    .append("<t:IsCancelled>false</t:IsCancelled>")
+                    .append("<t:IsRecurring>").append(event.recurring()).append("</t:IsRecurring>");
+            appendAttendees(sb, "RequiredAttendees", event.requiredAttendees());
+            appendAttendees(sb, "OptionalAttendees", event.optionalAttendees());
+        }
+        sb.append("</t:CalendarItem>");
+    }
+
+    private static void appendContact(StringBuilder sb, StubMailbox.Contact contact, boolean detail) {
+        sb.append("<t:Contact><t:ItemId Id=\"").append(contact.id()).append("\" ChangeKey=\"EQAAAA==\"/>")
+                .append("<t:ItemClass>IPM.Contact</t:ItemClass>")
+                .append("<t:DisplayName>").append(escape(nvl(contact.displayName()))).append("</t:DisplayName>")
+                .append("<t:GivenName>").append(escape(nvl(contact.givenName()))).append("</t:GivenName>")
+                .append("<t:CompanyName>").append(escape(nvl(contact.company()))).append("</t:CompanyName>")
+                .append("<t:JobTitle>").append(escape(nvl(contact.jobTitle()))).append("</t:JobTitle>")
+                .append("<t:Surname>").append(escape(nvl(contact.surname()))).append("</t:Surname>");
+        if (detail) {
+            sb.append("<t:Body BodyType=\"Text\">").append(escape(nvl(contact.notes()))).append("</t:Body>")
+                    .append("<t:MiddleName>").append(escape(nvl(contact.middleName()))).append("</t:MiddleName>")
+                    .append("<t:Department>").append(escape(nvl(contact.department()))).append("</t:Department>");
+            sb.append("<t:EmailAddresses>");
+            for (int i = 0; i < Math.min(3, contact.emails().size()); i++) {
+                sb.append("<t:Entry Key=\"EmailAddress").append(i + 1).append("\">")
+                        .append(escape(contact.emails().get(i))).append("</t:Entry>");
+            }
+            sb.append("</t:EmailAddresses><t:PhoneNumbers>");
+            contact.phones().forEach((key, number) -> sb.append("<t:Entry Key=\"").append(key).append("\">")
+                    .append(escape(number)).append("</t:Entry>"));
+            sb.append("</t:PhoneNumbers><t:PhysicalAddresses>");
+            appendAddress(sb, "Business", contact.businessAddress());
+            appendAddress(sb, "Home", contact.homeAddress());
+            sb.append("</t:PhysicalAddresses>");
+        }
+        sb.append("</t:Contact>");
+    }
+
+    private static void appendAddress(StringBuilder sb, String key, StubMailbox.Address address) {
+        if (address == null) {
+            return;
+        }
+        sb.append("<t:Entry Key=\"").append(key).append("\">")
+                .append("<t:Street>").append(escape(nvl(address.street()))).append("</t:Street>")
+                .append("<t:City>").append(escape(nvl(address.city()))).append("</t:City>")
+                .append("<t:State>").append(escape(nvl(address.state()))).append("</t:State>")
+                .append("<t:CountryOrRegion>").append(escape(nvl(address.country()))).append("</t:CountryOrRegion>")
+                .append("<t:PostalCode>").append(escape(nvl(address.postalCode()))).append("</t:PostalCode>")
+                .append("</t:Entry>");
+    }
+
+    private static void appendAttendees(StringBuilder sb, String element, List<String> attendees) {
+        if (attendees == null || attendees.isEmpty()) {
+            return;
+        }
+        sb.append("<t:").append(element).append(">");
+        for (String attendee : attendees) {
+            sb.append("<t:Attendee><t:Mailbox><t:EmailAddress>").append(escape(attendee))
+                    .append("</t:EmailAddress><t:RoutingType>SMTP</t:RoutingType></t:Mailbox>")
+                    .append("<t:ResponseType>Unknown</t:ResponseType></t:Attendee>");
+        }
+        sb.append("</t:").append(element).append(">");
+    }
+
+    private static void appendMailbox(StringBuilder sb, String element, String address) {
+        if (address == null) {
+            return;
+        }
+        sb.append("<t:").append(element).append("><t:Mailbox><t:Name>").append(escape(address)).append("</t:Name>")
+                .append("<t:EmailAddress>").append(escape(address)).append("</t:EmailAddress>")
+                .append("<t:RoutingType>SMTP</t:RoutingType></t:Mailbox></t:").append(element).append(">");
+    }
+
+    private static void appendError(StringBuilder sb, String element, String code, String message) {
+        sb.append("<m:").append(element).append(" ResponseClass=\"Error\"><m:MessageText>").append(message)
+                .append("</m:MessageText><m:ResponseCode>").append(code).append("</m:ResponseCode>")
+                .append("<m:DescriptiveLinkKey>0</m:DescriptiveLinkKey></m:").append(element).append(">");
+    }
+
+    /**
+     * 限制条件中针对 DateTimeReceived 的比较常量
+     */
+    private static Instant restriction(Element request, String comparison) {
+        for (Element element : elements(first(request, "Restriction"), comparison)) {
+            Element constant = first(element, "Constant");
+            if (constant != null) {
+                return Instant.parse(constant.getAttribute("Value"));
+            }
+        }
+        return null;
+    }
+
+    // ==================== SOAP / XML ====================
+
+    private static Element operation(byte[] body) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(body));
+        return firstChildElement(first(document.getDocumentElement(), "Body"));
+    }
+
+    private static String envelope(String body) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\"><s:Header>"
+                + "<h:ServerVersionInfo MajorVersion=\"14\" MinorVersion=\"3\" MajorBuildNumber=\"123\" MinorBuildNumber=\"3\""
+                + " Version=\"Exchange2010_SP2\" xmlns:h=\"" + TYPES_NS + "\" xmlns=\"" + TYPES_NS + "\"/>"
+                + "</s:Header><s:Body>" + body + "</s:Body></s:Envelope>";
+    }
+
+    private static String fault(String message) {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\"><s:Body><s:Fault>"
+                + "<faultcode>s:Server</faultcode><faultstring>" + escape(message) + "</faultstring>"
+                + "</s:Fault></s:Body></s:Envelope>";
+    }
+
+    private static String namespaces() {
+        return "xmlns:m=\"" + MESSAGES_NS + "\" xmlns:t=\"" + TYPES_NS + "\"";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Element first(Element parent, String localName) {
+        if (parent == null) {
+            return null;
+        }
+        NodeList nodes = parent.getElementsByTagNameNS("*", localName);
+        return nodes.getLength() > 0 ? (Element) nodes.item(0) : null;
+    }
+
+    private static List<Element> elements(Element parent, String localName) {
+        List<Element> result = new ArrayList<>();
+        if (parent != null) {
+            NodeList nodes = parent.getElementsByTagNameNS("*", localName);
+            for (int i = 0; i < nodes.getLength(); i++) {
+                result.add((Element) nodes.item(i));
+            }
+        }
+        return result;
+    }
+
+    private static List<Element> childElements(Element parent) {
+        List<Element> result = new ArrayList<>();
+        if (parent != null) {
+            for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node instanceof Element element) {
+                    result.add(element);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Element firstChildElement(Element parent) {
+        List<Element> children = childElements(parent);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static String text(Element element) {
+        return element != null ? element.getTextContent().trim() : null;
+    }
+
+    private static String date(Instant instant) {
+        return XS_DATE_TIME.format(instant.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private static String nvl(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.migratehero.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TCP 转发代理 - 放在 GreenMail IMAP 前面，为客户端发往服务端的每段数据注入延迟和限速
+ *
+ * IMAP 是有状态的文本协议，无法像 HTTP 桩那样返回限流状态码，因此只使用 StubBehavior 的延迟和速率，
+ * 忽略错误比例。
+ */
+public final class LatencyProxy implements Closeable {
+
+    private final InetSocketAddress target;
+    private final StubBehavior behavior;
+    private final ServerSocket server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public LatencyProxy(int targetPort, StubBehavior behavior) throws IOException {
+        this.target = new InetSocketAddress(InetAddress.getLoopbackAddress(), targetPort);
+        this.behavior = behavior;
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * 已接受的连接总数
+     */
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * 当前未关闭的连接数
+     */
+    public int openConnections() {
+        return sockets.size() / 2;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                Socket upstream = new Socket(target.getAddress(), target.getPort());
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(upstream);
+                connections.incrementAndGet();
+                executor.execute(() -> pipe(client, upstream, true));
+                executor.execute(() -> pipe(upstream, client, false));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    throw new IllegalStateException("Proxy accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void pipe(Socket from, Socket to, boolean delayed) {
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (delayed) {
+                    behavior.admit();
+                }
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // 任一方向断开即结束本连接
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 已关闭
+        }
+    }
+}
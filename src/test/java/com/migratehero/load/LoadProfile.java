@@ -0,0 +1,62 @@
+package com.migratehero.load;
+
+/**
+ * 负载测试参数 - 从系统属性读取，如 ./mvnw -Pload test -Dload.messages=2000 -Dload.ews.latency-ms=40
+ *
+ * @param corpus            源邮箱形态: uniform (等大小邮件的平级文件夹) 或 realistic (CorpusGenerator 生成)
+ * @param seed              语料和注入行为的随机种子
+ * @param folders           邮件文件夹数 (uniform)
+ * @param messages          每个文件夹的邮件数 (realistic 时邮件总数为 folders * messages)
+ * @param messageKb         每封邮件大小 (KB，uniform)
+ * @param events            日历事件数
+ * @param contacts          联系人数
+ * @param ews               EWS 桩的延迟、限速和错误比例
+ * @param imap              IMAP 代理的延迟和限速
+ * @param dav               DAV 桩的延迟、限速和错误比例
+ * @param maxCallsPerItem   每迁移条目的远程调用预算，0 表示不检查
+ */
+public record LoadProfile(String corpus, long seed, int folders, int messages, int messageKb, int events, int contacts,
+                          StubBehavior ews, StubBehavior imap, StubBehavior dav, double maxCallsPerItem) {
+
+    public static LoadProfile fromSystemProperties() {
+        long seed = Long.getLong("load.seed", 42L);
+        return new LoadProfile(
+                System.getProperty("load.corpus", "uniform"),
+                seed,
+                Integer.getInteger("load.folders", 4),
+                Integer.getInteger("load.messages", 250),
+                Integer.getInteger("load.message-kb", 32),
+                Integer.getInteger("load.events", 50),
+                Integer.getInteger("load.contacts", 50),
+                behavior("load.ews", seed),
+                behavior("load.imap", seed + 1),
+                behavior("load.dav", seed + 2),
+                Double.parseDouble(System.getProperty("load.max-calls-per-item", "0")));
+    }
+
+    public long totalMessages() {
+        return (long) folders * messages;
+    }
+
+    /**
+     * 按配置生成源邮箱 (含日历事件和联系人)
+     */
+    public StubMailbox mailbox() {
+        CorpusGenerator generator = new CorpusGenerator(seed, totalMessages(), events, contacts, true);
+        if ("realistic".equals(corpus)) {
+            return generator.build();
+        }
+        StubMailbox mailbox = StubMailbox.uniform(folders, messages, messageKb * 1024);
+        generator.addCalendarAndContacts(mailbox);
+        return mailbox;
+    }
+
+    private static StubBehavior behavior(String prefix, long seed) {
+        return new StubBehavior(
+                Long.getLong(prefix + ".latency-ms", 0L),
+                Long.getLong(prefix + ".jitter-ms", 0L),
+                Double.parseDouble(System.getProperty(prefix + ".max-rps", "0")),
+                Double.parseDouble(System.getProperty(prefix + ".error-rate", "0")),
+                seed);
+    }
+}
@@ -0,0 +1,35 @@
+package com.migratehero.load;
+
+import com.migratehero.service.execution.FlightRecordingReport;
+import com.migratehero.service.execution.FlightRecordingReport.StageSummary;
+import com.migratehero.service.execution.RemoteCallReport;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 一次负载运行的结果 - 端到端吞吐 (邮件/秒、MB/秒)、各阶段延迟分布和远程调用统计
+ */
+public record LoadReport(long messages, long failed, long bytes, Duration elapsed,
+                         List<StageSummary> stages, RemoteCallReport remoteCalls) {
+
+    public double messagesPerSecond() {
+        return messages / seconds();
+    }
+
+    public double megabytesPerSecond() {
+        return bytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Migrated %d messages (%d failed), %.1f MB in %.1f s: %.1f msgs/s, %.2f MB/s%n",
+                messages, failed, bytes / (1024.0 * 1024.0), seconds(), messagesPerSecond(), megabytesPerSecond());
+        FlightRecordingReport.print(stages, out);
+        out.println(remoteCalls.describe());
+    }
+
+    private double seconds() {
+        return Math.max(elapsed.toNanos(), 1) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.migratehero.load;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.service.MvpMigrationService;
+import com.migratehero.service.RemoteCallBudget;
+import com.migratehero.service.execution.RemoteCallAccounting;
+import com.migratehero.service.execution.RemoteCallReport;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 端到端负载测试 - 源端 EWS、目标 IMAP (GreenMail) 和 CalDAV/CardDAV 均为本地桩，
+ * 按 LoadProfile 注入延迟与限流，跑完整的 MVP 迁移任务并输出吞吐、各阶段 p99 和远程调用统计
+ *
+ * 默认构建不运行，使用 ./mvnw -Pload test 执行。
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class MigrationLoadTest {
+
+    private static final String SOURCE_EMAIL = "source@example.com";
+    private static final String TARGET_EMAIL = "target@example.com";
+    private static final String PASSWORD = "load-test";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.IMAP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser(TARGET_EMAIL, TARGET_EMAIL, PASSWORD));
+
+    @Autowired
+    private MvpMigrationService migrationService;
+
+    @Autowired
+    private RemoteCallAccounting remoteCalls;
+
+    @Test
+    void migrateMailbox_throughLocalStubs() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        StubMailbox mailbox = profile.mailbox();
+
+        try (EwsStub ews = new EwsStub(mailbox, profile.ews());
+             LatencyProxy imap = new LatencyProxy(greenMail.getImap().getPort(), profile.imap());
+             DavStub dav = new DavStub(profile.dav());
+             StageRecording recording = new StageRecording()) {
+
+            MvpMigrationTask task = migrationService.createTask(MvpMigrationTask.builder()
+                    .sourceEwsUrl(ews.url())
+                    .sourceEmail(SOURCE_EMAIL)
+                    .sourcePassword(PASSWORD)
+                    .targetImapHost("127.0.0.1")
+                    .targetImapPort(imap.port())
+                    .targetImapSsl(false)
+                    .targetEmail(TARGET_EMAIL)
+                    .targetPassword(PASSWORD)
+                    .targetCalDavUrl(dav.calendarUrl())
+                    .targetCardDavUrl(dav.addressBookUrl())
+                    .migrateCalendar(profile.events() > 0)
+                    .migrateContacts(profile.contacts() > 0)
+                    .build());
+
+            Instant start = Instant.now();
+            migrationService.runMigration(task.getId());
+            Duration elapsed = Duration.between(start, Instant.now());
+
+            MvpMigrationTask done = migrationService.getTask(task.getId()).orElseThrow();
+            WorkUnit unit = WorkUnit.task(task.getId());
+            RemoteCallReport calls = remoteCalls.report(unit);
+            LoadReport report = new LoadReport(done.getMigratedEmails(), done.getFailedEmails(), done.getMigratedBytes(),
+                    elapsed, recording.stages("task-" + task.getId()), calls);
+            report.print(System.out);
+            System.out.println("EWS requests: " + ews.requestCounts() + ", IMAP connections: " + imap.connections());
+
+            assertEquals(mailbox.messageCount(), done.getMigratedEmails() + done.getFailedEmails());
+            assertEquals(mailbox.messageCount(), greenMail.getReceivedMessages().length);
+            assertEquals(mailbox.events().size(), dav.calendarItems());
+            assertEquals(mailbox.contacts().size(), dav.contactItems());
+            if (profile.maxCallsPerItem() > 0) {
+                RemoteCallBudget.assertCallsPerItemAtMost(calls, profile.maxCallsPerItem());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.migratehero.load;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.service.MvpMigrationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 浸泡测试 - 让数百万封合成邮件流经一个迁移任务，定期采样 GC 后的堆、线程、文件描述符和 socket，
+ * 预热之后任一指标呈上升趋势即失败，用于发现 ExchangeService 未关闭、已处理 ID 集合无界增长、
+ * IMAP Store 未断开之类只在长时间运行后才暴露的泄漏
+ *
+ * 目标 IMAP 收到的邮件在每次采样前清空，GreenMail 只作为丢弃型接收端，不计入堆增长；
+ * 迁移台账写入文件型 H2，同样不占堆。默认构建不运行，使用 ./mvnw -Psoak test 执行。
+ */
+@Tag("soak")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/soak/migratehero;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class MigrationSoakTest {
+
+    private static final String SOURCE_EMAIL = "source@example.com";
+    private static final String TARGET_EMAIL = "target@example.com";
+    private static final String PASSWORD = "soak-test";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.IMAP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser(TARGET_EMAIL, TARGET_EMAIL, PASSWORD));
+
+    @Autowired
+    private MvpMigrationService migrationService;
+
+    @Test
+    void migrateMillionsOfMessages_withoutResourceGrowth() throws Exception {
+        SoakProfile profile = SoakProfile.fromSystemProperties();
+        StubMailbox mailbox = StubMailbox.uniform(profile.folders(), profile.messages(), profile.messageKb() * 1024);
+        StubBehavior none = new StubBehavior(0, 0, 0, 0, 0);
+
+        try (EwsStub ews = new EwsStub(mailbox, none);
+             LatencyProxy imap = new LatencyProxy(greenMail.getImap().getPort(), none);
+             ResourceSampler sampler = new ResourceSampler(profile.sampleSeconds() * 1000L,
+                     MigrationSoakTest::discardReceived)) {
+
+            MvpMigrationTask task = migrationService.createTask(MvpMigrationTask.builder()
+                    .sourceEwsUrl(ews.url())
+                    .sourceEmail(SOURCE_EMAIL)
+                    .sourcePassword(PASSWORD)
+                    .targetImapHost("127.0.0.1")
+                    .targetImapPort(imap.port())
+                    .targetImapSsl(false)
+                    .targetEmail(TARGET_EMAIL)
+                    .targetPassword(PASSWORD)
+                    .migrateCalendar(false)
+                    .migrateContacts(false)
+                    .build());
+
+            Instant start = Instant.now();
+            sampler.start();
+            migrationService.runMigration(task.getId());
+            sampler.sample();
+            Duration elapsed = Duration.between(start, Instant.now());
+
+            MvpMigrationTask done = migrationService.getTask(task.getId()).orElseThrow();
+            System.out.printf("Soak: %d messages in %s, IMAP connections: %d%n",
+                    done.getMigratedEmails() + done.getFailedEmails(), elapsed, imap.connections());
+            sampler.print(System.out);
+
+            assertEquals(mailbox.messageCount(), done.getMigratedEmails() + done.getFailedEmails());
+
+            // 任务结束后不应再有连接停留在 IMAP 服务端
+            Instant deadline = Instant.now().plusSeconds(5);
+            while (imap.openConnections() > 0 && Instant.now().isBefore(deadline)) {
+                Thread.sleep(100);
+            }
+            assertEquals(0, imap.openConnections(), "IMAP connections left open after the task finished");
+
+            ResourceTrend.assertNoUpwardTrend(sampler.samples(), profile.warmup(), List.of(
+                    ResourceTrend.heap(profile.maxHeapGrowthMb()),
+                    ResourceTrend.threads(profile.maxThreadGrowth()),
+                    ResourceTrend.openFiles(profile.maxFdGrowth()),
+                    ResourceTrend.sockets(profile.maxSocketGrowth())));
+        }
+    }
+
+    private static void discardReceived() {
+        try {
+            greenMail.purgeEmailFromAllMailboxes();
+        } catch (FolderException e) {
+            throw new IllegalStateException("Failed to purge GreenMail mailboxes", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.migratehero.load;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程资源采样 - 按固定间隔记录 GC 后的堆占用、线程数、打开的文件描述符和 socket 数
+ *
+ * 每次采样前先执行 beforeSample (如清空 GreenMail 收到的邮件)，再显式 GC，
+ * 使堆占用反映存活对象而不是垃圾回收节奏。不支持的指标记为 -1。
+ */
+public final class ResourceSampler implements AutoCloseable {
+
+    private static final Path FD_DIR = Paths.get("/proc/self/fd");
+
+    /**
+     * @param seconds   距开始采样的秒数
+     * @param heapBytes GC 后的堆占用
+     * @param threads   存活线程数
+     * @param openFiles 打开的文件描述符数
+     * @param sockets   打开的 socket 数
+     */
+    public record Sample(double seconds, long heapBytes, int threads, long openFiles, long sockets) {
+    }
+
+    private final long intervalMillis;
+    private final Runnable beforeSample;
+    private final List<Sample> samples = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long startNanos;
+
+    public ResourceSampler(long intervalMillis, Runnable beforeSample) {
+        this.intervalMillis = intervalMillis;
+        this.beforeSample = beforeSample;
+    }
+
+    public ResourceSampler start() {
+        startNanos = System.nanoTime();
+        scheduler.scheduleAtFixedRate(this::sampleQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * 立即采样一次 (如迁移结束后的最终状态)
+     */
+    public void sample() {
+        beforeSample.run();
+        System.gc();
+        Sample sample = new Sample(
+                (System.nanoTime() - startNanos) / 1e9,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                ManagementFactory.getThreadMXBean().getThreadCount(),
+                openFiles(),
+                sockets());
+        synchronized (samples) {
+            samples.add(sample);
+        }
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // 定时任务抛出异常会被取消，单次失败只跳过该采样
+            System.err.println("Resource sample failed: " + e.getMessage());
+        }
+    }
+
+    public List<Sample> samples() {
+        synchronized (samples) {
+            return List.copyOf(samples);
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%10s %12s %8s %8s %8s%n", "seconds", "heap MB", "threads", "fds", "sockets");
+        for (Sample sample : samples()) {
+            out.printf("%10.1f %12.1f %8d %8d %8d%n", sample.seconds(), sample.heapBytes() / 1048576.0,
+                    sample.threads(), sample.openFiles(), sample.sockets());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static long openFiles() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof UnixOperatingSystemMXBean unix) {
+            return unix.getOpenFileDescriptorCount();
+        }
+        return countFds(false);
+    }
+
+    private static long sockets() {
+        return countFds(true);
+    }
+
+    private static long countFds(boolean socketsOnly) {
+        if (!Files.isDirectory(FD_DIR)) {
+            return -1;
+        }
+        long count = 0;
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(FD_DIR)) {
+            for (Path fd : fds) {
+                if (!socketsOnly) {
+                    count++;
+                    continue;
+                }
+                try {
+                    if (Files.readSymbolicLink(fd).toString().startsWith("socket:")) {
+                        count++;
+                    }
+                } catch (IOException e) {
+                    // 描述符在遍历期间已关闭
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,107 @@
+package com.migratehero.load;
+
+import com.migratehero.load.ResourceSampler.Sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 资源趋势判断 - 对预热期之后的采样做最小二乘线性回归，
+ * 斜率乘以采样时长即为整个运行期间的预计增长，超过阈值视为泄漏
+ *
+ * 只比较首尾两个采样容易被单次 GC 或连接池抖动误导，回归斜率对噪声更稳健。
+ */
+public final class ResourceTrend {
+
+    private static final double MB = 1024 * 1024;
+
+    private ResourceTrend() {
+    }
+
+    /**
+     * @param name      指标名称
+     * @param value     从采样中取值
+     * @param maxGrowth 允许的最大增长 (与 value 同单位)
+     * @param unit      输出用的单位
+     */
+    public record Metric(String name, ToDoubleFunction<Sample> value, double maxGrowth, String unit) {
+    }
+
+    public static Metric heap(double maxGrowthMb) {
+        return new Metric("heap", s -> s.heapBytes() / MB, maxGrowthMb, "MB");
+    }
+
+    public static Metric threads(int maxGrowth) {
+        return new Metric("threads", Sample::threads, maxGrowth, "");
+    }
+
+    public static Metric openFiles(int maxGrowth) {
+        return new Metric("open files", Sample::openFiles, maxGrowth, "");
+    }
+
+    public static Metric sockets(int maxGrowth) {
+        return new Metric("sockets", Sample::sockets, maxGrowth, "");
+    }
+
+    /**
+     * 最小二乘斜率
+     */
+    public static double slope(double[] x, double[] y) {
+        int n = x.length;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= n;
+        meanY /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            variance += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    /**
+     * 超出阈值的指标描述
+     *
+     * @param warmupFraction 丢弃前面这一比例的采样 (连接池、缓存和 JIT 预热)
+     */
+    public static List<String> violations(List<Sample> samples, double warmupFraction, List<Metric> metrics) {
+        List<Sample> steady = samples.subList((int) (samples.size() * warmupFraction), samples.size());
+        List<String> violations = new ArrayList<>();
+        if (steady.size() < 2) {
+            return violations;
+        }
+        double[] x = steady.stream().mapToDouble(Sample::seconds).toArray();
+        double span = x[x.length - 1] - x[0];
+        for (Metric metric : metrics) {
+            double[] y = steady.stream().mapToDouble(metric.value()).toArray();
+            if (Arrays.stream(y).anyMatch(v -> v < 0)) {
+                // 当前平台不支持该指标
+                continue;
+            }
+            double growth = slope(x, y) * span;
+            if (growth > metric.maxGrowth()) {
+                violations.add(String.format("%s grew %.1f%s over %.0fs (limit %.1f%s)",
+                        metric.name(), growth, metric.unit(), span, metric.maxGrowth(), metric.unit()));
+            }
+        }
+        return violations;
+    }
+
+    public static void assertNoUpwardTrend(List<Sample> samples, double warmupFraction, List<Metric> metrics) {
+        if (samples.size() < 5) {
+            throw new AssertionError("Not enough samples to judge resource trend: " + samples.size());
+        }
+        List<String> violations = violations(samples, warmupFraction, metrics);
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Resource usage trends upward: " + String.join("; ", violations));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.migratehero.load;
+
+import com.migratehero.load.ResourceSampler.Sample;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceTrendTest {
+
+    private static final List<ResourceTrend.Metric> METRICS = List.of(
+            ResourceTrend.heap(64), ResourceTrend.threads(8), ResourceTrend.openFiles(32), ResourceTrend.sockets(16));
+
+    @Test
+    void slope_shouldFitLine() {
+        assertEquals(2.5, ResourceTrend.slope(new double[]{0, 1, 2, 3}, new double[]{1, 3.5, 6, 8.5}), 1e-9);
+        assertEquals(0, ResourceTrend.slope(new double[]{1, 1}, new double[]{1, 5}));
+    }
+
+    @Test
+    void violations_shouldIgnoreNoiseAndWarmup() {
+        Random random = new Random(1);
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            // 前 20% 堆和连接快速上涨 (预热)，之后围绕平台抖动
+            long heapMb = i < 12 ? 100 + i * 50L : 700 + random.nextInt(80);
+            int threads = i < 12 ? 20 + i : 32 + random.nextInt(3);
+            samples.add(new Sample(i * 10, heapMb * 1024 * 1024, threads, 100 + random.nextInt(5), -1));
+        }
+
+        assertTrue(ResourceTrend.violations(samples, 0.2, METRICS).isEmpty());
+        assertFalse(ResourceTrend.violations(samples, 0, METRICS).isEmpty());
+        ResourceTrend.assertNoUpwardTrend(samples, 0.2, METRICS);
+    }
+
+    @Test
+    void violations_shouldReportSteadyGrowth() {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            samples.add(new Sample(i * 10, (200 + i * 4L) * 1024 * 1024, 30, 100 + i * 2L, 10 + i));
+        }
+
+        List<String> violations = ResourceTrend.violations(samples, 0.2, METRICS);
+
+        assertEquals(3, violations.size(), violations.toString());
+        assertTrue(violations.get(0).startsWith("heap"));
+        assertThrows(AssertionError.class, () -> ResourceTrend.assertNoUpwardTrend(samples, 0.2, METRICS));
+        assertThrows(AssertionError.class, () -> ResourceTrend.assertNoUpwardTrend(samples.subList(0, 3), 0.2, METRICS));
+    }
+}
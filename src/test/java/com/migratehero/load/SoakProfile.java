@@ -0,0 +1,35 @@
+package com.migratehero.load;
+
+/**
+ * 浸泡测试参数 - 从系统属性读取，如 ./mvnw -Psoak test -Dsoak.messages=500000 -Dsoak.sample-seconds=30
+ *
+ * @param folders         邮件文件夹数
+ * @param messages        每个文件夹的邮件数
+ * @param messageKb       每封邮件大小 (KB)
+ * @param sampleSeconds   资源采样间隔 (秒)
+ * @param warmup          判断趋势时丢弃的前段采样比例
+ * @param maxHeapGrowthMb 预热后允许的堆增长 (MB)
+ * @param maxThreadGrowth 预热后允许的线程数增长
+ * @param maxFdGrowth     预热后允许的文件描述符增长
+ * @param maxSocketGrowth 预热后允许的 socket 增长
+ */
+public record SoakProfile(int folders, int messages, int messageKb, int sampleSeconds, double warmup,
+                          double maxHeapGrowthMb, int maxThreadGrowth, int maxFdGrowth, int maxSocketGrowth) {
+
+    public static SoakProfile fromSystemProperties() {
+        return new SoakProfile(
+                Integer.getInteger("soak.folders", 10),
+                Integer.getInteger("soak.messages", 100_000),
+                Integer.getInteger("soak.message-kb", 4),
+                Integer.getInteger("soak.sample-seconds", 10),
+                Double.parseDouble(System.getProperty("soak.warmup", "0.2")),
+                Double.parseDouble(System.getProperty("soak.max-heap-growth-mb", "64")),
+                Integer.getInteger("soak.max-thread-growth", 8),
+                Integer.getInteger("soak.max-fd-growth", 32),
+                Integer.getInteger("soak.max-socket-growth", 16));
+    }
+
+    public long totalMessages() {
+        return (long) folders * messages;
+    }
+}
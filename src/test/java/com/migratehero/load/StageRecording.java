@@ -0,0 +1,54 @@
+package com.migratehero.load;
+
+import com.migratehero.service.execution.FlightRecordingReport;
+import com.migratehero.service.execution.FlightRecordingReport.StageSummary;
+import com.migratehero.service.execution.MigrationEvents;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 负载测试期间的 JFR 录制 - 只开启迁移阶段事件 (阈值 0，记录每一次)，结束后按阶段给出延迟分布
+ */
+public final class StageRecording implements AutoCloseable {
+
+    private static final List<Class<? extends MigrationEvents.StageEvent>> EVENTS = List.of(
+            MigrationEvents.EwsFetch.class,
+            MigrationEvents.ImapAppend.class,
+            MigrationEvents.LedgerWrite.class,
+            MigrationEvents.Transform.class);
+
+    private final Recording recording = new Recording();
+
+    public StageRecording() {
+        recording.setName("migratehero-load");
+        for (Class<? extends MigrationEvents.StageEvent> event : EVENTS) {
+            recording.enable(event).withoutThreshold();
+        }
+        recording.setToDisk(true);
+        recording.start();
+    }
+
+    /**
+     * 截至目前的各阶段统计
+     *
+     * @param taskId task-N / job-N
+     */
+    public List<StageSummary> stages(String taskId) throws IOException {
+        Path file = Files.createTempFile("migratehero-load", ".jfr");
+        try {
+            recording.dump(file);
+            return FlightRecordingReport.summarize(file, taskId);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.migratehero.load;
+
+import com.migratehero.service.execution.TokenBucket;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 桩服务的注入行为 - 固定延迟加随机抖动、服务端限速 (超出速率的请求排队等待) 和按比例返回限流错误
+ *
+ * 随机数使用固定种子，同样的请求序列得到同样的抖动和错误分布。
+ */
+public final class StubBehavior {
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final TokenBucket pacer;
+    private final Random random;
+
+    /**
+     * @param latencyMs            每个请求的固定延迟
+     * @param jitterMs             附加的 [0, jitterMs) 随机延迟
+     * @param maxRequestsPerSecond 服务端处理速率上限，0 表示不限
+     * @param errorRate            返回限流错误 (HTTP 503) 的请求比例
+     */
+    public StubBehavior(long latencyMs, long jitterMs, double maxRequestsPerSecond, double errorRate, long seed) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.pacer = new TokenBucket(maxRequestsPerSecond > 0 ? Math.max(1, Math.round(maxRequestsPerSecond))
+                : TokenBucket.UNLIMITED, 1.0, System.nanoTime());
+        this.random = new Random(seed);
+    }
+
+    public static StubBehavior none() {
+        return new StubBehavior(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * 按配置等待后决定是否处理本次请求
+     *
+     * @return false 表示应返回限流错误
+     */
+    public boolean admit() throws InterruptedException {
+        long waitNanos = pacer.reserve(1, System.nanoTime());
+        long delayMs = latencyMs;
+        boolean reject;
+        synchronized (random) {
+            if (jitterMs > 0) {
+                delayMs += (long) (random.nextDouble() * jitterMs);
+            }
+            reject = errorRate > 0 && random.nextDouble() < errorRate;
+        }
+        long totalNanos = waitNanos + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        if (totalNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(totalNanos);
+        }
+        return !reject;
+    }
+}
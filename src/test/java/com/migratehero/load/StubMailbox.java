@@ -0,0 +1,283 @@
+package com.migratehero.load;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 负载测试的源端邮箱 - EWS 桩按此提供文件夹、邮件、日历事件和联系人
+ *
+ * 每个文件夹的邮件按接收时间升序排列，桩据此按时间范围二分查找和倒序分页，
+ * 邮件列表可以是按需生成的虚拟列表 (浸泡测试的百万级邮件不必常驻内存)。
+ * 邮件 ID 为 "M-{文件夹 ID}-{序号}"，可直接定位到邮件。
+ */
+public final class StubMailbox {
+
+    public static final String INBOX = "Inbox";
+
+    /**
+     * 一封邮件
+     *
+     * @param mime 原始 MIME 内容 (RFC 822)
+     */
+    public record Message(String id, String subject, String from, Instant received, boolean read, byte[] mime) {
+    }
+
+    /**
+     * 一个日历事件 (requiredAttendees 与 optionalAttendees 为邮箱地址)
+     *
+     * @param recurrence 重复规则 (iCalendar RRULE 值，如 FREQ=WEEKLY;COUNT=10)，非重复事件为 null
+     */
+    public record Event(String id, String subject, String location, Instant start, Instant end, boolean allDay,
+                        String organizer, String body, String recurrence, List<String> requiredAttendees,
+                        List<String> optionalAttendees, Integer reminderMinutes) {
+
+        public boolean recurring() {
+            return recurrence != null;
+        }
+    }
+
+    /**
+     * 一个联系人 (phones 的键为 EWS PhoneNumberKey，如 MobilePhone、BusinessPhone、HomePhone)
+     */
+    public record Contact(String id, String displayName, String givenName, String middleName, String surname,
+                          String company, String jobTitle, String department, String notes, List<String> emails,
+                          Map<String, String> phones, Address businessAddress, Address homeAddress) {
+    }
+
+    public record Address(String street, String city, String state, String postalCode, String country) {
+    }
+
+    /**
+     * 邮件文件夹
+     */
+    public static final class Folder {
+        private final String id;
+        private final String name;
+        private final String parentId;
+        private final List<Message> messages;
+        private final long sizeBytes;
+        private final List<Folder> children = new ArrayList<>();
+
+        private Folder(String id, String name, String parentId, List<Message> messages, long sizeBytes) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.messages = messages;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String parentId() {
+            return parentId;
+        }
+
+        /**
+         * 按接收时间升序的邮件
+         */
+        public List<Message> messages() {
+            return messages;
+        }
+
+        public long sizeBytes() {
+            return sizeBytes;
+        }
+
+        public List<Folder> children() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * 第一封接收时间不早于 time 的邮件的序号
+         */
+        public int indexOf(Instant time) {
+            int low = 0;
+            int high = messages.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (messages.get(mid).received().isBefore(time)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final Map<String, Folder> folders = new LinkedHashMap<>();
+    private final List<Folder> roots = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    private final List<Contact> contacts = new ArrayList<>();
+
+    /**
+     * 添加文件夹，邮件须已按接收时间升序排列
+     *
+     * @param parent 父文件夹，为 null 时添加到邮箱根下
+     */
+    public Folder addFolder(Folder parent, String name, List<Message> messages) {
+        long size = 0;
+        for (Message message : messages) {
+            size += message.mime().length;
+        }
+        return addFolder(parent, name, messages, size);
+    }
+
+    /**
+     * 添加文件夹 (虚拟邮件列表时由调用方给出文件夹总大小)
+     */
+    public Folder addFolder(Folder parent, String name, List<Message> messages, long sizeBytes) {
+        Folder folder = new Folder(nextFolderId(), name, parent != null ? parent.id() : null, messages, sizeBytes);
+        folders.put(folder.id(), folder);
+        if (parent != null) {
+            parent.children.add(folder);
+        } else {
+            roots.add(folder);
+        }
+        return folder;
+    }
+
+    /**
+     * 预先分配下一个文件夹的 ID (构造邮件 ID 时使用)
+     */
+    public String nextFolderId() {
+        return "F" + (folders.size() + 1);
+    }
+
+    public static String messageId(String folderId, int index) {
+        return "M-" + folderId + "-" + index;
+    }
+
+    public void addEvent(Event event) {
+        events.add(event);
+    }
+
+    public void addContact(Contact contact) {
+        contacts.add(contact);
+    }
+
+    public List<Folder> roots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    public Folder folder(String id) {
+        return folders.get(id);
+    }
+
+    public Folder folderByName(String name) {
+        return folders.values().stream().filter(f -> f.name().equalsIgnoreCase(name)).findFirst().orElse(null);
+    }
+
+    public List<Folder> folders() {
+        return List.copyOf(folders.values());
+    }
+
+    /**
+     * 文件夹从根开始的显示名路径，如 "收件箱/项目/2023"
+     */
+    public List<String> path(Folder folder) {
+        List<String> names = new ArrayList<>();
+        for (Folder f = folder; f != null; f = f.parentId() != null ? folders.get(f.parentId()) : null) {
+            names.add(0, f.name());
+        }
+        return names;
+    }
+
+    public Message message(String id) {
+        if (!id.startsWith("M-")) {
+            return null;
+        }
+        int separator = id.lastIndexOf('-');
+        Folder folder = folders.get(id.substring(2, separator));
+        if (folder == null) {
+            return null;
+        }
+        try {
+            int index = Integer.parseInt(id.substring(separator + 1));
+            return index >= 0 && index < folder.messages().size() ? folder.messages().get(index) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public List<Event> events() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public Event event(String id) {
+        return events.stream().filter(e -> e.id().equals(id)).findFirst().orElse(null);
+    }
+
+    public List<Contact> contacts() {
+        return Collections.unmodifiableList(contacts);
+    }
+
+    public Contact contact(String id) {
+        return contacts.stream().filter(c -> c.id().equals(id)).findFirst().orElse(null);
+    }
+
+    public long messageCount() {
+        return folders.values().stream().mapToLong(f -> f.messages().size()).sum();
+    }
+
+    public long sizeBytes() {
+        return folders.values().stream().mapToLong(Folder::sizeBytes).sum();
+    }
+
+    /**
+     * 等大小邮件的简单邮箱: 收件箱加若干平级文件夹，邮件按需生成
+     */
+    public static StubMailbox uniform(int folderCount, int messagesPerFolder, int messageBytes) {
+        StubMailbox mailbox = new StubMailbox();
+        Instant start = Instant.parse("2020-01-01T00:00:00Z");
+        for (int f = 0; f < folderCount; f++) {
+            String folderId = mailbox.nextFolderId();
+            String name = f == 0 ? INBOX : "Folder " + f;
+            List<Message> messages = new AbstractList<>() {
+                @Override
+                public Message get(int index) {
+                    String subject = name + " message " + index;
+                    return new Message(messageId(folderId, index), subject, "sender@example.com",
+                            start.plusSeconds(index * 600L), true, mime(subject, index, messageBytes));
+                }
+
+                @Override
+                public int size() {
+                    return messagesPerFolder;
+                }
+            };
+            mailbox.addFolder(null, name, messages, (long) messagesPerFolder * messageBytes);
+        }
+        return mailbox;
+    }
+
+    /**
+     * 填充到约 size 字节的纯文本邮件
+     */
+    static byte[] mime(String subject, int index, int size) {
+        StringBuilder sb = new StringBuilder(size + 128)
+                .append("From: sender@example.com\r\n")
+                .append("To: target@example.com\r\n")
+                .append("Subject: ").append(subject).append("\r\n")
+                .append("Message-ID: <").append(index).append('.').append(subject.hashCode()).append("@stub.local>\r\n")
+                .append("MIME-Version: 1.0\r\n")
+                .append("Content-Type: text/plain; charset=UTF-8\r\n\r\n");
+        String line = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor.\r\n";
+        while (sb.length() + line.length() <= size) {
+            sb.append(line);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.AdaptiveBatchSizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBatchSizerTest {
+
+    @Test
+    void record_shouldGrowBatchWhenResponsesAreFast() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 5, 200, 2000, 0);
+
+        for (int i = 0; i < 10; i++) {
+            int size = sizer.current();
+            // 单条 5ms
+            sizer.record(size, size * 5L, -1);
+        }
+
+        assertEquals(200, sizer.current());
+    }
+
+    @Test
+    void record_shouldConvergeToTargetLatency() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 5, 500, 2000, 0);
+
+        for (int i = 0; i < 20; i++) {
+            int size = sizer.current();
+            // 单条 40ms，目标 2000ms 对应 50 条
+            sizer.record(size, size * 40L, -1);
+        }
+
+        assertTrue(Math.abs(sizer.current() - 50) <= 2, "size: " + sizer.current());
+    }
+
+    @Test
+    void record_shouldRespectByteBudget() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1, 200, 2000, 8 * 1024 * 1024);
+
+        for (int i = 0; i < 20; i++) {
+            int size = sizer.current();
+            // 响应很快，但每封 1MB，字节预算限制为 8 条
+            sizer.record(size, size, size * 1024L * 1024L);
+        }
+
+        assertEquals(8, sizer.current());
+    }
+
+    @Test
+    void record_shouldHalveOnSlowResponseAndStayWithinBounds() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 5, 200, 2000, 0);
+
+        assertEquals(50, sizer.record(100, 10_000, -1));
+
+        for (int i = 0; i < 10; i++) {
+            sizer.record(sizer.current(), 60_000, -1);
+        }
+        assertEquals(5, sizer.current());
+
+        // 空响应不调整
+        assertEquals(5, sizer.record(0, 60_000, -1));
+    }
+}
@@ -0,0 +1,194 @@
+package com.migratehero.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.migratehero.model.ChangeSubscription;
+import com.migratehero.model.EmailAccount;
+import com.migratehero.model.MigrationJob;
+import com.migratehero.model.enums.MigrationPhase;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.model.enums.ProviderType;
+import com.migratehero.repository.ChangeSubscriptionRepository;
+import com.migratehero.repository.MigrationJobRepository;
+import com.migratehero.service.connector.ConnectorFactory;
+import com.migratehero.service.connector.ews.EwsEmailConnector;
+import com.migratehero.service.connector.microsoft.MicrosoftEmailConnector;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import com.migratehero.service.migration.ChangeNotificationService;
+import com.migratehero.service.migration.ChangeQueue;
+import com.migratehero.service.migration.CheckpointService;
+import com.migratehero.service.migration.MigrationEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeNotificationServiceTest {
+
+    private static final String NOTIFICATION_URL = "https://migratehero.example.com/api/notifications/graph";
+    private static final String SUBSCRIPTION_ID = "sub-1";
+
+    @Mock
+    private MigrationJobRepository jobRepository;
+
+    @Mock
+    private ConnectorFactory connectorFactory;
+
+    @Mock
+    private EwsEmailConnector ewsEmailConnector;
+
+    @Mock
+    private MicrosoftEmailConnector microsoftEmailConnector;
+
+    @Mock
+    private CheckpointService checkpointService;
+
+    @Mock
+    private MigrationEngine migrationEngine;
+
+    @Spy
+    private ChangeQueue changeQueue = new ChangeQueue();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ChangeSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private WorkLeaseService leaseService;
+
+    @InjectMocks
+    private ChangeNotificationService notificationService;
+
+    private MigrationJob job;
+    private String clientState;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notificationService, "enabled", true);
+        ReflectionTestUtils.setField(notificationService, "graphNotificationUrl", NOTIFICATION_URL);
+        ReflectionTestUtils.setField(notificationService, "graphSubscriptionMinutes", 4200);
+
+        EmailAccount sourceAccount = new EmailAccount();
+        sourceAccount.setId(1L);
+        sourceAccount.setProvider(ProviderType.MICROSOFT);
+
+        job = new MigrationJob();
+        job.setId(1L);
+        job.setSourceAccount(sourceAccount);
+        job.setDataTypesConfig("{\"emails\":true}");
+
+        when(jobRepository.findJobsInIncrementalSync()).thenReturn(List.of(job));
+        when(leaseService.tryAcquire(WorkUnit.notifications(job.getId()))).thenReturn(true);
+        when(connectorFactory.isUsingEws()).thenReturn(false);
+        ArgumentCaptor<String> state = ArgumentCaptor.forClass(String.class);
+        when(microsoftEmailConnector.createSubscription(eq(sourceAccount), eq(NOTIFICATION_URL), state.capture(),
+                any(Instant.class))).thenReturn(SUBSCRIPTION_ID);
+
+        notificationService.refreshSubscriptions();
+        clientState = state.getValue();
+    }
+
+    @Test
+    void refreshSubscriptions_shouldRecordSubscriptionForOtherNodes() {
+        ArgumentCaptor<ChangeSubscription> record = ArgumentCaptor.forClass(ChangeSubscription.class);
+        verify(subscriptionRepository).save(record.capture());
+
+        assertEquals(job.getId(), record.getValue().getJobId());
+        assertEquals("GRAPH", record.getValue().getKind());
+        assertEquals(SUBSCRIPTION_ID, record.getValue().getSubscriptionId());
+        assertEquals(clientState, record.getValue().getClientState());
+    }
+
+    @Test
+    void refreshSubscriptions_shouldSkipJobLeasedByAnotherNode() {
+        MigrationJob other = new MigrationJob();
+        other.setId(2L);
+        other.setSourceAccount(job.getSourceAccount());
+        other.setDataTypesConfig("{\"emails\":true}");
+        when(jobRepository.findJobsInIncrementalSync()).thenReturn(List.of(job, other));
+        when(leaseService.isHeld(WorkUnit.notifications(job.getId()))).thenReturn(true);
+        when(leaseService.tryAcquire(WorkUnit.notifications(other.getId()))).thenReturn(false);
+
+        notificationService.refreshSubscriptions();
+
+        verify(microsoftEmailConnector, times(1)).createSubscription(any(), any(), any(), any());
+        verify(subscriptionRepository, never()).findByJobId(other.getId());
+    }
+
+    @Test
+    void onGraphNotification_shouldQueueChangeWithMatchingClientState() {
+        assertTrue(notificationService.isSubscribed(job.getId()));
+
+        notificationService.onGraphNotification(SUBSCRIPTION_ID, clientState, "item-1", "created");
+
+        assertEquals(List.of(new ChangeQueue.QueuedChange("item-1", ChangeQueue.ChangeType.ADDED)),
+                changeQueue.poll(job.getId(), 10));
+    }
+
+    @Test
+    void onGraphNotification_shouldRejectMismatchedClientState() {
+        notificationService.onGraphNotification(SUBSCRIPTION_ID, "forged-" + clientState, "item-1", "created");
+        notificationService.onGraphNotification(SUBSCRIPTION_ID, null, "item-2", "updated");
+
+        assertEquals(0, changeQueue.size(job.getId()));
+        verify(changeQueue, never()).offer(any(), any(), any());
+    }
+
+    @Test
+    void onGraphNotification_shouldMarkSubscriptionHeldByAnotherNode() {
+        ChangeSubscription record = ChangeSubscription.builder()
+                .jobId(2L).kind("GRAPH").subscriptionId("sub-2").clientState("state-2").build();
+        when(subscriptionRepository.findBySubscriptionId("sub-2")).thenReturn(Optional.of(record));
+
+        notificationService.onGraphNotification("sub-2", "forged", "item-1", "created");
+        verify(subscriptionRepository, never()).markNotified(any(), any());
+
+        notificationService.onGraphNotification("sub-2", "state-2", "item-1", "created");
+        verify(subscriptionRepository).markNotified(eq(2L), any(Instant.class));
+        assertEquals(0, changeQueue.size(2L));
+    }
+
+    @Test
+    void onGraphNotification_shouldIgnoreUnknownSubscription() {
+        notificationService.onGraphNotification("sub-unknown", clientState, "item-1", "created");
+
+        assertEquals(0, changeQueue.size(job.getId()));
+    }
+
+    @Test
+    void drainQueues_shouldRunOneTokenSyncForAllQueuedChanges() {
+        job.setStatus(MigrationStatus.RUNNING);
+        job.setPhase(MigrationPhase.INCREMENTAL_SYNC);
+        when(jobRepository.findByIdWithAccounts(job.getId())).thenReturn(Optional.of(job));
+        when(leaseService.isHeld(WorkUnit.notifications(job.getId()))).thenReturn(true);
+        when(leaseService.tryAcquire(WorkUnit.job(job.getId()))).thenReturn(true);
+
+        notificationService.onGraphNotification(SUBSCRIPTION_ID, clientState, "item-1", "created");
+        notificationService.onGraphNotification(SUBSCRIPTION_ID, clientState, "item-2", "created");
+        notificationService.drainQueues();
+
+        verify(migrationEngine, times(1)).syncNotifiedEmails(job);
+        verify(leaseService).release(WorkUnit.job(job.getId()));
+        assertEquals(0, changeQueue.size(job.getId()));
+
+        notificationService.drainQueues();
+        verifyNoMoreInteractions(migrationEngine);
+    }
+}
@@ -0,0 +1,68 @@
+package com.migratehero.service;
+
+import com.migratehero.service.migration.ChangeQueue;
+import com.migratehero.service.migration.ChangeQueue.ChangeType;
+import com.migratehero.service.migration.ChangeQueue.QueuedChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeQueueTest {
+
+    private static final Long JOB_ID = 1L;
+
+    private final ChangeQueue queue = new ChangeQueue();
+
+    @Test
+    void offer_shouldKeepAddedWhenModifiedAfterCreate() {
+        queue.offer(JOB_ID, "item-1", ChangeType.ADDED);
+        queue.offer(JOB_ID, "item-1", ChangeType.MODIFIED);
+
+        assertEquals(List.of(new QueuedChange("item-1", ChangeType.ADDED)), queue.poll(JOB_ID, 10));
+    }
+
+    @Test
+    void offer_shouldKeepLastChangeOtherwise() {
+        queue.offer(JOB_ID, "modified-then-deleted", ChangeType.MODIFIED);
+        queue.offer(JOB_ID, "modified-then-deleted", ChangeType.DELETED);
+        queue.offer(JOB_ID, "added-then-deleted", ChangeType.ADDED);
+        queue.offer(JOB_ID, "added-then-deleted", ChangeType.DELETED);
+        queue.offer(JOB_ID, "deleted-then-added", ChangeType.DELETED);
+        queue.offer(JOB_ID, "deleted-then-added", ChangeType.ADDED);
+
+        assertEquals(List.of(
+                new QueuedChange("modified-then-deleted", ChangeType.DELETED),
+                new QueuedChange("added-then-deleted", ChangeType.DELETED),
+                new QueuedChange("deleted-then-added", ChangeType.ADDED)), queue.poll(JOB_ID, 10));
+    }
+
+    @Test
+    void poll_shouldReturnMergedItemsInFirstSeenOrder() {
+        queue.offer(JOB_ID, "item-1", ChangeType.MODIFIED);
+        queue.offer(JOB_ID, "item-2", ChangeType.ADDED);
+        queue.offer(JOB_ID, "item-1", ChangeType.MODIFIED);
+        queue.offer(JOB_ID, "item-3", ChangeType.DELETED);
+        queue.offer(JOB_ID, null, ChangeType.ADDED);
+
+        assertEquals(3, queue.size(JOB_ID));
+        assertEquals(List.of(
+                new QueuedChange("item-1", ChangeType.MODIFIED),
+                new QueuedChange("item-2", ChangeType.ADDED)), queue.poll(JOB_ID, 2));
+        assertEquals(List.of(new QueuedChange("item-3", ChangeType.DELETED)), queue.poll(JOB_ID, 2));
+        assertTrue(queue.pendingJobIds().isEmpty());
+    }
+
+    @Test
+    void clear_shouldDropBacklogOfOneJobOnly() {
+        queue.offer(JOB_ID, "item-1", ChangeType.ADDED);
+        queue.offer(2L, "item-2", ChangeType.ADDED);
+
+        queue.clear(JOB_ID);
+
+        assertEquals(0, queue.size(JOB_ID));
+        assertEquals(Set.of(2L), queue.pendingJobIds());
+    }
+}
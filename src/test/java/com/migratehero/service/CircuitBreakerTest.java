@@ -0,0 +1,91 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.CircuitBreaker;
+import com.migratehero.service.execution.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void onFailure_shouldOpenAfterThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1_000, 8_000);
+
+        assertFalse(breaker.onFailure(0));
+        assertFalse(breaker.onFailure(0));
+        assertTrue(breaker.onFailure(0));
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(1_000, breaker.tryAcquire(0));
+        assertEquals(400, breaker.tryAcquire(600));
+    }
+
+    @Test
+    void onSuccess_shouldResetConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 1_000, 8_000);
+
+        breaker.onFailure(0);
+        breaker.onSuccess();
+        assertFalse(breaker.onFailure(0));
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpen_shouldAdmitSingleProbe() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1_000, 8_000);
+        breaker.onFailure(0);
+
+        assertEquals(0, breaker.tryAcquire(1_000));
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire(1_000) > 0);
+
+        breaker.onSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.tryAcquire(1_000));
+    }
+
+    @Test
+    void failedProbe_shouldDoubleOpenDurationUpToMax() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1_000, 3_000);
+        breaker.onFailure(0);
+
+        breaker.tryAcquire(1_000);
+        assertTrue(breaker.onFailure(1_000));
+        assertEquals(2_000, breaker.tryAcquire(1_000));
+
+        breaker.tryAcquire(3_000);
+        breaker.onFailure(3_000);
+        assertEquals(3_000, breaker.tryAcquire(3_000));
+    }
+
+    @Test
+    void abandonedProbe_shouldAdmitNextProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1_000, 8_000);
+        breaker.onFailure(0);
+        assertEquals(0, breaker.tryAcquire(1_000));
+
+        // 其他线程的调用结束不影响当前探测
+        Thread other = new Thread(() -> breaker.onExit(1_000));
+        other.start();
+        other.join();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+
+        breaker.onExit(1_500);
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(0, breaker.tryAcquire(1_500));
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void onExit_shouldKeepReportedOutcome() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1_000, 8_000);
+        breaker.onFailure(0);
+        breaker.tryAcquire(1_000);
+
+        breaker.onFailure(1_000);
+        breaker.onExit(1_000);
+
+        assertEquals(2_000, breaker.tryAcquire(1_000));
+    }
+}
@@ -0,0 +1,70 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.DateRangeShardPlanner;
+import com.migratehero.service.execution.DateRangeShardPlanner.Shard;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateRangeShardPlannerTest {
+
+    private static final Instant OLDEST = Instant.parse("2009-01-01T00:00:00Z");
+    private static final Instant NEWEST = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void plan_shouldSplitUniformFolderIntoBalancedShards() throws Exception {
+        // 每小时一封
+        List<Shard> shards = DateRangeShardPlanner.plan(OLDEST, NEWEST, 16, 10_000, 16,
+                (from, to) -> Duration.between(from, to).toHours());
+
+        assertEquals(16, shards.size());
+        long total = Duration.between(OLDEST, NEWEST).toHours();
+        for (Shard shard : shards) {
+            assertTrue(shard.estimatedCount() < total / 8, "shard too large: " + shard);
+        }
+    }
+
+    @Test
+    void plan_shouldRefineDenseRecentPeriod() throws Exception {
+        // 40 万封全部集中在最近 30 天
+        Instant hot = NEWEST.minus(Duration.ofDays(30));
+        List<Shard> shards = DateRangeShardPlanner.plan(OLDEST, NEWEST, 16, 10_000, 16, (from, to) -> {
+            Instant start = from.isAfter(hot) ? from : hot;
+            if (!to.isAfter(start)) {
+                return 0;
+            }
+            return Duration.between(start, to).toMillis() * 400_000L / Duration.ofDays(30).toMillis();
+        });
+
+        assertEquals(16, shards.size());
+        // 除首个分片外都落在最近 30 天内
+        for (Shard shard : shards.subList(1, shards.size())) {
+            assertFalse(shard.from().isBefore(hot.minus(Duration.ofDays(2))), "shard outside hot range: " + shard);
+        }
+    }
+
+    @Test
+    void plan_shouldLeaveOuterBoundsOpenAndRangesContiguous() throws Exception {
+        List<Shard> shards = DateRangeShardPlanner.plan(OLDEST, NEWEST, 8, 1_000, 8,
+                (from, to) -> Duration.between(from, to).toDays());
+
+        assertNull(shards.get(0).from());
+        assertNull(shards.get(shards.size() - 1).to());
+        for (int i = 1; i < shards.size(); i++) {
+            assertEquals(shards.get(i - 1).to(), shards.get(i).from());
+        }
+    }
+
+    @Test
+    void plan_shouldReturnSingleOpenShardWithoutRange() throws Exception {
+        List<Shard> shards = DateRangeShardPlanner.plan(null, null, 16, 10_000, 16, (from, to) -> 0);
+
+        assertEquals(1, shards.size());
+        assertNull(shards.get(0).from());
+        assertNull(shards.get(0).to());
+    }
+}
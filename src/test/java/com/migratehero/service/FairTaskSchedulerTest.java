@@ -0,0 +1,146 @@
+package com.migratehero.service;
+
+import com.migratehero.model.MvpMigrationTask;
+import com.migratehero.model.enums.MigrationStatus;
+import com.migratehero.repository.MvpMigrationTaskRepository;
+import com.migratehero.service.execution.FairTaskScheduler;
+import com.migratehero.service.execution.MigrationExecutor;
+import com.migratehero.service.execution.WorkLeaseService;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FairTaskSchedulerTest {
+
+    @Mock
+    private MvpMigrationTaskRepository taskRepository;
+
+    @Mock
+    private MvpMigrationService migrationService;
+
+    @Mock
+    private MigrationExecutor migrationExecutor;
+
+    @Mock
+    private WorkLeaseService leaseService;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @InjectMocks
+    private FairTaskScheduler scheduler;
+
+    private final Map<Long, MvpMigrationTask> tasks = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "maxConcurrentJobs", 3);
+        ReflectionTestUtils.setField(scheduler, "maxConcurrentJobsPerTenant", 1);
+        ReflectionTestUtils.setField(scheduler, "backfillCostFactor", 4.0);
+
+        lenient().when(taskRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(tasks.get(inv.getArgument(0))));
+        lenient().when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(leaseService.tryAcquire(any(WorkUnit.class))).thenReturn(true);
+        lenient().when(migrationExecutor.getExecutorService()).thenReturn(executorService);
+    }
+
+    @Test
+    void enqueue_shouldReturnZeroWhenDispatchedImmediately() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+
+        assertEquals(0, scheduler.enqueue(1L));
+
+        assertEquals(1, scheduler.getRunningCount());
+        assertNull(scheduler.getQueuePosition(1L));
+        verify(executorService).execute(any(Runnable.class));
+    }
+
+    @Test
+    void enqueue_shouldQueueBehindSameTenant() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+        addTask(2L, "b@contoso.com", MigrationStatus.PENDING);
+
+        assertEquals(0, scheduler.enqueue(1L));
+        assertEquals(1, scheduler.enqueue(2L));
+
+        assertEquals(MigrationStatus.QUEUED, tasks.get(2L).getStatus());
+        assertThrows(RuntimeException.class, () -> scheduler.enqueue(1L));
+    }
+
+    @Test
+    void enqueue_shouldAdoptQueuedTaskMissingFromLocalQueue() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+        addTask(2L, "b@contoso.com", MigrationStatus.QUEUED);
+        scheduler.enqueue(1L);
+
+        assertEquals(1, scheduler.enqueue(2L));
+        assertEquals(1, scheduler.getQueueSize());
+    }
+
+    @Test
+    void enqueue_shouldNotCallSourceForUnknownSize() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+        addTask(2L, "b@contoso.com", MigrationStatus.PENDING);
+        tasks.get(2L).setTotalEmails(null);
+        scheduler.enqueue(1L);
+
+        assertEquals(1, scheduler.enqueue(2L));
+        verify(migrationExecutor, never()).call(any(), any(), any(), any());
+    }
+
+    @Test
+    void enqueue_shouldCountTasksRunningOnOtherNodes() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+        addTask(9L, "z@contoso.com", MigrationStatus.RUNNING);
+        when(taskRepository.findByStatusWithLiveLease(eq(MigrationStatus.RUNNING), eq(WorkLeaseService.MVP_TASK),
+                eq(WorkLeaseService.WHOLE), any())).thenReturn(List.of(tasks.get(9L)));
+
+        assertEquals(1, scheduler.enqueue(1L));
+
+        assertEquals(0, scheduler.getRunningCount());
+        verify(executorService, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    void dequeue_shouldNotLeaveTaskDrainingAfterItExits() {
+        addTask(1L, "a@contoso.com", MigrationStatus.PENDING);
+        scheduler.enqueue(1L);
+        ArgumentCaptor<Runnable> run = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService).execute(run.capture());
+
+        scheduler.dequeue(1L);
+        tasks.get(1L).setStatus(MigrationStatus.PAUSED);
+        run.getValue().run();
+
+        assertEquals(0, scheduler.getRunningCount());
+        assertEquals(0, scheduler.enqueue(1L));
+    }
+
+    private void addTask(Long id, String sourceEmail, MigrationStatus status) {
+        MvpMigrationTask task = MvpMigrationTask.builder()
+                .sourceEmail(sourceEmail)
+                .status(status)
+                .totalEmails(100L)
+                .build();
+        task.setId(id);
+        tasks.put(id, task);
+    }
+}
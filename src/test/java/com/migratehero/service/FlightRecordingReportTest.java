@@ -0,0 +1,56 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.FlightRecordingReport;
+import com.migratehero.service.execution.FlightRecordingReport.StageSummary;
+import com.migratehero.service.execution.MigrationEvents;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void summarize_shouldGroupEventsByStage() throws Exception {
+        Path file = tempDir.resolve("migration.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MigrationEvents.ImapAppend.class).withoutThreshold();
+            recording.enable(MigrationEvents.EwsFetch.class).withoutThreshold();
+            recording.start();
+
+            WorkUnit task = WorkUnit.task(7L);
+            for (int i = 0; i < 3; i++) {
+                MigrationEvents.record(MigrationEvents.imapAppend(task, 100), () -> null);
+            }
+            assertThrows(IOException.class, () -> MigrationEvents.record(MigrationEvents.imapAppend(task, 50), () -> {
+                throw new IOException("connection reset");
+            }));
+            MigrationEvents.EwsFetch fetch = MigrationEvents.ewsFetch(WorkUnit.task(8L), 10);
+            MigrationEvents.record(fetch, () -> fetch.size = 4096);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<StageSummary> all = FlightRecordingReport.summarize(file, null);
+        assertEquals(List.of("EwsFetch", "ImapAppend"), all.stream().map(StageSummary::stage).toList());
+        StageSummary append = all.get(1);
+        assertEquals(4, append.count());
+        assertEquals(1, append.failures());
+        assertEquals(350, append.bytes());
+        assertTrue(append.p50Ms() <= append.p99Ms() && append.p99Ms() <= append.maxMs());
+
+        List<StageSummary> task8 = FlightRecordingReport.summarize(file, "task-8");
+        assertEquals(1, task8.size());
+        assertEquals(4096, task8.get(0).bytes());
+    }
+}
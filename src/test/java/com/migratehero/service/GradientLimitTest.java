@@ -0,0 +1,56 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.GradientLimit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimitTest {
+
+    @Test
+    void onSample_shouldGrowWhileLatencyIsFlat() {
+        GradientLimit limit = new GradientLimit(4, 1, 20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(100, limit.getLimit(), false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void onSample_shouldShrinkWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(20, 1, 20);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100, limit.getLimit(), false);
+        }
+
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(400, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < 20, "limit: " + limit.getLimit());
+    }
+
+    @Test
+    void onSample_shouldBackOffOnRejection() {
+        GradientLimit limit = new GradientLimit(10, 2, 20);
+
+        assertEquals(7, limit.onSample(0, 10, true));
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(0, 10, true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void onSample_shouldNotGrowWhenUnderutilised() {
+        GradientLimit limit = new GradientLimit(10, 1, 20);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100, 1, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+}
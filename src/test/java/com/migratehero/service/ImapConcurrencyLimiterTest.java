@@ -0,0 +1,81 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.ImapConcurrencyLimiter;
+import com.sun.mail.iap.CommandFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImapConcurrencyLimiterTest {
+
+    private static final String HOST = "imap.example.com";
+
+    private ImapConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ImapConcurrencyLimiter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(limiter, "initialLimit", 2);
+        ReflectionTestUtils.setField(limiter, "minLimit", 1);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 20);
+    }
+
+    @Test
+    void acquire_shouldWaitUntilPermitClosed() throws Exception {
+        ImapConcurrencyLimiter.Permit first = limiter.acquire(HOST);
+        ImapConcurrencyLimiter.Permit second = limiter.acquire(HOST);
+
+        CompletableFuture<ImapConcurrencyLimiter.Permit> third = CompletableFuture.supplyAsync(() -> limiter.acquire(HOST));
+        Thread.sleep(100);
+        assertFalse(third.isDone());
+
+        first.close();
+        third.get(1, TimeUnit.SECONDS).close();
+        second.close();
+    }
+
+    @Test
+    void close_shouldReleaseOnceWithoutSample() {
+        ImapConcurrencyLimiter.Permit permit = limiter.acquire(HOST);
+        permit.close();
+        permit.close();
+
+        assertEquals(2, limiter.getLimit(HOST));
+        assertReleased(2);
+    }
+
+    @Test
+    void call_shouldShrinkLimitOnRejectionAndReleaseOnce() {
+        ImapConcurrencyLimiter.Permit permit = limiter.acquire(HOST);
+
+        assertThrows(CommandFailedException.class, () -> permit.call(() -> {
+            throw new CommandFailedException("NO [OVERQUOTA] mailbox full");
+        }));
+        permit.close();
+
+        assertEquals(1, limiter.getLimit(HOST));
+        assertReleased(1);
+    }
+
+    /**
+     * 名额全部归还后应能立即占满当前上限
+     */
+    private void assertReleased(int limit) {
+        List<ImapConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (int i = 0; i < limit; i++) {
+                permits.add(limiter.acquire(HOST));
+            }
+        });
+        permits.forEach(ImapConcurrencyLimiter.Permit::close);
+    }
+}
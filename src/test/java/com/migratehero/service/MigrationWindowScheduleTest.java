@@ -0,0 +1,69 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.MigrationWindowSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationWindowScheduleTest {
+
+    private static final long MB = 1024L * 1024;
+
+    // 2026-10-19 为周一
+    private static LocalDateTime monday(int hour, int minute) {
+        return LocalDateTime.of(2026, 10, 19, hour, minute);
+    }
+
+    @Test
+    void rateAt_shouldMatchFirstWindow() {
+        MigrationWindowSchedule schedule = MigrationWindowSchedule.parse(
+                "Mon-Fri 08:00-18:00=2MB; Sat,Sun 00:00-24:00=pause");
+
+        assertEquals(2 * MB, schedule.rateAt(monday(9, 0)));
+        assertEquals(MigrationWindowSchedule.UNLIMITED, schedule.rateAt(monday(19, 0)));
+        assertEquals(MigrationWindowSchedule.PAUSED, schedule.rateAt(monday(9, 0).minusDays(1)));
+    }
+
+    @Test
+    void rateAt_shouldHandleWindowCrossingMidnight() {
+        MigrationWindowSchedule schedule = MigrationWindowSchedule.parse("Fri 22:00-06:00=1MB");
+
+        LocalDateTime friday = monday(23, 0).plusDays(4);
+        assertEquals(MB, schedule.rateAt(friday));
+        assertEquals(MB, schedule.rateAt(friday.plusHours(5)));
+        assertEquals(MigrationWindowSchedule.UNLIMITED, schedule.rateAt(friday.plusHours(8)));
+        assertEquals(MigrationWindowSchedule.UNLIMITED, schedule.rateAt(monday(1, 0)));
+    }
+
+    @Test
+    void parse_shouldRejectInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> MigrationWindowSchedule.parse("Mon 08:00-18:00"));
+        assertThrows(IllegalArgumentException.class, () -> MigrationWindowSchedule.parse("Xyz 08:00-18:00=1MB"));
+        assertThrows(IllegalArgumentException.class, () -> MigrationWindowSchedule.parse("Mon 08:00-25:00=1MB"));
+        assertThrows(IllegalArgumentException.class, () -> MigrationWindowSchedule.parse("Mon 08:00-18:00=fast"));
+    }
+
+    @Test
+    void effectiveRate_shouldRampDownBeforeBusinessHours() {
+        MigrationWindowSchedule schedule = MigrationWindowSchedule.parse("Mon-Fri 08:00-18:00=1MB");
+        long full = 11 * MB;
+
+        assertEquals(MigrationWindowSchedule.UNLIMITED, schedule.effectiveRate(monday(7, 0), 10, full));
+        long ramping = schedule.effectiveRate(monday(7, 55), 10, full);
+        assertTrue(ramping > MB && ramping < full);
+        assertEquals(MB, schedule.effectiveRate(monday(8, 0), 10, full));
+    }
+
+    @Test
+    void effectiveRate_shouldRampUpAfterBusinessHours() {
+        MigrationWindowSchedule schedule = MigrationWindowSchedule.parse("Mon-Fri 08:00-18:00=1MB");
+        long full = 11 * MB;
+
+        long first = schedule.effectiveRate(monday(18, 0), 10, full);
+        long later = schedule.effectiveRate(monday(18, 5), 10, full);
+        assertTrue(first > MB && first < later);
+        assertEquals(MigrationWindowSchedule.UNLIMITED, schedule.effectiveRate(monday(18, 10), 10, full));
+    }
+}
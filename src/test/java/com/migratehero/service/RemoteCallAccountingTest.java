@@ -0,0 +1,136 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.MigrationMetrics;
+import com.migratehero.service.execution.RemoteCallAccounting;
+import com.migratehero.service.execution.RemoteCallReport;
+import com.migratehero.service.execution.WorkLeaseService.WorkUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteCallAccountingTest {
+
+    private static final WorkUnit TASK = WorkUnit.task(1L);
+
+    private static MigrationMetrics.Op op(String operation) {
+        return new MigrationMetrics.Op(TASK, "task-1", "google", operation);
+    }
+
+    /**
+     * 模拟一次列表调用：1 次列表请求 + 每封邮件 1 次 get + 1 次 profile
+     */
+    private static void listPage(RemoteCallAccounting accounting, int messages) {
+        accounting.account(op("list_emails"), () -> {
+            RemoteCallAccounting.countRequest("google GET /gmail/v1/users/me/messages");
+            for (int i = 0; i < messages; i++) {
+                RemoteCallAccounting.countRequest("google GET /gmail/v1/users/me/messages/{id}");
+            }
+            RemoteCallAccounting.countRequest("google GET /gmail/v1/users/me/profile");
+            return null;
+        });
+    }
+
+    @Test
+    void account_shouldCountRequestsPerOperation() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        listPage(accounting, 50);
+        listPage(accounting, 50);
+        accounting.recordItems(TASK, 100);
+
+        RemoteCallReport report = accounting.report(TASK);
+        assertEquals(104, report.calls("list_emails"));
+        assertEquals(100L, report.operations().get("list_emails").get("google GET /gmail/v1/users/me/messages/{id}"));
+        assertEquals(1.04, report.callsPerItem(), 0.001);
+    }
+
+    @Test
+    void account_shouldCountOneCallWhenNoRequestHookFired() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        for (int i = 0; i < 3; i++) {
+            accounting.account(op("imap_append"), () -> null);
+        }
+        accounting.recordItems(TASK, 3);
+
+        RemoteCallReport report = accounting.report(TASK);
+        assertEquals(3, report.calls("imap_append"));
+        assertEquals(1.0, report.callsPerItem("imap_append"), 0.001);
+    }
+
+    @Test
+    void account_shouldAttributeNestedCallsToInnerOperation() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        accounting.account(op("outer"), () -> {
+            RemoteCallAccounting.countRequest("ews FindItem");
+            accounting.account(op("inner"), () -> {
+                RemoteCallAccounting.countRequest("ews GetItem");
+                return null;
+            });
+            RemoteCallAccounting.countRequest("ews FindItem");
+            return null;
+        });
+
+        RemoteCallReport report = accounting.report(TASK);
+        assertEquals(2, report.calls("outer"));
+        assertEquals(1, report.calls("inner"));
+    }
+
+    @Test
+    void countRequest_shouldIgnoreRequestsOutsideConnectorCalls() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        RemoteCallAccounting.countRequest("ews FindItem");
+        accounting.account(new MigrationMetrics.Op(null, "none", "ews", "call"), () -> {
+            RemoteCallAccounting.countRequest("ews FindItem");
+            return null;
+        });
+
+        assertEquals(0, accounting.report(TASK).calls());
+    }
+
+    @Test
+    void budget_shouldFailWhenRatioRegresses() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        listPage(accounting, 50);
+        accounting.recordItems(TASK, 50);
+        RemoteCallReport report = accounting.report(TASK);
+
+        RemoteCallBudget.assertCallsPerItemAtMost(report, 1.1);
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> RemoteCallBudget.assertCallsPerItemAtMost(report, "list_emails", 0.1));
+        assertTrue(error.getMessage().contains("google GET /gmail/v1/users/me/messages/{id}"));
+    }
+
+    @Test
+    void remove_shouldDropTaskStatistics() {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        listPage(accounting, 1);
+        accounting.remove(TASK);
+
+        assertEquals(0, accounting.report(TASK).calls());
+    }
+
+    @Test
+    void evictFinished_shouldDropTaskStatisticsAfterRetention() throws InterruptedException {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        ReflectionTestUtils.setField(accounting, "retentionMinutes", 0);
+        listPage(accounting, 1);
+        accounting.finished(TASK);
+        Thread.sleep(5);
+        accounting.evictFinished();
+
+        assertEquals(0, accounting.report(TASK).calls());
+    }
+
+    @Test
+    void evictFinished_shouldKeepTaskThatStartedAgain() throws InterruptedException {
+        RemoteCallAccounting accounting = new RemoteCallAccounting();
+        ReflectionTestUtils.setField(accounting, "retentionMinutes", 0);
+        listPage(accounting, 1);
+        accounting.finished(TASK);
+        listPage(accounting, 1);
+        Thread.sleep(5);
+        accounting.evictFinished();
+
+        assertEquals(6, accounting.report(TASK).calls());
+    }
+}
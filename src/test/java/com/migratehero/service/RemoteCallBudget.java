@@ -0,0 +1,34 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.RemoteCallReport;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 远程调用预算断言 - 基准和负载测试用，每迁移条目的调用次数超过预算时失败并输出按操作分组的调用明细
+ */
+public final class RemoteCallBudget {
+
+    private RemoteCallBudget() {
+    }
+
+    /**
+     * 断言任务整体的每条目调用次数不超过预算
+     */
+    public static void assertCallsPerItemAtMost(RemoteCallReport report, double budget) {
+        if (report.callsPerItem() > budget) {
+            fail(String.format("Remote call budget exceeded: %.2f calls per item > %.2f%n%s",
+                    report.callsPerItem(), budget, report.describe()));
+        }
+    }
+
+    /**
+     * 断言某个连接器操作的每条目调用次数不超过预算
+     */
+    public static void assertCallsPerItemAtMost(RemoteCallReport report, String operation, double budget) {
+        if (report.callsPerItem(operation) > budget) {
+            fail(String.format("Remote call budget exceeded for %s: %.2f calls per item > %.2f%n%s",
+                    operation, report.callsPerItem(operation), budget, report.describe()));
+        }
+    }
+}
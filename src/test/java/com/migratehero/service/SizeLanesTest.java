@@ -0,0 +1,99 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.SizeLanes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeLanesTest {
+
+    private SizeLanes lanes;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        lanes = new SizeLanes();
+        ReflectionTestUtils.setField(lanes, "smallMaxBytes", 1024L);
+        ReflectionTestUtils.setField(lanes, "largeMinBytes", 10240L);
+        ReflectionTestUtils.setField(lanes, "smallConcurrency", 4);
+        ReflectionTestUtils.setField(lanes, "mediumConcurrency", 2);
+        ReflectionTestUtils.setField(lanes, "largeConcurrency", 1);
+        ReflectionTestUtils.setField(lanes, "smallBudgetMb", 1);
+        ReflectionTestUtils.setField(lanes, "mediumBudgetMb", 1);
+        ReflectionTestUtils.setField(lanes, "largeBudgetMb", 1);
+        lanes.init();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void window_shouldRunSmallBatchesWhileLargeLaneIsBusy() throws Exception {
+        SizeLanes.Window window = lanes.window(10, executor);
+        CountDownLatch largeRunning = new CountDownLatch(1);
+        CountDownLatch releaseLarge = new CountDownLatch(1);
+        CountDownLatch smallDone = new CountDownLatch(1);
+        AtomicInteger largeRuns = new AtomicInteger();
+
+        window.submit(SizeLanes.Lane.LARGE, 20480, 1, () -> {
+            largeRuns.incrementAndGet();
+            largeRunning.countDown();
+            await(releaseLarge);
+        });
+        assertTrue(largeRunning.await(1, TimeUnit.SECONDS));
+
+        // 第二封大邮件排在大邮件通道中，不阻塞提交方，也不挡住后面的小邮件
+        window.submit(SizeLanes.Lane.LARGE, 20480, 1, largeRuns::incrementAndGet);
+        window.submit(SizeLanes.Lane.SMALL, 512, 5, smallDone::countDown);
+
+        assertTrue(smallDone.await(1, TimeUnit.SECONDS));
+        assertEquals(1, largeRuns.get());
+
+        releaseLarge.countDown();
+        window.await();
+        assertEquals(2, largeRuns.get());
+    }
+
+    @Test
+    void window_shouldBlockSubmitterWhenFull() throws Exception {
+        SizeLanes.Window window = lanes.window(2, executor);
+        CountDownLatch release = new CountDownLatch(1);
+
+        window.submit(SizeLanes.Lane.SMALL, 512, 2, () -> await(release));
+
+        CompletableFuture<Void> next = CompletableFuture.runAsync(() -> {
+            try {
+                window.submit(SizeLanes.Lane.SMALL, 512, 1, () -> { });
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(next.isDone());
+
+        release.countDown();
+        next.get(1, TimeUnit.SECONDS);
+        window.await();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.AdjustableLimit;
+import com.migratehero.service.execution.TaskTuning;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTuningTest {
+
+    @Test
+    void apply_shouldReportOnlyActualChanges() {
+        TaskTuning tuning = new TaskTuning(4);
+
+        List<String> changes = tuning.apply(8, 20, null, null);
+        assertEquals(List.of("folderParallelism: default -> 8", "fetchBatchSize: adaptive -> 20"), changes);
+        assertTrue(tuning.apply(8, 20, null, null).isEmpty());
+    }
+
+    @Test
+    void apply_zeroShouldRestoreDefaults() {
+        TaskTuning tuning = new TaskTuning(4);
+        tuning.apply(8, 20, 3, 1_000L);
+
+        tuning.apply(0, 0, 0, 0L);
+
+        assertEquals(4, tuning.getFolderLimit().getLimit());
+        assertEquals(15, tuning.fetchBatchSize(15));
+        assertEquals(AdjustableLimit.UNLIMITED, tuning.getUploadLimit().getLimit());
+        assertNull(tuning.getMaxBytesPerSecond());
+    }
+
+    @Test
+    void raisingLimit_shouldReleaseWaiters() throws Exception {
+        AdjustableLimit limit = new AdjustableLimit(1);
+        limit.acquire();
+
+        Thread waiter = new Thread(() -> {
+            limit.acquire();
+            limit.release();
+        });
+        waiter.start();
+        Thread.sleep(100);
+        assertTrue(waiter.isAlive());
+
+        limit.setLimit(2);
+        waiter.join(1_000);
+        assertFalse(waiter.isAlive());
+        limit.release();
+        assertEquals(0, limit.getInFlight());
+    }
+}
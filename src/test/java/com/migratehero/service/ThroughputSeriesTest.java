@@ -0,0 +1,63 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.ThroughputSeries;
+import com.migratehero.service.execution.ThroughputSeries.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThroughputSeriesTest {
+
+    private ThroughputSeries series() {
+        return new ThroughputSeries(10_000, 6, 60_000, 10);
+    }
+
+    @Test
+    void rate_shouldAverageOverWindow() {
+        ThroughputSeries series = series();
+        for (long t = 0; t < 60_000; t += 1_000) {
+            series.record(t, 2, 2_000);
+        }
+
+        double[] rate = series.rate(60_000, 30_000);
+        assertEquals(2.0, rate[0], 0.01);
+        assertEquals(2_000.0, rate[1], 0.01);
+    }
+
+    @Test
+    void rate_shouldUseElapsedTimeForYoungSeries() {
+        ThroughputSeries series = series();
+        series.record(0, 10, 0);
+
+        assertEquals(1.0, series.rate(10_000, 300_000)[0], 0.01);
+    }
+
+    @Test
+    void points_shouldWrapAndKeepOnlyCapacity() {
+        ThroughputSeries series = series();
+        for (long t = 0; t < 120_000; t += 10_000) {
+            series.record(t, 10, 0);
+        }
+
+        List<Point> points = series.points(115_000, false);
+        assertEquals(6, points.size());
+        assertEquals(60_000, points.get(0).timestampMs());
+        assertEquals(1.0, points.get(0).itemsPerSecond(), 0.01);
+        // 当前桶只经过 5 秒
+        assertEquals(2.0, points.get(5).itemsPerSecond(), 0.01);
+    }
+
+    @Test
+    void coarsePoints_shouldDownsample() {
+        ThroughputSeries series = series();
+        for (long t = 0; t < 120_000; t += 10_000) {
+            series.record(t, 10, 0);
+        }
+
+        List<Point> points = series.points(120_000, true);
+        assertEquals(3, points.size());
+        assertEquals(1.0, points.get(0).itemsPerSecond(), 0.01);
+    }
+}
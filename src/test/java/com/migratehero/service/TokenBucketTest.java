@@ -0,0 +1,50 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void reserve_shouldAllowBurstThenWait() {
+        TokenBucket bucket = new TokenBucket(1_000, 2, 0);
+
+        assertEquals(0, bucket.reserve(2_000, 0));
+        assertEquals(SECOND, bucket.reserve(1_000, 0));
+    }
+
+    @Test
+    void reserve_shouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(1_000, 1, 0);
+
+        assertEquals(0, bucket.reserve(1_000, 0));
+        assertEquals(0, bucket.reserve(500, SECOND / 2));
+    }
+
+    @Test
+    void reserve_shouldPassOversizedRequestAtRate() {
+        TokenBucket bucket = new TokenBucket(1_000, 1, 0);
+
+        assertEquals(4 * SECOND, bucket.reserve(5_000, 0));
+    }
+
+    @Test
+    void unlimited_shouldNeverWait() {
+        TokenBucket bucket = new TokenBucket(TokenBucket.UNLIMITED, 1, 0);
+
+        assertEquals(0, bucket.reserve(Long.MAX_VALUE / 2, 0));
+    }
+
+    @Test
+    void setRate_shouldApplyToFollowingReservations() {
+        TokenBucket bucket = new TokenBucket(1_000, 1, 0);
+        bucket.reserve(1_000, 0);
+
+        bucket.setRate(2_000, 0);
+        assertEquals(SECOND / 2, bucket.reserve(1_000, 0));
+    }
+}
@@ -0,0 +1,89 @@
+package com.migratehero.service;
+
+import com.migratehero.service.execution.WeightedFairQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedFairQueueTest {
+
+    private WeightedFairQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new WeightedFairQueue();
+    }
+
+    @Test
+    void pollEligible_shouldPreferSmallMailboxes() {
+        queue.enqueue(1L, "big.com", WeightedFairQueue.cost(1_000_000));
+        queue.enqueue(2L, "small.com", WeightedFairQueue.cost(100));
+
+        assertEquals(2L, queue.pollEligible(tenant -> true));
+        assertEquals(1L, queue.pollEligible(tenant -> true));
+        assertNull(queue.pollEligible(tenant -> true));
+    }
+
+    @Test
+    void pollEligible_shouldInterleaveTenants() {
+        queue.enqueue(1L, "a.com", 1.0);
+        queue.enqueue(2L, "a.com", 1.0);
+        queue.enqueue(3L, "a.com", 1.0);
+        queue.enqueue(4L, "b.com", 1.0);
+
+        assertEquals(1L, queue.pollEligible(tenant -> true));
+        assertEquals(4L, queue.pollEligible(tenant -> true));
+        assertEquals(2L, queue.pollEligible(tenant -> true));
+    }
+
+    @Test
+    void pollEligible_shouldSkipTenantsAtLimit() {
+        queue.enqueue(1L, "a.com", 1.0);
+        queue.enqueue(2L, "b.com", 5.0);
+
+        assertEquals(2L, queue.pollEligible(tenant -> !tenant.equals("a.com")));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void bigMailbox_shouldNotStarve() {
+        queue.enqueue(1L, "big.com", WeightedFairQueue.cost(1_000_000));
+
+        Long dispatched = null;
+        for (long i = 2; i < 100 && dispatched == null; i++) {
+            queue.enqueue(i, "tenant" + i + ".com", WeightedFairQueue.cost(50));
+            Long next = queue.pollEligible(tenant -> true);
+            if (next == 1L) {
+                dispatched = next;
+            }
+        }
+
+        assertEquals(1L, dispatched);
+    }
+
+    @Test
+    void position_shouldFollowFinishOrder() {
+        queue.enqueue(1L, "a.com", 3.0);
+        queue.enqueue(2L, "b.com", 1.0);
+
+        assertEquals(1, queue.position(2L));
+        assertEquals(2, queue.position(1L));
+        assertEquals(0, queue.position(99L));
+
+        assertTrue(queue.remove(2L));
+        assertEquals(1, queue.position(1L));
+    }
+
+    @Test
+    void restore_shouldKeepPersistedOrderAheadOfNewArrivals() {
+        queue.restore(1L, "a.com", 10.0);
+        queue.restore(2L, "b.com", 12.0);
+
+        queue.enqueue(3L, "c.com", 1.0);
+
+        assertEquals(1L, queue.pollEligible(tenant -> true));
+        assertEquals(3L, queue.pollEligible(tenant -> true));
+        assertEquals(2L, queue.pollEligible(tenant -> true));
+    }
+}